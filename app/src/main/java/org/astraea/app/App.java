@@ -25,6 +25,9 @@ import org.astraea.app.CleanCsv.CleanCsv;
 import org.astraea.app.automation.Automation;
 import org.astraea.app.backup.Exporter;
 import org.astraea.app.backup.Importer;
+import org.astraea.app.balancer.RecordCluster;
+import org.astraea.app.balancer.ReplayBalancer;
+import org.astraea.app.balancer.SynthesizeCluster;
 import org.astraea.app.performance.Performance;
 import org.astraea.app.scenario.ScenarioMain;
 import org.astraea.app.version.Version;
@@ -32,23 +35,18 @@ import org.astraea.app.web.WebService;
 
 public class App {
   private static final Map<String, Class<?>> MAIN_CLASSES =
-      Map.of(
-          "performance",
-          Performance.class,
-          "automation",
-          Automation.class,
-          "web",
-          WebService.class,
-          "scenario",
-          ScenarioMain.class,
-          "version",
-          Version.class,
-          "export",
-          Exporter.class,
-          "import",
-          Importer.class,
-          "clean-csv",
-          CleanCsv.class);
+      Map.ofEntries(
+          Map.entry("performance", Performance.class),
+          Map.entry("automation", Automation.class),
+          Map.entry("web", WebService.class),
+          Map.entry("scenario", ScenarioMain.class),
+          Map.entry("version", Version.class),
+          Map.entry("export", Exporter.class),
+          Map.entry("import", Importer.class),
+          Map.entry("clean-csv", CleanCsv.class),
+          Map.entry("record", RecordCluster.class),
+          Map.entry("replay", ReplayBalancer.class),
+          Map.entry("synthesize", SynthesizeCluster.class));
 
   static void execute(Map<String, Class<?>> mains, List<String> args) throws Throwable {
 
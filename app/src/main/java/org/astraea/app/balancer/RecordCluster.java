@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.balancer;
+
+import com.beust.jcommander.Parameter;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import org.astraea.common.Utils;
+import org.astraea.common.admin.Admin;
+import org.astraea.common.argument.DurationField;
+import org.astraea.common.argument.NonNegativeIntegerField;
+import org.astraea.common.argument.PathField;
+import org.astraea.common.argument.StringMapField;
+import org.astraea.common.balancer.replay.ClusterRecorder;
+import org.astraea.common.metrics.collector.MetricCollector;
+
+/**
+ * Record the {@link org.astraea.common.admin.ClusterInfo} and the metrics required by the cost
+ * functions of a live cluster. The recording is replayed by {@link ReplayBalancer}.
+ */
+public class RecordCluster extends org.astraea.common.argument.Argument {
+
+  @Parameter(
+      names = {"--output"},
+      description = "Path: the file to write the recording",
+      converter = PathField.class,
+      required = true)
+  Path output;
+
+  @Parameter(
+      names = {"--jmx.port"},
+      description = "Integer: the port to query JMX for each broker",
+      validateWith = NonNegativeIntegerField.class,
+      converter = NonNegativeIntegerField.class,
+      required = true)
+  int jmxPort;
+
+  @Parameter(
+      names = {"--costs"},
+      description =
+          "Map: the cost functions whose metrics are recorded. For example: org.astraea.common.cost.ReplicaSizeCost=1",
+      validateWith = StringMapField.class,
+      converter = StringMapField.class)
+  Map<String, String> costs =
+      Map.of(
+          "org.astraea.common.cost.ReplicaSizeCost",
+          "1",
+          "org.astraea.common.cost.ReplicaLeaderCost",
+          "1");
+
+  @Parameter(
+      names = {"--duration"},
+      description = "Duration: how long to record the cluster",
+      converter = DurationField.class)
+  Duration duration = Duration.ofMinutes(5);
+
+  @Parameter(
+      names = {"--snapshot.interval"},
+      description = "Duration: the interval of taking the cluster information",
+      converter = DurationField.class)
+  Duration snapshotInterval = Duration.ofMinutes(1);
+
+  @Parameter(
+      names = {"--metric.interval"},
+      description = "Duration: the interval of sampling the metrics",
+      converter = DurationField.class)
+  Duration metricInterval = Duration.ofSeconds(1);
+
+  public static void main(String[] args) {
+    org.astraea.common.argument.Argument.parse(new RecordCluster(), args).execute();
+  }
+
+  public void execute() {
+    var costFunction = ReplayBalancer.costFunction(costs);
+    try (var admin = Admin.of(configs());
+        var collector = MetricCollector.builder().interval(metricInterval).build();
+        var recorder = ClusterRecorder.of(output)) {
+      admin
+          .brokers()
+          .toCompletableFuture()
+          .join()
+          .forEach(
+              broker ->
+                  collector.registerJmx(
+                      broker.id(), InetSocketAddress.createUnresolved(broker.host(), jmxPort)));
+      costFunction.fetcher().ifPresent(collector::addFetcher);
+
+      var end = System.currentTimeMillis() + duration.toMillis();
+      var since = 0L;
+      var snapshots = 0;
+      while (true) {
+        var now = System.currentTimeMillis();
+        var clusterInfo =
+            admin
+                .topicNames(false)
+                .thenCompose(admin::clusterInfo)
+                .toCompletableFuture()
+                .join();
+        recorder.record(now, clusterInfo);
+        since = recorder.record(collector, since);
+        System.out.println(
+            "snapshot "
+                + ++snapshots
+                + ": "
+                + clusterInfo.nodes().size()
+                + " nodes, "
+                + clusterInfo.replicaStream().count()
+                + " replicas");
+        var remaining = end - System.currentTimeMillis();
+        if (remaining <= 0) break;
+        Utils.sleep(Duration.ofMillis(Math.min(remaining, snapshotInterval.toMillis())));
+      }
+      System.out.println("the recording is written to " + output);
+    }
+  }
+}
@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.balancer;
+
+import com.beust.jcommander.Parameter;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.astraea.common.Configuration;
+import org.astraea.common.Utils;
+import org.astraea.common.admin.ClusterBean;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.argument.DurationField;
+import org.astraea.common.argument.PathField;
+import org.astraea.common.argument.PositiveIntegerField;
+import org.astraea.common.argument.StringListField;
+import org.astraea.common.argument.StringMapField;
+import org.astraea.common.balancer.Balancer;
+import org.astraea.common.balancer.algorithms.AlgorithmConfig;
+import org.astraea.common.balancer.replay.ClusterRecording;
+import org.astraea.common.cost.ClusterCost;
+import org.astraea.common.cost.HasClusterCost;
+import org.astraea.common.cost.HasMoveCost;
+import org.astraea.common.cost.IncrementalClusterCost;
+import org.astraea.common.cost.ReplicaLeaderCost;
+import org.astraea.common.cost.ReplicaNumberCost;
+import org.astraea.common.cost.ReplicaSizeCost;
+import org.astraea.common.metrics.collector.Fetcher;
+
+/**
+ * Run the balancers against a recording written by {@link RecordCluster}. The balancers see the
+ * last recorded {@link ClusterInfo} and the metrics sampled before it, and they are seeded, so the
+ * same arguments always produce the same plans. It is used to tune the speed and the quality of
+ * balancers offline.
+ */
+public class ReplayBalancer {
+
+  private static final List<HasMoveCost> MOVE_COST_FUNCTIONS =
+      List.of(new ReplicaNumberCost(), new ReplicaLeaderCost(), new ReplicaSizeCost());
+
+  public static void main(String[] args) {
+    execute(org.astraea.common.argument.Argument.parse(new Argument(), args));
+  }
+
+  static List<Result> execute(Argument argument) {
+    var recording = ClusterRecording.read(argument.recording);
+    var snapshot =
+        recording.clusterInfos().stream()
+            .reduce((first, second) -> second)
+            .orElseThrow(() -> new IllegalArgumentException("there is no recorded cluster"));
+    var costFunction = costFunction(argument.costs);
+
+    System.out.printf(
+        "replay the cluster recorded at %d: %d nodes, %d replicas%n",
+        snapshot.getKey(),
+        snapshot.getValue().nodes().size(),
+        snapshot.getValue().replicaStream().count());
+    System.out.printf(
+        "%-20s %20s %16s %16s %12s %14s %12s%n",
+        "balancer",
+        "seed",
+        "initial cost",
+        "proposal cost",
+        "iterations",
+        "iterations/s",
+        "time(ms)");
+
+    var results = new ArrayList<Result>();
+    for (var alias : argument.balancers) {
+      var official = Balancer.Official.ofAlias(alias);
+      for (var seed : argument.seeds) {
+        var result =
+            replay(official, Long.parseLong(seed), argument, recording, snapshot, costFunction);
+        System.out.printf(
+            "%-20s %20d %16s %16s %12d %14.1f %12d%n",
+            official.alias(),
+            result.seed,
+            String.format("%.6f", result.initialCost),
+            result.proposalCost.map(c -> String.format("%.6f", c)).orElse("no plan"),
+            result.iterations,
+            result.iterations * 1000D / Math.max(1, result.wallTimeMs),
+            result.wallTimeMs);
+        results.add(result);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * @param costs the class names of cost functions and their weights
+   * @return the weighted sum of the cost functions. The costs are summed in fixed order, so the
+   *     total is the same in every run
+   */
+  @SuppressWarnings("unchecked")
+  static HasClusterCost costFunction(Map<String, String> costs) {
+    var config = Configuration.of(costs);
+    var costWeights = new LinkedHashMap<HasClusterCost, Double>();
+    new TreeMap<>(costs)
+        .forEach(
+            (name, weight) -> {
+              var theClass = Utils.packException(() -> Class.forName(name));
+              if (!HasClusterCost.class.isAssignableFrom(theClass))
+                throw new IllegalArgumentException(name + " is not a cluster cost function");
+              costWeights.put(
+                  Utils.construct((Class<HasClusterCost>) theClass, config),
+                  Double.parseDouble(weight));
+            });
+    return HasClusterCost.of(costWeights);
+  }
+
+  private static Result replay(
+      Balancer.Official official,
+      long seed,
+      Argument argument,
+      ClusterRecording recording,
+      Map.Entry<Long, ClusterInfo<Replica>> snapshot,
+      HasClusterCost costFunction) {
+    // every run gets a fresh collector, so the metric versions are the same in every run
+    try (var collector = recording.metricCollector()) {
+      collector.advance(snapshot.getKey() + 1);
+      var iterations = new LongAdder();
+      var counted =
+          new HasClusterCost() {
+            @Override
+            public ClusterCost clusterCost(
+                ClusterInfo<Replica> clusterInfo, ClusterBean clusterBean) {
+              iterations.increment();
+              return costFunction.clusterCost(clusterInfo, clusterBean);
+            }
+
+            // forward the incremental path, so the replay measures what the balancers really run
+            @Override
+            public Optional<IncrementalClusterCost> incrementalCost(
+                ClusterInfo<Replica> clusterInfo, ClusterBean clusterBean) {
+              return costFunction
+                  .incrementalCost(clusterInfo, clusterBean)
+                  .map(
+                      cost -> {
+                        iterations.increment();
+                        return counted(cost, iterations);
+                      });
+            }
+
+            @Override
+            public Optional<Fetcher> fetcher() {
+              return costFunction.fetcher();
+            }
+          };
+      var balancer =
+          official.create(
+              AlgorithmConfig.builder()
+                  .clusterCost(counted)
+                  .moveCost(MOVE_COST_FUNCTIONS)
+                  .metricSource(collector::clusterBean)
+                  .config("seed", String.valueOf(seed))
+                  .config("iteration", String.valueOf(argument.iteration))
+                  .build());
+      var initialCost =
+          costFunction.clusterCost(snapshot.getValue(), collector.clusterBean()).value();
+      var start = System.nanoTime();
+      var plan = balancer.offer(snapshot.getValue(), argument.timeout);
+      var wallTimeMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+      return new Result(
+          official,
+          seed,
+          initialCost,
+          plan.map(p -> p.proposalClusterCost().value()),
+          iterations.sum(),
+          wallTimeMs);
+    }
+  }
+
+  /** count each {@link IncrementalClusterCost#update} as an evaluated allocation */
+  private static IncrementalClusterCost counted(IncrementalClusterCost cost, LongAdder counter) {
+    return new IncrementalClusterCost() {
+      @Override
+      public ClusterCost clusterCost() {
+        return cost.clusterCost();
+      }
+
+      @Override
+      public IncrementalClusterCost update(
+          Collection<Replica> removedReplicas, Collection<Replica> addedReplicas) {
+        counter.increment();
+        return counted(cost.update(removedReplicas, addedReplicas), counter);
+      }
+    };
+  }
+
+  static class Result {
+    final Balancer.Official balancer;
+    final long seed;
+    final double initialCost;
+    final Optional<Double> proposalCost;
+    final long iterations;
+    final long wallTimeMs;
+
+    Result(
+        Balancer.Official balancer,
+        long seed,
+        double initialCost,
+        Optional<Double> proposalCost,
+        long iterations,
+        long wallTimeMs) {
+      this.balancer = balancer;
+      this.seed = seed;
+      this.initialCost = initialCost;
+      this.proposalCost = proposalCost;
+      this.iterations = iterations;
+      this.wallTimeMs = wallTimeMs;
+    }
+  }
+
+  public static class Argument {
+    @Parameter(
+        names = {"--recording"},
+        description = "Path: the file written by the cluster recorder",
+        converter = PathField.class,
+        required = true)
+    Path recording;
+
+    @Parameter(
+        names = {"--balancers"},
+        description =
+            "List<String>: the official balancers to run. For example: Greedy,SimulatedAnnealing",
+        validateWith = StringListField.class,
+        listConverter = StringListField.class)
+    List<String> balancers =
+        List.of(
+            Balancer.Official.Greedy.alias(), Balancer.Official.SimulatedAnnealing.alias());
+
+    @Parameter(
+        names = {"--seeds"},
+        description = "List<String>: the seeds of random generator. Each seed is a run",
+        validateWith = StringListField.class,
+        listConverter = StringListField.class)
+    List<String> seeds = List.of("0");
+
+    @Parameter(
+        names = {"--costs"},
+        description =
+            "Map: the cost functions and their weights. For example: org.astraea.common.cost.ReplicaSizeCost=1",
+        validateWith = StringMapField.class,
+        converter = StringMapField.class)
+    Map<String, String> costs =
+        Map.of(
+            "org.astraea.common.cost.ReplicaSizeCost",
+            "1",
+            "org.astraea.common.cost.ReplicaLeaderCost",
+            "1");
+
+    @Parameter(
+        names = {"--iteration"},
+        description = "Integer: the iterations of each run",
+        validateWith = PositiveIntegerField.class)
+    int iteration = 10000;
+
+    @Parameter(
+        names = {"--timeout"},
+        description = "Duration: the time limit of each run",
+        converter = DurationField.class)
+    Duration timeout = Duration.ofMinutes(1);
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.app.balancer;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import java.nio.file.Path;
+import org.astraea.common.DataSize;
+import org.astraea.common.DistributionType;
+import org.astraea.common.argument.Field;
+import org.astraea.common.argument.NonNegativeDoubleField;
+import org.astraea.common.argument.PathField;
+import org.astraea.common.argument.PositiveIntegerField;
+import org.astraea.common.balancer.replay.ClusterRecorder;
+import org.astraea.common.scenario.SyntheticCluster;
+
+/**
+ * Write a {@link SyntheticCluster} as a recording, so {@link ReplayBalancer} can run the balancers
+ * against a cluster which is much larger than the available hardware.
+ */
+public class SynthesizeCluster extends org.astraea.common.argument.Argument {
+
+  @Parameter(
+      names = {"--output"},
+      description = "Path: the file to write the recording",
+      converter = PathField.class,
+      required = true)
+  Path output;
+
+  @Parameter(
+      names = {"--brokers"},
+      description = "Integer: the number of brokers",
+      validateWith = PositiveIntegerField.class,
+      converter = PositiveIntegerField.class)
+  int brokers = 500;
+
+  @Parameter(
+      names = {"--folders"},
+      description = "Integer: the number of data folders of each broker",
+      validateWith = PositiveIntegerField.class,
+      converter = PositiveIntegerField.class)
+  int folders = 3;
+
+  @Parameter(
+      names = {"--topics"},
+      description = "Integer: the number of topics",
+      validateWith = PositiveIntegerField.class,
+      converter = PositiveIntegerField.class)
+  int topics = 1000;
+
+  @Parameter(
+      names = {"--partitions"},
+      description = "Integer: the number of partitions of each topic",
+      validateWith = PositiveIntegerField.class,
+      converter = PositiveIntegerField.class)
+  int partitions = 333;
+
+  @Parameter(
+      names = {"--replicas"},
+      description = "Integer: the replication factor of each topic",
+      validateWith = PositiveIntegerField.class,
+      converter = PositiveIntegerField.class)
+  int replicas = 3;
+
+  @Parameter(
+      names = {"--hot.brokers"},
+      description = "Integer: the number of brokers hosting the replicas. Default: all brokers",
+      validateWith = PositiveIntegerField.class,
+      converter = PositiveIntegerField.class)
+  Integer hotBrokers = null;
+
+  @Parameter(
+      names = {"--size"},
+      description = "DataSize: the max partition size. Default: 100GiB",
+      converter = DataSize.Field.class)
+  DataSize size = DataSize.GiB.of(100);
+
+  @Parameter(
+      names = {"--size.distribution"},
+      description =
+          "Distribution name of the partition sizes. Available distribution names: \"fixed\", \"uniform\", \"zipfian\". Default: zipfian",
+      converter = DistributionType.DistributionTypeField.class)
+  DistributionType sizeDistribution = DistributionType.ZIPFIAN;
+
+  @Parameter(
+      names = {"--throughput"},
+      description = "DataSize: the max partition write rate per second. Default: 10MiB",
+      converter = DataSize.Field.class)
+  DataSize throughput = DataSize.MiB.of(10);
+
+  @Parameter(
+      names = {"--throughput.distribution"},
+      description =
+          "Distribution name of the partition write rates. Available distribution names: \"fixed\", \"uniform\", \"zipfian\". Default: zipfian",
+      converter = DistributionType.DistributionTypeField.class)
+  DistributionType throughputDistribution = DistributionType.ZIPFIAN;
+
+  @Parameter(
+      names = {"--placement"},
+      description =
+          "Placement of the replicas. Available placements: \"random\", \"round_robin\", \"packed\". Default: random",
+      validateWith = PlacementField.class,
+      converter = PlacementField.class)
+  SyntheticCluster.Placement placement = SyntheticCluster.Placement.RANDOM;
+
+  @Parameter(
+      names = {"--leader.skew"},
+      description = "Double: the exponent of the Zipf distribution of leaders. Zero means even",
+      validateWith = NonNegativeDoubleField.class,
+      converter = NonNegativeDoubleField.class)
+  double leaderSkew = 0;
+
+  @Parameter(
+      names = {"--seed"},
+      description = "Long: the seed of randomness")
+  long seed = 0;
+
+  public static void main(String[] args) {
+    org.astraea.common.argument.Argument.parse(new SynthesizeCluster(), args).execute();
+  }
+
+  public void execute() {
+    var builder =
+        SyntheticCluster.builder()
+            .brokers(brokers)
+            .folders(folders)
+            .topics(topics)
+            .partitions(partitions)
+            .replicas(replicas)
+            .size(sizeDistribution, size.bytes())
+            .writeRate(throughputDistribution, throughput.bytes())
+            .placement(placement)
+            .leaderSkew(leaderSkew)
+            .seed(seed);
+    if (hotBrokers != null) builder.hotBrokers(hotBrokers);
+    var cluster = builder.build();
+    try (var recorder = ClusterRecorder.of(output)) {
+      var clusterInfo = cluster.clusterInfo();
+      recorder.record(System.currentTimeMillis(), clusterInfo);
+      cluster.clusterBean().all().forEach(recorder::record);
+      System.out.println(
+          "synthesized "
+              + clusterInfo.nodes().size()
+              + " nodes, "
+              + clusterInfo.replicaStream().count()
+              + " replicas");
+      System.out.println("the recording is written to " + output);
+    }
+  }
+
+  public static class PlacementField extends Field<SyntheticCluster.Placement> {
+    @Override
+    public SyntheticCluster.Placement convert(String value) {
+      return SyntheticCluster.Placement.valueOf(value.toUpperCase());
+    }
+
+    @Override
+    protected void check(String name, String value) throws ParameterException {
+      try {
+        convert(value);
+      } catch (IllegalArgumentException e) {
+        throw new ParameterException(
+            "field \"" + name + "\"'s value \"" + value + "\" is not a placement", e);
+      }
+    }
+  }
+}
@@ -18,14 +18,23 @@ package org.astraea.app.web;
 
 import com.google.gson.reflect.TypeToken;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
@@ -42,7 +51,6 @@ import org.astraea.common.Configuration;
 import org.astraea.common.DataSize;
 import org.astraea.common.Utils;
 import org.astraea.common.admin.Admin;
-import org.astraea.common.admin.ClusterBean;
 import org.astraea.common.admin.ClusterInfo;
 import org.astraea.common.admin.NodeInfo;
 import org.astraea.common.admin.Replica;
@@ -53,6 +61,7 @@ import org.astraea.common.balancer.algorithms.AlgorithmConfig;
 import org.astraea.common.balancer.algorithms.GreedyBalancer;
 import org.astraea.common.balancer.executor.RebalancePlanExecutor;
 import org.astraea.common.balancer.executor.StraightPlanExecutor;
+import org.astraea.common.balancer.log.ClusterLogAllocation;
 import org.astraea.common.cost.HasClusterCost;
 import org.astraea.common.cost.HasMoveCost;
 import org.astraea.common.cost.MoveCost;
@@ -75,8 +84,12 @@ class BalancerHandler implements Handler {
 
   static final String BALANCER_CONFIGURATION_KEY = "balancer-config";
 
+  static final String PLAN_CACHE_WINDOW_KEY = "plan-cache-window";
+
   static final int TIMEOUT_DEFAULT = 3;
   static final String BALANCER_IMPLEMENTATION_DEFAULT = GreedyBalancer.class.getName();
+  static final int PLAN_CACHE_SIZE = 16;
+  static final Duration PLAN_CACHE_WINDOW_DEFAULT = Duration.ofMinutes(1);
   static final HasClusterCost DEFAULT_CLUSTER_COST_FUNCTION =
       HasClusterCost.of(Map.of(new ReplicaSizeCost(), 1.0, new ReplicaLeaderCost(), 1.0));
   static final List<HasMoveCost> DEFAULT_MOVE_COST_FUNCTIONS =
@@ -90,6 +103,33 @@ class BalancerHandler implements Handler {
   private final Executor schedulingExecutor = Executors.newSingleThreadExecutor();
   private final Function<Integer, Optional<Integer>> jmxPortMapper;
   private final Duration sampleInterval = Duration.ofSeconds(1);
+  // the sampled metrics are kept across the plan generations and the restarts
+  private final Optional<Path> metricJournal;
+  // the collector shared by the plan generations. It is created by the first request which needs
+  // metrics, and it is guarded by "this"
+  private MetricCollector collector;
+  // the cost weights whose fetchers are registered to the collector. It is guarded by "this"
+  private final Set<String> registeredCosts = new HashSet<>();
+  // the plan generations keyed by the fingerprint of the request and the cluster
+  private final Map<String, CompletableFuture<PlanInfo>> planCache =
+      Collections.synchronizedMap(
+          new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(
+                Map.Entry<String, CompletableFuture<PlanInfo>> eldest) {
+              return size() > PLAN_CACHE_SIZE;
+            }
+          });
+  // the best proposal of the latest generation of each request. The next search of the same
+  // request warm-starts from it
+  private final Map<String, ClusterLogAllocation> lastProposals =
+      Collections.synchronizedMap(
+          new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ClusterLogAllocation> eldest) {
+              return size() > PLAN_CACHE_SIZE;
+            }
+          });
 
   BalancerHandler(Admin admin) {
     this(admin, (ignore) -> Optional.empty(), new StraightPlanExecutor());
@@ -103,13 +143,29 @@ class BalancerHandler implements Handler {
     this(admin, (ignore) -> Optional.empty(), executor);
   }
 
+  BalancerHandler(
+      Admin admin,
+      Function<Integer, Optional<Integer>> jmxPortMapper,
+      Optional<Path> metricJournal) {
+    this(admin, jmxPortMapper, new StraightPlanExecutor(), metricJournal);
+  }
+
   BalancerHandler(
       Admin admin,
       Function<Integer, Optional<Integer>> jmxPortMapper,
       RebalancePlanExecutor executor) {
+    this(admin, jmxPortMapper, executor, Optional.empty());
+  }
+
+  BalancerHandler(
+      Admin admin,
+      Function<Integer, Optional<Integer>> jmxPortMapper,
+      RebalancePlanExecutor executor,
+      Optional<Path> metricJournal) {
     this.admin = admin;
     this.jmxPortMapper = jmxPortMapper;
     this.executor = executor;
+    this.metricJournal = metricJournal;
   }
 
   @Override
@@ -153,7 +209,7 @@ class BalancerHandler implements Handler {
         admin
             .topicNames(false)
             .thenCompose(admin::clusterInfo)
-            .thenApply(
+            .thenCompose(
                 currentClusterInfo -> {
                   var request = parsePostRequest(channel, currentClusterInfo);
                   var fetchers =
@@ -168,53 +224,38 @@ class BalancerHandler implements Handler {
                               request.configBuilder.get().build().moveCostFunctions().stream()
                                   .flatMap(c -> c.fetcher().stream()))
                           .collect(Collectors.toUnmodifiableList());
-                  var bestPlan =
-                      metricContext(
-                          fetchers,
-                          (metricSource) ->
-                              Balancer.create(
-                                      request.balancerClasspath,
-                                      request
-                                          .configBuilder
-                                          .get()
-                                          .metricSource(metricSource)
-                                          .build())
-                                  .retryOffer(currentClusterInfo, request.executionTime));
-                  var changes =
-                      bestPlan
-                          .map(
-                              p ->
-                                  ClusterInfo.findNonFulfilledAllocation(
-                                          currentClusterInfo, p.proposal())
-                                      .stream()
-                                      .map(
-                                          tp ->
-                                              new Change(
-                                                  tp.topic(),
-                                                  tp.partition(),
-                                                  // only log the size from source replicas
-                                                  currentClusterInfo.replicas(tp).stream()
-                                                      .map(r -> new Placement(r, r.size()))
-                                                      .collect(Collectors.toList()),
-                                                  p.proposal().replicas(tp).stream()
-                                                      .map(r -> new Placement(r, null))
-                                                      .collect(Collectors.toList())))
-                                      .collect(Collectors.toUnmodifiableList()))
-                          .orElse(List.of());
-                  var report =
-                      new Report(
-                          bestPlan.map(p -> p.initialClusterCost().value()).orElse(null),
-                          bestPlan.map(p -> p.proposalClusterCost().value()).orElse(null),
-                          request.configBuilder.get().build().clusterCostFunction().toString(),
-                          changes,
-                          bestPlan
-                              .map(
-                                  p ->
-                                      p.moveCost().stream()
-                                          .map(MigrationCost::new)
-                                          .collect(Collectors.toList()))
-                              .orElseGet(List::of));
-                  return new PlanInfo(report, bestPlan);
+                  var metricSource =
+                      fetchers.isEmpty()
+                          ? Optional.<MetricCollector>empty()
+                          : Optional.of(
+                              collector(
+                                  channel.request().raw().getOrDefault(COST_WEIGHT_KEY, ""),
+                                  fetchers));
+                  // the plan is reused if neither the request nor the placement is changed. The
+                  // metrics of a live cluster change on every sample, so the plan is reused in
+                  // the same window of metrics
+                  var fingerprint =
+                      fingerprint(
+                          channel.request().raw(),
+                          currentClusterInfo,
+                          metricSource.isEmpty()
+                              ? 0
+                              : metricWindow(System.currentTimeMillis(), request.planCacheWindow));
+                  var generation = new CompletableFuture<PlanInfo>();
+                  var cached = planCache.putIfAbsent(fingerprint, generation);
+                  if (cached != null) return cached;
+                  try {
+                    generation.complete(
+                        generate(
+                            request,
+                            requestKey(channel.request().raw()),
+                            metricSource,
+                            currentClusterInfo));
+                  } catch (RuntimeException e) {
+                    planCache.remove(fingerprint, generation);
+                    generation.completeExceptionally(e);
+                  }
+                  return generation;
                 })
             .whenComplete(
                 (result, error) -> {
@@ -226,16 +267,116 @@ class BalancerHandler implements Handler {
     return CompletableFuture.completedFuture(new PostPlanResponse(newPlanId));
   }
 
-  private Optional<Balancer.Plan> metricContext(
-      Collection<Fetcher> fetchers,
-      Function<Supplier<ClusterBean>, Optional<Balancer.Plan>> execution) {
-    // TODO: use a global metric collector when we are ready to enable long-run metric sampling
-    //  https://github.com/skiptests/astraea/pull/955#discussion_r1026491162
-    try (var collector = MetricCollector.builder().interval(sampleInterval).build()) {
-      freshJmxAddresses().forEach(collector::registerJmx);
-      fetchers.forEach(collector::addFetcher);
-      return execution.apply(collector::clusterBean);
+  private PlanInfo generate(
+      PostRequest request,
+      String requestKey,
+      Optional<MetricCollector> metricSource,
+      ClusterInfo<Replica> currentClusterInfo) {
+    var builder = request.configBuilder.get();
+    metricSource.ifPresent(collector -> builder.metricSource(collector::clusterBean));
+    Optional.ofNullable(lastProposals.get(requestKey)).ifPresent(builder::warmStart);
+    var bestPlan =
+        Balancer.create(request.balancerClasspath, builder.build())
+            .retryOffer(currentClusterInfo, request.executionTime);
+    bestPlan.ifPresent(p -> lastProposals.put(requestKey, p.proposal()));
+    var changes =
+        bestPlan
+            .map(
+                p ->
+                    ClusterInfo.findNonFulfilledAllocation(currentClusterInfo, p.proposal())
+                        .stream()
+                        .map(
+                            tp ->
+                                new Change(
+                                    tp.topic(),
+                                    tp.partition(),
+                                    // only log the size from source replicas
+                                    currentClusterInfo.replicas(tp).stream()
+                                        .map(r -> new Placement(r, r.size()))
+                                        .collect(Collectors.toList()),
+                                    p.proposal().replicas(tp).stream()
+                                        .map(r -> new Placement(r, null))
+                                        .collect(Collectors.toList())))
+                        .collect(Collectors.toUnmodifiableList()))
+            .orElse(List.of());
+    var report =
+        new Report(
+            bestPlan.map(p -> p.initialClusterCost().value()).orElse(null),
+            bestPlan.map(p -> p.proposalClusterCost().value()).orElse(null),
+            request.configBuilder.get().build().clusterCostFunction().toString(),
+            changes,
+            bestPlan
+                .map(
+                    p -> p.moveCost().stream().map(MigrationCost::new).collect(Collectors.toList()))
+                .orElseGet(List::of));
+    return new PlanInfo(report, bestPlan);
+  }
+
+  /**
+   * @return the fingerprint of a plan generation. It consists of the request, the placement of
+   *     replicas and the window of metrics. The size of replicas is excluded since it is changed
+   *     by every write.
+   */
+  // visible for test
+  static String fingerprint(
+      Map<String, String> request, ClusterInfo<Replica> clusterInfo, long metricWindow) {
+    // the replicas are sorted, so the digest is independent of the order of replicas
+    var digest = Utils.packException(() -> MessageDigest.getInstance("SHA-256"));
+    clusterInfo
+        .replicaStream()
+        .map(
+            r ->
+                String.join(
+                    ",",
+                    r.topic(),
+                    String.valueOf(r.partition()),
+                    String.valueOf(r.nodeInfo().id()),
+                    String.valueOf(r.path()),
+                    String.valueOf(r.isLeader()),
+                    String.valueOf(r.isPreferredLeader())))
+        .sorted()
+        .forEach(r -> digest.update((r + "\n").getBytes(StandardCharsets.UTF_8)));
+    return requestKey(request)
+        + "/"
+        + metricWindow
+        + "/"
+        + Base64.getEncoder().encodeToString(digest.digest());
+  }
+
+  /**
+   * @return the index of the window which the time is in. The metrics sampled in the same window
+   *     are considered as the same metrics.
+   */
+  // visible for test
+  static long metricWindow(long timeMs, Duration window) {
+    return timeMs / window.toMillis();
+  }
+
+  /**
+   * @return the key of the request. It is independent of the order of the request arguments.
+   */
+  private static String requestKey(Map<String, String> request) {
+    return new TreeMap<>(request).toString();
+  }
+
+  /**
+   * @param costKey the cost weights of the request. The fetchers are registered once for each cost
+   *     weights, so the repeated requests don't pile up the fetchers.
+   * @return the shared collector which samples the metrics of the fetchers from the current
+   *     brokers
+   */
+  private synchronized MetricCollector collector(String costKey, List<Fetcher> fetchers) {
+    if (collector == null) {
+      var builder = MetricCollector.builder().interval(sampleInterval);
+      metricJournal.ifPresent(builder::journal);
+      collector = builder.build();
     }
+    var identities = collector.listIdentities();
+    freshJmxAddresses().entrySet().stream()
+        .filter(e -> !identities.contains(e.getKey()))
+        .forEach(e -> collector.registerJmx(e.getKey(), e.getValue()));
+    if (registeredCosts.add(costKey)) fetchers.forEach(collector::addFetcher);
+    return collector;
   }
 
   // visible for test
@@ -284,6 +425,12 @@ class BalancerHandler implements Handler {
             .get(TIMEOUT_KEY)
             .map(Utils::toDuration)
             .orElse(Duration.ofSeconds(TIMEOUT_DEFAULT));
+    var planCacheWindow =
+        channel
+            .request()
+            .get(PLAN_CACHE_WINDOW_KEY)
+            .map(Utils::toDuration)
+            .orElse(PLAN_CACHE_WINDOW_DEFAULT);
     var topics =
         channel
             .request()
@@ -301,10 +448,14 @@ class BalancerHandler implements Handler {
     if (timeout.isZero() || timeout.isNegative())
       throw new IllegalArgumentException(
           "Illegal timeout, value should be positive integer: " + timeout.getSeconds());
+    if (planCacheWindow.toMillis() <= 0)
+      throw new IllegalArgumentException(
+          "Illegal plan cache window, value should be positive: " + planCacheWindow);
 
     return new PostRequest(
         balancerClasspath,
         timeout,
+        planCacheWindow,
         () ->
             AlgorithmConfig.builder()
                 .clusterCost(clusterCostFunction)
@@ -504,14 +655,17 @@ class BalancerHandler implements Handler {
   static class PostRequest {
     final String balancerClasspath;
     final Duration executionTime;
+    final Duration planCacheWindow;
     final Supplier<AlgorithmConfig.Builder> configBuilder;
 
     PostRequest(
         String balancerClasspath,
         Duration executionTime,
+        Duration planCacheWindow,
         Supplier<AlgorithmConfig.Builder> configBuilder) {
       this.balancerClasspath = balancerClasspath;
       this.executionTime = executionTime;
+      this.planCacheWindow = planCacheWindow;
       this.configBuilder = configBuilder;
     }
   }
@@ -21,12 +21,14 @@ import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.function.Function;
 import org.astraea.common.admin.Admin;
 import org.astraea.common.argument.NonNegativeIntegerField;
+import org.astraea.common.argument.PathField;
 import org.astraea.common.argument.StringMapField;
 
 public class WebService {
@@ -49,7 +51,12 @@ public class WebService {
         "/records", to(new RecordHandler(Admin.of(arg.configs()), arg.bootstrapServers())));
     server.createContext("/reassignments", to(new ReassignmentHandler(Admin.of(arg.configs()))));
     server.createContext(
-        "/balancer", to(new BalancerHandler(Admin.of(arg.configs()), arg.brokerJmxPorts())));
+        "/balancer",
+        to(
+            new BalancerHandler(
+                Admin.of(arg.configs()),
+                arg.brokerJmxPorts(),
+                Optional.ofNullable(arg.metricJournal))));
     server.createContext("/throttles", to(new ThrottleHandler(Admin.of(arg.configs()))));
     server.start();
   }
@@ -88,6 +95,13 @@ public class WebService {
         converter = StringMapField.class)
     Map<String, String> brokerJmxPorts = Map.of();
 
+    @Parameter(
+        names = {"--metric.journal"},
+        description =
+            "Path: the folder to persist the sampled metrics. The balancer reloads the recent metrics from it after restart",
+        converter = PathField.class)
+    Path metricJournal = null;
+
     boolean needJmx() {
       return jmxPort > 0 || !jmxPorts.isEmpty();
     }
@@ -193,6 +193,99 @@ public class BalancerHandlerTest extends RequireBrokerCluster {
     }
   }
 
+  @Test
+  @Timeout(value = 60)
+  void testPlanCache() {
+    var topics = createAndProduceTopic(3);
+    try (var admin = Admin.of(bootstrapServers())) {
+      var handler = new BalancerHandler(admin);
+      var request =
+          Map.<String, Object>of(
+              BalancerHandler.TOPICS_KEY,
+              String.join(",", topics),
+              BalancerHandler.COST_WEIGHT_KEY,
+              defaultDecreasing);
+      var plan0 = submitPlanGeneration(handler, request);
+      var plan1 = submitPlanGeneration(handler, request);
+      Assertions.assertNotEquals(plan0.id, plan1.id);
+      Assertions.assertSame(plan0.report, plan1.report, "nothing is changed");
+
+      var plan2 =
+          submitPlanGeneration(
+              handler,
+              Map.of(
+                  BalancerHandler.TOPICS_KEY,
+                  topics.get(0),
+                  BalancerHandler.COST_WEIGHT_KEY,
+                  defaultDecreasing));
+      Assertions.assertNotSame(plan0.report, plan2.report, "the request is changed");
+
+      var clusterInfo = admin.clusterInfo(Set.copyOf(topics)).toCompletableFuture().join();
+      var replicas = new ArrayList<>(clusterInfo.replicas());
+      Collections.reverse(replicas);
+      Assertions.assertEquals(
+          BalancerHandler.fingerprint(Map.of(), clusterInfo, 0),
+          BalancerHandler.fingerprint(Map.of(), ClusterInfo.of(clusterInfo.nodes(), replicas), 0),
+          "the order of replicas doesn't matter");
+      Assertions.assertNotEquals(
+          BalancerHandler.fingerprint(Map.of(), clusterInfo, 0),
+          BalancerHandler.fingerprint(Map.of(), clusterInfo, 1),
+          "the window of metrics is changed");
+      Assertions.assertNotEquals(
+          BalancerHandler.fingerprint(Map.of(), clusterInfo, 0),
+          BalancerHandler.fingerprint(
+              Map.of(),
+              ClusterInfo.of(clusterInfo.nodes(), replicas.subList(1, replicas.size())),
+              0),
+          "the placement is changed");
+      var grown =
+          replicas.stream()
+              .map(r -> Replica.builder(r).size(r.size() + 1).build())
+              .collect(Collectors.toUnmodifiableList());
+      Assertions.assertEquals(
+          BalancerHandler.fingerprint(Map.of(), clusterInfo, 0),
+          BalancerHandler.fingerprint(Map.of(), ClusterInfo.of(clusterInfo.nodes(), grown), 0),
+          "the size is not a part of the placement");
+    }
+  }
+
+  @Test
+  void testPlanCacheWindow() {
+    var window = Duration.ofSeconds(30);
+    var start = BalancerHandler.metricWindow(0, window);
+    // the metrics are sampled every second, and the samples of a window share the plan
+    Assertions.assertEquals(start, BalancerHandler.metricWindow(1000, window));
+    Assertions.assertEquals(start, BalancerHandler.metricWindow(29_999, window));
+    Assertions.assertNotEquals(start, BalancerHandler.metricWindow(30_000, window));
+
+    var node = NodeInfo.of(1, "host", 9092);
+    var clusterInfo =
+        ClusterInfo.of(
+            Set.of(node),
+            List.of(
+                Replica.builder()
+                    .topic("topic")
+                    .partition(0)
+                    .nodeInfo(node)
+                    .isLeader(true)
+                    .path("/tmp/a")
+                    .build()));
+    Assertions.assertEquals(
+        BalancerHandler.fingerprint(Map.of(), clusterInfo, start),
+        BalancerHandler.fingerprint(
+            Map.of(), clusterInfo, BalancerHandler.metricWindow(29_999, window)),
+        "the metrics are changed in the same window");
+
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            BalancerHandler.parsePostRequest(
+                Channel.ofRequest(
+                    PostRequest.of(Map.of(BalancerHandler.PLAN_CACHE_WINDOW_KEY, "0s"))),
+                clusterInfo),
+        "Non-positive window");
+  }
+
   private static List<String> createAndProduceTopic(int topicCount) {
     try (var admin = Admin.of(bootstrapServers())) {
       var topics =
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measure the samplers of {@link DistributionType}. The performance tool draws a key and a value
+ * size for each record, so the samplers are on the path of every record it sends.
+ *
+ * <pre>{@code
+ * ./gradlew common:jmh -PjmhIncludes=DistributionTypeBenchmark
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DistributionTypeBenchmark {
+
+  @Param({"FIXED", "UNIFORM", "LATEST", "ZIPFIAN"})
+  public DistributionType type;
+
+  /** the number of the values the sampler draws from */
+  @Param({"100", "10000"})
+  public int n;
+
+  private Supplier<Long> sampler;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    sampler = type.create(n);
+  }
+
+  @Benchmark
+  public Long sample() {
+    return sampler.get();
+  }
+
+  @Benchmark
+  public Supplier<Long> create() {
+    return type.create(n);
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.admin;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.astraea.common.DistributionType;
+import org.astraea.common.scenario.SyntheticCluster;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measure the building of the indexes of {@link ClusterInfo.Optimized} and {@link
+ * ColumnarClusterInfo}. The indexes are lazy, so each benchmark creates a new {@link ClusterInfo}
+ * and runs the first query of an index.
+ *
+ * <pre>{@code
+ * ./gradlew common:jmh -PjmhIncludes=ClusterInfoBenchmark
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ClusterInfoBenchmark {
+
+  @Param({"10", "100"})
+  public int brokers;
+
+  @Param({"100"})
+  public int topics;
+
+  @Param({"10", "100"})
+  public int partitions;
+
+  @Param({"3"})
+  public int replicas;
+
+  @Param({"optimized", "columnar"})
+  public String layout;
+
+  private ClusterInfo<Replica> origin;
+  private List<Replica> all;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    origin =
+        SyntheticCluster.builder()
+            .brokers(brokers)
+            .folders(3)
+            .topics(topics)
+            .partitions(partitions)
+            .replicas(replicas)
+            .size(DistributionType.UNIFORM, 100_000)
+            .placement(SyntheticCluster.Placement.ROUND_ROBIN)
+            .build()
+            .clusterInfo();
+    all = origin.replicas();
+  }
+
+  private ClusterInfo<Replica> create() {
+    return layout.equals("columnar")
+        ? ColumnarClusterInfo.of(origin.nodes(), all)
+        : ClusterInfo.of(origin.nodes(), all);
+  }
+
+  @Benchmark
+  public Object byTopic() {
+    return create().replicas("topic-0");
+  }
+
+  @Benchmark
+  public Object byPartition() {
+    return create().replicas(TopicPartition.of("topic-0", 0));
+  }
+
+  @Benchmark
+  public Object byReplica() {
+    return create().replicaStream(TopicPartitionReplica.of("topic-0", 0, 0)).findFirst();
+  }
+
+  @Benchmark
+  public Object byBroker() {
+    return create().replicaStream(0).count();
+  }
+
+  @Benchmark
+  public Object byBrokerTopic() {
+    return create().replicaStream(0, "topic-0").count();
+  }
+}
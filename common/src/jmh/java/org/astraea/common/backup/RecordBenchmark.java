@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.backup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.astraea.common.Header;
+import org.astraea.common.consumer.Record;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measure the encoding of {@link RecordWriter} and the decoding of {@link RecordReader} (version
+ * 0). The records are written to and read from memory, so the benchmark excludes the disk.
+ *
+ * <pre>{@code
+ * ./gradlew common:jmh -PjmhIncludes=RecordBenchmark
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecordBenchmark {
+
+  @Param({"1000"})
+  public int records;
+
+  @Param({"100", "10000"})
+  public int valueSize;
+
+  @Param({"0", "5"})
+  public int headers;
+
+  private List<Record<byte[], byte[]>> data;
+  private byte[] encoded;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    var value = new byte[valueSize];
+    data =
+        IntStream.range(0, records)
+            .mapToObj(
+                i ->
+                    Record.builder()
+                        .topic("topic")
+                        .partition(i % 10)
+                        .offset(i)
+                        .timestamp(System.currentTimeMillis())
+                        .key(String.valueOf(i).getBytes())
+                        .value(value)
+                        .headers(
+                            IntStream.range(0, headers)
+                                .mapToObj(h -> Header.of("header-" + h, new byte[10]))
+                                .collect(Collectors.toUnmodifiableList()))
+                        .build())
+            .collect(Collectors.toUnmodifiableList());
+    encoded = write().toByteArray();
+  }
+
+  @Benchmark
+  public ByteArrayOutputStream write() {
+    var output = new ByteArrayOutputStream();
+    var writer = RecordWriter.builder(output).build();
+    data.forEach(writer::append);
+    writer.close();
+    return output;
+  }
+
+  @Benchmark
+  public int read() {
+    var reader = RecordReader.builder(new ByteArrayInputStream(encoded)).build();
+    var count = 0;
+    while (reader.hasNext()) {
+      reader.next();
+      count++;
+    }
+    return count;
+  }
+}
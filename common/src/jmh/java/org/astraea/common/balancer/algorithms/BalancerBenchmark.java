@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.algorithms;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.astraea.common.DistributionType;
+import org.astraea.common.admin.ClusterBean;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.balancer.Balancer;
+import org.astraea.common.balancer.replay.ClusterRecording;
+import org.astraea.common.cost.HasClusterCost;
+import org.astraea.common.cost.ReplicaLeaderCost;
+import org.astraea.common.cost.ReplicaSizeCost;
+import org.astraea.common.scenario.SyntheticCluster;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compare the plans of the balancers within the same time budget. Each invocation offers a plan
+ * with a new seed, and {@code cost} is the cost of the proposal (lower is better). The cluster is a
+ * synthetic skewed cluster, or the last snapshot of a recording written by {@code RecordCluster}.
+ *
+ * <pre>{@code
+ * ./gradlew common:jmh -PjmhIncludes=BalancerBenchmark
+ * # replay a recording
+ * ./gradlew common:jmhJar
+ * java -jar common/build/libs/astraea-common-*-jmh.jar BalancerBenchmark -p recording=<file>
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BalancerBenchmark {
+
+  @Param({"Greedy", "SimulatedAnnealing"})
+  public Balancer.Official balancer;
+
+  @Param({"3000"})
+  public long timeoutMs;
+
+  /** the recording to replay. The synthetic cluster is used if it is empty */
+  @Param({""})
+  public String recording;
+
+  @Param({"10"})
+  public int brokers;
+
+  /** the brokers hosting the replicas of the synthetic cluster */
+  @Param({"3"})
+  public int hotBrokers;
+
+  @Param({"100"})
+  public int topics;
+
+  @Param({"10"})
+  public int partitions;
+
+  private ClusterInfo<Replica> clusterInfo;
+  private Supplier<ClusterBean> metricSource;
+  private HasClusterCost costFunction;
+  private long seed = 0;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Result {
+    public double cost;
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    if (recording.isEmpty()) {
+      clusterInfo =
+          SyntheticCluster.builder()
+              .brokers(brokers)
+              .hotBrokers(hotBrokers)
+              .folders(3)
+              .topics(topics)
+              .partitions(partitions)
+              .replicas(2)
+              .size(DistributionType.UNIFORM, 100_000)
+              .placement(SyntheticCluster.Placement.ROUND_ROBIN)
+              .build()
+              .clusterInfo();
+      metricSource = () -> ClusterBean.EMPTY;
+    } else {
+      var replay = ClusterRecording.read(Path.of(recording));
+      var snapshot = replay.clusterInfos().get(replay.clusterInfos().size() - 1);
+      var collector = replay.metricCollector();
+      collector.advance(snapshot.getKey() + 1);
+      clusterInfo = snapshot.getValue();
+      metricSource = collector::clusterBean;
+    }
+    costFunction =
+        HasClusterCost.of(Map.of(new ReplicaLeaderCost(), 1D, new ReplicaSizeCost(), 1D));
+  }
+
+  @Benchmark
+  public Object offer(Result result) {
+    var plan =
+        balancer
+            .create(
+                AlgorithmConfig.builder()
+                    .clusterCost(costFunction)
+                    .metricSource(metricSource)
+                    .config("seed", String.valueOf(seed++))
+                    .build())
+            .offer(clusterInfo, Duration.ofMillis(timeoutMs));
+    result.cost =
+        plan.map(p -> p.proposalClusterCost().value())
+            .orElseGet(() -> costFunction.clusterCost(clusterInfo, metricSource.get()).value());
+    return plan;
+  }
+}
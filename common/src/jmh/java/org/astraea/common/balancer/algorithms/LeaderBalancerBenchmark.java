@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.algorithms;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.astraea.common.DistributionType;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.balancer.Balancer;
+import org.astraea.common.cost.ReplicaLeaderCost;
+import org.astraea.common.scenario.SyntheticCluster;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measure the time {@link LeaderBalancer} takes to offer a plan. The preferred leader of each
+ * partition is the replica on the broker having the smallest id, so the leaders are skewed.
+ *
+ * <pre>{@code
+ * ./gradlew common:jmh -PjmhIncludes=LeaderBalancerBenchmark
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LeaderBalancerBenchmark {
+
+  @Param({"30"})
+  public int brokers;
+
+  @Param({"100", "1000"})
+  public int topics;
+
+  @Param({"100"})
+  public int partitions;
+
+  private ClusterInfo<Replica> clusterInfo;
+  private Balancer balancer;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    var cluster =
+        SyntheticCluster.builder()
+            .brokers(brokers)
+            .folders(1)
+            .topics(topics)
+            .partitions(partitions)
+            .replicas(3)
+            .size(DistributionType.UNIFORM, 100_000)
+            .placement(SyntheticCluster.Placement.ROUND_ROBIN)
+            .build()
+            .clusterInfo();
+    clusterInfo =
+        ClusterInfo.of(
+            cluster.nodes(),
+            cluster.topicPartitions().stream()
+                .flatMap(
+                    tp -> {
+                      var leader =
+                          cluster.replicas(tp).stream()
+                              .mapToInt(r -> r.nodeInfo().id())
+                              .min()
+                              .orElseThrow();
+                      return cluster.replicas(tp).stream()
+                          .map(
+                              r ->
+                                  Replica.builder(r)
+                                      .isLeader(r.nodeInfo().id() == leader)
+                                      .isPreferredLeader(r.nodeInfo().id() == leader)
+                                      .build());
+                    })
+                .collect(Collectors.toUnmodifiableList()));
+    balancer =
+        Balancer.create(
+            LeaderBalancer.class,
+            AlgorithmConfig.builder().clusterCost(new ReplicaLeaderCost()).build());
+  }
+
+  @Benchmark
+  public Object offer() {
+    return balancer.offer(clusterInfo, Duration.ofSeconds(10));
+  }
+}
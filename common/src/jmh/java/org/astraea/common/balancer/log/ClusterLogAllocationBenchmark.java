@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.log;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.NodeInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicPartitionReplica;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compare a tweak of {@link ClusterLogAllocation} with rebuilding the whole replica list, which is
+ * what {@link ClusterLogAllocation#migrateReplica(TopicPartitionReplica, int, String)} did before
+ * the allocation was structurally shared. Run it with the gc profiler to see the allocation of a
+ * tweak ({@code gc.alloc.rate.norm}).
+ *
+ * <pre>{@code
+ * ./gradlew common:jmh -PjmhIncludes=ClusterLogAllocationBenchmark -PjmhProfilers=gc
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ClusterLogAllocationBenchmark {
+
+  @Param({"30"})
+  public int brokers;
+
+  @Param({"10000", "100000"})
+  public int partitions;
+
+  /** the steps of a tweak. {@link org.astraea.common.balancer.tweakers.ShuffleTweaker} uses 1~30 */
+  @Param({"1", "30"})
+  public int steps;
+
+  private ClusterLogAllocation allocation;
+  private int next = 0;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    var nodes =
+        IntStream.range(0, brokers)
+            .mapToObj(id -> NodeInfo.of(id, "host" + id, 9092))
+            .collect(Collectors.toUnmodifiableList());
+    var replicas =
+        IntStream.range(0, partitions)
+            .boxed()
+            .flatMap(
+                p ->
+                    IntStream.range(0, 3)
+                        .mapToObj(
+                            r ->
+                                Replica.builder()
+                                    .topic("topic-" + p % 100)
+                                    .partition(p / 100)
+                                    .nodeInfo(nodes.get((p + r) % brokers))
+                                    .size(1000)
+                                    .isLeader(r == 0)
+                                    .isPreferredLeader(r == 0)
+                                    .inSync(true)
+                                    .path("/data")
+                                    .build()))
+            .collect(Collectors.toUnmodifiableList());
+    allocation = ClusterLogAllocation.of(ClusterInfo.of(Set.copyOf(nodes), replicas));
+  }
+
+  @Benchmark
+  public ClusterLogAllocation tweak() {
+    var current = allocation;
+    for (var i = 0; i < steps; i++) {
+      var p = next++ % partitions;
+      current = current.migrateReplica(source(p), (p + 3) % brokers, "/data");
+    }
+    return current;
+  }
+
+  @Benchmark
+  public ClusterLogAllocation rebuild() {
+    var current = allocation;
+    for (var i = 0; i < steps; i++) {
+      var p = next++ % partitions;
+      var theReplica = current.replica(source(p)).orElseThrow();
+      var newReplica =
+          Replica.builder(theReplica).nodeInfo(current.node((p + 3) % brokers)).build();
+      var replicas =
+          current
+              .replicaStream()
+              .map(r -> r == theReplica ? newReplica : r)
+              .collect(Collectors.toUnmodifiableList());
+      current = ClusterLogAllocation.of(ClusterInfo.of(current.nodes(), replicas));
+    }
+    return current;
+  }
+
+  private TopicPartitionReplica source(int p) {
+    return TopicPartitionReplica.of("topic-" + p % 100, p / 100, p % brokers);
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.tweakers;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.astraea.common.DistributionType;
+import org.astraea.common.balancer.log.ClusterLogAllocation;
+import org.astraea.common.scenario.SyntheticCluster;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measure the proposal of a {@link ShuffleTweaker}. The tweaker is seeded, so the runs of the same
+ * parameters propose the same allocations.
+ *
+ * <pre>{@code
+ * ./gradlew common:jmh -PjmhIncludes=ShuffleTweakerBenchmark
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ShuffleTweakerBenchmark {
+
+  @Param({"10", "50"})
+  public int brokers;
+
+  @Param({"100"})
+  public int topics;
+
+  @Param({"10", "100", "1000"})
+  public int partitions;
+
+  /** the upper bound (exclusive) of the number of shuffles of a proposal */
+  @Param({"2", "30"})
+  public int shuffles;
+
+  private ClusterLogAllocation allocation;
+  private ShuffleTweaker tweaker;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    allocation =
+        ClusterLogAllocation.of(
+            SyntheticCluster.builder()
+                .brokers(brokers)
+                .folders(3)
+                .topics(topics)
+                .partitions(partitions)
+                .replicas(3)
+                .size(DistributionType.UNIFORM, 100_000)
+                .placement(SyntheticCluster.Placement.ROUND_ROBIN)
+                .build()
+                .clusterInfo());
+    tweaker = new ShuffleTweaker(1, shuffles, new Random(0));
+  }
+
+  @Benchmark
+  public ClusterLogAllocation generate() {
+    return tweaker.generate(allocation).findFirst().orElseThrow();
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.json;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measure the serialization and deserialization of {@link JsonConverter#defaultConverter()}. The
+ * object is shaped like the responses of the web service: a list of nested objects and a sorted
+ * map.
+ *
+ * <pre>{@code
+ * ./gradlew common:jmh -PjmhIncludes=JsonConverterBenchmark
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonConverterBenchmark {
+
+  @Param({"10", "1000"})
+  public int entries;
+
+  private JsonConverter converter;
+  private Topics topics;
+  private String json;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    converter = JsonConverter.defaultConverter();
+    topics = new Topics();
+    topics.topics =
+        IntStream.range(0, entries)
+            .mapToObj(
+                i -> {
+                  var topic = new Topic();
+                  topic.name = "topic-" + i;
+                  topic.partitions = i % 100;
+                  topic.size = i * 1000L;
+                  topic.owner = i % 2 == 0 ? Optional.of("owner-" + i) : Optional.empty();
+                  return topic;
+                })
+            .collect(Collectors.toUnmodifiableList());
+    topics.configs =
+        IntStream.range(0, entries)
+            .boxed()
+            .collect(Collectors.toUnmodifiableMap(i -> "config-" + i, Function.identity()));
+    json = converter.toJson(topics);
+  }
+
+  @Benchmark
+  public String toJson() {
+    return converter.toJson(topics);
+  }
+
+  @Benchmark
+  public Topics fromJson() {
+    return converter.fromJson(json, TypeRef.of(Topics.class));
+  }
+
+  static class Topics {
+    List<Topic> topics = List.of();
+    Map<String, Integer> configs = Map.of();
+  }
+
+  static class Topic {
+    String name;
+    int partitions;
+    long size;
+    Optional<String> owner = Optional.empty();
+  }
+}
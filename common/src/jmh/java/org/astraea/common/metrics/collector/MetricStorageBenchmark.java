@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.metrics.collector;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import org.astraea.common.metrics.BeanObject;
+import org.astraea.common.metrics.HasBeanObject;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compare the memory footprint of the metric storage layouts. The skip-list layout is the one
+ * {@link MetricCollectorImpl} used before the {@link RingBuffer}. Both layouts hold the same
+ * samples, so the difference of {@code retainedBytes} is the overhead of the index structure.
+ *
+ * <pre>{@code
+ * ./gradlew common:jmh -PjmhIncludes=MetricStorageBenchmark
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MetricStorageBenchmark {
+
+  @Param({"60"})
+  public int identities;
+
+  @Param({"100", "1000"})
+  public int beansPerSample;
+
+  /** the default expiration/interval of {@link MetricCollectorImpl} */
+  @Param({"180"})
+  public int samples;
+
+  private Sample[][] data;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Footprint {
+    public long retainedBytes;
+  }
+
+  @Setup(Level.Iteration)
+  public void setup() {
+    var bean = new BeanObject("kafka.log", Map.of("type", "Log"), Map.of("Value", 100L));
+    data = new Sample[samples][beansPerSample];
+    for (var s = 0; s < samples; s++) {
+      for (var b = 0; b < beansPerSample; b++) data[s][b] = new Sample(s * 1000L + b, bean);
+    }
+  }
+
+  @Benchmark
+  public Object skipList(Footprint footprint) {
+    var before = usedMemory();
+    var storage =
+        new HashMap<Integer, ConcurrentNavigableMap<Long, ConcurrentLinkedQueue<Sample>>>();
+    for (var id = 0; id < identities; id++) {
+      var map = new ConcurrentSkipListMap<Long, ConcurrentLinkedQueue<Sample>>();
+      for (var sample : data) {
+        for (var bean : sample)
+          map.computeIfAbsent(bean.createdTimestamp(), (ignore) -> new ConcurrentLinkedQueue<>())
+              .add(bean);
+      }
+      storage.put(id, map);
+    }
+    footprint.retainedBytes = usedMemory() - before;
+    return storage;
+  }
+
+  @Benchmark
+  public Object ringBuffer(Footprint footprint) {
+    var before = usedMemory();
+    var storage = new ConcurrentHashMap<Integer, RingBuffer<Sample>>();
+    for (var id = 0; id < identities; id++) {
+      var buffer = new RingBuffer<Sample>(samples + 1, Long.MAX_VALUE);
+      for (var sample : data) {
+        for (var bean : sample) buffer.add(bean.createdTimestamp(), bean);
+      }
+      storage.put(id, buffer);
+    }
+    footprint.retainedBytes = usedMemory() - before;
+    return storage;
+  }
+
+  private static long usedMemory() {
+    var runtime = Runtime.getRuntime();
+    for (var i = 0; i < 3; i++) System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static class Sample implements HasBeanObject {
+    private final long timestamp;
+    private final BeanObject bean;
+
+    private Sample(long timestamp, BeanObject bean) {
+      this.timestamp = timestamp;
+      this.bean = bean;
+    }
+
+    @Override
+    public BeanObject beanObject() {
+      return bean;
+    }
+
+    @Override
+    public long createdTimestamp() {
+      return timestamp;
+    }
+  }
+}
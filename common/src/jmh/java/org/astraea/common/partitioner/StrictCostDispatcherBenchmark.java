@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.partitioner;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.NodeInfo;
+import org.astraea.common.admin.ReplicaInfo;
+import org.astraea.common.cost.HasBrokerCost;
+import org.astraea.common.scenario.SyntheticCluster;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measure {@link StrictCostDispatcher#partition(String, byte[], byte[], ClusterInfo)}. The cost
+ * function scores the brokers by their ids and needs no metrics, so the benchmark covers the
+ * dispatcher only. The round-robin is rebuilt each {@code lease} milliseconds.
+ *
+ * <pre>{@code
+ * ./gradlew common:jmh -PjmhIncludes=StrictCostDispatcherBenchmark
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StrictCostDispatcherBenchmark {
+
+  @Param({"3", "30", "300"})
+  public int brokers;
+
+  @Param({"10", "1000"})
+  public int partitions;
+
+  @Param({"0", "4000"})
+  public long lease;
+
+  @Param({"1024"})
+  public int recordSize;
+
+  private ClusterInfo<ReplicaInfo> clusterInfo;
+  private StrictCostDispatcher dispatcher;
+  private byte[] key;
+  private byte[] value;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    var synthetic =
+        SyntheticCluster.builder()
+            .brokers(brokers)
+            .partitions(partitions)
+            .placement(SyntheticCluster.Placement.ROUND_ROBIN)
+            .build()
+            .clusterInfo();
+    clusterInfo =
+        ClusterInfo.of(synthetic.nodes(), List.<ReplicaInfo>copyOf(synthetic.replicas()));
+    key = new byte[16];
+    value = new byte[recordSize];
+    HasBrokerCost cost =
+        (cluster, bean) -> {
+          var costs =
+              cluster.nodes().stream()
+                  .collect(Collectors.toUnmodifiableMap(NodeInfo::id, node -> (double) node.id()));
+          return () -> costs;
+        };
+    dispatcher = new StrictCostDispatcher();
+    dispatcher.configure(Map.of(cost, 1D), Optional.empty(), Map.of(), Duration.ofMillis(lease));
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    dispatcher.close();
+  }
+
+  @Benchmark
+  public int partition() {
+    return dispatcher.partition("topic-0", key, value, clusterInfo);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.partitioner.smooth;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.ReplicaInfo;
+import org.astraea.common.scenario.SyntheticCluster;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measure {@link SmoothWeightRoundRobin#getAndChoose(String, ClusterInfo)}, which is called for
+ * each record sent by {@link SmoothWeightRoundRobinDispatcher}.
+ *
+ * <pre>{@code
+ * ./gradlew common:jmh -PjmhIncludes=SmoothWeightRoundRobinBenchmark
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SmoothWeightRoundRobinBenchmark {
+
+  @Param({"3", "30", "300"})
+  public int brokers;
+
+  @Param({"10", "1000"})
+  public int partitions;
+
+  private ClusterInfo<ReplicaInfo> clusterInfo;
+  private SmoothWeightRoundRobin roundRobin;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    var cluster =
+        SyntheticCluster.builder()
+            .brokers(brokers)
+            .partitions(partitions)
+            .placement(SyntheticCluster.Placement.ROUND_ROBIN)
+            .build()
+            .clusterInfo();
+    clusterInfo = ClusterInfo.of(cluster.nodes(), List.<ReplicaInfo>copyOf(cluster.replicas()));
+    roundRobin =
+        new SmoothWeightRoundRobin(
+            IntStream.range(0, brokers)
+                .boxed()
+                .collect(Collectors.toMap(Function.identity(), id -> (double) (id + 1))));
+  }
+
+  @Benchmark
+  public int getAndChoose() {
+    return roundRobin.getAndChoose("topic-0", clusterInfo);
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.scenario;
+
+import java.util.concurrent.TimeUnit;
+import org.astraea.common.DistributionType;
+import org.astraea.common.admin.ClusterBean;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.cost.ReplicaLeaderCost;
+import org.astraea.common.cost.ReplicaSizeCost;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measure the cost functions against a {@link SyntheticCluster}. The largest setting has 500
+ * brokers and one million replicas, so it needs a large heap.
+ *
+ * <pre>{@code
+ * ./gradlew common:jmh -PjmhIncludes=SyntheticClusterBenchmark
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SyntheticClusterBenchmark {
+
+  @Param({"50", "500"})
+  public int brokers;
+
+  @Param({"2000"})
+  public int replicasPerBroker;
+
+  @Param({"0", "1.5"})
+  public double leaderSkew;
+
+  private ClusterInfo<Replica> clusterInfo;
+  private ClusterBean clusterBean;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    var cluster =
+        SyntheticCluster.builder()
+            .brokers(brokers)
+            .folders(3)
+            .topics(brokers)
+            .partitions(replicasPerBroker / 3)
+            .replicas(3)
+            .size(DistributionType.ZIPFIAN, 100L << 30)
+            .writeRate(DistributionType.ZIPFIAN, 10L << 20)
+            .leaderSkew(leaderSkew)
+            .build();
+    clusterInfo = cluster.clusterInfo();
+    clusterBean = cluster.clusterBean();
+  }
+
+  @Benchmark
+  public Object replicaSizeCost() {
+    return new ReplicaSizeCost().clusterCost(clusterInfo, clusterBean);
+  }
+
+  @Benchmark
+  public Object replicaLeaderCost() {
+    return new ReplicaLeaderCost().clusterCost(clusterInfo, clusterBean);
+  }
+}
@@ -14,41 +14,43 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package org.astraea.app.performance;
+package org.astraea.common;
 
 import com.beust.jcommander.ParameterException;
 import java.util.ArrayList;
 import java.util.Random;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
-import org.astraea.common.EnumInfo;
 import org.astraea.common.argument.Field;
 
 /**
  * Random distribution generator. Example: {@code Supplier<long> uniformDistribution =
  * Distribution.UNIFORM.create(100); while (true){ // the value will in range [0, 100)
  * uniformDistribution.get(); } }
+ *
+ * <p>The generators created by {@link #create(int, Random)} are reproducible, except {@link
+ * #LATEST} which depends on the wall clock.
  */
 public enum DistributionType implements EnumInfo {
   FIXED {
     @Override
-    public Supplier<Long> create(int n) {
+    public Supplier<Long> create(int n, Random random) {
       return () -> (long) n;
     }
   },
 
   UNIFORM {
     @Override
-    public Supplier<Long> create(int n) {
-      var rand = new Random();
-      return () -> (long) rand.nextInt(n);
+    public Supplier<Long> create(int n, Random random) {
+      return () -> (long) random.nextInt(n);
     }
   },
 
   /** A distribution for providing different random value every 2 seconds */
   LATEST {
     @Override
-    public Supplier<Long> create(int n) {
+    public Supplier<Long> create(int n, Random random) {
+      // the generator is reseeded by the clock, so the given one is not used
       var rand = new Random();
       return () -> {
         var time = System.currentTimeMillis();
@@ -64,9 +66,8 @@ public enum DistributionType implements EnumInfo {
    */
   ZIPFIAN {
     @Override
-    public Supplier<Long> create(int n) {
+    public Supplier<Long> create(int n, Random random) {
       var cumulativeDensityTable = new ArrayList<Double>();
-      var rand = new Random();
       var H_N = IntStream.range(1, n + 1).mapToDouble(k -> 1D / k).sum();
       cumulativeDensityTable.add(1D / H_N);
       IntStream.range(1, n)
@@ -75,7 +76,7 @@ public enum DistributionType implements EnumInfo {
                   cumulativeDensityTable.add(
                       cumulativeDensityTable.get(i - 1) + 1D / (i + 1) / H_N));
       return () -> {
-        final double randNum = rand.nextDouble();
+        final double randNum = random.nextDouble();
         for (int i = 0; i < cumulativeDensityTable.size(); ++i) {
           if (randNum < cumulativeDensityTable.get(i)) return (long) i;
         }
@@ -98,13 +99,22 @@ public enum DistributionType implements EnumInfo {
     return alias();
   }
 
-  abstract Supplier<Long> create(int n);
+  public Supplier<Long> create(int n) {
+    return create(n, new Random());
+  }
+
+  /**
+   * @param n the bound of the values
+   * @param random the source of randomness
+   * @return a generator of the values
+   */
+  public abstract Supplier<Long> create(int n, Random random);
 
   /**
    * convert(String): Accept lower-case name only e.g. "fixed", "uniform", "latest" and "zipfian"
    * are legal e.g. "Fixed" and "UNIFORM" are illegal
    */
-  static class DistributionTypeField extends Field<DistributionType> {
+  public static class DistributionTypeField extends Field<DistributionType> {
     @Override
     public DistributionType convert(String name) {
       try {
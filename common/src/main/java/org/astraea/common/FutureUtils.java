@@ -16,12 +16,18 @@
  */
 package org.astraea.common;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.astraea.common.function.Bi3Function;
 import org.astraea.common.function.Bi4Function;
 import org.astraea.common.function.Bi5Function;
@@ -73,5 +79,51 @@ public final class FutureUtils {
                         c -> f3.thenCompose(d -> f4.thenApply(e -> fn.apply(a, b, c, d, e))))));
   }
 
+  /**
+   * Run the tasks with a bounded number of in-flight futures. The tasks are started in order, and a
+   * new task is started only when a running one completes.
+   *
+   * @param tasks to run
+   * @param parallelism the max number of running tasks
+   * @return the results in completion order. It completes exceptionally if any task fails, and the
+   *     pending tasks are not started.
+   */
+  public static <T> CompletionStage<List<T>> parallel(
+      Collection<? extends Supplier<? extends CompletionStage<T>>> tasks, int parallelism) {
+    Utils.requirePositive(parallelism);
+    var queue = new ConcurrentLinkedQueue<Supplier<? extends CompletionStage<T>>>(tasks);
+    var results = Collections.synchronizedList(new ArrayList<T>(tasks.size()));
+    return sequence(
+            IntStream.range(0, Math.min(parallelism, tasks.size()))
+                .mapToObj(ignored -> drain(queue, results))
+                .collect(Collectors.toList()))
+        .thenApply(ignored -> Collections.unmodifiableList(results));
+  }
+
+  private static <T> CompletableFuture<Void> drain(
+      Queue<Supplier<? extends CompletionStage<T>>> queue, List<T> results) {
+    var task = queue.poll();
+    if (task == null) return CompletableFuture.completedFuture(null);
+    CompletionStage<T> stage;
+    try {
+      stage = task.get();
+    } catch (RuntimeException e) {
+      queue.clear();
+      return CompletableFuture.failedFuture(e);
+    }
+    return stage
+        .toCompletableFuture()
+        .whenComplete(
+            (r, e) -> {
+              if (e != null) queue.clear();
+            })
+        // run the next task asynchronously to avoid deep recursion on completed stages
+        .thenComposeAsync(
+            r -> {
+              results.add(r);
+              return drain(queue, results);
+            });
+  }
+
   private FutureUtils() {}
 }
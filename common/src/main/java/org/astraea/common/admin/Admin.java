@@ -25,6 +25,7 @@ import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -48,6 +49,44 @@ public interface Admin extends AutoCloseable {
     return new AdminImpl(configs);
   }
 
+  /**
+   * Wrap an admin to cache the {@link ClusterInfo} of each topic. The snapshot of a topic is
+   * reused until it is older than the staleness, and the concurrent queries of a topic share one
+   * request. The writes of this admin which change the replicas, such as {@link
+   * #moveToBrokers(Map)}, drop the snapshots of the affected topics. The changes made by others are
+   * visible after the staleness.
+   *
+   * @param admin to send the requests
+   * @param staleness the max age of the returned {@link ClusterInfo}
+   * @return an admin which caches the cluster information
+   */
+  static Admin cached(Admin admin, Duration staleness) {
+    return new CachedAdmin(admin, staleness);
+  }
+
+  /**
+   * Wrap an admin to share a request among the identical concurrent queries.
+   *
+   * @param admin to send the requests
+   * @return an admin which coalesces the in-flight queries
+   */
+  static Admin coalescing(Admin admin) {
+    return coalescing(admin, Duration.ZERO);
+  }
+
+  /**
+   * Wrap an admin to share a request among the identical queries. The completed result is reused
+   * by the identical queries until it is older than the ttl, and the writes of this admin drop all
+   * the completed results. The results are shared, so the callers must not modify them.
+   *
+   * @param admin to send the requests
+   * @param ttl how long a completed result is reused. Zero means only in-flight requests are shared
+   * @return an admin which coalesces the queries
+   */
+  static Admin coalescing(Admin admin, Duration ttl) {
+    return new CoalescingAdmin(admin, ttl);
+  }
+
   // ---------------------------------[internal]---------------------------------//
   String clientId();
 
@@ -87,8 +126,32 @@ public interface Admin extends AutoCloseable {
 
   CompletionStage<Map<TopicPartition, Long>> earliestOffsets(Set<TopicPartition> topicPartitions);
 
+  /**
+   * the streaming version of {@link #earliestOffsets(Set)}. The partitions are grouped by leader
+   * and queried in bounded chunks, and the listener gets the offsets of each chunk as soon as they
+   * arrive.
+   *
+   * @param topicPartitions to query
+   * @param listener accepts the leader id and the offsets of a completed chunk. It may be called
+   *     concurrently.
+   * @return all offsets
+   */
+  CompletionStage<Map<TopicPartition, Long>> earliestOffsets(
+      Set<TopicPartition> topicPartitions, BiConsumer<Integer, Map<TopicPartition, Long>> listener);
+
   CompletionStage<Map<TopicPartition, Long>> latestOffsets(Set<TopicPartition> topicPartitions);
 
+  /**
+   * the streaming version of {@link #latestOffsets(Set)}. see {@link #earliestOffsets(Set,
+   * BiConsumer)}
+   *
+   * @param topicPartitions to query
+   * @param listener accepts the leader id and the offsets of a completed chunk
+   * @return all offsets
+   */
+  CompletionStage<Map<TopicPartition, Long>> latestOffsets(
+      Set<TopicPartition> topicPartitions, BiConsumer<Integer, Map<TopicPartition, Long>> listener);
+
   /**
    * find the timestamp of the latest record for given partitions
    *
@@ -141,6 +204,17 @@ public interface Admin extends AutoCloseable {
    */
   CompletionStage<Map<TopicPartition, Long>> maxTimestamps(Set<TopicPartition> topicPartitions);
 
+  /**
+   * the streaming version of {@link #maxTimestamps(Set)}. see {@link #earliestOffsets(Set,
+   * BiConsumer)}
+   *
+   * @param topicPartitions to search max timestamp
+   * @param listener accepts the leader id and the timestamps of a completed chunk
+   * @return partition and max timestamp
+   */
+  CompletionStage<Map<TopicPartition, Long>> maxTimestamps(
+      Set<TopicPartition> topicPartitions, BiConsumer<Integer, Map<TopicPartition, Long>> listener);
+
   CompletionStage<List<Partition>> partitions(Set<String> topics);
 
   /**
@@ -173,6 +247,12 @@ public interface Admin extends AutoCloseable {
                                     .collect(Collectors.toSet()))));
   }
 
+  /**
+   * @return the disk space of each data folder, grouped by broker id. The folder is absent if the
+   *     broker doesn't report its space, for example, the broker is older than 3.3.
+   */
+  CompletionStage<Map<Integer, List<Broker.DiskSpace>>> diskSpaces();
+
   CompletionStage<Set<String>> consumerGroupIds();
 
   CompletionStage<List<ConsumerGroup>> consumerGroups(Set<String> consumerGroupIds);
@@ -183,6 +263,11 @@ public interface Admin extends AutoCloseable {
 
   CompletionStage<List<Transaction>> transactions(Set<String> transactionIds);
 
+  /**
+   * @param topics to query
+   * @return the replicas of the topics and the online brokers. The partitions and the data folders
+   *     of the brokers include the given topics only.
+   */
   CompletionStage<ClusterInfo<Replica>> clusterInfo(Set<String> topics);
 
   default CompletionStage<Set<String>> idleTopic(List<TopicChecker> checkers) {
@@ -382,19 +467,13 @@ public interface Admin extends AutoCloseable {
    */
   default CompletionStage<Boolean> waitPartitionLeaderSynced(
       Map<String, Integer> topicAndNumberOfPartitions, Duration timeout) {
-    return waitCluster(
+    return ClusterWaiter.wait(
         topicAndNumberOfPartitions.keySet(),
-        clusterInfo -> {
-          var current =
-              clusterInfo
-                  .replicaStream()
-                  .filter(ReplicaInfo::isLeader)
-                  .collect(Collectors.groupingBy(ReplicaInfo::topic));
-          return topicAndNumberOfPartitions.entrySet().stream()
-              .allMatch(
-                  entry ->
-                      current.getOrDefault(entry.getKey(), List.of()).size() == entry.getValue());
-        },
+        this::clusterInfo,
+        (clusterInfo, topic) ->
+            clusterInfo.replicaStream(topic).filter(ReplicaInfo::isLeader).count()
+                == topicAndNumberOfPartitions.get(topic),
+        topic -> {},
         timeout,
         2);
   }
@@ -408,14 +487,32 @@ public interface Admin extends AutoCloseable {
    */
   default CompletionStage<Boolean> waitPreferredLeaderSynced(
       Set<TopicPartition> topicPartitions, Duration timeout) {
-    return waitCluster(
-        topicPartitions.stream().map(TopicPartition::topic).collect(Collectors.toSet()),
-        clusterInfo ->
+    return waitPreferredLeaderSynced(topicPartitions, timeout, topicPartition -> {});
+  }
+
+  /**
+   * wait the preferred leader of partition get elected. The partitions are checked individually,
+   * and the converged partitions are excluded from the following checks.
+   *
+   * @param topicPartitions to check leader election
+   * @param timeout to wait
+   * @param listener is called when the preferred leader of a partition get elected
+   * @return a background thread used to check leader election.
+   */
+  default CompletionStage<Boolean> waitPreferredLeaderSynced(
+      Set<TopicPartition> topicPartitions,
+      Duration timeout,
+      java.util.function.Consumer<TopicPartition> listener) {
+    return ClusterWaiter.wait(
+        topicPartitions,
+        pending ->
+            clusterInfo(
+                pending.stream().map(TopicPartition::topic).collect(Collectors.toSet())),
+        (clusterInfo, topicPartition) ->
             clusterInfo
-                .replicaStream()
-                .filter(r -> topicPartitions.contains(r.topicPartition()))
-                .filter(Replica::isPreferredLeader)
-                .allMatch(ReplicaInfo::isLeader),
+                .replicaStream(topicPartition)
+                .anyMatch(r -> r.isPreferredLeader() && r.isLeader()),
+        listener,
         timeout,
         2);
   }
@@ -429,20 +526,40 @@ public interface Admin extends AutoCloseable {
    */
   default CompletionStage<Boolean> waitReplicasSynced(
       Set<TopicPartitionReplica> replicas, Duration timeout) {
-    return waitCluster(
-        replicas.stream().map(TopicPartitionReplica::topic).collect(Collectors.toSet()),
-        clusterInfo ->
-            clusterInfo
-                .replicaStream()
-                .filter(r -> replicas.contains(r.topicPartitionReplica()))
-                .allMatch(r -> r.inSync() && !r.isFuture()),
+    return waitReplicasSynced(replicas, timeout, replica -> {});
+  }
+
+  /**
+   * wait the given replicas to be allocated correctly. The replicas are checked individually, and
+   * the synced replicas are excluded from the following checks.
+   *
+   * @param replicas the expected replica allocations
+   * @param timeout to wait
+   * @param listener is called when a replica get synced
+   * @return a background thread used to check replica allocations
+   */
+  default CompletionStage<Boolean> waitReplicasSynced(
+      Set<TopicPartitionReplica> replicas,
+      Duration timeout,
+      java.util.function.Consumer<TopicPartitionReplica> listener) {
+    return ClusterWaiter.wait(
+        replicas,
+        pending ->
+            clusterInfo(
+                pending.stream().map(TopicPartitionReplica::topic).collect(Collectors.toSet())),
+        // the future replica and current replica share the same topic-partition-replica. A replica
+        // which doesn't exist, for example its topic is deleted, has nothing to sync
+        (clusterInfo, replica) ->
+            clusterInfo.replicaStream(replica).allMatch(r -> r.inSync() && !r.isFuture()),
+        listener,
         timeout,
         2);
   }
 
   /**
    * wait the async operations to be done on server-side. You have to define the predicate to
-   * terminate loop. Or the loop get breaks when timeout is reached.
+   * terminate loop. Or the loop get breaks when timeout is reached. The checks are scheduled with
+   * exponential backoff, and no thread is blocked during waiting.
    *
    * @param topics to trace
    * @param predicate to break loop
@@ -456,27 +573,20 @@ public interface Admin extends AutoCloseable {
       Predicate<ClusterInfo<Replica>> predicate,
       Duration timeout,
       int debounce) {
-    return loop(
-        () ->
-            clusterInfo(topics)
-                .thenApply(predicate::test)
-                .exceptionally(
-                    e -> {
-                      if (e
-                              instanceof
-                              org.apache.kafka.common.errors.UnknownTopicOrPartitionException
-                          || e.getCause()
-                              instanceof
-                              org.apache.kafka.common.errors.UnknownTopicOrPartitionException)
-                        return false;
-                      if (e instanceof RuntimeException) throw (RuntimeException) e;
-                      throw new RuntimeException(e);
-                    }),
-        timeout.toMillis(),
-        debounce,
+    return ClusterWaiter.wait(
+        Set.of(topics),
+        ignored -> clusterInfo(topics),
+        (clusterInfo, ignored) -> predicate.test(clusterInfo),
+        ignored -> {},
+        timeout,
         debounce);
   }
 
+  /**
+   * @deprecated it blocks a thread by sleeping between the checks. The wait methods of {@link
+   *     Admin} are scheduled by a shared thread with backoff, so they should be used instead.
+   */
+  @Deprecated
   static CompletionStage<Boolean> loop(
       Supplier<CompletionStage<Boolean>> supplier,
       long remainingMs,
@@ -16,6 +16,7 @@
  */
 package org.astraea.common.admin;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
@@ -27,9 +28,12 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.apache.kafka.clients.admin.AlterConfigOp;
 import org.apache.kafka.clients.admin.Config;
 import org.apache.kafka.clients.admin.ConfigEntry;
@@ -37,16 +41,20 @@ import org.apache.kafka.clients.admin.ConsumerGroupListing;
 import org.apache.kafka.clients.admin.KafkaAdminClient;
 import org.apache.kafka.clients.admin.ListOffsetsResult;
 import org.apache.kafka.clients.admin.ListTopicsOptions;
+import org.apache.kafka.clients.admin.LogDirDescription;
 import org.apache.kafka.clients.admin.MemberToRemove;
 import org.apache.kafka.clients.admin.NewPartitionReassignment;
 import org.apache.kafka.clients.admin.NewPartitions;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.PartitionReassignment;
 import org.apache.kafka.clients.admin.RecordsToDelete;
 import org.apache.kafka.clients.admin.RemoveMembersFromConsumerGroupOptions;
+import org.apache.kafka.clients.admin.TopicDescription;
 import org.apache.kafka.clients.admin.TransactionListing;
 import org.apache.kafka.common.ElectionType;
 import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartitionInfo;
 import org.apache.kafka.common.config.ConfigResource;
 import org.apache.kafka.common.errors.ElectionNotNeededException;
 import org.apache.kafka.common.errors.UnsupportedVersionException;
@@ -61,6 +69,12 @@ import org.astraea.common.Utils;
 
 class AdminImpl implements Admin {
 
+  /** the max number of partitions carried by a list-offsets request */
+  static final int OFFSET_CHUNK_SIZE = 2000;
+
+  /** the max number of in-flight list-offsets requests of a query */
+  static final int OFFSET_PARALLELISM = 8;
+
   private final org.apache.kafka.clients.admin.Admin kafkaAdmin;
   private final String clientId;
   private final AtomicInteger runningRequests = new AtomicInteger(0);
@@ -260,130 +274,210 @@ class AdminImpl implements Admin {
 
   /**
    * Some requests get blocked when there are offline brokers. In order to avoid blocking, this
-   * method returns the fetchable partitions.
+   * method returns the fetchable partitions grouped by their leaders.
    */
-  private CompletionStage<Set<TopicPartition>> updatableTopicPartitions(Set<String> topics) {
-    if (topics.isEmpty()) return CompletableFuture.completedFuture(Set.of());
-    return to(kafkaAdmin.describeTopics(topics).all())
+  private CompletionStage<Map<Integer, List<TopicPartition>>> updatableLeaders(
+      Set<String> topics) {
+    if (topics.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+    return to(kafkaAdmin.describeTopics(topics).all()).thenApply(AdminImpl::updatableLeaders);
+  }
+
+  private static Map<Integer, List<TopicPartition>> updatableLeaders(
+      Map<String, TopicDescription> descriptions) {
+    return descriptions.entrySet().stream()
+        // kafka update metadata based on topic, so it may get blocked if there is one offline
+        // partition
+        .filter(
+            e ->
+                e.getValue().partitions().stream()
+                    .allMatch(tp -> tp.leader() != null && !tp.leader().isEmpty()))
+        .flatMap(
+            e ->
+                e.getValue().partitions().stream()
+                    .map(
+                        tp ->
+                            Map.entry(
+                                tp.leader().id(), TopicPartition.of(e.getKey(), tp.partition()))))
+        .collect(
+            Collectors.groupingBy(
+                Map.Entry::getKey,
+                Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+  }
+
+  /**
+   * Send the list-offsets requests in chunks. Each chunk carries at most {@link
+   * #OFFSET_CHUNK_SIZE} partitions of the same leader, and at most {@link #OFFSET_PARALLELISM}
+   * chunks are in flight at once. The chunks of different leaders are interleaved so all brokers
+   * make progress together.
+   *
+   * @param leaders partitions grouped by leader
+   * @param spec offset spec of each partition
+   * @param listener called with the leader id and the result of each completed chunk. It may be
+   *     called concurrently.
+   * @return the merged result of all chunks
+   */
+  private CompletionStage<Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo>>
+      listOffsets(
+          Map<Integer, List<TopicPartition>> leaders,
+          Supplier<OffsetSpec> spec,
+          BiConsumer<Integer, Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo>>
+              listener) {
+    var chunks =
+        leaders.entrySet().stream()
+            .map(
+                e ->
+                    IntStream.range(
+                            0, (e.getValue().size() + OFFSET_CHUNK_SIZE - 1) / OFFSET_CHUNK_SIZE)
+                        .mapToObj(
+                            i ->
+                                Map.entry(
+                                    e.getKey(),
+                                    e.getValue()
+                                        .subList(
+                                            i * OFFSET_CHUNK_SIZE,
+                                            Math.min(
+                                                e.getValue().size(), (i + 1) * OFFSET_CHUNK_SIZE))))
+                        .collect(Collectors.toList()))
+            .collect(Collectors.toList());
+    var result =
+        new ConcurrentHashMap<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo>();
+    var tasks = new ArrayList<Supplier<CompletionStage<Void>>>();
+    var maxChunks = chunks.stream().mapToInt(List::size).max().orElse(0);
+    for (var round = 0; round < maxChunks; round++) {
+      for (var chunksOfLeader : chunks) {
+        if (round >= chunksOfLeader.size()) continue;
+        var chunk = chunksOfLeader.get(round);
+        tasks.add(
+            () ->
+                to(kafkaAdmin
+                        .listOffsets(
+                            chunk.getValue().stream()
+                                .collect(
+                                    Collectors.toMap(TopicPartition::to, ignored -> spec.get())))
+                        .all())
+                    .thenAccept(
+                        offsets -> {
+                          var converted =
+                              offsets.entrySet().stream()
+                                  .collect(
+                                      Collectors.toMap(
+                                          e -> TopicPartition.from(e.getKey()),
+                                          Map.Entry::getValue));
+                          result.putAll(converted);
+                          listener.accept(chunk.getKey(), converted);
+                        }));
+      }
+    }
+    return FutureUtils.parallel(tasks, OFFSET_PARALLELISM).thenApply(ignored -> result);
+  }
+
+  private CompletionStage<Map<TopicPartition, Long>> offsets(
+      Set<TopicPartition> topicPartitions,
+      Supplier<OffsetSpec> spec,
+      BiConsumer<Integer, Map<TopicPartition, Long>> listener) {
+    if (topicPartitions.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+    return updatableLeaders(
+            topicPartitions.stream().map(TopicPartition::topic).collect(Collectors.toSet()))
+        .thenCompose(leaders -> offsets(leaders, spec, listener));
+  }
+
+  private CompletionStage<Map<TopicPartition, Long>> offsets(
+      Map<Integer, List<TopicPartition>> leaders,
+      Supplier<OffsetSpec> spec,
+      BiConsumer<Integer, Map<TopicPartition, Long>> listener) {
+    return listOffsets(
+            leaders,
+            spec,
+            (id, result) ->
+                listener.accept(
+                    id,
+                    result.entrySet().stream()
+                        .collect(
+                            Collectors.toMap(Map.Entry::getKey, e -> e.getValue().offset()))))
         .thenApply(
-            ts ->
-                ts.entrySet().stream()
-                    // kafka update metadata based on topic, so it may get blocked if there is one
-                    // offline partition
-                    .filter(
-                        e ->
-                            e.getValue().partitions().stream()
-                                .allMatch(tp -> tp.leader() != null && !tp.leader().isEmpty()))
-                    .flatMap(
-                        e ->
-                            e.getValue().partitions().stream()
-                                .map(tp -> TopicPartition.of(e.getKey(), tp.partition())))
-                    .collect(Collectors.toSet()));
+            result ->
+                leaders.values().stream()
+                    .flatMap(List::stream)
+                    .collect(
+                        Collectors.toMap(
+                            tp -> tp,
+                            tp ->
+                                Optional.ofNullable(result.get(tp))
+                                    .map(ListOffsetsResult.ListOffsetsResultInfo::offset)
+                                    .orElse(-1L))));
+  }
+
+  private CompletionStage<Map<TopicPartition, Long>> maxTimestamps(
+      Map<Integer, List<TopicPartition>> leaders,
+      BiConsumer<Integer, Map<TopicPartition, Long>> listener) {
+    return listOffsets(
+            leaders,
+            OffsetSpec.MaxTimestampSpec::new,
+            (id, result) -> listener.accept(id, timestamps(result)))
+        .thenApply(AdminImpl::timestamps);
+  }
+
+  private static Map<TopicPartition, Long> timestamps(
+      Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> result) {
+    return result.entrySet().stream()
+        .filter(e -> e.getValue().timestamp() > 0)
+        .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().timestamp()));
   }
 
   @Override
   public CompletionStage<Map<TopicPartition, Long>> earliestOffsets(
       Set<TopicPartition> topicPartitions) {
-    if (topicPartitions.isEmpty()) return CompletableFuture.completedFuture(Map.of());
-    var updatableTopicPartitions =
-        updatableTopicPartitions(
-            topicPartitions.stream().map(TopicPartition::topic).collect(Collectors.toSet()));
-    return FutureUtils.combine(
-        updatableTopicPartitions,
-        updatableTopicPartitions.thenCompose(
-            ps ->
-                to(
-                    kafkaAdmin
-                        .listOffsets(
-                            ps.stream()
-                                .collect(
-                                    Collectors.toMap(
-                                        TopicPartition::to,
-                                        ignored -> new OffsetSpec.EarliestSpec())))
-                        .all())),
-        (ps, result) ->
-            ps.stream()
-                .collect(
-                    Collectors.toMap(
-                        tp -> tp,
-                        tp ->
-                            Optional.ofNullable(result.get(TopicPartition.to(tp)))
-                                .map(ListOffsetsResult.ListOffsetsResultInfo::offset)
-                                .orElse(-1L))));
+    return earliestOffsets(topicPartitions, (id, offsets) -> {});
+  }
+
+  @Override
+  public CompletionStage<Map<TopicPartition, Long>> earliestOffsets(
+      Set<TopicPartition> topicPartitions,
+      BiConsumer<Integer, Map<TopicPartition, Long>> listener) {
+    return offsets(topicPartitions, OffsetSpec.EarliestSpec::new, listener);
   }
 
   @Override
   public CompletionStage<Map<TopicPartition, Long>> latestOffsets(
       Set<TopicPartition> topicPartitions) {
-    if (topicPartitions.isEmpty()) return CompletableFuture.completedFuture(Map.of());
-    var updatableTopicPartitions =
-        updatableTopicPartitions(
-            topicPartitions.stream().map(TopicPartition::topic).collect(Collectors.toSet()));
-    return FutureUtils.combine(
-        updatableTopicPartitions,
-        updatableTopicPartitions.thenCompose(
-            ps ->
-                to(
-                    kafkaAdmin
-                        .listOffsets(
-                            ps.stream()
-                                .collect(
-                                    Collectors.toMap(
-                                        TopicPartition::to,
-                                        ignored -> new OffsetSpec.LatestSpec())))
-                        .all())),
-        (ps, result) ->
-            ps.stream()
-                .collect(
-                    Collectors.toMap(
-                        tp -> tp,
-                        tp ->
-                            Optional.ofNullable(result.get(TopicPartition.to(tp)))
-                                .map(ListOffsetsResult.ListOffsetsResultInfo::offset)
-                                .orElse(-1L))));
+    return latestOffsets(topicPartitions, (id, offsets) -> {});
+  }
+
+  @Override
+  public CompletionStage<Map<TopicPartition, Long>> latestOffsets(
+      Set<TopicPartition> topicPartitions,
+      BiConsumer<Integer, Map<TopicPartition, Long>> listener) {
+    return offsets(topicPartitions, OffsetSpec.LatestSpec::new, listener);
   }
 
   @Override
   public CompletionStage<Map<TopicPartition, Long>> maxTimestamps(
       Set<TopicPartition> topicPartitions) {
+    return maxTimestamps(topicPartitions, (id, timestamps) -> {});
+  }
+
+  @Override
+  public CompletionStage<Map<TopicPartition, Long>> maxTimestamps(
+      Set<TopicPartition> topicPartitions,
+      BiConsumer<Integer, Map<TopicPartition, Long>> listener) {
     if (topicPartitions.isEmpty()) return CompletableFuture.completedFuture(Map.of());
-    var updatableTopicPartitions =
-        updatableTopicPartitions(
-            topicPartitions.stream().map(TopicPartition::topic).collect(Collectors.toSet()));
-    return FutureUtils.combine(
-        updatableTopicPartitions,
-        updatableTopicPartitions.thenCompose(
-            ps ->
-                to(
-                    kafkaAdmin
-                        .listOffsets(
-                            ps.stream()
-                                .collect(
-                                    Collectors.toMap(
-                                        TopicPartition::to,
-                                        ignored -> new OffsetSpec.MaxTimestampSpec())))
-                        .all())),
-        (ps, result) ->
-            ps.stream()
-                .flatMap(
-                    tp ->
-                        Optional.ofNullable(result.get(TopicPartition.to(tp))).stream()
-                            .map(ListOffsetsResult.ListOffsetsResultInfo::timestamp)
-                            .filter(t -> t > 0)
-                            .map(t -> Map.entry(tp, t)))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+    return updatableLeaders(
+            topicPartitions.stream().map(TopicPartition::topic).collect(Collectors.toSet()))
+        .thenCompose(leaders -> maxTimestamps(leaders, listener));
   }
 
   @Override
   public CompletionStage<List<Partition>> partitions(Set<String> topics) {
     if (topics.isEmpty()) return CompletableFuture.completedFuture(List.of());
-    var updatableTopicPartitions = updatableTopicPartitions(topics);
     var topicDesc = to(kafkaAdmin.describeTopics(topics).all());
+    // share the description with the offset queries
+    var leaders = topicDesc.thenApply(AdminImpl::updatableLeaders);
     return FutureUtils.combine(
-        updatableTopicPartitions.thenCompose(this::earliestOffsets),
-        updatableTopicPartitions.thenCompose(this::latestOffsets),
-        updatableTopicPartitions
-            .thenCompose(this::maxTimestamps)
+        leaders.thenCompose(
+            ls -> offsets(ls, OffsetSpec.EarliestSpec::new, (id, offsets) -> {})),
+        leaders.thenCompose(ls -> offsets(ls, OffsetSpec.LatestSpec::new, (id, offsets) -> {})),
+        leaders
+            .thenCompose(ls -> maxTimestamps(ls, (id, timestamps) -> {}))
             // the old kafka does not support to fetch max timestamp. It is fine to return partition
             // without max timestamp
             .exceptionally(
@@ -447,6 +541,34 @@ class AdminImpl implements Admin {
                 nodes.stream().map(NodeInfo::of).collect(Collectors.toCollection(TreeSet::new)));
   }
 
+  @Override
+  public CompletionStage<Map<Integer, List<Broker.DiskSpace>>> diskSpaces() {
+    return nodeInfos()
+        .thenApply(
+            nodeInfos ->
+                nodeInfos.stream().map(NodeInfo::id).collect(Collectors.toUnmodifiableSet()))
+        .thenCompose(ids -> to(kafkaAdmin.describeLogDirs(ids).allDescriptions()))
+        .thenApply(
+            ds ->
+                ds.entrySet().stream()
+                    .collect(
+                        Collectors.toMap(
+                            Map.Entry::getKey,
+                            e ->
+                                e.getValue().entrySet().stream()
+                                    .filter(
+                                        d ->
+                                            d.getValue().totalBytes().isPresent()
+                                                && d.getValue().usableBytes().isPresent())
+                                    .map(
+                                        d ->
+                                            Broker.DiskSpace.of(
+                                                d.getKey(),
+                                                d.getValue().totalBytes().getAsLong(),
+                                                d.getValue().usableBytes().getAsLong()))
+                                    .collect(Collectors.toList()))));
+  }
+
   @Override
   public CompletionStage<List<Broker>> brokers() {
     var cluster = kafkaAdmin.describeCluster();
@@ -585,101 +707,207 @@ class AdminImpl implements Admin {
 
   @Override
   public CompletionStage<ClusterInfo<Replica>> clusterInfo(Set<String> topics) {
+    // the nodes and the replicas are built from the same responses, so a query sends one request
+    // of each kind, and only the requested topics are described
+    var cluster = kafkaAdmin.describeCluster();
+    var nodeFuture = to(cluster.nodes());
     return FutureUtils.combine(
-        brokers()
-            .thenApply(
-                brokers ->
-                    brokers.stream()
-                        .map(x -> (NodeInfo) x)
-                        .collect(Collectors.toUnmodifiableSet())),
-        replicas(topics),
-        ClusterInfo::of);
+        to(cluster.controller()),
+        nodeFuture,
+        // all the brokers are asked for their data folders, since the replicas can be moved to
+        // any of them
+        nodeFuture.thenCompose(
+            nodes ->
+                to(
+                    kafkaAdmin
+                        .describeLogDirs(nodes.stream().map(Node::id).collect(Collectors.toList()))
+                        .allDescriptions())),
+        nodeFuture.thenCompose(
+            nodes ->
+                doGetConfigs(
+                    nodes.stream()
+                        .map(
+                            n ->
+                                new ConfigResource(
+                                    ConfigResource.Type.BROKER, String.valueOf(n.id())))
+                        .collect(Collectors.toList()))),
+        describe(topics),
+        (controller, nodes, logDirs, configs, described) -> {
+          var builder =
+              replicas(described.getKey(), logDirs(logDirs, topics), described.getValue());
+          return builder
+              .nodes(
+                  nodes.stream()
+                      .map(
+                          node ->
+                              broker(
+                                  node,
+                                  node.id() == controller.id(),
+                                  configs.getOrDefault(String.valueOf(node.id()), Map.of()),
+                                  logDirs.getOrDefault(node.id(), Map.of()),
+                                  described.getKey()))
+                      .collect(Collectors.toUnmodifiableSet()))
+              .build();
+        });
   }
 
-  private CompletionStage<List<Replica>> replicas(Set<String> topics) {
-    if (topics.isEmpty()) return CompletableFuture.completedFuture(List.of());
-
-    // pre-group folders by (broker -> topic partition) to speedup seek
-    return FutureUtils.combine(
-        logDirs(),
-        to(kafkaAdmin.describeTopics(topics).allTopicNames()),
-        to(kafkaAdmin.listPartitionReassignments().reassignments()),
-        (logDirs, ts, reassignmentMap) ->
-            ts.values().stream()
-                .flatMap(topic -> topic.partitions().stream().map(p -> Map.entry(topic.name(), p)))
-                .flatMap(
-                    topicAndPartition ->
-                        topicAndPartition.getValue().replicas().stream()
-                            .flatMap(
-                                node -> {
-                                  var topicName = topicAndPartition.getKey();
-                                  var internal = ts.get(topicName).isInternal();
-                                  var partition = topicAndPartition.getValue();
-                                  var partitionId = topicAndPartition.getValue().partition();
-                                  var reassignment =
-                                      reassignmentMap.get(
+  /**
+   * @return the descriptions of the topics and the reassignments of their partitions
+   */
+  private CompletionStage<
+          Map.Entry<
+              Collection<TopicDescription>,
+              Map<org.apache.kafka.common.TopicPartition, PartitionReassignment>>>
+      describe(Set<String> topics) {
+    if (topics.isEmpty()) return CompletableFuture.completedFuture(Map.entry(List.of(), Map.of()));
+    return to(kafkaAdmin.describeTopics(topics).allTopicNames())
+        .thenCompose(
+            ts -> {
+              var partitions =
+                  ts.values().stream()
+                      .flatMap(
+                          t ->
+                              t.partitions().stream()
+                                  .map(
+                                      p ->
                                           new org.apache.kafka.common.TopicPartition(
-                                              topicName, partitionId));
-                                  var isAdding =
-                                      reassignment != null
-                                          && reassignment.addingReplicas().contains(node.id());
-                                  var isRemoving =
-                                      reassignment != null
-                                          && reassignment.removingReplicas().contains(node.id());
-                                  // kafka admin#describeLogDirs does not return
-                                  // offline node,when the node is not online,all
-                                  // TopicPartition return an empty dataFolder and a
-                                  // fake replicaInfo, and determine whether the
-                                  // node is online by whether the dataFolder is "".
-                                  var pathAndReplicas =
-                                      logDirs
-                                          .getOrDefault(node.id(), Map.of())
-                                          .getOrDefault(
-                                              TopicPartition.of(topicName, partitionId),
-                                              Map.of(
-                                                  "",
-                                                  new org.apache.kafka.clients.admin.ReplicaInfo(
-                                                      -1L, -1L, false)));
-                                  return pathAndReplicas.entrySet().stream()
-                                      .map(
-                                          pathAndReplica ->
-                                              Replica.builder()
-                                                  .topic(topicName)
-                                                  .partition(partitionId)
-                                                  .internal(internal)
-                                                  .isAdding(isAdding)
-                                                  .isRemoving(isRemoving)
-                                                  .nodeInfo(NodeInfo.of(node))
-                                                  .lag(pathAndReplica.getValue().offsetLag())
-                                                  .size(pathAndReplica.getValue().size())
-                                                  .isLeader(
-                                                      partition.leader() != null
-                                                          && !partition.leader().isEmpty()
-                                                          && partition.leader().id() == node.id())
-                                                  .inSync(partition.isr().contains(node))
-                                                  .isFuture(pathAndReplica.getValue().isFuture())
-                                                  .isOffline(
-                                                      node.isEmpty()
-                                                          || pathAndReplica.getKey().equals(""))
-                                                  // The first replica in the return result is the
-                                                  // preferred leader. This only works with Kafka
-                                                  // broker version after 0.11. Version before
-                                                  // 0.11 returns the replicas in unspecified order.
-                                                  .isPreferredLeader(
-                                                      partition.replicas().get(0).id() == node.id())
-                                                  // empty data folder means this
-                                                  // replica is offline
-                                                  .path(
-                                                      pathAndReplica.getKey().isEmpty()
-                                                          ? null
-                                                          : pathAndReplica.getKey())
-                                                  .build());
-                                }))
-                .sorted(
-                    Comparator.comparing(Replica::topic)
-                        .thenComparing(Replica::partition)
-                        .thenComparing(r -> r.nodeInfo().id()))
-                .collect(Collectors.toUnmodifiableList()));
+                                              t.name(), p.partition())))
+                      .collect(Collectors.toUnmodifiableSet());
+              return to(kafkaAdmin.listPartitionReassignments(partitions).reassignments())
+                  .thenApply(reassignments -> Map.entry(ts.values(), reassignments));
+            });
+  }
+
+  /**
+   * The replicas are added to the columnar builder directly, so a large cluster does not create a
+   * {@link Replica} object per replica.
+   */
+  private static ColumnarClusterInfo.Builder replicas(
+      Collection<TopicDescription> topics,
+      Map<Integer, Map<TopicPartition, Map<String, org.apache.kafka.clients.admin.ReplicaInfo>>>
+          logDirs,
+      Map<org.apache.kafka.common.TopicPartition, PartitionReassignment> reassignmentMap) {
+    var builder = ColumnarClusterInfo.builder();
+    for (var topic : topics)
+      for (var partition : topic.partitions())
+        for (var node : partition.replicas())
+          addReplica(
+              builder,
+              topic,
+              partition,
+              node,
+              logDirs.getOrDefault(node.id(), Map.of()),
+              reassignmentMap);
+    return builder;
+  }
+
+  /**
+   * @return the broker which knows the given topics only. The partitions of other topics are
+   *     excluded from its partitions and its data folders.
+   */
+  private static Broker broker(
+      Node node,
+      boolean isController,
+      Map<String, String> configs,
+      Map<String, LogDirDescription> dirs,
+      Collection<TopicDescription> topics) {
+    var names = topics.stream().map(TopicDescription::name).collect(Collectors.toSet());
+    var partitions =
+        topics.stream()
+            .flatMap(
+                t ->
+                    t.partitions().stream()
+                        .filter(p -> p.replicas().stream().anyMatch(n -> n.id() == node.id()))
+                        .map(p -> TopicPartition.of(t.name(), p.partition())))
+            .collect(Collectors.toUnmodifiableSet());
+    var leaders =
+        topics.stream()
+            .flatMap(
+                t ->
+                    t.partitions().stream()
+                        .filter(p -> p.leader() != null && p.leader().id() == node.id())
+                        .map(p -> TopicPartition.of(t.name(), p.partition())))
+            .collect(Collectors.toUnmodifiableSet());
+    var folders =
+        dirs.entrySet().stream()
+            .map(
+                dir -> {
+                  var sizes =
+                      dir.getValue().replicaInfos().entrySet().stream()
+                          .filter(e -> names.contains(e.getKey().topic()))
+                          .collect(
+                              Collectors.toMap(
+                                  e -> TopicPartition.from(e.getKey()), e -> e.getValue().size()));
+                  return Broker.DataFolder.of(
+                      dir.getKey(),
+                      sizes.entrySet().stream()
+                          .filter(e -> partitions.contains(e.getKey()))
+                          .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)),
+                      sizes.entrySet().stream()
+                          .filter(e -> !partitions.contains(e.getKey()))
+                          .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+                })
+            .collect(Collectors.toList());
+    return Broker.of(
+        NodeInfo.of(node),
+        isController,
+        org.astraea.common.admin.Config.of(configs),
+        folders,
+        partitions,
+        leaders);
+  }
+
+  private static void addReplica(
+      ColumnarClusterInfo.Builder builder,
+      TopicDescription topic,
+      TopicPartitionInfo partition,
+      Node node,
+      Map<TopicPartition, Map<String, org.apache.kafka.clients.admin.ReplicaInfo>> logDirs,
+      Map<org.apache.kafka.common.TopicPartition, PartitionReassignment> reassignmentMap) {
+    var topicName = topic.name();
+    var partitionId = partition.partition();
+    var reassignment =
+        reassignmentMap.get(new org.apache.kafka.common.TopicPartition(topicName, partitionId));
+    var flags =
+        (topic.isInternal() ? ColumnarClusterInfo.INTERNAL : 0)
+            | (reassignment != null && reassignment.addingReplicas().contains(node.id())
+                ? ColumnarClusterInfo.ADDING
+                : 0)
+            | (reassignment != null && reassignment.removingReplicas().contains(node.id())
+                ? ColumnarClusterInfo.REMOVING
+                : 0)
+            | (partition.leader() != null
+                    && !partition.leader().isEmpty()
+                    && partition.leader().id() == node.id()
+                ? ColumnarClusterInfo.LEADER
+                : 0)
+            | (partition.isr().contains(node) ? ColumnarClusterInfo.IN_SYNC : 0)
+            // The first replica in the return result is the preferred leader. This only works
+            // with Kafka broker version after 0.11. Version before 0.11 returns the replicas in
+            // unspecified order.
+            | (partition.replicas().get(0).id() == node.id()
+                ? ColumnarClusterInfo.PREFERRED_LEADER
+                : 0);
+    // kafka admin#describeLogDirs does not return offline node,when the node is not online,all
+    // TopicPartition return an empty dataFolder and a fake replicaInfo, and determine whether the
+    // node is online by whether the dataFolder is "".
+    var pathAndReplicas =
+        logDirs.getOrDefault(
+            TopicPartition.of(topicName, partitionId),
+            Map.of("", new org.apache.kafka.clients.admin.ReplicaInfo(-1L, -1L, false)));
+    pathAndReplicas.forEach(
+        (path, replica) ->
+            builder.add(
+                topicName,
+                partitionId,
+                NodeInfo.of(node),
+                replica.offsetLag(),
+                replica.size(),
+                // empty data folder means this replica is offline
+                path.isEmpty() ? null : path,
+                flags
+                    | (replica.isFuture() ? ColumnarClusterInfo.FUTURE : 0)
+                    | (node.isEmpty() || path.isEmpty() ? ColumnarClusterInfo.OFFLINE : 0)));
   }
 
   @Override
@@ -1295,44 +1523,38 @@ class AdminImpl implements Admin {
     kafkaAdmin.close();
   }
 
-  private CompletionStage<
-          Map<
-              Integer,
-              Map<TopicPartition, Map<String, org.apache.kafka.clients.admin.ReplicaInfo>>>>
-      logDirs() {
-    return nodeInfos()
-        .thenApply(
-            nodeInfos ->
-                nodeInfos.stream().map(NodeInfo::id).collect(Collectors.toUnmodifiableSet()))
-        .thenCompose(ids -> to(kafkaAdmin.describeLogDirs(ids).allDescriptions()))
-        .thenApply(
-            ds ->
-                ds.entrySet().stream()
-                    .collect(
-                        Collectors.toMap(
-                            Map.Entry::getKey,
-                            pathAndDesc ->
-                                pathAndDesc.getValue().entrySet().stream()
-                                    .flatMap(
-                                        e ->
-                                            e.getValue().replicaInfos().entrySet().stream()
-                                                .map(
-                                                    tr ->
-                                                        Map.entry(
-                                                            TopicPartition.from(tr.getKey()),
-                                                            Map.entry(e.getKey(), tr.getValue()))))
-                                    .collect(Collectors.groupingBy(Map.Entry::getKey))
-                                    .entrySet()
-                                    .stream()
-                                    .collect(
-                                        Collectors.toMap(
-                                            Map.Entry::getKey,
-                                            e ->
-                                                e.getValue().stream()
-                                                    .map(Map.Entry::getValue)
-                                                    .collect(
-                                                        Collectors.toMap(
-                                                            Map.Entry::getKey,
-                                                            Map.Entry::getValue)))))));
+  /**
+   * @return the replicas of the topics grouped by broker, partition and data folder
+   */
+  private static Map<
+          Integer, Map<TopicPartition, Map<String, org.apache.kafka.clients.admin.ReplicaInfo>>>
+      logDirs(Map<Integer, Map<String, LogDirDescription>> ds, Set<String> topics) {
+    return ds.entrySet().stream()
+        .collect(
+            Collectors.toMap(
+                Map.Entry::getKey,
+                pathAndDesc ->
+                    pathAndDesc.getValue().entrySet().stream()
+                        .flatMap(
+                            e ->
+                                e.getValue().replicaInfos().entrySet().stream()
+                                    .filter(tr -> topics.contains(tr.getKey().topic()))
+                                    .map(
+                                        tr ->
+                                            Map.entry(
+                                                TopicPartition.from(tr.getKey()),
+                                                Map.entry(e.getKey(), tr.getValue()))))
+                        .collect(Collectors.groupingBy(Map.Entry::getKey))
+                        .entrySet()
+                        .stream()
+                        .collect(
+                            Collectors.toMap(
+                                Map.Entry::getKey,
+                                e ->
+                                    e.getValue().stream()
+                                        .map(Map.Entry::getValue)
+                                        .collect(
+                                            Collectors.toMap(
+                                                Map.Entry::getKey, Map.Entry::getValue))))));
   }
 }
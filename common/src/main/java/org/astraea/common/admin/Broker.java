@@ -60,24 +60,7 @@ public interface Broker extends NodeInfo {
                               tpAndSize -> !partitionsFromTopicDesc.contains(tpAndSize.getKey()))
                           .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
 
-                  return (DataFolder)
-                      new DataFolder() {
-
-                        @Override
-                        public String path() {
-                          return path;
-                        }
-
-                        @Override
-                        public Map<TopicPartition, Long> partitionSizes() {
-                          return partitionSizes;
-                        }
-
-                        @Override
-                        public Map<TopicPartition, Long> orphanPartitionSizes() {
-                          return orphanPartitionSizes;
-                        }
-                      };
+                  return DataFolder.of(path, partitionSizes, orphanPartitionSizes);
                 })
             .collect(Collectors.toList());
     var topicPartitionLeaders =
@@ -88,6 +71,26 @@ public interface Broker extends NodeInfo {
                         .filter(p -> p.leader() != null && p.leader().id() == nodeInfo.id())
                         .map(p -> TopicPartition.of(topic.name(), p.partition())))
             .collect(Collectors.toUnmodifiableSet());
+    return of(
+        NodeInfo.of(nodeInfo),
+        isController,
+        config,
+        folders,
+        partitionsFromTopicDesc,
+        topicPartitionLeaders);
+  }
+
+  /**
+   * Create a broker from the collected information. It is useful to the tools having no live
+   * cluster, for example, the replay of a recorded cluster.
+   */
+  static Broker of(
+      NodeInfo nodeInfo,
+      boolean isController,
+      Config config,
+      List<DataFolder> folders,
+      Set<TopicPartition> topicPartitions,
+      Set<TopicPartition> topicPartitionLeaders) {
     return new Broker() {
       @Override
       public String host() {
@@ -121,7 +124,7 @@ public interface Broker extends NodeInfo {
 
       @Override
       public Set<TopicPartition> topicPartitions() {
-        return partitionsFromTopicDesc;
+        return topicPartitions;
       }
 
       @Override
@@ -152,6 +155,29 @@ public interface Broker extends NodeInfo {
 
   interface DataFolder {
 
+    static DataFolder of(
+        String path,
+        Map<TopicPartition, Long> partitionSizes,
+        Map<TopicPartition, Long> orphanPartitionSizes) {
+      return new DataFolder() {
+
+        @Override
+        public String path() {
+          return path;
+        }
+
+        @Override
+        public Map<TopicPartition, Long> partitionSizes() {
+          return partitionSizes;
+        }
+
+        @Override
+        public Map<TopicPartition, Long> orphanPartitionSizes() {
+          return orphanPartitionSizes;
+        }
+      };
+    }
+
     /**
      * @return the path on the local disk
      */
@@ -167,4 +193,41 @@ public interface Broker extends NodeInfo {
      */
     Map<TopicPartition, Long> orphanPartitionSizes();
   }
+
+  interface DiskSpace {
+
+    static DiskSpace of(String path, long totalBytes, long usableBytes) {
+      return new DiskSpace() {
+        @Override
+        public String path() {
+          return path;
+        }
+
+        @Override
+        public long totalBytes() {
+          return totalBytes;
+        }
+
+        @Override
+        public long usableBytes() {
+          return usableBytes;
+        }
+      };
+    }
+
+    /**
+     * @return the path of the data folder
+     */
+    String path();
+
+    /**
+     * @return the size of the disk holding the data folder
+     */
+    long totalBytes();
+
+    /**
+     * @return the bytes which can be written to the disk holding the data folder
+     */
+    long usableBytes();
+  }
 }
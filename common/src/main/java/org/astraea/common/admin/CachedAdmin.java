@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.admin;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.astraea.common.FutureUtils;
+
+/**
+ * Cache the {@link ClusterInfo} of each topic. A topic is fetched again only if its snapshot is
+ * older than the staleness bound, so the callers which query the same topics repeatedly, such as
+ * {@link Admin#waitCluster} and the web service, send much fewer requests to the brokers.
+ *
+ * <p>The concurrent callers share the in-flight request of a topic, so a burst of queries sends
+ * one request only. The writes which change the replicas, for example {@link #moveToBrokers(Map)}
+ * and {@link #creator()}, drop the snapshots of the affected topics.
+ */
+class CachedAdmin extends ForwardingAdmin {
+
+  private static class Snapshot {
+    private final long timestamp;
+    private final ClusterInfo<Replica> clusterInfo;
+
+    private Snapshot(long timestamp, ClusterInfo<Replica> clusterInfo) {
+      this.timestamp = timestamp;
+      this.clusterInfo = clusterInfo;
+    }
+  }
+
+  private final long stalenessMs;
+  // all the fields below are guarded by "this"
+  private final Map<String, Snapshot> snapshots = new HashMap<>();
+  private final Map<String, CompletableFuture<Snapshot>> inflight = new HashMap<>();
+  private final Map<String, Long> invalidated = new HashMap<>();
+  private Snapshot latest = null;
+  // the last assembled view and the snapshots it is assembled from
+  private List<Object> viewSources = null;
+  private ClusterInfo<Replica> view = null;
+
+  CachedAdmin(Admin delegate, Duration staleness) {
+    super(delegate);
+    this.stalenessMs = staleness.toMillis();
+  }
+
+  @Override
+  public CompletionStage<ClusterInfo<Replica>> clusterInfo(Set<String> topics) {
+    var sources = new HashMap<String, CompletableFuture<Snapshot>>();
+    var futures = new HashSet<CompletableFuture<Snapshot>>();
+    Snapshot nodes;
+    synchronized (this) {
+      var now = System.currentTimeMillis();
+      var missing = new HashSet<String>();
+      var joined = false;
+      for (var topic : topics) {
+        var snapshot = snapshots.get(topic);
+        if (snapshot != null && now - snapshot.timestamp <= stalenessMs)
+          sources.put(topic, CompletableFuture.completedFuture(snapshot));
+        else if (inflight.containsKey(topic)) {
+          sources.put(topic, inflight.get(topic));
+          joined = true;
+        } else missing.add(topic);
+      }
+      // the nodes are fetched with the topics, so they are fetched alone only if they are stale
+      // and no request is running
+      nodes = latest;
+      var nodesStale = nodes == null || now - nodes.timestamp > stalenessMs;
+      if (!missing.isEmpty() || (nodesStale && !joined)) {
+        var future = fetch(missing);
+        missing.forEach(topic -> sources.put(topic, future));
+        futures.add(future);
+      }
+    }
+    futures.addAll(sources.values());
+    var cachedNodes = Optional.ofNullable(nodes);
+    return FutureUtils.sequence(List.copyOf(futures))
+        .thenApply(
+            all -> {
+              var nodeSnapshot =
+                  Stream.concat(all.stream(), cachedNodes.stream())
+                      .max(Comparator.comparingLong(snapshot -> snapshot.timestamp))
+                      .orElseThrow();
+              var topicSnapshots =
+                  sources.entrySet().stream()
+                      .collect(
+                          Collectors.toUnmodifiableMap(
+                              Map.Entry::getKey, e -> e.getValue().join()));
+              return view(nodeSnapshot, topicSnapshots);
+            });
+  }
+
+  /**
+   * Assemble the view of the snapshots. The repeated queries of the same topics get the same
+   * snapshots until they are stale, so the last view is reused instead of being assembled again.
+   */
+  private ClusterInfo<Replica> view(Snapshot nodeSnapshot, Map<String, Snapshot> topicSnapshots) {
+    // the snapshots have no equals, so the sources are compared by the identity of snapshots
+    var sources = List.<Object>of(nodeSnapshot, topicSnapshots);
+    synchronized (this) {
+      if (sources.equals(viewSources)) return view;
+    }
+    var assembled =
+        ColumnarClusterInfo.of(
+            nodeSnapshot.clusterInfo.nodes(),
+            topicSnapshots.entrySet().stream()
+                .flatMap(e -> e.getValue().clusterInfo.replicaStream(e.getKey()))
+                .collect(Collectors.toUnmodifiableList()));
+    synchronized (this) {
+      viewSources = sources;
+      view = assembled;
+    }
+    return assembled;
+  }
+
+  /** It must be called with the lock. */
+  private CompletableFuture<Snapshot> fetch(Set<String> topics) {
+    var start = System.currentTimeMillis();
+    var future =
+        delegate
+            .clusterInfo(topics)
+            .thenApply(clusterInfo -> new Snapshot(start, clusterInfo))
+            .toCompletableFuture();
+    topics.forEach(topic -> inflight.put(topic, future));
+    future.whenComplete(
+        (snapshot, e) -> {
+          synchronized (this) {
+            topics.forEach(topic -> inflight.remove(topic, future));
+            if (snapshot == null) return;
+            // a write during the fetch may have changed the topic
+            topics.stream()
+                .filter(topic -> invalidated.getOrDefault(topic, Long.MIN_VALUE) < start)
+                .forEach(topic -> snapshots.put(topic, snapshot));
+            if (latest == null || latest.timestamp <= start) latest = snapshot;
+          }
+        });
+    return future;
+  }
+
+  /** Drop the snapshots of the topics, so the next query fetches them again. */
+  private synchronized void invalidate(Set<String> topics) {
+    var now = System.currentTimeMillis();
+    topics.forEach(
+        topic -> {
+          snapshots.remove(topic);
+          inflight.remove(topic);
+          invalidated.put(topic, now);
+        });
+  }
+
+  private <T> CompletionStage<T> invalidateAfter(Set<String> topics, CompletionStage<T> stage) {
+    return stage.whenComplete((ignored, e) -> invalidate(topics));
+  }
+
+  @Override
+  public TopicCreator creator() {
+    return creator(topic -> invalidate(Set.of(topic)));
+  }
+
+  @Override
+  public CompletionStage<Void> moveToBrokers(Map<TopicPartition, List<Integer>> assignments) {
+    return invalidateAfter(
+        assignments.keySet().stream().map(TopicPartition::topic).collect(Collectors.toSet()),
+        delegate.moveToBrokers(assignments));
+  }
+
+  @Override
+  public CompletionStage<Void> moveToFolders(Map<TopicPartitionReplica, String> assignments) {
+    return invalidateAfter(
+        assignments.keySet().stream().map(TopicPartitionReplica::topic).collect(Collectors.toSet()),
+        delegate.moveToFolders(assignments));
+  }
+
+  @Override
+  public CompletionStage<Void> preferredLeaderElection(Set<TopicPartition> topicPartitions) {
+    return invalidateAfter(
+        topicPartitions.stream().map(TopicPartition::topic).collect(Collectors.toSet()),
+        delegate.preferredLeaderElection(topicPartitions));
+  }
+
+  @Override
+  public CompletionStage<Void> addPartitions(String topic, int total) {
+    return invalidateAfter(Set.of(topic), delegate.addPartitions(topic, total));
+  }
+
+  @Override
+  public CompletionStage<Void> deleteTopics(Set<String> topics) {
+    return invalidateAfter(topics, delegate.deleteTopics(topics));
+  }
+
+  @Override
+  public CompletionStage<Map<TopicPartition, Long>> deleteRecords(
+      Map<TopicPartition, Long> offsets) {
+    return invalidateAfter(
+        offsets.keySet().stream().map(TopicPartition::topic).collect(Collectors.toSet()),
+        delegate.deleteRecords(offsets));
+  }
+}
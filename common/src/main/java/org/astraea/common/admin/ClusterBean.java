@@ -30,23 +30,22 @@ public interface ClusterBean {
   static ClusterBean of(Map<Integer, Collection<HasBeanObject>> allBeans) {
     var beanObjectByReplica = new HashMap<TopicPartitionReplica, Collection<HasBeanObject>>();
     allBeans.forEach(
-        (brokerId, beans) ->
-            beans.forEach(
-                bean -> {
-                  if (bean.beanObject() != null
-                      && bean.beanObject().properties().containsKey("topic")
-                      && bean.beanObject().properties().containsKey("partition")) {
-                    var properties = bean.beanObject().properties();
-                    var tpr =
-                        TopicPartitionReplica.of(
-                            properties.get("topic"),
-                            Integer.parseInt(properties.get("partition")),
-                            brokerId);
-                    beanObjectByReplica
-                        .computeIfAbsent(tpr, (ignore) -> new ArrayList<>())
-                        .add(bean);
-                  }
-                }));
+        (brokerId, beans) -> beanObjectByReplica.putAll(mapByReplica(brokerId, beans)));
+    return of(allBeans, beanObjectByReplica);
+  }
+
+  /**
+   * Create a {@link ClusterBean} with the pre-built replica index. It is used by the callers which
+   * maintain the index by themselves, so the "topic"/"partition" properties are not parsed again.
+   *
+   * @param allBeans the beans of each broker
+   * @param beanObjectByReplica the partition-related beans. see {@link
+   *     ClusterBean#mapByReplica(int, Collection)}
+   * @return a {@link ClusterBean}
+   */
+  static ClusterBean of(
+      Map<Integer, Collection<HasBeanObject>> allBeans,
+      Map<TopicPartitionReplica, Collection<HasBeanObject>> beanObjectByReplica) {
     return new ClusterBean() {
       @Override
       public Map<Integer, Collection<HasBeanObject>> all() {
@@ -60,6 +59,33 @@ public interface ClusterBean {
     };
   }
 
+  /**
+   * Group the partition-related beans of a broker by replica.
+   *
+   * @param brokerId the broker owning the beans
+   * @param beans the beans of the broker
+   * @return the beans having both "topic" and "partition" properties, grouped by replica
+   */
+  static Map<TopicPartitionReplica, Collection<HasBeanObject>> mapByReplica(
+      int brokerId, Collection<HasBeanObject> beans) {
+    var beanObjectByReplica = new HashMap<TopicPartitionReplica, Collection<HasBeanObject>>();
+    beans.forEach(
+        bean -> {
+          if (bean.beanObject() != null
+              && bean.beanObject().properties().containsKey("topic")
+              && bean.beanObject().properties().containsKey("partition")) {
+            var properties = bean.beanObject().properties();
+            var tpr =
+                TopicPartitionReplica.of(
+                    properties.get("topic"),
+                    Integer.parseInt(properties.get("partition")),
+                    brokerId);
+            beanObjectByReplica.computeIfAbsent(tpr, (ignore) -> new ArrayList<>()).add(bean);
+          }
+        });
+    return beanObjectByReplica;
+  }
+
   /**
    * @return a {@link Map} collection that contains broker as key and Collection of {@link
    *     HasBeanObject} as value.
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.admin;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+
+/**
+ * Poll the cluster until every key converges. The polls are scheduled on a shared daemon thread,
+ * so no thread is blocked while waiting.
+ *
+ * <p>Each key converges independently. A key is removed from the poll scope once it matches the
+ * predicate for {@code debounce + 1} consecutive polls, and the listener is notified at that time.
+ * The next poll fetches only the cluster state required by the remaining keys.
+ *
+ * <p>The interval between polls starts at {@link #INITIAL_BACKOFF} and doubles, up to {@link
+ * #MAX_BACKOFF}, as long as no key matches. Any match resets the interval. A random jitter is
+ * applied to each interval so concurrent waiters do not poll the cluster in lockstep.
+ */
+final class ClusterWaiter<K> {
+
+  static final Duration INITIAL_BACKOFF = Duration.ofMillis(200);
+  static final Duration MAX_BACKOFF = Duration.ofSeconds(5);
+
+  private static final ScheduledExecutorService SCHEDULER =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            var thread = new Thread(runnable, "cluster-waiter");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  /**
+   * @param keys to wait
+   * @param fetcher fetches the cluster state of the pending keys
+   * @param converged checks whether the key is converged in the cluster state
+   * @param listener is called when a key is converged
+   * @param timeout to give up
+   * @param debounce the number of extra polls to double-check a matched key
+   * @return true if all keys are converged before timeout. Otherwise, false
+   */
+  static <K> CompletionStage<Boolean> wait(
+      Set<K> keys,
+      Function<Set<K>, CompletionStage<ClusterInfo<Replica>>> fetcher,
+      BiPredicate<ClusterInfo<Replica>, K> converged,
+      Consumer<K> listener,
+      Duration timeout,
+      int debounce) {
+    if (timeout.toMillis() <= 0) return CompletableFuture.completedFuture(false);
+    var waiter = new ClusterWaiter<>(keys, fetcher, converged, listener, timeout, debounce);
+    waiter.poll();
+    return waiter.result;
+  }
+
+  private final Function<Set<K>, CompletionStage<ClusterInfo<Replica>>> fetcher;
+  private final BiPredicate<ClusterInfo<Replica>, K> converged;
+  private final Consumer<K> listener;
+  private final int debounce;
+  private final long deadline;
+  private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+  // the polls never overlap, so the following states are not accessed concurrently
+
+  /** pending key -> the number of remaining matches */
+  private final Map<K, Integer> pending = new HashMap<>();
+
+  private int attempts = 0;
+
+  private ClusterWaiter(
+      Set<K> keys,
+      Function<Set<K>, CompletionStage<ClusterInfo<Replica>>> fetcher,
+      BiPredicate<ClusterInfo<Replica>, K> converged,
+      Consumer<K> listener,
+      Duration timeout,
+      int debounce) {
+    this.fetcher = fetcher;
+    this.converged = converged;
+    this.listener = listener;
+    this.debounce = debounce;
+    this.deadline = System.currentTimeMillis() + timeout.toMillis();
+    keys.forEach(key -> pending.put(key, debounce));
+  }
+
+  private void poll() {
+    if (pending.isEmpty()) {
+      result.complete(true);
+      return;
+    }
+    try {
+      fetcher
+          .apply(Set.copyOf(pending.keySet()))
+          .whenComplete(
+              (clusterInfo, e) -> {
+                try {
+                  if (e == null) schedule(update(clusterInfo));
+                  // the topics may be not synced yet
+                  else if (isUnknownTopic(e)) schedule(update(null));
+                  else result.completeExceptionally(e);
+                } catch (RuntimeException error) {
+                  result.completeExceptionally(error);
+                }
+              });
+    } catch (RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * @param clusterInfo the latest cluster state, or null if the state is unavailable
+   * @return true if any key matches
+   */
+  private boolean update(ClusterInfo<Replica> clusterInfo) {
+    var matched = false;
+    var iterator = pending.entrySet().iterator();
+    while (iterator.hasNext()) {
+      var entry = iterator.next();
+      if (clusterInfo == null || !converged.test(clusterInfo, entry.getKey())) {
+        // reset debounce for retry
+        entry.setValue(debounce);
+        continue;
+      }
+      matched = true;
+      if (entry.getValue() <= 0) {
+        iterator.remove();
+        listener.accept(entry.getKey());
+      } else entry.setValue(entry.getValue() - 1);
+    }
+    return matched;
+  }
+
+  private void schedule(boolean matched) {
+    if (pending.isEmpty()) {
+      result.complete(true);
+      return;
+    }
+    var remaining = deadline - System.currentTimeMillis();
+    if (remaining <= 0) {
+      result.complete(false);
+      return;
+    }
+    if (matched) attempts = 0;
+    var delay = Math.min(backoff(attempts), remaining);
+    if (!matched) attempts++;
+    SCHEDULER.schedule(this::poll, delay, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * @return a random delay between the half and the full of the exponential backoff
+   */
+  static long backoff(int attempts) {
+    var max = MAX_BACKOFF.toMillis();
+    var delay = Math.min(max, INITIAL_BACKOFF.toMillis() << Math.min(attempts, 20));
+    return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+  }
+
+  private static boolean isUnknownTopic(Throwable e) {
+    return e instanceof UnknownTopicOrPartitionException
+        || e.getCause() instanceof UnknownTopicOrPartitionException;
+  }
+}
@@ -0,0 +1,378 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.admin;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.management.ObjectName;
+import org.astraea.common.DataRate;
+import org.astraea.common.metrics.jmx.MBeanRegister;
+
+/**
+ * Share a request among the identical queries. A query joins the in-flight request which has the
+ * same method and arguments, and the completed result is reused until it is older than the ttl. The
+ * ttl is zero by default, so only the in-flight requests are shared.
+ *
+ * <p>The writes, including the topic creations, drop both the completed results and the in-flight
+ * requests, so a query after a write of this admin always sends a new request. The failures are
+ * never reused. The counters of hits, misses and coalesced queries are exposed by the MBean
+ * "astraea.admin:type=coalescing,id=[id]".
+ */
+class CoalescingAdmin extends ForwardingAdmin {
+
+  private static final AtomicInteger ID = new AtomicInteger();
+
+  private static class Entry {
+    private final CompletableFuture<Object> future = new CompletableFuture<>();
+    private volatile long completedTime = Long.MAX_VALUE;
+
+    private boolean expired(long now, long ttlMs) {
+      return future.isDone() && now - completedTime > ttlMs;
+    }
+  }
+
+  private final long ttlMs;
+  private final Map<List<Object>, Entry> entries = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final ObjectName mBean;
+
+  CoalescingAdmin(Admin delegate, Duration ttl) {
+    super(delegate);
+    this.ttlMs = ttl.toMillis();
+    this.mBean =
+        MBeanRegister.local()
+            .setDomainName("astraea.admin")
+            .addProperty("type", "coalescing")
+            .addProperty("id", Integer.toString(ID.getAndIncrement()))
+            .addAttribute("Hits", Long.class, hits::sum)
+            .addAttribute("Misses", Long.class, misses::sum)
+            .addAttribute("Coalesced", Long.class, coalesced::sum)
+            .register();
+  }
+
+  /**
+   * @return the number of queries answered by a completed result
+   */
+  long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of queries which send a request
+   */
+  long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the number of queries which join an in-flight request
+   */
+  long coalesced() {
+    return coalesced.sum();
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> CompletionStage<T> coalesce(List<Object> key, Supplier<CompletionStage<T>> request) {
+    var now = System.currentTimeMillis();
+    var created = new Entry();
+    var entry =
+        entries.compute(
+            key,
+            (k, current) -> current == null || current.expired(now, ttlMs) ? created : current);
+    if (entry != created) {
+      if (entry.future.isDone()) hits.increment();
+      else coalesced.increment();
+      return entry.future.thenApply(value -> (T) value);
+    }
+    misses.increment();
+    // the expired results of other queries are dropped by the request which is sent anyway
+    entries.values().removeIf(e -> e.expired(now, ttlMs));
+    CompletionStage<T> stage;
+    try {
+      stage = request.get();
+    } catch (RuntimeException e) {
+      stage = CompletableFuture.failedFuture(e);
+    }
+    stage.whenComplete(
+        (value, e) -> {
+          created.completedTime = System.currentTimeMillis();
+          if (e != null || ttlMs <= 0) entries.remove(key, created);
+          if (e != null) created.future.completeExceptionally(e);
+          else created.future.complete(value);
+        });
+    return created.future.thenApply(value -> (T) value);
+  }
+
+  /**
+   * Drop all shared requests when the write is completed, so the following queries see the changes
+   * of writes. The in-flight requests are dropped too, since they may be sent before the write.
+   * The queries which have joined them still get their results.
+   */
+  private <T> CompletionStage<T> invalidateAfter(CompletionStage<T> stage) {
+    return stage.whenComplete((ignored, e) -> entries.clear());
+  }
+
+  @Override
+  public CompletionStage<Set<String>> topicNames(boolean listInternal) {
+    return coalesce(List.of("topicNames", listInternal), () -> delegate.topicNames(listInternal));
+  }
+
+  @Override
+  public CompletionStage<Set<String>> internalTopicNames() {
+    return coalesce(List.of("internalTopicNames"), () -> delegate.internalTopicNames());
+  }
+
+  @Override
+  public CompletionStage<List<Topic>> topics(Set<String> topics) {
+    return coalesce(List.of("topics", Set.copyOf(topics)), () -> delegate.topics(topics));
+  }
+
+  @Override
+  public CompletionStage<Set<TopicPartition>> topicPartitions(Set<String> topics) {
+    return coalesce(
+        List.of("topicPartitions", Set.copyOf(topics)), () -> delegate.topicPartitions(topics));
+  }
+
+  @Override
+  public CompletionStage<Set<TopicPartitionReplica>> topicPartitionReplicas(Set<Integer> brokers) {
+    return coalesce(
+        List.of("topicPartitionReplicas", Set.copyOf(brokers)),
+        () -> delegate.topicPartitionReplicas(brokers));
+  }
+
+  @Override
+  public CompletionStage<Map<TopicPartition, Long>> earliestOffsets(
+      Set<TopicPartition> topicPartitions) {
+    return coalesce(
+        List.of("earliestOffsets", Set.copyOf(topicPartitions)),
+        () -> delegate.earliestOffsets(topicPartitions));
+  }
+
+  @Override
+  public CompletionStage<Map<TopicPartition, Long>> latestOffsets(
+      Set<TopicPartition> topicPartitions) {
+    return coalesce(
+        List.of("latestOffsets", Set.copyOf(topicPartitions)),
+        () -> delegate.latestOffsets(topicPartitions));
+  }
+
+  @Override
+  public CompletionStage<Map<TopicPartition, Long>> maxTimestamps(
+      Set<TopicPartition> topicPartitions) {
+    return coalesce(
+        List.of("maxTimestamps", Set.copyOf(topicPartitions)),
+        () -> delegate.maxTimestamps(topicPartitions));
+  }
+
+  @Override
+  public CompletionStage<List<Partition>> partitions(Set<String> topics) {
+    return coalesce(List.of("partitions", Set.copyOf(topics)), () -> delegate.partitions(topics));
+  }
+
+  @Override
+  public CompletionStage<Set<NodeInfo>> nodeInfos() {
+    return coalesce(List.of("nodeInfos"), () -> delegate.nodeInfos());
+  }
+
+  @Override
+  public CompletionStage<List<Broker>> brokers() {
+    return coalesce(List.of("brokers"), () -> delegate.brokers());
+  }
+
+  @Override
+  public CompletionStage<Map<Integer, List<Broker.DiskSpace>>> diskSpaces() {
+    return coalesce(List.of("diskSpaces"), () -> delegate.diskSpaces());
+  }
+
+  @Override
+  public CompletionStage<Set<String>> consumerGroupIds() {
+    return coalesce(List.of("consumerGroupIds"), () -> delegate.consumerGroupIds());
+  }
+
+  @Override
+  public CompletionStage<List<ConsumerGroup>> consumerGroups(Set<String> consumerGroupIds) {
+    return coalesce(
+        List.of("consumerGroups", Set.copyOf(consumerGroupIds)),
+        () -> delegate.consumerGroups(consumerGroupIds));
+  }
+
+  @Override
+  public CompletionStage<List<ProducerState>> producerStates(Set<TopicPartition> partitions) {
+    return coalesce(
+        List.of("producerStates", Set.copyOf(partitions)),
+        () -> delegate.producerStates(partitions));
+  }
+
+  @Override
+  public CompletionStage<Set<String>> transactionIds() {
+    return coalesce(List.of("transactionIds"), () -> delegate.transactionIds());
+  }
+
+  @Override
+  public CompletionStage<List<Transaction>> transactions(Set<String> transactionIds) {
+    return coalesce(
+        List.of("transactions", Set.copyOf(transactionIds)),
+        () -> delegate.transactions(transactionIds));
+  }
+
+  @Override
+  public CompletionStage<ClusterInfo<Replica>> clusterInfo(Set<String> topics) {
+    return coalesce(List.of("clusterInfo", Set.copyOf(topics)), () -> delegate.clusterInfo(topics));
+  }
+
+  @Override
+  public CompletionStage<List<Quota>> quotas(Map<String, Set<String>> targets) {
+    return coalesce(List.of("quotas", Map.copyOf(targets)), () -> delegate.quotas(targets));
+  }
+
+  @Override
+  public CompletionStage<List<Quota>> quotas(Set<String> targetKeys) {
+    return coalesce(List.of("quotas", Set.copyOf(targetKeys)), () -> delegate.quotas(targetKeys));
+  }
+
+  @Override
+  public CompletionStage<List<Quota>> quotas() {
+    return coalesce(List.of("quotas"), () -> delegate.quotas());
+  }
+
+  @Override
+  public CompletionStage<Void> setConnectionQuotas(Map<String, Integer> ipAndRate) {
+    return invalidateAfter(delegate.setConnectionQuotas(ipAndRate));
+  }
+
+  @Override
+  public CompletionStage<Void> unsetConnectionQuotas(Set<String> ips) {
+    return invalidateAfter(delegate.unsetConnectionQuotas(ips));
+  }
+
+  @Override
+  public CompletionStage<Void> setProducerQuotas(Map<String, DataRate> clientAndRate) {
+    return invalidateAfter(delegate.setProducerQuotas(clientAndRate));
+  }
+
+  @Override
+  public CompletionStage<Void> unsetProducerQuotas(Set<String> clientIds) {
+    return invalidateAfter(delegate.unsetProducerQuotas(clientIds));
+  }
+
+  @Override
+  public CompletionStage<Void> setConsumerQuotas(Map<String, DataRate> clientAndRate) {
+    return invalidateAfter(delegate.setConsumerQuotas(clientAndRate));
+  }
+
+  @Override
+  public CompletionStage<Void> unsetConsumerQuotas(Set<String> clientIds) {
+    return invalidateAfter(delegate.unsetConsumerQuotas(clientIds));
+  }
+
+  @Override
+  public CompletionStage<Void> moveToBrokers(Map<TopicPartition, List<Integer>> assignments) {
+    return invalidateAfter(delegate.moveToBrokers(assignments));
+  }
+
+  @Override
+  public CompletionStage<Void> moveToFolders(Map<TopicPartitionReplica, String> assignments) {
+    return invalidateAfter(delegate.moveToFolders(assignments));
+  }
+
+  @Override
+  public CompletionStage<Void> preferredLeaderElection(Set<TopicPartition> topicPartitions) {
+    return invalidateAfter(delegate.preferredLeaderElection(topicPartitions));
+  }
+
+  @Override
+  public TopicCreator creator() {
+    return creator(topic -> entries.clear());
+  }
+
+  @Override
+  public CompletionStage<Void> addPartitions(String topic, int total) {
+    return invalidateAfter(delegate.addPartitions(topic, total));
+  }
+
+  @Override
+  public CompletionStage<Void> setTopicConfigs(Map<String, Map<String, String>> override) {
+    return invalidateAfter(delegate.setTopicConfigs(override));
+  }
+
+  @Override
+  public CompletionStage<Void> appendTopicConfigs(Map<String, Map<String, String>> appended) {
+    return invalidateAfter(delegate.appendTopicConfigs(appended));
+  }
+
+  @Override
+  public CompletionStage<Void> subtractTopicConfigs(Map<String, Map<String, String>> subtract) {
+    return invalidateAfter(delegate.subtractTopicConfigs(subtract));
+  }
+
+  @Override
+  public CompletionStage<Void> unsetTopicConfigs(Map<String, Set<String>> unset) {
+    return invalidateAfter(delegate.unsetTopicConfigs(unset));
+  }
+
+  @Override
+  public CompletionStage<Void> setBrokerConfigs(Map<Integer, Map<String, String>> override) {
+    return invalidateAfter(delegate.setBrokerConfigs(override));
+  }
+
+  @Override
+  public CompletionStage<Void> unsetBrokerConfigs(Map<Integer, Set<String>> unset) {
+    return invalidateAfter(delegate.unsetBrokerConfigs(unset));
+  }
+
+  @Override
+  public CompletionStage<Void> deleteTopics(Set<String> topics) {
+    return invalidateAfter(delegate.deleteTopics(topics));
+  }
+
+  @Override
+  public CompletionStage<Map<TopicPartition, Long>> deleteRecords(
+      Map<TopicPartition, Long> offsets) {
+    return invalidateAfter(delegate.deleteRecords(offsets));
+  }
+
+  @Override
+  public CompletionStage<Void> deleteInstanceMembers(Map<String, Set<String>> groupAndInstanceIds) {
+    return invalidateAfter(delegate.deleteInstanceMembers(groupAndInstanceIds));
+  }
+
+  @Override
+  public CompletionStage<Void> deleteMembers(Set<String> consumerGroups) {
+    return invalidateAfter(delegate.deleteMembers(consumerGroups));
+  }
+
+  @Override
+  public CompletionStage<Void> deleteGroups(Set<String> consumerGroups) {
+    return invalidateAfter(delegate.deleteGroups(consumerGroups));
+  }
+
+  @Override
+  public void close() {
+    MBeanRegister.unregister(mBean);
+    delegate.close();
+  }
+}
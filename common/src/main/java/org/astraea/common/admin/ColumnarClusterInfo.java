@@ -0,0 +1,436 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.admin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.astraea.common.Lazy;
+
+/**
+ * A {@link ClusterInfo} which keeps the replicas in columns of primitive arrays. The topic names
+ * and the data folders are interned to ints, and the replicas are sorted by topic, partition and
+ * broker. Hence, the replicas of a topic or a partition are a range of offsets, and the queries are
+ * answered by binary searches instead of the hash indexes of {@link ClusterInfo.Optimized}.
+ *
+ * <p>The {@link Replica} objects are created on demand, so a large cluster costs about 40 bytes
+ * per replica. The replicas created by this class are equal to the replicas created by {@link
+ * Replica#builder()} from the same fields.
+ */
+public final class ColumnarClusterInfo implements ClusterInfo<Replica> {
+
+  public static final int LEADER = 1;
+  public static final int PREFERRED_LEADER = 1 << 1;
+  public static final int IN_SYNC = 1 << 2;
+  public static final int FUTURE = 1 << 3;
+  public static final int OFFLINE = 1 << 4;
+  public static final int ADDING = 1 << 5;
+  public static final int REMOVING = 1 << 6;
+  public static final int INTERNAL = 1 << 7;
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static ColumnarClusterInfo of(Set<NodeInfo> nodes, List<Replica> replicas) {
+    var builder = builder().nodes(nodes);
+    replicas.forEach(builder::add);
+    return builder.build();
+  }
+
+  private final Set<NodeInfo> nodes;
+
+  // dictionaries. The topic names and the broker ids are sorted
+  private final String[] topicNames;
+  private final int[] brokerIds;
+  private final NodeInfo[] nodeInfos;
+  private final String[] paths;
+
+  // columns. They are sorted by topic, partition and broker
+  private final int[] topics;
+  private final int[] partitions;
+  private final int[] brokers;
+  private final long[] lags;
+  private final long[] sizes;
+  private final byte[] flags;
+  private final int[] pathIds;
+
+  // the replicas of topic i are in [topicOffsets[i], topicOffsets[i + 1])
+  private final int[] topicOffsets;
+  // the replicas of broker i are byBroker[brokerOffsets[i]] ... byBroker[brokerOffsets[i + 1] - 1]
+  private final int[] brokerOffsets;
+  private final int[] byBroker;
+
+  private final Lazy<Set<TopicPartition>> topicPartitions;
+  private final Lazy<Set<TopicPartitionReplica>> topicPartitionReplicas;
+
+  private ColumnarClusterInfo(Builder builder) {
+    var size = builder.size;
+    this.topicNames = builder.topicIds.keySet().stream().sorted().toArray(String[]::new);
+    var topicRanks = new int[topicNames.length];
+    for (var i = 0; i < topicNames.length; i++)
+      topicRanks[builder.topicIds.get(topicNames[i])] = i;
+
+    this.brokerIds = builder.brokerIds.keySet().stream().mapToInt(id -> id).sorted().toArray();
+    var brokerRanks = new int[brokerIds.length];
+    this.nodeInfos = new NodeInfo[brokerIds.length];
+    for (var i = 0; i < brokerIds.length; i++) {
+      var index = builder.brokerIds.get(brokerIds[i]);
+      brokerRanks[index] = i;
+      nodeInfos[i] = builder.nodeInfos.get(index);
+    }
+    this.paths = builder.paths.toArray(String[]::new);
+    this.nodes = builder.nodes != null ? builder.nodes : Set.of(nodeInfos);
+
+    // the sort is stable, so the current log and the future log keep the order of insertion
+    var order =
+        IntStream.range(0, size)
+            .boxed()
+            .sorted(
+                Comparator.<Integer>comparingInt(i -> topicRanks[builder.topics[i]])
+                    .thenComparingInt(i -> builder.partitions[i])
+                    .thenComparingInt(i -> brokerRanks[builder.brokers[i]]))
+            .mapToInt(i -> i)
+            .toArray();
+    this.topics = new int[size];
+    this.partitions = new int[size];
+    this.brokers = new int[size];
+    this.lags = new long[size];
+    this.sizes = new long[size];
+    this.flags = new byte[size];
+    this.pathIds = new int[size];
+    for (var i = 0; i < size; i++) {
+      var source = order[i];
+      topics[i] = topicRanks[builder.topics[source]];
+      partitions[i] = builder.partitions[source];
+      brokers[i] = brokerRanks[builder.brokers[source]];
+      lags[i] = builder.lags[source];
+      sizes[i] = builder.sizes[source];
+      flags[i] = builder.flags[source];
+      pathIds[i] = builder.replicaPaths[source];
+    }
+
+    this.topicOffsets = offsets(topics, topicNames.length);
+    // counting sort keeps the replicas of a broker sorted by topic and partition
+    this.brokerOffsets = offsets(brokers, brokerIds.length);
+    this.byBroker = new int[size];
+    var next = Arrays.copyOf(brokerOffsets, brokerIds.length);
+    for (var i = 0; i < size; i++) byBroker[next[brokers[i]]++] = i;
+
+    this.topicPartitions =
+        Lazy.of(
+            () ->
+                IntStream.range(0, size)
+                    .filter(
+                        i ->
+                            i == 0
+                                || topics[i] != topics[i - 1]
+                                || partitions[i] != partitions[i - 1])
+                    .mapToObj(i -> TopicPartition.of(topicNames[topics[i]], partitions[i]))
+                    .collect(Collectors.toUnmodifiableSet()));
+    this.topicPartitionReplicas =
+        Lazy.of(
+            () ->
+                IntStream.range(0, size)
+                    .mapToObj(
+                        i ->
+                            TopicPartitionReplica.of(
+                                topicNames[topics[i]], partitions[i], brokerIds[brokers[i]]))
+                    .collect(Collectors.toUnmodifiableSet()));
+  }
+
+  /**
+   * @return the offsets of the groups of the sorted or counted keys. The group i has {@code
+   *     offsets[i + 1] - offsets[i]} elements.
+   */
+  private static int[] offsets(int[] keys, int groups) {
+    var offsets = new int[groups + 1];
+    for (var key : keys) offsets[key + 1]++;
+    for (var i = 0; i < groups; i++) offsets[i + 1] += offsets[i];
+    return offsets;
+  }
+
+  private Replica replica(int index) {
+    var flag = flags[index];
+    return Replica.builder()
+        .topic(topicNames[topics[index]])
+        .partition(partitions[index])
+        .nodeInfo(nodeInfos[brokers[index]])
+        .lag(lags[index])
+        .size(sizes[index])
+        .isLeader((flag & LEADER) != 0)
+        .isPreferredLeader((flag & PREFERRED_LEADER) != 0)
+        .inSync((flag & IN_SYNC) != 0)
+        .isFuture((flag & FUTURE) != 0)
+        .isOffline((flag & OFFLINE) != 0)
+        .isAdding((flag & ADDING) != 0)
+        .isRemoving((flag & REMOVING) != 0)
+        .internal((flag & INTERNAL) != 0)
+        .path(pathIds[index] < 0 ? null : paths[pathIds[index]])
+        .build();
+  }
+
+  private boolean isOnlineLeader(int index) {
+    return (flags[index] & (LEADER | OFFLINE)) == LEADER;
+  }
+
+  private IntStream topicRange(String name) {
+    var topic = Arrays.binarySearch(topicNames, name);
+    if (topic < 0) return IntStream.empty();
+    return IntStream.range(topicOffsets[topic], topicOffsets[topic + 1]);
+  }
+
+  private IntStream partitionRange(TopicPartition topicPartition) {
+    var topic = Arrays.binarySearch(topicNames, topicPartition.topic());
+    if (topic < 0) return IntStream.empty();
+    var partition = topicPartition.partition();
+    var end = topicOffsets[topic + 1];
+    var from = lowerBound(topicOffsets[topic], end, i -> partitions[i], partition);
+    return IntStream.range(from, lowerBound(from, end, i -> partitions[i], partition + 1));
+  }
+
+  private IntStream brokerRange(int id) {
+    var broker = Arrays.binarySearch(brokerIds, id);
+    if (broker < 0) return IntStream.empty();
+    return Arrays.stream(byBroker, brokerOffsets[broker], brokerOffsets[broker + 1]);
+  }
+
+  private IntStream brokerTopicRange(int id, String name) {
+    var broker = Arrays.binarySearch(brokerIds, id);
+    var topic = Arrays.binarySearch(topicNames, name);
+    if (broker < 0 || topic < 0) return IntStream.empty();
+    var end = brokerOffsets[broker + 1];
+    IntUnaryOperator topicOf = i -> topics[byBroker[i]];
+    var from = lowerBound(brokerOffsets[broker], end, topicOf, topic);
+    return Arrays.stream(byBroker, from, lowerBound(from, end, topicOf, topic + 1));
+  }
+
+  /**
+   * @return the first offset in [from, to) whose key is not less than the given key. The keys must
+   *     be sorted in the range.
+   */
+  private static int lowerBound(int from, int to, IntUnaryOperator keys, int key) {
+    var low = from;
+    var high = to;
+    while (low < high) {
+      var mid = (low + high) >>> 1;
+      if (keys.applyAsInt(mid) < key) low = mid + 1;
+      else high = mid;
+    }
+    return low;
+  }
+
+  private List<Replica> leaders(IntStream indexes) {
+    return indexes
+        .filter(this::isOnlineLeader)
+        .mapToObj(this::replica)
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  @Override
+  public List<Replica> replicaLeaders() {
+    return leaders(IntStream.range(0, topics.length));
+  }
+
+  @Override
+  public List<Replica> replicaLeaders(String topic) {
+    return leaders(topicRange(topic));
+  }
+
+  @Override
+  public List<Replica> replicaLeaders(int broker) {
+    return leaders(brokerRange(broker));
+  }
+
+  @Override
+  public List<Replica> replicaLeaders(int broker, String topic) {
+    return leaders(brokerTopicRange(broker, topic));
+  }
+
+  @Override
+  public Optional<Replica> replicaLeader(TopicPartition topicPartition) {
+    return partitionRange(topicPartition)
+        .filter(this::isOnlineLeader)
+        .mapToObj(this::replica)
+        .findFirst();
+  }
+
+  @Override
+  public Stream<Replica> replicaStream(String topic) {
+    return topicRange(topic).mapToObj(this::replica);
+  }
+
+  @Override
+  public Stream<Replica> replicaStream(TopicPartition partition) {
+    return partitionRange(partition).mapToObj(this::replica);
+  }
+
+  @Override
+  public Stream<Replica> replicaStream(TopicPartitionReplica replica) {
+    return partitionRange(replica.topicPartition())
+        .filter(i -> brokerIds[brokers[i]] == replica.brokerId())
+        .mapToObj(this::replica);
+  }
+
+  @Override
+  public Stream<Replica> replicaStream(int broker) {
+    return brokerRange(broker).mapToObj(this::replica);
+  }
+
+  @Override
+  public Stream<Replica> replicaStream(int broker, String topic) {
+    return brokerTopicRange(broker, topic).mapToObj(this::replica);
+  }
+
+  @Override
+  public Set<String> topics() {
+    return Set.of(topicNames);
+  }
+
+  @Override
+  public Set<TopicPartition> topicPartitions() {
+    return topicPartitions.get();
+  }
+
+  @Override
+  public Set<TopicPartitionReplica> topicPartitionReplicas() {
+    return topicPartitionReplicas.get();
+  }
+
+  @Override
+  public Set<NodeInfo> nodes() {
+    return nodes;
+  }
+
+  @Override
+  public Stream<Replica> replicaStream() {
+    return IntStream.range(0, topics.length).mapToObj(this::replica);
+  }
+
+  public static final class Builder {
+    private Set<NodeInfo> nodes;
+    private final Map<String, Integer> topicIds = new HashMap<>();
+    private final Map<Integer, Integer> brokerIds = new HashMap<>();
+    private final List<NodeInfo> nodeInfos = new ArrayList<>();
+    private final Map<String, Integer> pathIds = new HashMap<>();
+    private final List<String> paths = new ArrayList<>();
+
+    private int size = 0;
+    private int[] topics = new int[16];
+    private int[] partitions = new int[16];
+    private int[] brokers = new int[16];
+    private long[] lags = new long[16];
+    private long[] sizes = new long[16];
+    private byte[] flags = new byte[16];
+    private int[] replicaPaths = new int[16];
+
+    private Builder() {}
+
+    /**
+     * @param nodes the known nodes. If it is not set, the nodes are collected from the replicas.
+     * @return this
+     */
+    public Builder nodes(Set<NodeInfo> nodes) {
+      this.nodes = Objects.requireNonNull(nodes);
+      return this;
+    }
+
+    public Builder add(Replica replica) {
+      return add(
+          replica.topic(),
+          replica.partition(),
+          replica.nodeInfo(),
+          replica.lag(),
+          replica.size(),
+          replica.path(),
+          (replica.isLeader() ? LEADER : 0)
+              | (replica.isPreferredLeader() ? PREFERRED_LEADER : 0)
+              | (replica.inSync() ? IN_SYNC : 0)
+              | (replica.isFuture() ? FUTURE : 0)
+              | (replica.isOffline() ? OFFLINE : 0)
+              | (replica.isAdding() ? ADDING : 0)
+              | (replica.isRemoving() ? REMOVING : 0)
+              | (replica.internal() ? INTERNAL : 0));
+    }
+
+    /**
+     * @param path the data folder. It can be null if the replica is offline
+     * @param flags the bitwise-or of {@link #LEADER}, {@link #PREFERRED_LEADER}, {@link #IN_SYNC},
+     *     {@link #FUTURE}, {@link #OFFLINE}, {@link #ADDING}, {@link #REMOVING} and {@link
+     *     #INTERNAL}
+     * @return this
+     */
+    public Builder add(
+        String topic,
+        int partition,
+        NodeInfo nodeInfo,
+        long lag,
+        long size,
+        String path,
+        int flags) {
+      if (this.size == topics.length) grow();
+      var index = this.size++;
+      topics[index] = topicIds.computeIfAbsent(Objects.requireNonNull(topic), t -> topicIds.size());
+      partitions[index] = partition;
+      brokers[index] =
+          brokerIds.computeIfAbsent(
+              nodeInfo.id(),
+              id -> {
+                nodeInfos.add(nodeInfo);
+                return nodeInfos.size() - 1;
+              });
+      lags[index] = lag;
+      sizes[index] = size;
+      this.flags[index] = (byte) flags;
+      replicaPaths[index] =
+          path == null
+              ? -1
+              : pathIds.computeIfAbsent(
+                  path,
+                  p -> {
+                    paths.add(p);
+                    return paths.size() - 1;
+                  });
+      return this;
+    }
+
+    private void grow() {
+      var capacity = topics.length * 2;
+      topics = Arrays.copyOf(topics, capacity);
+      partitions = Arrays.copyOf(partitions, capacity);
+      brokers = Arrays.copyOf(brokers, capacity);
+      lags = Arrays.copyOf(lags, capacity);
+      sizes = Arrays.copyOf(sizes, capacity);
+      flags = Arrays.copyOf(flags, capacity);
+      replicaPaths = Arrays.copyOf(replicaPaths, capacity);
+    }
+
+    public ColumnarClusterInfo build() {
+      return new ColumnarClusterInfo(this);
+    }
+  }
+}
@@ -0,0 +1,341 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.admin;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.astraea.common.DataRate;
+
+/**
+ * Forward all the abstract methods of {@link Admin} to another {@link Admin}. The default methods
+ * are not forwarded, so they call the methods overridden by the subclass.
+ */
+abstract class ForwardingAdmin implements Admin {
+
+  protected final Admin delegate;
+
+  protected ForwardingAdmin(Admin delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public String clientId() {
+    return delegate.clientId();
+  }
+
+  @Override
+  public int runningRequests() {
+    return delegate.runningRequests();
+  }
+
+  @Override
+  public CompletionStage<Set<String>> topicNames(boolean listInternal) {
+    return delegate.topicNames(listInternal);
+  }
+
+  @Override
+  public CompletionStage<Set<String>> internalTopicNames() {
+    return delegate.internalTopicNames();
+  }
+
+  @Override
+  public CompletionStage<List<Topic>> topics(Set<String> topics) {
+    return delegate.topics(topics);
+  }
+
+  @Override
+  public CompletionStage<Set<TopicPartition>> topicPartitions(Set<String> topics) {
+    return delegate.topicPartitions(topics);
+  }
+
+  @Override
+  public CompletionStage<Set<TopicPartitionReplica>> topicPartitionReplicas(Set<Integer> brokers) {
+    return delegate.topicPartitionReplicas(brokers);
+  }
+
+  @Override
+  public CompletionStage<Map<TopicPartition, Long>> earliestOffsets(
+      Set<TopicPartition> topicPartitions) {
+    return delegate.earliestOffsets(topicPartitions);
+  }
+
+  @Override
+  public CompletionStage<Map<TopicPartition, Long>> earliestOffsets(
+      Set<TopicPartition> topicPartitions,
+      BiConsumer<Integer, Map<TopicPartition, Long>> listener) {
+    return delegate.earliestOffsets(topicPartitions, listener);
+  }
+
+  @Override
+  public CompletionStage<Map<TopicPartition, Long>> latestOffsets(
+      Set<TopicPartition> topicPartitions) {
+    return delegate.latestOffsets(topicPartitions);
+  }
+
+  @Override
+  public CompletionStage<Map<TopicPartition, Long>> latestOffsets(
+      Set<TopicPartition> topicPartitions,
+      BiConsumer<Integer, Map<TopicPartition, Long>> listener) {
+    return delegate.latestOffsets(topicPartitions, listener);
+  }
+
+  @Override
+  public CompletionStage<Map<TopicPartition, Long>> maxTimestamps(
+      Set<TopicPartition> topicPartitions) {
+    return delegate.maxTimestamps(topicPartitions);
+  }
+
+  @Override
+  public CompletionStage<Map<TopicPartition, Long>> maxTimestamps(
+      Set<TopicPartition> topicPartitions,
+      BiConsumer<Integer, Map<TopicPartition, Long>> listener) {
+    return delegate.maxTimestamps(topicPartitions, listener);
+  }
+
+  @Override
+  public CompletionStage<List<Partition>> partitions(Set<String> topics) {
+    return delegate.partitions(topics);
+  }
+
+  @Override
+  public CompletionStage<Set<NodeInfo>> nodeInfos() {
+    return delegate.nodeInfos();
+  }
+
+  @Override
+  public CompletionStage<List<Broker>> brokers() {
+    return delegate.brokers();
+  }
+
+  @Override
+  public CompletionStage<Map<Integer, List<Broker.DiskSpace>>> diskSpaces() {
+    return delegate.diskSpaces();
+  }
+
+  @Override
+  public CompletionStage<Set<String>> consumerGroupIds() {
+    return delegate.consumerGroupIds();
+  }
+
+  @Override
+  public CompletionStage<List<ConsumerGroup>> consumerGroups(Set<String> consumerGroupIds) {
+    return delegate.consumerGroups(consumerGroupIds);
+  }
+
+  @Override
+  public CompletionStage<List<ProducerState>> producerStates(Set<TopicPartition> partitions) {
+    return delegate.producerStates(partitions);
+  }
+
+  @Override
+  public CompletionStage<Set<String>> transactionIds() {
+    return delegate.transactionIds();
+  }
+
+  @Override
+  public CompletionStage<List<Transaction>> transactions(Set<String> transactionIds) {
+    return delegate.transactions(transactionIds);
+  }
+
+  @Override
+  public CompletionStage<ClusterInfo<Replica>> clusterInfo(Set<String> topics) {
+    return delegate.clusterInfo(topics);
+  }
+
+  @Override
+  public CompletionStage<List<Quota>> quotas(Map<String, Set<String>> targets) {
+    return delegate.quotas(targets);
+  }
+
+  @Override
+  public CompletionStage<List<Quota>> quotas(Set<String> targetKeys) {
+    return delegate.quotas(targetKeys);
+  }
+
+  @Override
+  public CompletionStage<List<Quota>> quotas() {
+    return delegate.quotas();
+  }
+
+  @Override
+  public CompletionStage<Void> setConnectionQuotas(Map<String, Integer> ipAndRate) {
+    return delegate.setConnectionQuotas(ipAndRate);
+  }
+
+  @Override
+  public CompletionStage<Void> unsetConnectionQuotas(Set<String> ips) {
+    return delegate.unsetConnectionQuotas(ips);
+  }
+
+  @Override
+  public CompletionStage<Void> setProducerQuotas(Map<String, DataRate> clientAndRate) {
+    return delegate.setProducerQuotas(clientAndRate);
+  }
+
+  @Override
+  public CompletionStage<Void> unsetProducerQuotas(Set<String> clientIds) {
+    return delegate.unsetProducerQuotas(clientIds);
+  }
+
+  @Override
+  public CompletionStage<Void> setConsumerQuotas(Map<String, DataRate> clientAndRate) {
+    return delegate.setConsumerQuotas(clientAndRate);
+  }
+
+  @Override
+  public CompletionStage<Void> unsetConsumerQuotas(Set<String> clientIds) {
+    return delegate.unsetConsumerQuotas(clientIds);
+  }
+
+  @Override
+  public TopicCreator creator() {
+    return delegate.creator();
+  }
+
+  /**
+   * @param listener called with the name of the topic when the creation is completed, whether it
+   *     succeeds or not
+   * @return the creator of the delegate
+   */
+  protected TopicCreator creator(Consumer<String> listener) {
+    var creator = delegate.creator();
+    return new TopicCreator() {
+      private String topic;
+
+      @Override
+      public TopicCreator topic(String topic) {
+        this.topic = topic;
+        creator.topic(topic);
+        return this;
+      }
+
+      @Override
+      public TopicCreator numberOfPartitions(int numberOfPartitions) {
+        creator.numberOfPartitions(numberOfPartitions);
+        return this;
+      }
+
+      @Override
+      public TopicCreator numberOfReplicas(short numberOfReplicas) {
+        creator.numberOfReplicas(numberOfReplicas);
+        return this;
+      }
+
+      @Override
+      public TopicCreator configs(Map<String, String> configs) {
+        creator.configs(configs);
+        return this;
+      }
+
+      @Override
+      public CompletionStage<Boolean> run() {
+        var topic = this.topic;
+        return creator
+            .run()
+            .whenComplete(
+                (ignored, e) -> {
+                  if (topic != null) listener.accept(topic);
+                });
+      }
+    };
+  }
+
+  @Override
+  public CompletionStage<Void> moveToBrokers(Map<TopicPartition, List<Integer>> assignments) {
+    return delegate.moveToBrokers(assignments);
+  }
+
+  @Override
+  public CompletionStage<Void> moveToFolders(Map<TopicPartitionReplica, String> assignments) {
+    return delegate.moveToFolders(assignments);
+  }
+
+  @Override
+  public CompletionStage<Void> preferredLeaderElection(Set<TopicPartition> topicPartitions) {
+    return delegate.preferredLeaderElection(topicPartitions);
+  }
+
+  @Override
+  public CompletionStage<Void> addPartitions(String topic, int total) {
+    return delegate.addPartitions(topic, total);
+  }
+
+  @Override
+  public CompletionStage<Void> setTopicConfigs(Map<String, Map<String, String>> override) {
+    return delegate.setTopicConfigs(override);
+  }
+
+  @Override
+  public CompletionStage<Void> appendTopicConfigs(Map<String, Map<String, String>> appended) {
+    return delegate.appendTopicConfigs(appended);
+  }
+
+  @Override
+  public CompletionStage<Void> subtractTopicConfigs(Map<String, Map<String, String>> subtract) {
+    return delegate.subtractTopicConfigs(subtract);
+  }
+
+  @Override
+  public CompletionStage<Void> unsetTopicConfigs(Map<String, Set<String>> unset) {
+    return delegate.unsetTopicConfigs(unset);
+  }
+
+  @Override
+  public CompletionStage<Void> setBrokerConfigs(Map<Integer, Map<String, String>> override) {
+    return delegate.setBrokerConfigs(override);
+  }
+
+  @Override
+  public CompletionStage<Void> unsetBrokerConfigs(Map<Integer, Set<String>> unset) {
+    return delegate.unsetBrokerConfigs(unset);
+  }
+
+  @Override
+  public CompletionStage<Void> deleteTopics(Set<String> topics) {
+    return delegate.deleteTopics(topics);
+  }
+
+  @Override
+  public CompletionStage<Map<TopicPartition, Long>> deleteRecords(
+      Map<TopicPartition, Long> offsets) {
+    return delegate.deleteRecords(offsets);
+  }
+
+  @Override
+  public CompletionStage<Void> deleteInstanceMembers(Map<String, Set<String>> groupAndInstanceIds) {
+    return delegate.deleteInstanceMembers(groupAndInstanceIds);
+  }
+
+  @Override
+  public CompletionStage<Void> deleteMembers(Set<String> consumerGroups) {
+    return delegate.deleteMembers(consumerGroups);
+  }
+
+  @Override
+  public CompletionStage<Void> deleteGroups(Set<String> consumerGroups) {
+    return delegate.deleteGroups(consumerGroups);
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+}
@@ -24,7 +24,11 @@ import org.astraea.common.Utils;
 import org.astraea.common.admin.ClusterInfo;
 import org.astraea.common.admin.Replica;
 import org.astraea.common.balancer.algorithms.AlgorithmConfig;
+import org.astraea.common.balancer.algorithms.BeamSearchBalancer;
+import org.astraea.common.balancer.algorithms.FolderBalancer;
 import org.astraea.common.balancer.algorithms.GreedyBalancer;
+import org.astraea.common.balancer.algorithms.LeaderBalancer;
+import org.astraea.common.balancer.algorithms.SimulatedAnnealingBalancer;
 import org.astraea.common.balancer.algorithms.SingleStepBalancer;
 import org.astraea.common.balancer.log.ClusterLogAllocation;
 import org.astraea.common.cost.ClusterCost;
@@ -138,7 +142,11 @@ public interface Balancer {
   /** The official implementation of {@link Balancer}. */
   enum Official implements EnumInfo {
     SingleStep(SingleStepBalancer.class),
-    Greedy(GreedyBalancer.class);
+    Greedy(GreedyBalancer.class),
+    SimulatedAnnealing(SimulatedAnnealingBalancer.class),
+    Leader(LeaderBalancer.class),
+    Folder(FolderBalancer.class),
+    BeamSearch(BeamSearchBalancer.class);
 
     private final Class<? extends Balancer> balancerClass;
 
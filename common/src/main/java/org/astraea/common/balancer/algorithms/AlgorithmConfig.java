@@ -20,12 +20,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import org.astraea.common.Configuration;
 import org.astraea.common.admin.ClusterBean;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Replica;
 import org.astraea.common.balancer.Balancer;
 import org.astraea.common.cost.ClusterCost;
 import org.astraea.common.cost.HasClusterCost;
@@ -75,6 +78,12 @@ public interface AlgorithmConfig {
    */
   Supplier<ClusterBean> metricSource();
 
+  /**
+   * @return the previous proposal which the search can start from. The balancers which don't
+   *     support warm start ignore it.
+   */
+  Optional<ClusterInfo<Replica>> warmStart();
+
   /**
    * @return the algorithm implementation specific parameters
    */
@@ -90,6 +99,7 @@ public interface AlgorithmConfig {
     private Predicate<List<MoveCost>> movementConstraint = ignore -> true;
     private Supplier<ClusterBean> metricSource = () -> ClusterBean.EMPTY;
     private Predicate<String> topicFilter = ignore -> true;
+    private ClusterInfo<Replica> warmStart = null;
     private final Map<String, String> config = new HashMap<>();
 
     /**
@@ -181,6 +191,19 @@ public interface AlgorithmConfig {
       return this;
     }
 
+    /**
+     * Specify a previous proposal to start the search from. The proposal is replayed onto the
+     * current cluster, and the partitions which can't be replayed keep their current replica
+     * lists.
+     *
+     * @param previousProposal the proposal offered by an earlier search
+     * @return this
+     */
+    public Builder warmStart(ClusterInfo<Replica> previousProposal) {
+      this.warmStart = Objects.requireNonNull(previousProposal);
+      return this;
+    }
+
     /**
      * @param configuration for {@link Balancer}
      * @return this
@@ -239,6 +262,11 @@ public interface AlgorithmConfig {
           return metricSource;
         }
 
+        @Override
+        public Optional<ClusterInfo<Replica>> warmStart() {
+          return Optional.ofNullable(warmStart);
+        }
+
         private final Configuration prepared = Configuration.of(Map.copyOf(config));
 
         @Override
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.algorithms;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.astraea.common.Utils;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.balancer.Balancer;
+import org.astraea.common.balancer.log.ClusterLogAllocation;
+import org.astraea.common.balancer.tweakers.AllocationTweaker;
+import org.astraea.common.cost.ClusterCost;
+
+/**
+ * A beam search algorithm. It keeps the best allocations of a generation, called the beam, rather
+ * than a single allocation. Each member of the beam is tweaked a few times, and the best distinct
+ * allocations among the tweaked ones form the beam of next generation. A member can be replaced by
+ * a worse allocation, so the search is able to leave a local minimum where {@link GreedyBalancer}
+ * stops.
+ *
+ * <p>The members are expanded concurrently by a pool of the given parallelism, and the pool is
+ * shut down when the offer returns. The width of the
+ * beam times the number of tweaks per member is the number of allocations evaluated in a
+ * generation, so it decides how much CPU is traded for the quality of plan.
+ */
+public class BeamSearchBalancer implements Balancer {
+
+  public static final String SHUFFLE_PLAN_GENERATOR_MIN_STEP_CONFIG =
+      ShuffleConfig.SHUFFLE_PLAN_GENERATOR_MIN_STEP_CONFIG;
+  public static final String SHUFFLE_PLAN_GENERATOR_MAX_STEP_CONFIG =
+      ShuffleConfig.SHUFFLE_PLAN_GENERATOR_MAX_STEP_CONFIG;
+  public static final String ITERATION_CONFIG = ShuffleConfig.ITERATION_CONFIG;
+  public static final String SEED_CONFIG = ShuffleConfig.SEED_CONFIG;
+  public static final String SHUFFLE_PLAN_GENERATOR_BROKER_WEIGHTED_CONFIG =
+      ShuffleConfig.SHUFFLE_PLAN_GENERATOR_BROKER_WEIGHTED_CONFIG;
+  public static final String PARALLELISM_CONFIG = "parallelism";
+  public static final String BEAM_WIDTH_CONFIG = "beam.width";
+  public static final String BRANCH_CONFIG = "branch";
+  public static final Set<String> ALL_CONFIGS =
+      new TreeSet<>(Utils.constants(BeamSearchBalancer.class, name -> name.endsWith("CONFIG")));
+
+  private final AlgorithmConfig config;
+  private final ShuffleConfig shuffle;
+  private final int beamWidth;
+  private final int branch;
+  private final int parallelism;
+  private final AtomicInteger run = new AtomicInteger();
+
+  public BeamSearchBalancer(AlgorithmConfig algorithmConfig) {
+    this.config = algorithmConfig;
+    this.shuffle = new ShuffleConfig(config.algorithmConfig());
+    parallelism =
+        ShuffleConfig.positive(
+            config.algorithmConfig(),
+            PARALLELISM_CONFIG,
+            Runtime.getRuntime().availableProcessors());
+    beamWidth = ShuffleConfig.positive(config.algorithmConfig(), BEAM_WIDTH_CONFIG, 8);
+    branch = ShuffleConfig.positive(config.algorithmConfig(), BRANCH_CONFIG, 32);
+  }
+
+  @Override
+  public Optional<Plan> offer(ClusterInfo<Replica> currentClusterInfo, Duration timeout) {
+    final var deadline = System.currentTimeMillis() + timeout.toMillis();
+    final var metrics = config.metricSource().get();
+    final var initialEvaluator =
+        CostEvaluator.of(
+            config.clusterCostFunction(),
+            currentClusterInfo,
+            metrics,
+            ClusterLogAllocation.of(ClusterInfo.masked(currentClusterInfo, config.topicFilter())));
+    final var initialCost = initialEvaluator.clusterCost();
+    final var origin = initialEvaluator.allocation();
+    // a tweaker per position of the beam, so the tweakers are not shared by threads
+    final var brokerWeights = shuffle.brokerWeights(config.clusterCostFunction(), metrics);
+    final var tweakers =
+        IntStream.range(0, beamWidth)
+            .mapToObj(i -> shuffle.tweaker(i, brokerWeights))
+            .collect(Collectors.toUnmodifiableList());
+
+    final var generation = new LongAdder();
+    final var minCost =
+        new DoubleAccumulator(
+            (l, r) -> Double.isNaN(r) ? l : Math.min(l, r), initialCost.value());
+    ShuffleConfig.progressBean(config, BeamSearchBalancer.class, run.getAndIncrement())
+        .addAttribute("Generation", Long.class, generation::sum)
+        .addAttribute("MinCost", Double.class, minCost::get)
+        .register();
+
+    var beam = List.of(initialEvaluator);
+    Optional<Plan> best = Optional.empty();
+    final var pool = new ForkJoinPool(parallelism);
+    try {
+      while (generation.sum() < shuffle.iteration && System.currentTimeMillis() < deadline) {
+        generation.increment();
+        final var members = beam;
+        // the candidates are merged in the order of members, so the seeded search is reproducible.
+        // The candidates of the same hash are compared, so a collision never drops a distinct one
+        var candidates = new LinkedHashMap<Long, List<CostEvaluator>>();
+        IntStream.range(0, members.size())
+            .mapToObj(
+                i ->
+                    pool.submit(
+                        () -> expand(tweakers.get(i), members.get(i), initialCost, deadline)))
+            .collect(Collectors.toList())
+            .stream()
+            .map(ForkJoinTask::join)
+            .flatMap(List::stream)
+            .forEach(
+                e -> {
+                  var bucket =
+                      candidates.computeIfAbsent(
+                          placementHash(origin, e.allocation()), ignored -> new ArrayList<>());
+                  var duplicate =
+                      bucket.stream().anyMatch(c -> samePlacement(c.allocation(), e.allocation()));
+                  if (!duplicate) bucket.add(e);
+                });
+
+        // the plan is built only for the candidates which are good enough to be in the beam
+        var next =
+            candidates.values().stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingDouble(e -> e.clusterCost().value()))
+                .map(e -> Map.entry(e, e.plan(initialCost, config.moveCostFunctions())))
+                .filter(e -> config.movementConstraint().test(e.getValue().moveCost()))
+                .limit(beamWidth)
+                .collect(Collectors.toUnmodifiableList());
+        if (next.isEmpty()) break;
+
+        var leader = next.get(0).getValue();
+        var leaderCost = leader.proposalClusterCost().value();
+        minCost.accumulate(leaderCost);
+        if (best.isEmpty() || leaderCost < best.get().proposalClusterCost().value())
+          best = Optional.of(leader);
+        beam = next.stream().map(Map.Entry::getKey).collect(Collectors.toUnmodifiableList());
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    return best;
+  }
+
+  /**
+   * @return the tweaked allocations of the member which comply with the cluster constraint
+   */
+  private List<CostEvaluator> expand(
+      AllocationTweaker tweaker, CostEvaluator member, ClusterCost initialCost, long deadline) {
+    return tweaker
+        .generate(member.allocation())
+        .limit(branch)
+        .takeWhile(ignored -> System.currentTimeMillis() < deadline)
+        .map(member::evaluate)
+        .filter(e -> config.clusterConstraint().test(initialCost, e.clusterCost()))
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  /**
+   * The hash of placement is independent of the order of replicas, and the partitions which are
+   * changed back to the origin are ignored. Hence, the identical allocations proposed by different
+   * members have the same hash.
+   *
+   * @return the hash of the placement of the allocation derived from the origin
+   */
+  // visible for test
+  static long placementHash(ClusterLogAllocation origin, ClusterLogAllocation allocation) {
+    var hash = 0L;
+    for (var tp : allocation.changedPartitions()) {
+      var replicas = allocation.replicas(tp);
+      if (replicas.equals(origin.replicas(tp))) continue;
+      for (var r : replicas)
+        hash += mix(Objects.hash(tp, r.nodeInfo().id(), r.path(), r.isPreferredLeader()));
+    }
+    return hash;
+  }
+
+  /**
+   * @return true if the two allocations derived from the same origin place the replicas of every
+   *     partition on the same brokers, folders and leadership. The order of replicas is ignored
+   */
+  // visible for test
+  static boolean samePlacement(ClusterLogAllocation a, ClusterLogAllocation b) {
+    for (var tp : a.changedPartitions(b))
+      if (!placement(a.replicas(tp)).equals(placement(b.replicas(tp)))) return false;
+    return true;
+  }
+
+  private static Set<List<Object>> placement(List<Replica> replicas) {
+    // the path can be null, so the placement of a replica is kept by a list rather than List.of
+    return replicas.stream()
+        .map(r -> Arrays.<Object>asList(r.nodeInfo().id(), r.path(), r.isPreferredLeader()))
+        .collect(Collectors.toSet());
+  }
+
+  /** spread the bits of hash, so the sum of hashes rarely collides */
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
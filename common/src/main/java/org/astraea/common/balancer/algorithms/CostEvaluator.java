@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.astraea.common.admin.ClusterBean;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicPartition;
+import org.astraea.common.balancer.Balancer;
+import org.astraea.common.balancer.log.ClusterLogAllocation;
+import org.astraea.common.cost.ClusterCost;
+import org.astraea.common.cost.HasClusterCost;
+import org.astraea.common.cost.HasMoveCost;
+import org.astraea.common.cost.IncrementalClusterCost;
+
+/**
+ * Evaluate the cluster cost of the allocations proposed by a tweaker. If the cost function offers
+ * an {@link IncrementalClusterCost}, only the partitions which differ from the evaluated allocation
+ * are applied to the cost. Otherwise, the whole cluster is evaluated again.
+ *
+ * <p>It is immutable, so the candidates can be evaluated by many threads.
+ */
+class CostEvaluator {
+
+  static CostEvaluator of(
+      HasClusterCost costFunction,
+      ClusterInfo<Replica> clusterInfo,
+      ClusterBean clusterBean,
+      ClusterLogAllocation allocation) {
+    var incrementalCost = costFunction.incrementalCost(clusterInfo, clusterBean);
+    return new CostEvaluator(
+        costFunction,
+        clusterInfo,
+        clusterBean,
+        allocation,
+        incrementalCost,
+        incrementalCost
+            .map(IncrementalClusterCost::clusterCost)
+            .orElseGet(() -> costFunction.clusterCost(clusterInfo, clusterBean)));
+  }
+
+  private final HasClusterCost costFunction;
+  private final ClusterInfo<Replica> clusterInfo;
+  private final ClusterBean clusterBean;
+  private final ClusterLogAllocation allocation;
+  private final Optional<IncrementalClusterCost> incrementalCost;
+  private final ClusterCost clusterCost;
+
+  private CostEvaluator(
+      HasClusterCost costFunction,
+      ClusterInfo<Replica> clusterInfo,
+      ClusterBean clusterBean,
+      ClusterLogAllocation allocation,
+      Optional<IncrementalClusterCost> incrementalCost,
+      ClusterCost clusterCost) {
+    this.costFunction = costFunction;
+    this.clusterInfo = clusterInfo;
+    this.clusterBean = clusterBean;
+    this.allocation = allocation;
+    this.incrementalCost = incrementalCost;
+    this.clusterCost = clusterCost;
+  }
+
+  /**
+   * @param newAllocation an allocation derived from the allocation of this evaluator
+   * @return the evaluator of the new allocation
+   */
+  CostEvaluator evaluate(ClusterLogAllocation newAllocation) {
+    if (incrementalCost.isEmpty())
+      return new CostEvaluator(
+          costFunction,
+          clusterInfo,
+          clusterBean,
+          newAllocation,
+          Optional.empty(),
+          costFunction.clusterCost(
+              ClusterInfo.update(clusterInfo, newAllocation::replicas), clusterBean));
+
+    var removed = new ArrayList<Replica>();
+    var added = new ArrayList<Replica>();
+    // only the partitions changed since this allocation, so a long walk doesn't get slower
+    for (var tp : newAllocation.changedPartitions(allocation))
+      diff(tp, newAllocation, removed, added);
+    var newCost = incrementalCost.get().update(removed, added);
+    return new CostEvaluator(
+        costFunction,
+        clusterInfo,
+        clusterBean,
+        newAllocation,
+        Optional.of(newCost),
+        newCost.clusterCost());
+  }
+
+  /**
+   * The move cost needs the whole new cluster, so the balancers build the plan only for the
+   * candidates which are worth it, for example those passing the cluster constraint.
+   *
+   * @param initialCost the cluster cost of the origin allocation
+   * @param moveCostFunctions evaluate the migration from the origin cluster to this allocation
+   * @return the plan of the allocation of this evaluator
+   */
+  Balancer.Plan plan(ClusterCost initialCost, List<HasMoveCost> moveCostFunctions) {
+    var newClusterInfo = clusterInfo();
+    return new Balancer.Plan(
+        allocation,
+        initialCost,
+        clusterCost,
+        moveCostFunctions.stream()
+            .map(cf -> cf.moveCost(clusterInfo, newClusterInfo, clusterBean))
+            .collect(Collectors.toList()));
+  }
+
+  /**
+   * @return the cluster info with the allocation of this evaluator
+   */
+  ClusterInfo<Replica> clusterInfo() {
+    return ClusterInfo.update(clusterInfo, allocation::replicas);
+  }
+
+  ClusterLogAllocation allocation() {
+    return allocation;
+  }
+
+  ClusterCost clusterCost() {
+    return clusterCost;
+  }
+
+  private void diff(
+      TopicPartition tp,
+      ClusterLogAllocation newAllocation,
+      ArrayList<Replica> removed,
+      ArrayList<Replica> added) {
+    var before = allocation.replicas(tp);
+    var after = newAllocation.replicas(tp);
+    // the unchanged replica lists are shared by the allocations, so they are usually identical
+    if (before == after || before.equals(after)) return;
+    removed.addAll(before);
+    added.addAll(after);
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.algorithms;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicPartitionReplica;
+import org.astraea.common.balancer.Balancer;
+import org.astraea.common.balancer.log.ClusterLogAllocation;
+import org.astraea.common.cost.DataFolderCost;
+
+/**
+ * Balance the data folders of each broker. The replicas are moved between the folders of the same
+ * broker only, so the plan has no replication over network. It works well with {@link
+ * DataFolderCost}.
+ *
+ * <p>The load of a replica is its share of the size of the broker plus its share of the write rate
+ * of the broker. For each broker, the replica whose load is the closest to the half of the gap
+ * between the hottest folder and the coldest folder is moved from the hottest folder to the coldest
+ * one, until no replica is able to narrow the gap.
+ */
+public class FolderBalancer implements Balancer {
+
+  public static final Set<String> ALL_CONFIGS = Set.of();
+
+  private final AlgorithmConfig config;
+
+  public FolderBalancer(AlgorithmConfig algorithmConfig) {
+    this.config = algorithmConfig;
+  }
+
+  @Override
+  public Optional<Plan> offer(ClusterInfo<Replica> currentClusterInfo, Duration timeout) {
+    final var deadline = System.currentTimeMillis() + timeout.toMillis();
+    final var currentClusterBean = config.metricSource().get();
+    final var rates = DataFolderCost.writeRates(currentClusterBean);
+    final var evaluator =
+        CostEvaluator.of(
+            config.clusterCostFunction(),
+            currentClusterInfo,
+            currentClusterBean,
+            ClusterLogAllocation.of(ClusterInfo.masked(currentClusterInfo, config.topicFilter())));
+    final var currentCost = evaluator.clusterCost();
+
+    var proposal = evaluator.allocation();
+    for (var id : new TreeMap<>(currentClusterInfo.brokerFolders()).keySet()) {
+      for (var move : balance(currentClusterInfo, proposal, id, rates, deadline).entrySet())
+        proposal = proposal.migrateReplica(move.getKey(), id, move.getValue());
+    }
+    if (proposal.changedPartitions().isEmpty()) return Optional.empty();
+
+    final var candidate = evaluator.evaluate(proposal);
+    if (!config.clusterConstraint().test(currentCost, candidate.clusterCost()))
+      return Optional.empty();
+    final var plan = candidate.plan(currentCost, config.moveCostFunctions());
+    if (!config.movementConstraint().test(plan.moveCost())) return Optional.empty();
+    return Optional.of(plan);
+  }
+
+  /**
+   * @param clusterInfo all the replicas of the broker, which decide the loads of folders
+   * @param allocation the replicas which are allowed to move
+   * @param broker the broker to balance
+   * @param rates the write rates of replicas
+   * @param deadline the balance stops at this time
+   * @return the replicas to move and their new folders
+   */
+  static Map<TopicPartitionReplica, String> balance(
+      ClusterInfo<Replica> clusterInfo,
+      ClusterInfo<Replica> allocation,
+      int broker,
+      Map<TopicPartitionReplica, Double> rates,
+      long deadline) {
+    var replicas =
+        clusterInfo
+            .replicaStream(broker)
+            .filter(r -> r.path() != null)
+            .collect(Collectors.toUnmodifiableList());
+    var totalSize = replicas.stream().mapToLong(Replica::size).sum();
+    var totalRate =
+        replicas.stream()
+            .mapToDouble(r -> rates.getOrDefault(r.topicPartitionReplica(), 0D))
+            .sum();
+    var load = new HashMap<TopicPartitionReplica, Double>();
+    replicas.forEach(
+        r ->
+            load.put(
+                r.topicPartitionReplica(),
+                (totalSize > 0 ? (double) r.size() / totalSize : 0)
+                    + (totalRate > 0
+                        ? rates.getOrDefault(r.topicPartitionReplica(), 0D) / totalRate
+                        : 0)));
+
+    var folderLoads = new TreeMap<String, Double>();
+    clusterInfo.brokerFolders().getOrDefault(broker, Set.of()).forEach(p -> folderLoads.put(p, 0D));
+    replicas.forEach(
+        r -> folderLoads.merge(r.path(), load.get(r.topicPartitionReplica()), Double::sum));
+    var movable = new HashMap<String, List<TopicPartitionReplica>>();
+    var origin = new HashMap<TopicPartitionReplica, String>();
+    allocation
+        .replicaStream(broker)
+        .filter(r -> r.path() != null && load.containsKey(r.topicPartitionReplica()))
+        .forEach(
+            r -> {
+              movable
+                  .computeIfAbsent(r.path(), ignored -> new ArrayList<>())
+                  .add(r.topicPartitionReplica());
+              origin.put(r.topicPartitionReplica(), r.path());
+            });
+
+    var moves = new HashMap<TopicPartitionReplica, String>();
+    while (folderLoads.size() > 1 && System.currentTimeMillis() < deadline) {
+      var hot = folderLoads.entrySet().stream().max(Map.Entry.comparingByValue()).orElseThrow();
+      var cold = folderLoads.entrySet().stream().min(Map.Entry.comparingByValue()).orElseThrow();
+      var gap = hot.getValue() - cold.getValue();
+      // moving a replica whose load is in (0, gap) narrows the gap. The best one is gap / 2.
+      var candidate =
+          movable.getOrDefault(hot.getKey(), List.of()).stream()
+              .filter(r -> load.get(r) > 0 && load.get(r) < gap)
+              .min(Comparator.comparingDouble(r -> Math.abs(load.get(r) - gap / 2)));
+      if (candidate.isEmpty()) break;
+      var replica = candidate.get();
+      movable.get(hot.getKey()).remove(replica);
+      movable.computeIfAbsent(cold.getKey(), ignored -> new ArrayList<>()).add(replica);
+      folderLoads.put(hot.getKey(), hot.getValue() - load.get(replica));
+      folderLoads.put(cold.getKey(), cold.getValue() + load.get(replica));
+      if (origin.get(replica).equals(cold.getKey())) moves.remove(replica);
+      else moves.put(replica, cold.getKey());
+    }
+    return moves;
+  }
+}
@@ -17,15 +17,19 @@
 package org.astraea.common.balancer.algorithms;
 
 import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.DoubleAccumulator;
 import java.util.concurrent.atomic.LongAdder;
-import java.util.function.BiFunction;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.astraea.common.Utils;
 import org.astraea.common.admin.ClusterInfo;
 import org.astraea.common.admin.Replica;
@@ -39,110 +43,205 @@ import org.astraea.common.metrics.jmx.MBeanRegister;
  * A single-state hill-climbing algorithm. It discovers rebalance solution by tweaking the cluster
  * state multiple times, select the ideal tweak among the discovery. This process might take
  * multiple iterations, until no nicer tweak found.
+ *
+ * <p>If the parallelism is bigger than one, the same number of walks climb concurrently with
+ * different random generators, and the best plan among them is offered. A walk whose cost falls
+ * far behind the best walk restarts from the best plan found so far. The walks share the
+ * iteration limit and the timeout. While an offer runs, the iteration and the current cost of each
+ * walk are exposed by a bean which has the property "walk".
+ *
+ * <p>If {@link AlgorithmConfig#warmStart()} is present, and the replayed proposal complies with the
+ * constraints, the walks start from the replayed proposal instead of the current cluster.
  */
 public class GreedyBalancer implements Balancer {
 
   public static final String SHUFFLE_PLAN_GENERATOR_MIN_STEP_CONFIG =
-      "shuffle.plan.generator.min.step";
+      ShuffleConfig.SHUFFLE_PLAN_GENERATOR_MIN_STEP_CONFIG;
   public static final String SHUFFLE_PLAN_GENERATOR_MAX_STEP_CONFIG =
-      "shuffle.plan.generator.max.step";
-  public static final String ITERATION_CONFIG = "iteration";
+      ShuffleConfig.SHUFFLE_PLAN_GENERATOR_MAX_STEP_CONFIG;
+  public static final String ITERATION_CONFIG = ShuffleConfig.ITERATION_CONFIG;
+  public static final String SEED_CONFIG = ShuffleConfig.SEED_CONFIG;
+  public static final String SHUFFLE_PLAN_GENERATOR_BROKER_WEIGHTED_CONFIG =
+      ShuffleConfig.SHUFFLE_PLAN_GENERATOR_BROKER_WEIGHTED_CONFIG;
+  public static final String PARALLELISM_CONFIG = "parallelism";
+  public static final String PRUNE_RATIO_CONFIG = "prune.ratio";
   public static final Set<String> ALL_CONFIGS =
       new TreeSet<>(Utils.constants(GreedyBalancer.class, name -> name.endsWith("CONFIG")));
 
   private final AlgorithmConfig config;
-  private final int minStep;
-  private final int maxStep;
-  private final int iteration;
+  private final ShuffleConfig shuffle;
+  private final int parallelism;
+  private final double pruneRatio;
   private final AtomicInteger run = new AtomicInteger();
 
   public GreedyBalancer(AlgorithmConfig algorithmConfig) {
     this.config = algorithmConfig;
-    minStep =
-        config
-            .algorithmConfig()
-            .string(SHUFFLE_PLAN_GENERATOR_MIN_STEP_CONFIG)
-            .map(Integer::parseInt)
-            .map(Utils::requirePositive)
-            .orElse(1);
-    maxStep =
-        config
-            .algorithmConfig()
-            .string(SHUFFLE_PLAN_GENERATOR_MAX_STEP_CONFIG)
-            .map(Integer::parseInt)
-            .map(Utils::requirePositive)
-            .orElse(30);
-    iteration =
-        config
-            .algorithmConfig()
-            .string(ITERATION_CONFIG)
-            .map(Integer::parseInt)
-            .map(Utils::requirePositive)
-            .orElse(Integer.MAX_VALUE);
+    this.shuffle = new ShuffleConfig(config.algorithmConfig());
+    parallelism = ShuffleConfig.positive(config.algorithmConfig(), PARALLELISM_CONFIG, 1);
+    pruneRatio =
+        config.algorithmConfig().string(PRUNE_RATIO_CONFIG).map(Double::parseDouble).orElse(0.5);
+    if (pruneRatio < 0)
+      throw new IllegalArgumentException(
+          "the prune ratio: " + pruneRatio + " must not be negative");
   }
 
   @Override
   public Optional<Plan> offer(ClusterInfo<Replica> currentClusterInfo, Duration timeout) {
-    final var allocationTweaker = new ShuffleTweaker(minStep, maxStep);
     final var metrics = config.metricSource().get();
-    final var clusterCostFunction = config.clusterCostFunction();
-    final var moveCostFunction = config.moveCostFunctions();
-    final var initialCost = clusterCostFunction.clusterCost(currentClusterInfo, metrics);
+    final var initialEvaluator =
+        CostEvaluator.of(
+            config.clusterCostFunction(),
+            currentClusterInfo,
+            metrics,
+            ClusterLogAllocation.of(ClusterInfo.masked(currentClusterInfo, config.topicFilter())));
 
-    final var loop = new AtomicInteger(iteration);
+    final var brokerWeights = shuffle.brokerWeights(config.clusterCostFunction(), metrics);
+    final var loop = new AtomicInteger(shuffle.iteration);
     final var start = System.currentTimeMillis();
     final var executionTime = timeout.toMillis();
-    Supplier<Boolean> moreRoom =
-        () -> System.currentTimeMillis() - start < executionTime && loop.getAndDecrement() > 0;
-    BiFunction<ClusterLogAllocation, ClusterCost, Optional<Balancer.Plan>> next =
-        (currentAllocation, currentCost) ->
-            allocationTweaker
-                .generate(currentAllocation)
-                .takeWhile(ignored -> moreRoom.get())
-                .map(
-                    newAllocation -> {
-                      var newClusterInfo =
-                          ClusterInfo.update(currentClusterInfo, newAllocation::replicas);
-                      return new Balancer.Plan(
-                          newAllocation,
-                          initialCost,
-                          clusterCostFunction.clusterCost(newClusterInfo, metrics),
-                          moveCostFunction.stream()
-                              .map(cf -> cf.moveCost(currentClusterInfo, newClusterInfo, metrics))
-                              .collect(Collectors.toList()));
-                    })
-                .filter(
-                    plan ->
-                        config.clusterConstraint().test(currentCost, plan.proposalClusterCost()))
-                .filter(plan -> config.movementConstraint().test(plan.moveCost()))
-                .findFirst();
-    var currentCost = initialCost;
-    var currentAllocation =
-        ClusterLogAllocation.of(ClusterInfo.masked(currentClusterInfo, config.topicFilter()));
-    var currentPlan = Optional.<Balancer.Plan>empty();
-
-    // register JMX
-    var currentIteration = new LongAdder();
-    var currentMinCost =
-        new DoubleAccumulator((l, r) -> Double.isNaN(r) ? l : Math.min(l, r), initialCost.value());
-    MBeanRegister.local()
-        .setDomainName("astraea.balancer")
-        .addProperty("id", config.executionId())
-        .addProperty("algorithm", GreedyBalancer.class.getSimpleName())
-        .addProperty("run", Integer.toString(run.getAndIncrement()))
-        .addAttribute("Iteration", Long.class, currentIteration::sum)
-        .addAttribute("MinCost", Double.class, currentMinCost::get)
+    final var search =
+        new Search(
+            initialEvaluator,
+            () -> System.currentTimeMillis() - start < executionTime && loop.getAndDecrement() > 0);
+
+    final var warmStart =
+        config
+            .warmStart()
+            .map(
+                previous ->
+                    initialEvaluator.evaluate(initialEvaluator.allocation().replay(previous)))
+            .filter(evaluator -> !evaluator.allocation().changedPartitions().isEmpty())
+            .flatMap(evaluator -> search.plan(initialEvaluator, evaluator));
+    warmStart.ifPresent(plan -> search.best.set(Optional.of(plan)));
+    final var startEvaluator = warmStart.map(Map.Entry::getKey).orElse(initialEvaluator);
+
+    // register JMX. The bean of the run is kept after the offer, and the beans of the walks are
+    // removed when the offer returns
+    final var currentRun = run.getAndIncrement();
+    ShuffleConfig.progressBean(config, GreedyBalancer.class, currentRun)
+        .addAttribute("Iteration", Long.class, search.iteration::sum)
+        .addAttribute("MinCost", Double.class, search.minCost::get)
+        .addAttribute("Restart", Long.class, search.restart::sum)
         .register();
+    final var walks =
+        IntStream.range(0, parallelism)
+            .mapToObj(ignored -> new Walk(startEvaluator.clusterCost().value()))
+            .collect(Collectors.toUnmodifiableList());
+    final var walkBeans =
+        IntStream.range(0, parallelism)
+            .mapToObj(
+                walk ->
+                    ShuffleConfig.progressBean(config, GreedyBalancer.class, currentRun)
+                        .addProperty("walk", Integer.toString(walk))
+                        .addAttribute("Iteration", Long.class, walks.get(walk).iteration::sum)
+                        .addAttribute("Cost", Double.class, () -> walks.get(walk).cost)
+                        .register())
+            .collect(Collectors.toUnmodifiableList());
+
+    final var pool = parallelism == 1 ? null : new ForkJoinPool(parallelism);
+    try {
+      if (pool == null) {
+        search.walk(shuffle.tweaker(0, brokerWeights), startEvaluator, walks.get(0));
+      } else {
+        IntStream.range(0, parallelism)
+            .mapToObj(
+                walk -> {
+                  var tweaker = shuffle.tweaker(walk, brokerWeights);
+                  return pool.submit(() -> search.walk(tweaker, startEvaluator, walks.get(walk)));
+                })
+            .collect(Collectors.toList())
+            .forEach(ForkJoinTask::join);
+      }
+      return search.best.get().map(Map.Entry::getValue);
+    } finally {
+      if (pool != null) pool.shutdownNow();
+      walkBeans.forEach(MBeanRegister::unregister);
+    }
+  }
+
+  /** The progress of a walk. */
+  private static class Walk {
+    private final LongAdder iteration = new LongAdder();
+    private volatile double cost;
 
-    while (true) {
-      currentIteration.add(1);
-      currentMinCost.accumulate(currentCost.value());
-      var newPlan = next.apply(currentAllocation, currentCost);
-      if (newPlan.isEmpty()) break;
-      currentPlan = newPlan;
-      currentCost = currentPlan.get().proposalClusterCost();
-      currentAllocation = currentPlan.get().proposal();
+    private Walk(double cost) {
+      this.cost = cost;
     }
-    return currentPlan;
+  }
+
+  /** The state shared by the walks of an offer. */
+  private class Search {
+    private final ClusterCost initialCost;
+    private final Supplier<Boolean> moreRoom;
+    private final LongAdder iteration = new LongAdder();
+    private final LongAdder restart = new LongAdder();
+    private final DoubleAccumulator minCost;
+    private final AtomicReference<Optional<Map.Entry<CostEvaluator, Balancer.Plan>>> best =
+        new AtomicReference<>(Optional.empty());
+
+    private Search(CostEvaluator initialEvaluator, Supplier<Boolean> moreRoom) {
+      this.initialCost = initialEvaluator.clusterCost();
+      this.moreRoom = moreRoom;
+      this.minCost =
+          new DoubleAccumulator(
+              (l, r) -> Double.isNaN(r) ? l : Math.min(l, r), initialCost.value());
+    }
+
+    private void walk(ShuffleTweaker allocationTweaker, CostEvaluator start, Walk progress) {
+      var current = start;
+      while (true) {
+        iteration.add(1);
+        progress.iteration.add(1);
+        progress.cost = current.clusterCost().value();
+        minCost.accumulate(current.clusterCost().value());
+        var newPlan = next(allocationTweaker, current);
+        if (newPlan.isEmpty()) break;
+        current = newPlan.get().getKey();
+        best.accumulateAndGet(
+            newPlan,
+            (previous, candidate) ->
+                previous.isEmpty() || cost(candidate.get()) < cost(previous.get())
+                    ? candidate
+                    : previous);
+        minCost.accumulate(current.clusterCost().value());
+
+        // the walk which falls far behind restarts from the best plan
+        var bestCost = minCost.get();
+        var gap = initialCost.value() - bestCost;
+        if (gap > 0 && current.clusterCost().value() - bestCost > pruneRatio * gap) {
+          var leader = best.get();
+          if (leader.isPresent()) {
+            current = leader.get().getKey();
+            restart.add(1);
+          }
+        }
+      }
+    }
+
+    private Optional<Map.Entry<CostEvaluator, Balancer.Plan>> next(
+        ShuffleTweaker allocationTweaker, CostEvaluator current) {
+      return allocationTweaker
+          .generate(current.allocation())
+          .takeWhile(ignored -> moreRoom.get())
+          .map(current::evaluate)
+          .flatMap(evaluator -> plan(current, evaluator).stream())
+          .findFirst();
+    }
+
+    /**
+     * @return the plan of the evaluated allocation if it complies with the constraints
+     */
+    private Optional<Map.Entry<CostEvaluator, Balancer.Plan>> plan(
+        CostEvaluator current, CostEvaluator evaluator) {
+      if (!config.clusterConstraint().test(current.clusterCost(), evaluator.clusterCost()))
+        return Optional.empty();
+      var plan = evaluator.plan(initialCost, config.moveCostFunctions());
+      if (!config.movementConstraint().test(plan.moveCost())) return Optional.empty();
+      return Optional.of(Map.entry(evaluator, plan));
+    }
+  }
+
+  private static double cost(Map.Entry<CostEvaluator, Balancer.Plan> plan) {
+    return plan.getValue().proposalClusterCost().value();
   }
 }
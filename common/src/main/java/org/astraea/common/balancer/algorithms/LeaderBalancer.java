@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.algorithms;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.NodeInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicPartition;
+import org.astraea.common.admin.TopicPartitionReplica;
+import org.astraea.common.balancer.Balancer;
+import org.astraea.common.balancer.log.ClusterLogAllocation;
+
+/**
+ * Balance the partition leaders without moving any replica. Only the in-sync replicas of a
+ * partition are able to be its leader, so this is an assignment problem: each partition is
+ * assigned to one of its candidate brokers, and the numbers of leaders of brokers should be as
+ * even as possible.
+ *
+ * <p>The problem is solved as a flow problem. Starting from the current preferred leaders, it
+ * repeatedly finds a path from a broker to another broker having at least two fewer leaders, where
+ * an edge from broker A to broker B means some partition led by A can be led by B. Shifting the
+ * leaders along the path moves one leader from the first broker to the last broker, and the other
+ * brokers keep their numbers. The assignment is optimal once no such path exists. A path search
+ * costs O(brokers^2), so it is fast even if there are many partitions.
+ *
+ * <p>The plan changes the preferred leaders only, so it has no data migration. The executor
+ * re-elects the preferred leaders. The plan is offered if it passes the cluster constraint and the
+ * movement constraint.
+ */
+public class LeaderBalancer implements Balancer {
+
+  public static final Set<String> ALL_CONFIGS = Set.of();
+
+  private final AlgorithmConfig config;
+
+  public LeaderBalancer(AlgorithmConfig algorithmConfig) {
+    this.config = algorithmConfig;
+  }
+
+  @Override
+  public Optional<Plan> offer(ClusterInfo<Replica> currentClusterInfo, Duration timeout) {
+    final var deadline = System.currentTimeMillis() + timeout.toMillis();
+    final var currentClusterBean = config.metricSource().get();
+    final var clusterCostFunction = config.clusterCostFunction();
+    final var allocation =
+        ClusterLogAllocation.of(ClusterInfo.masked(currentClusterInfo, config.topicFilter()));
+
+    var proposal = allocation;
+    for (var leader : balance(allocation, deadline).entrySet())
+      proposal =
+          proposal.becomeLeader(
+              TopicPartitionReplica.of(
+                  leader.getKey().topic(), leader.getKey().partition(), leader.getValue()));
+    if (proposal.changedPartitions().isEmpty()) return Optional.empty();
+
+    // the preferred leaders become the leaders after the plan is executed
+    final var changed = proposal.changedPartitions();
+    final var finalProposal = proposal;
+    final var newClusterInfo =
+        ClusterInfo.update(
+            currentClusterInfo,
+            tp ->
+                changed.contains(tp)
+                    ? finalProposal.replicas(tp).stream()
+                        .map(r -> Replica.builder(r).isLeader(r.isPreferredLeader()).build())
+                        .collect(Collectors.toUnmodifiableList())
+                    : List.of());
+    final var currentCost = clusterCostFunction.clusterCost(currentClusterInfo, currentClusterBean);
+    final var newCost = clusterCostFunction.clusterCost(newClusterInfo, currentClusterBean);
+    if (!config.clusterConstraint().test(currentCost, newCost)) return Optional.empty();
+    final var moveCosts =
+        config.moveCostFunctions().stream()
+            .map(cf -> cf.moveCost(currentClusterInfo, newClusterInfo, currentClusterBean))
+            .collect(Collectors.toList());
+    if (!config.movementConstraint().test(moveCosts)) return Optional.empty();
+    return Optional.of(new Plan(proposal, currentCost, newCost, moveCosts));
+  }
+
+  /**
+   * @param clusterInfo the replicas to balance
+   * @param deadline the search stops at this time, and the best assignment so far is returned
+   * @return the partitions having a new preferred leader, and the broker id of the new leader
+   */
+  static Map<TopicPartition, Integer> balance(ClusterInfo<Replica> clusterInfo, long deadline) {
+    final var brokerIds =
+        Stream.concat(
+                clusterInfo.nodes().stream().map(NodeInfo::id),
+                clusterInfo.replicaStream().map(r -> r.nodeInfo().id()))
+            .distinct()
+            .sorted()
+            .mapToInt(i -> i)
+            .toArray();
+    final var brokerIndex = new HashMap<Integer, Integer>();
+    for (var i = 0; i < brokerIds.length; i++) brokerIndex.put(brokerIds[i], i);
+
+    final var partitions = new ArrayList<TopicPartition>();
+    final var candidates = new ArrayList<int[]>();
+    final var leaders = new ArrayList<Integer>();
+    for (var tp : clusterInfo.topicPartitions()) {
+      var replicas = clusterInfo.replicas(tp);
+      var leader = replicas.stream().filter(Replica::isPreferredLeader).findFirst();
+      if (leader.isEmpty()) continue;
+      partitions.add(tp);
+      leaders.add(brokerIndex.get(leader.get().nodeInfo().id()));
+      candidates.add(
+          replicas.stream()
+              .filter(r -> r.isPreferredLeader() || (r.inSync() && r.isOnline()))
+              .mapToInt(r -> brokerIndex.get(r.nodeInfo().id()))
+              .toArray());
+    }
+
+    var flow = new LeaderFlow(brokerIds.length, candidates, leaders);
+    flow.solve(deadline);
+    return IntStream.range(0, partitions.size())
+        .filter(p -> flow.leaders[p] != leaders.get(p))
+        .boxed()
+        .collect(Collectors.toMap(partitions::get, p -> brokerIds[flow.leaders[p]]));
+  }
+
+  /** The brokers and partitions are indexed by integers, so the search has no map lookup. */
+  private static class LeaderFlow {
+    private final int brokers;
+    private final List<int[]> candidates;
+    private final int[] leaders;
+    private final int[] load;
+    // edges[from * brokers + to] holds the partitions led by "from" and able to be led by "to"
+    private final List<LinkedHashSet<Integer>> edges;
+
+    private LeaderFlow(int brokers, List<int[]> candidates, List<Integer> leaders) {
+      this.brokers = brokers;
+      this.candidates = candidates;
+      this.leaders = leaders.stream().mapToInt(i -> i).toArray();
+      this.load = new int[brokers];
+      // most pairs of brokers share no partition, so the edges are created lazily
+      this.edges = new ArrayList<>(Collections.nCopies(brokers * brokers, null));
+      for (var p = 0; p < this.leaders.length; p++) {
+        load[this.leaders[p]]++;
+        link(p);
+      }
+    }
+
+    private void solve(long deadline) {
+      var order = new Integer[brokers];
+      while (System.currentTimeMillis() < deadline) {
+        for (var i = 0; i < brokers; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(load[b], load[a]));
+        var improved = false;
+        for (var source : order) {
+          if (load[source] - load[order[brokers - 1]] < 2) break;
+          if (augment(source)) {
+            improved = true;
+            break;
+          }
+        }
+        if (!improved) return;
+      }
+    }
+
+    /**
+     * find the shortest path from the source to the broker having the fewest leaders, and shift
+     * the leaders along the path as many times as possible.
+     *
+     * @return true if any leader is shifted
+     */
+    private boolean augment(int source) {
+      var parent = new int[brokers];
+      Arrays.fill(parent, -1);
+      parent[source] = source;
+      var queue = new ArrayDeque<Integer>();
+      queue.add(source);
+      var target = -1;
+      while (!queue.isEmpty()) {
+        var from = queue.poll();
+        if (from != source && (target < 0 || load[from] < load[target])) target = from;
+        for (var to = 0; to < brokers; to++) {
+          if (parent[to] >= 0 || edge(from, to).isEmpty()) continue;
+          parent[to] = from;
+          queue.add(to);
+        }
+      }
+      if (target < 0 || load[source] - load[target] < 2) return false;
+
+      var path = new ArrayList<Integer>();
+      for (var broker = target; broker != source; broker = parent[broker]) path.add(broker);
+      path.add(source);
+      var amount = (load[source] - load[target]) / 2;
+      for (var i = path.size() - 1; i > 0; i--)
+        amount = Math.min(amount, edge(path.get(i), path.get(i - 1)).size());
+      // a shift takes one partition from each edge of the path, and it adds partitions to the
+      // edges starting from the next broker only. Hence, the edges are not drained by the amount.
+      for (var n = 0; n < amount; n++)
+        for (var i = path.size() - 1; i > 0; i--)
+          shift(edge(path.get(i), path.get(i - 1)).iterator().next(), path.get(i - 1));
+      return true;
+    }
+
+    private Set<Integer> edge(int from, int to) {
+      var edge = edges.get(from * brokers + to);
+      return edge == null ? Set.of() : edge;
+    }
+
+    private void shift(int partition, int to) {
+      unlink(partition);
+      load[leaders[partition]]--;
+      leaders[partition] = to;
+      load[to]++;
+      link(partition);
+    }
+
+    private void link(int partition) {
+      var leader = leaders[partition];
+      for (var candidate : candidates.get(partition))
+        if (candidate != leader) {
+          var index = leader * brokers + candidate;
+          if (edges.get(index) == null) edges.set(index, new LinkedHashSet<>());
+          edges.get(index).add(partition);
+        }
+    }
+
+    private void unlink(int partition) {
+      var leader = leaders[partition];
+      for (var candidate : candidates.get(partition))
+        if (candidate != leader) edge(leader, candidate).remove(partition);
+    }
+  }
+}
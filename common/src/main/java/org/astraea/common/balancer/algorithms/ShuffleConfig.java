@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.algorithms;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.astraea.common.Configuration;
+import org.astraea.common.Utils;
+import org.astraea.common.admin.ClusterBean;
+import org.astraea.common.balancer.Balancer;
+import org.astraea.common.balancer.log.ClusterLogAllocation;
+import org.astraea.common.balancer.tweakers.ShuffleTweaker;
+import org.astraea.common.cost.HasBrokerCost;
+import org.astraea.common.cost.HasClusterCost;
+import org.astraea.common.metrics.jmx.MBeanRegister;
+
+/**
+ * The configs shared by the balancers which walk through the allocations proposed by {@link
+ * ShuffleTweaker}.
+ */
+final class ShuffleConfig {
+
+  static final String SHUFFLE_PLAN_GENERATOR_MIN_STEP_CONFIG = "shuffle.plan.generator.min.step";
+  static final String SHUFFLE_PLAN_GENERATOR_MAX_STEP_CONFIG = "shuffle.plan.generator.max.step";
+  static final String ITERATION_CONFIG = "iteration";
+  static final String SEED_CONFIG = "seed";
+  static final String SHUFFLE_PLAN_GENERATOR_BROKER_WEIGHTED_CONFIG =
+      "shuffle.plan.generator.broker.weighted";
+
+  final int minStep;
+  final int maxStep;
+  final int iteration;
+  final Optional<Long> seed;
+  final boolean brokerWeighted;
+
+  ShuffleConfig(Configuration config) {
+    minStep = positive(config, SHUFFLE_PLAN_GENERATOR_MIN_STEP_CONFIG, 1);
+    maxStep = positive(config, SHUFFLE_PLAN_GENERATOR_MAX_STEP_CONFIG, 30);
+    iteration = positive(config, ITERATION_CONFIG, Integer.MAX_VALUE);
+    seed = config.string(SEED_CONFIG).map(Long::parseLong);
+    brokerWeighted =
+        config
+            .string(SHUFFLE_PLAN_GENERATOR_BROKER_WEIGHTED_CONFIG)
+            .map(Boolean::parseBoolean)
+            .orElse(false);
+  }
+
+  /**
+   * @param offset is added to the seed, so the walks of an offer get different seeded generators
+   * @param brokerWeights see {@link #brokerWeights(HasClusterCost, ClusterBean)}
+   * @return a tweaker which is reproducible if the seed is given. Otherwise, it uses the
+   *     thread-local random generator.
+   */
+  ShuffleTweaker tweaker(
+      int offset, Function<ClusterLogAllocation, Map<Integer, Double>> brokerWeights) {
+    return seed.map(s -> tweaker(new Random(s + offset), brokerWeights))
+        .orElseGet(
+            () ->
+                new ShuffleTweaker(
+                    () -> ThreadLocalRandom.current().nextInt(minStep, maxStep),
+                    ThreadLocalRandom::current,
+                    brokerWeights));
+  }
+
+  /** @return a tweaker whose proposals are decided by the given random generator only */
+  ShuffleTweaker tweaker(
+      Random random, Function<ClusterLogAllocation, Map<Integer, Double>> brokerWeights) {
+    return new ShuffleTweaker(
+        () -> minStep + random.nextInt(maxStep - minStep), () -> random, brokerWeights);
+  }
+
+  /**
+   * @return the broker weights of the tweaker. If {@link
+   *     #SHUFFLE_PLAN_GENERATOR_BROKER_WEIGHTED_CONFIG} is enabled, the brokers are weighted by
+   *     the broker costs if the cluster cost function is also a {@link HasBrokerCost}, or by the
+   *     number of hosted replicas otherwise. Otherwise, the weights are empty and the partitions
+   *     are picked uniformly.
+   */
+  Function<ClusterLogAllocation, Map<Integer, Double>> brokerWeights(
+      HasClusterCost costFunction, ClusterBean metrics) {
+    if (!brokerWeighted) return ignored -> Map.of();
+    if (costFunction instanceof HasBrokerCost)
+      return allocation -> ((HasBrokerCost) costFunction).brokerCost(allocation, metrics).value();
+    return allocation ->
+        allocation
+            .replicaStream()
+            .collect(
+                Collectors.groupingBy(
+                    replica -> replica.nodeInfo().id(), Collectors.summingDouble(ignored -> 1)));
+  }
+
+  /**
+   * @return the value of the key, or the default value if the key is absent
+   * @throws IllegalArgumentException if the value is not positive
+   */
+  static int positive(Configuration config, String key, int defaultValue) {
+    return config
+        .string(key)
+        .map(Integer::parseInt)
+        .map(Utils::requirePositive)
+        .orElse(defaultValue);
+  }
+
+  /**
+   * @return the register of the bean which exposes the progress of an offer. The caller adds the
+   *     attributes.
+   */
+  static MBeanRegister.LocalRegister progressBean(
+      AlgorithmConfig config, Class<? extends Balancer> algorithm, int run) {
+    return MBeanRegister.local()
+        .setDomainName("astraea.balancer")
+        .addProperty("id", config.executionId())
+        .addProperty("algorithm", algorithm.getSimpleName())
+        .addProperty("run", Integer.toString(run));
+  }
+}
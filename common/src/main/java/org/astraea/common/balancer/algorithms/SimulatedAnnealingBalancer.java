@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.algorithms;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.astraea.common.Utils;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.balancer.Balancer;
+import org.astraea.common.balancer.log.ClusterLogAllocation;
+import org.astraea.common.balancer.tweakers.ShuffleTweaker;
+
+/**
+ * A simulated annealing algorithm. Like {@link GreedyBalancer}, it walks through the allocations
+ * proposed by {@link ShuffleTweaker}, but a worse allocation is also accepted with the probability
+ * {@code exp(-(worse cost - current cost) / temperature)}, so the walk is able to leave a local
+ * minimum. The temperature is multiplied by the cooling rate after each proposal.
+ *
+ * <p>If the temperature drops below the minimum temperature, or no better plan is found in a number
+ * of proposals, the temperature is reset to the initial temperature (reheating) and the walk goes
+ * back to the best plan found so far.
+ *
+ * <p>The walk may pass through the allocations which violate the constraints. The offered plan is
+ * the best one which passes the cluster constraint (compared with the original cluster) and the
+ * movement constraint.
+ */
+public class SimulatedAnnealingBalancer implements Balancer {
+
+  public static final String SHUFFLE_PLAN_GENERATOR_MIN_STEP_CONFIG =
+      ShuffleConfig.SHUFFLE_PLAN_GENERATOR_MIN_STEP_CONFIG;
+  public static final String SHUFFLE_PLAN_GENERATOR_MAX_STEP_CONFIG =
+      ShuffleConfig.SHUFFLE_PLAN_GENERATOR_MAX_STEP_CONFIG;
+  public static final String ITERATION_CONFIG = ShuffleConfig.ITERATION_CONFIG;
+  public static final String SEED_CONFIG = ShuffleConfig.SEED_CONFIG;
+  public static final String SHUFFLE_PLAN_GENERATOR_BROKER_WEIGHTED_CONFIG =
+      ShuffleConfig.SHUFFLE_PLAN_GENERATOR_BROKER_WEIGHTED_CONFIG;
+  public static final String INITIAL_TEMPERATURE_CONFIG = "temperature.initial";
+  public static final String MIN_TEMPERATURE_CONFIG = "temperature.min";
+  public static final String COOLING_RATE_CONFIG = "cooling.rate";
+  public static final String REHEAT_STALL_CONFIG = "reheat.stall";
+  public static final Set<String> ALL_CONFIGS =
+      new TreeSet<>(
+          Utils.constants(SimulatedAnnealingBalancer.class, name -> name.endsWith("CONFIG")));
+
+  private final AlgorithmConfig config;
+  private final ShuffleConfig shuffle;
+  private final double initialTemperature;
+  private final double minTemperature;
+  private final double coolingRate;
+  private final int reheatStall;
+  private final AtomicInteger run = new AtomicInteger();
+
+  public SimulatedAnnealingBalancer(AlgorithmConfig algorithmConfig) {
+    this.config = algorithmConfig;
+    this.shuffle = new ShuffleConfig(config.algorithmConfig());
+    initialTemperature =
+        config
+            .algorithmConfig()
+            .string(INITIAL_TEMPERATURE_CONFIG)
+            .map(Double::parseDouble)
+            .map(SimulatedAnnealingBalancer::requirePositive)
+            .orElse(0.1);
+    minTemperature =
+        config
+            .algorithmConfig()
+            .string(MIN_TEMPERATURE_CONFIG)
+            .map(Double::parseDouble)
+            .map(SimulatedAnnealingBalancer::requirePositive)
+            .orElse(initialTemperature / 1000);
+    coolingRate =
+        config
+            .algorithmConfig()
+            .string(COOLING_RATE_CONFIG)
+            .map(Double::parseDouble)
+            .orElse(0.995);
+    if (coolingRate <= 0 || coolingRate >= 1)
+      throw new IllegalArgumentException(
+          "the cooling rate: " + coolingRate + " must be between zero and one");
+    reheatStall = ShuffleConfig.positive(config.algorithmConfig(), REHEAT_STALL_CONFIG, 1000);
+  }
+
+  @Override
+  public Optional<Plan> offer(ClusterInfo<Replica> currentClusterInfo, Duration timeout) {
+    // the walk runs in the caller thread, so the thread-local random is safe to share
+    final Random random =
+        shuffle.seed.<Random>map(Random::new).orElseGet(ThreadLocalRandom::current);
+    final var metrics = config.metricSource().get();
+    final var allocationTweaker =
+        shuffle.tweaker(random, shuffle.brokerWeights(config.clusterCostFunction(), metrics));
+    final var moveCostFunction = config.moveCostFunctions();
+    final var initialEvaluator =
+        CostEvaluator.of(
+            config.clusterCostFunction(),
+            currentClusterInfo,
+            metrics,
+            ClusterLogAllocation.of(ClusterInfo.masked(currentClusterInfo, config.topicFilter())));
+    final var initialCost = initialEvaluator.clusterCost();
+
+    // register JMX
+    var currentIteration = new LongAdder();
+    var currentMinCost =
+        new DoubleAccumulator((l, r) -> Double.isNaN(r) ? l : Math.min(l, r), initialCost.value());
+    ShuffleConfig.progressBean(config, SimulatedAnnealingBalancer.class, run.getAndIncrement())
+        .addAttribute("Iteration", Long.class, currentIteration::sum)
+        .addAttribute("MinCost", Double.class, currentMinCost::get)
+        .register();
+
+    final var deadline = System.currentTimeMillis() + timeout.toMillis();
+    var current = initialEvaluator;
+    var best = initialEvaluator;
+    var bestPlan = Optional.<Balancer.Plan>empty();
+    var temperature = initialTemperature;
+    var stall = 0;
+    for (var i = 0; i < shuffle.iteration && System.currentTimeMillis() < deadline; i++) {
+      currentIteration.add(1);
+      var proposal = allocationTweaker.generate(current.allocation()).findFirst();
+      if (proposal.isEmpty()) break;
+      var candidate = current.evaluate(proposal.get());
+      var candidateCost = candidate.clusterCost().value();
+
+      // the plan is built only for the candidates which are better than the best plan and pass
+      // the cluster constraint
+      var improved = false;
+      if (candidateCost < best.clusterCost().value()
+          && config.clusterConstraint().test(initialCost, candidate.clusterCost())) {
+        var plan = candidate.plan(initialCost, moveCostFunction);
+        if (config.movementConstraint().test(plan.moveCost())) {
+          best = candidate;
+          bestPlan = Optional.of(plan);
+          currentMinCost.accumulate(candidateCost);
+          improved = true;
+        }
+      }
+
+      if (accept(current.clusterCost().value(), candidateCost, temperature, random))
+        current = candidate;
+
+      stall = improved ? 0 : stall + 1;
+      temperature = temperature * coolingRate;
+      if (stall >= reheatStall || temperature < minTemperature) {
+        temperature = initialTemperature;
+        current = best;
+        stall = 0;
+      }
+    }
+    return bestPlan;
+  }
+
+  /**
+   * The Metropolis criterion. A better candidate is always accepted. A worse candidate is accepted
+   * with a probability which decreases with the temperature and the difference of the costs.
+   */
+  static boolean accept(double current, double candidate, double temperature, Random random) {
+    if (candidate <= current) return true;
+    return random.nextDouble() < Math.exp((current - candidate) / temperature);
+  }
+
+  private static double requirePositive(double value) {
+    if (value <= 0)
+      throw new IllegalArgumentException("the value: " + value + " must be bigger than zero");
+    return value;
+  }
+}
@@ -21,85 +21,60 @@ import java.util.Comparator;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.stream.Collectors;
 import org.astraea.common.Utils;
 import org.astraea.common.admin.ClusterInfo;
 import org.astraea.common.admin.Replica;
 import org.astraea.common.balancer.Balancer;
 import org.astraea.common.balancer.log.ClusterLogAllocation;
-import org.astraea.common.balancer.tweakers.ShuffleTweaker;
 
 /** This algorithm proposes rebalance plan by tweaking the log allocation once. */
 public class SingleStepBalancer implements Balancer {
 
   public static final String SHUFFLE_PLAN_GENERATOR_MIN_STEP_CONFIG =
-      "shuffle.plan.generator.min.step";
+      ShuffleConfig.SHUFFLE_PLAN_GENERATOR_MIN_STEP_CONFIG;
   public static final String SHUFFLE_PLAN_GENERATOR_MAX_STEP_CONFIG =
-      "shuffle.plan.generator.max.step";
-  public static final String ITERATION_CONFIG = "iteration";
+      ShuffleConfig.SHUFFLE_PLAN_GENERATOR_MAX_STEP_CONFIG;
+  public static final String ITERATION_CONFIG = ShuffleConfig.ITERATION_CONFIG;
+  public static final String SEED_CONFIG = ShuffleConfig.SEED_CONFIG;
+  public static final String SHUFFLE_PLAN_GENERATOR_BROKER_WEIGHTED_CONFIG =
+      ShuffleConfig.SHUFFLE_PLAN_GENERATOR_BROKER_WEIGHTED_CONFIG;
   public static final Set<String> ALL_CONFIGS =
       new TreeSet<>(Utils.constants(SingleStepBalancer.class, name -> name.endsWith("CONFIG")));
 
   private final AlgorithmConfig config;
-  private final int minStep;
-  private final int maxStep;
-  private final int iteration;
+  private final ShuffleConfig shuffle;
 
   public SingleStepBalancer(AlgorithmConfig algorithmConfig) {
     this.config = algorithmConfig;
-
-    minStep =
-        config
-            .algorithmConfig()
-            .string(SHUFFLE_PLAN_GENERATOR_MIN_STEP_CONFIG)
-            .map(Integer::parseInt)
-            .map(Utils::requirePositive)
-            .orElse(1);
-    maxStep =
-        config
-            .algorithmConfig()
-            .string(SHUFFLE_PLAN_GENERATOR_MAX_STEP_CONFIG)
-            .map(Integer::parseInt)
-            .map(Utils::requirePositive)
-            .orElse(30);
-    iteration =
-        config
-            .algorithmConfig()
-            .string(ITERATION_CONFIG)
-            .map(Integer::parseInt)
-            .map(Utils::requirePositive)
-            .orElse(Integer.MAX_VALUE);
+    this.shuffle = new ShuffleConfig(config.algorithmConfig());
   }
 
   @Override
   public Optional<Balancer.Plan> offer(ClusterInfo<Replica> currentClusterInfo, Duration timeout) {
-    final var allocationTweaker = new ShuffleTweaker(minStep, maxStep);
     final var currentClusterBean = config.metricSource().get();
     final var clusterCostFunction = config.clusterCostFunction();
+    final var allocationTweaker =
+        shuffle.tweaker(0, shuffle.brokerWeights(clusterCostFunction, currentClusterBean));
     final var moveCostFunction = config.moveCostFunctions();
-    final var currentCost =
-        config.clusterCostFunction().clusterCost(currentClusterInfo, currentClusterBean);
     final var generatorClusterInfo = ClusterInfo.masked(currentClusterInfo, config.topicFilter());
+    final var evaluator =
+        CostEvaluator.of(
+            clusterCostFunction,
+            currentClusterInfo,
+            currentClusterBean,
+            ClusterLogAllocation.of(generatorClusterInfo));
+    final var currentCost = evaluator.clusterCost();
 
     var start = System.currentTimeMillis();
-    return allocationTweaker
-        .generate(ClusterLogAllocation.of(generatorClusterInfo))
-        .parallel()
-        .limit(iteration)
+    var allocations = allocationTweaker.generate(evaluator.allocation());
+    // the seeded tweaker is reproducible only if it is consumed sequentially
+    if (shuffle.seed.isEmpty()) allocations = allocations.parallel();
+    return allocations
+        .limit(shuffle.iteration)
         .takeWhile(ignored -> System.currentTimeMillis() - start <= timeout.toMillis())
-        .map(
-            newAllocation -> {
-              var newClusterInfo = ClusterInfo.update(currentClusterInfo, newAllocation::replicas);
-              return new Balancer.Plan(
-                  newAllocation,
-                  currentCost,
-                  clusterCostFunction.clusterCost(newClusterInfo, currentClusterBean),
-                  moveCostFunction.stream()
-                      .map(
-                          cf -> cf.moveCost(currentClusterInfo, newClusterInfo, currentClusterBean))
-                      .collect(Collectors.toList()));
-            })
-        .filter(plan -> config.clusterConstraint().test(currentCost, plan.proposalClusterCost()))
+        .map(evaluator::evaluate)
+        .filter(candidate -> config.clusterConstraint().test(currentCost, candidate.clusterCost()))
+        .map(candidate -> candidate.plan(currentCost, moveCostFunction))
         .filter(plan -> config.movementConstraint().test(plan.moveCost()))
         .min(Comparator.comparing(plan -> plan.proposalClusterCost().value()));
   }
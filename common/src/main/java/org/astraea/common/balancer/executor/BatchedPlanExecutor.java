@@ -0,0 +1,474 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.executor;
+
+import static org.astraea.common.admin.ClusterInfo.findNonFulfilledAllocation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.astraea.common.DataRate;
+import org.astraea.common.DataSize;
+import org.astraea.common.Utils;
+import org.astraea.common.admin.Admin;
+import org.astraea.common.admin.Broker;
+import org.astraea.common.admin.BrokerConfigs;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.NodeInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.ReplicaInfo;
+import org.astraea.common.admin.TopicConfigs;
+import org.astraea.common.admin.TopicPartition;
+import org.astraea.common.metrics.jmx.MBeanRegister;
+
+/**
+ * Execute the migrations in a sliding window. At most {@code maxMoves} partitions are moving at the
+ * same time, and the bytes in flight of a broker, which is the sum of {@link Replica#size()} of the
+ * moving partitions it sends or receives, never exceed {@code maxBytesPerBroker}. A partition which
+ * is larger than the limit is still moved, but only when the brokers it touches are idle.
+ *
+ * <p>The window is refilled as soon as a partition gets moved, so a slow partition doesn't hold
+ * back the others. The larger partitions are started first, since they decide the total time.
+ *
+ * <p>If a throttle is given, the replication rate of a broker is limited while it sends or receives
+ * a moving partition, and its original rate is set back once it gets idle. The replicas of a moving
+ * partition are added to the throttled replicas of its topic. They are removed from the throttled
+ * replicas once the partition gets moved. The progress is exposed as a JMX bean of domain {@code
+ * astraea.balancer}, and the bean is unregistered when the migrations end.
+ *
+ * <p>The timeout bounds the migrations as a whole rather than a single batch, so a run which keeps
+ * moving a few partitions slowly fails once the timeout is expired.
+ */
+public class BatchedPlanExecutor implements RebalancePlanExecutor {
+
+  private static final AtomicInteger RUN = new AtomicInteger();
+
+  private static final Set<String> RATE_CONFIGS =
+      Set.of(
+          BrokerConfigs.LEADER_REPLICATION_THROTTLED_RATE_CONFIG,
+          BrokerConfigs.FOLLOWER_REPLICATION_THROTTLED_RATE_CONFIG);
+
+  /**
+   * A run blocks a thread until all partitions get moved, so it should not occupy the common pool.
+   * The threads are created on demand since the runs are rare, and they are released once idle.
+   */
+  private static final ExecutorService EXECUTOR =
+      Executors.newCachedThreadPool(
+          runnable -> {
+            var thread = new Thread(runnable, "batched-plan-executor");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final int maxMoves;
+  private final DataSize maxBytesPerBroker;
+  private final Optional<DataRate> throttle;
+  private final Duration pollInterval;
+
+  /**
+   * @param maxMoves the maximum number of partitions moving at the same time
+   * @param maxBytesPerBroker the maximum bytes each broker sends or receives at the same time
+   * @param throttle the replication rate of each involved broker, or empty to leave it unlimited
+   * @param pollInterval the interval to check the progress of moving partitions
+   */
+  public BatchedPlanExecutor(
+      int maxMoves,
+      DataSize maxBytesPerBroker,
+      Optional<DataRate> throttle,
+      Duration pollInterval) {
+    this.maxMoves = Utils.requirePositive(maxMoves);
+    this.maxBytesPerBroker = Objects.requireNonNull(maxBytesPerBroker);
+    this.throttle = Objects.requireNonNull(throttle);
+    this.pollInterval = Objects.requireNonNull(pollInterval);
+  }
+
+  @Override
+  public CompletionStage<Void> run(
+      Admin admin, ClusterInfo<Replica> logAllocation, Duration timeout) {
+    return admin
+        .topicNames(true)
+        .thenCompose(admin::clusterInfo)
+        .thenApply(
+            clusterInfo -> {
+              if (clusterInfo
+                  .replicaStream()
+                  .anyMatch(r -> r.isFuture() || r.isRemoving() || r.isAdding()))
+                throw new IllegalArgumentException(
+                    "There are moving replicas. Stop re-balance plan");
+              return findNonFulfilledAllocation(clusterInfo, logAllocation).stream()
+                  .map(tp -> Move.of(tp, clusterInfo.replicas(tp), logAllocation.replicas(tp)))
+                  .sorted(Comparator.comparingLong((Move m) -> m.bytes).reversed())
+                  .collect(Collectors.toList());
+            })
+        // step 1: move the partitions in a sliding window
+        .thenCompose(
+            moves -> CompletableFuture.runAsync(() -> execute(admin, moves, timeout), EXECUTOR))
+        // step 2: wait replicas get synced
+        .thenCompose(
+            ignored -> admin.waitReplicasSynced(logAllocation.topicPartitionReplicas(), timeout))
+        // step 3: re-elect leaders
+        .thenCompose(
+            ignored ->
+                admin
+                    .preferredLeaderElection(logAllocation.topicPartitions())
+                    .thenCompose(
+                        i ->
+                            admin.waitPreferredLeaderSynced(
+                                logAllocation.topicPartitions(), timeout))
+                    .thenAccept(
+                        c ->
+                            StraightPlanExecutor.assertion(
+                                c,
+                                "Failed to re-election for " + logAllocation.topicPartitions())));
+  }
+
+  private void execute(Admin admin, List<Move> moves, Duration timeout) {
+    var pending = new ArrayList<>(moves);
+    var running = new LinkedHashMap<TopicPartition, Move>();
+    var bytesInFlight = new HashMap<Integer, Long>();
+    var movedPartitions = new LongAdder();
+    var movedBytes = new LongAdder();
+    var start = System.currentTimeMillis();
+    var bean =
+        MBeanRegister.local()
+            .setDomainName("astraea.balancer")
+            .addProperty("executor", BatchedPlanExecutor.class.getSimpleName())
+            .addProperty("run", Integer.toString(RUN.getAndIncrement()))
+            .addAttribute("MovedPartitions", Long.class, movedPartitions::sum)
+            .addAttribute("TotalPartitions", Long.class, () -> (long) moves.size())
+            .addAttribute("MovedBytes", Long.class, movedBytes::sum)
+            .addAttribute(
+                "TotalBytes", Long.class, () -> moves.stream().mapToLong(m -> m.bytes).sum())
+            .addAttribute(
+                "ByteRate",
+                Double.class,
+                () -> movedBytes.sum() * 1000.0 / Math.max(1, System.currentTimeMillis() - start))
+            .register();
+
+    // the original throttled rates of the brokers touched by the running moves
+    var originalRates = new HashMap<Integer, Map<String, Optional<String>>>();
+    var deadline = System.currentTimeMillis() + timeout.toMillis();
+    try {
+      while (!pending.isEmpty() || !running.isEmpty()) {
+        var admitted = admit(pending, running.size(), bytesInFlight);
+        if (!admitted.isEmpty()) {
+          admitted.forEach(
+              m -> {
+                running.put(m.topicPartition, m);
+                m.brokers().forEach(b -> bytesInFlight.merge(b, m.bytes, Long::sum));
+              });
+          throttle(admin, brokers(admitted), originalRates);
+          start(admin, admitted);
+        }
+
+        Utils.sleep(pollInterval);
+        var clusterInfo =
+            admin
+                .clusterInfo(
+                    running.keySet().stream()
+                        .map(TopicPartition::topic)
+                        .collect(Collectors.toUnmodifiableSet()))
+                .toCompletableFuture()
+                .join();
+        var finished =
+            running.values().stream()
+                .filter(m -> m.done(clusterInfo))
+                .collect(Collectors.toUnmodifiableList());
+        if (!finished.isEmpty()) {
+          finish(admin, finished);
+          finished.forEach(
+              m -> {
+                running.remove(m.topicPartition);
+                m.brokers().forEach(b -> bytesInFlight.merge(b, -m.bytes, Long::sum));
+                movedPartitions.increment();
+                movedBytes.add(m.bytes);
+              });
+          // the brokers which are not touched by the running moves get back their rates
+          var busy = brokers(running.values());
+          restore(
+              admin,
+              brokers(finished).stream()
+                  .filter(b -> !busy.contains(b))
+                  .collect(Collectors.toUnmodifiableSet()),
+              originalRates);
+        }
+        if ((!pending.isEmpty() || !running.isEmpty()) && System.currentTimeMillis() > deadline)
+          throw new IllegalStateException(
+              "Failed to move "
+                  + running.keySet()
+                  + " and "
+                  + pending.size()
+                  + " pending partitions in "
+                  + timeout);
+      }
+    } finally {
+      Utils.swallowException(
+          () -> {
+            if (throttle.isPresent())
+              admin
+                  .subtractTopicConfigs(throttledReplicas(running.values()))
+                  .toCompletableFuture()
+                  .join();
+            restore(admin, Set.copyOf(originalRates.keySet()), originalRates);
+          });
+      MBeanRegister.unregister(bean);
+    }
+  }
+
+  /**
+   * limit the replication rate of the brokers. The original rates are saved to {@code
+   * originalRates}, and the brokers which are throttled already are skipped.
+   */
+  private void throttle(
+      Admin admin,
+      Set<Integer> brokers,
+      Map<Integer, Map<String, Optional<String>>> originalRates) {
+    if (throttle.isEmpty()) return;
+    var newBrokers =
+        brokers.stream()
+            .filter(b -> !originalRates.containsKey(b))
+            .collect(Collectors.toUnmodifiableSet());
+    if (newBrokers.isEmpty()) return;
+    var configs =
+        admin.brokers().toCompletableFuture().join().stream()
+            .filter(b -> newBrokers.contains(b.id()))
+            .collect(Collectors.toMap(NodeInfo::id, Broker::config));
+    newBrokers.forEach(
+        b ->
+            originalRates.put(
+                b,
+                RATE_CONFIGS.stream()
+                    .collect(
+                        Collectors.toMap(
+                            key -> key,
+                            key ->
+                                Optional.ofNullable(configs.get(b))
+                                    .flatMap(c -> c.value(key))))));
+    admin.setBrokerConfigs(rateConfigs(newBrokers, throttle.get())).toCompletableFuture().join();
+  }
+
+  /**
+   * set back the original replication rates of the brokers, and remove them from {@code
+   * originalRates}. The rates which were not set are unset.
+   */
+  private static void restore(
+      Admin admin,
+      Set<Integer> brokers,
+      Map<Integer, Map<String, Optional<String>>> originalRates) {
+    var set = new HashMap<Integer, Map<String, String>>();
+    var unset = new HashMap<Integer, Set<String>>();
+    brokers.stream()
+        .filter(originalRates::containsKey)
+        .forEach(
+            b ->
+                originalRates
+                    .remove(b)
+                    .forEach(
+                        (key, value) -> {
+                          if (value.isPresent())
+                            set.computeIfAbsent(b, i -> new HashMap<>()).put(key, value.get());
+                          else unset.computeIfAbsent(b, i -> new HashSet<>()).add(key);
+                        }));
+    if (!set.isEmpty()) admin.setBrokerConfigs(set).toCompletableFuture().join();
+    if (!unset.isEmpty()) admin.unsetBrokerConfigs(unset).toCompletableFuture().join();
+  }
+
+  private static Set<Integer> brokers(Collection<Move> moves) {
+    return moves.stream()
+        .flatMap(m -> m.brokers().stream())
+        .collect(Collectors.toUnmodifiableSet());
+  }
+
+  /**
+   * pick the pending moves which fit in the window. The picked moves are removed from the pending
+   * list. A move that doesn't fit is skipped, so the smaller moves behind it can fill the window.
+   */
+  List<Move> admit(List<Move> pending, int running, Map<Integer, Long> bytesInFlight) {
+    var inFlight = new HashMap<>(bytesInFlight);
+    var admitted = new ArrayList<Move>();
+    var iterator = pending.iterator();
+    while (iterator.hasNext() && running + admitted.size() < maxMoves) {
+      var move = iterator.next();
+      var fit =
+          move.brokers().stream()
+              .allMatch(
+                  b -> {
+                    var bytes = inFlight.getOrDefault(b, 0L);
+                    return bytes == 0 || bytes + move.bytes <= maxBytesPerBroker.bytes();
+                  });
+      if (!fit) continue;
+      move.brokers().forEach(b -> inFlight.merge(b, move.bytes, Long::sum));
+      admitted.add(move);
+      iterator.remove();
+    }
+    return admitted;
+  }
+
+  private void start(Admin admin, List<Move> moves) {
+    if (throttle.isPresent())
+      admin.appendTopicConfigs(throttledReplicas(moves)).toCompletableFuture().join();
+    admin
+        .moveToBrokers(
+            moves.stream()
+                .collect(
+                    Collectors.toMap(
+                        m -> m.topicPartition,
+                        m ->
+                            m.target.stream()
+                                .sorted(
+                                    Comparator.comparing(Replica::isPreferredLeader).reversed())
+                                .map(r -> r.nodeInfo().id())
+                                .collect(Collectors.toList()))))
+        .toCompletableFuture()
+        .join();
+  }
+
+  private void finish(Admin admin, List<Move> moves) {
+    admin
+        .moveToFolders(
+            moves.stream()
+                .flatMap(m -> m.target.stream())
+                .collect(Collectors.toMap(ReplicaInfo::topicPartitionReplica, Replica::path)))
+        .toCompletableFuture()
+        .join();
+    if (throttle.isPresent())
+      admin.subtractTopicConfigs(throttledReplicas(moves)).toCompletableFuture().join();
+  }
+
+  private static Map<Integer, Map<String, String>> rateConfigs(
+      Set<Integer> brokers, DataRate rate) {
+    var value = String.valueOf((long) rate.byteRate());
+    return brokers.stream()
+        .collect(
+            Collectors.toMap(
+                b -> b,
+                b ->
+                    Map.of(
+                        BrokerConfigs.LEADER_REPLICATION_THROTTLED_RATE_CONFIG,
+                        value,
+                        BrokerConfigs.FOLLOWER_REPLICATION_THROTTLED_RATE_CONFIG,
+                        value)));
+  }
+
+  /**
+   * The existing replicas send the data, so they are throttled as leaders. The adding replicas
+   * receive the data, so they are throttled as followers.
+   */
+  private static Map<String, Map<String, String>> throttledReplicas(Iterable<Move> moves) {
+    var leaders = new HashMap<String, List<String>>();
+    var followers = new HashMap<String, List<String>>();
+    moves.forEach(
+        m -> {
+          m.sources.forEach(
+              b ->
+                  leaders
+                      .computeIfAbsent(m.topicPartition.topic(), i -> new ArrayList<>())
+                      .add(m.topicPartition.partition() + ":" + b));
+          m.adding.forEach(
+              b ->
+                  followers
+                      .computeIfAbsent(m.topicPartition.topic(), i -> new ArrayList<>())
+                      .add(m.topicPartition.partition() + ":" + b));
+        });
+    return Stream.concat(leaders.keySet().stream(), followers.keySet().stream())
+        .distinct()
+        .collect(
+            Collectors.toMap(
+                topic -> topic,
+                topic -> {
+                  var configs = new HashMap<String, String>();
+                  if (leaders.containsKey(topic))
+                    configs.put(
+                        TopicConfigs.LEADER_REPLICATION_THROTTLED_REPLICAS_CONFIG,
+                        String.join(",", leaders.get(topic)));
+                  if (followers.containsKey(topic))
+                    configs.put(
+                        TopicConfigs.FOLLOWER_REPLICATION_THROTTLED_REPLICAS_CONFIG,
+                        String.join(",", followers.get(topic)));
+                  return configs;
+                }));
+  }
+
+  static class Move {
+    private final TopicPartition topicPartition;
+    private final Set<Integer> sources;
+    private final Set<Integer> adding;
+    private final List<Replica> target;
+    private final long bytes;
+
+    static Move of(TopicPartition topicPartition, List<Replica> current, List<Replica> target) {
+      var sources =
+          current.stream().map(r -> r.nodeInfo().id()).collect(Collectors.toUnmodifiableSet());
+      var adding =
+          target.stream()
+              .map(r -> r.nodeInfo().id())
+              .filter(id -> !sources.contains(id))
+              .collect(Collectors.toUnmodifiableSet());
+      // the adding replicas copy the whole log from the leader
+      var bytes = current.stream().mapToLong(Replica::size).max().orElse(0);
+      // nothing is copied if the partition just changes the order or the folders of replicas
+      if (adding.isEmpty()) return new Move(topicPartition, Set.of(), adding, target, 0);
+      return new Move(topicPartition, sources, adding, target, bytes);
+    }
+
+    Move(
+        TopicPartition topicPartition,
+        Set<Integer> sources,
+        Set<Integer> adding,
+        List<Replica> target,
+        long bytes) {
+      this.topicPartition = topicPartition;
+      this.sources = sources;
+      this.adding = adding;
+      this.target = target;
+      this.bytes = bytes;
+    }
+
+    /** the brokers which send or receive the data of this partition */
+    Set<Integer> brokers() {
+      return Stream.concat(sources.stream(), adding.stream())
+          .collect(Collectors.toUnmodifiableSet());
+    }
+
+    boolean done(ClusterInfo<Replica> clusterInfo) {
+      var replicas = clusterInfo.replicas(topicPartition);
+      return !replicas.isEmpty()
+          && replicas.stream().noneMatch(r -> r.isAdding() || r.isRemoving())
+          && replicas.stream()
+              .map(r -> r.nodeInfo().id())
+              .collect(Collectors.toSet())
+              .equals(target.stream().map(r -> r.nodeInfo().id()).collect(Collectors.toSet()));
+    }
+  }
+}
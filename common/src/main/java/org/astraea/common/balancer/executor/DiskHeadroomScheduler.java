@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.executor;
+
+import static org.astraea.common.admin.ClusterInfo.findNonFulfilledAllocation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+import org.astraea.common.admin.Admin;
+import org.astraea.common.admin.Broker;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicPartition;
+
+/**
+ * Order the migrations by the free space of data folders. A folder receiving a partition holds the
+ * new replica before the old one is deleted from the other folder, so the space released by a wave
+ * is available only to the next waves. Each wave takes as many partitions as possible, smaller
+ * first, as long as the used space of every folder stays under the threshold.
+ *
+ * <p>The space is counted per data folder rather than per broker, since a JBOD broker can run out
+ * of one disk while the sum of its disks still looks fine. A move between the folders of a broker
+ * is charged to the target folder too.
+ */
+class DiskHeadroomScheduler implements MigrationScheduler {
+
+  private final double threshold;
+
+  DiskHeadroomScheduler(double threshold) {
+    if (threshold <= 0 || threshold > 1)
+      throw new IllegalArgumentException("threshold should be in (0, 1], but it is " + threshold);
+    this.threshold = threshold;
+  }
+
+  @Override
+  public CompletionStage<List<Set<TopicPartition>>> schedule(
+      Admin admin, ClusterInfo<Replica> current, ClusterInfo<Replica> target) {
+    return admin
+        .diskSpaces()
+        .thenApply(spaces -> schedule(headroom(spaces, threshold), current, target));
+  }
+
+  /**
+   * @return broker id -> data folder -> the bytes the folder can receive before its used space
+   *     exceeds the threshold. It is negative if the folder has exceeded the threshold already.
+   */
+  static Map<Integer, Map<String, Long>> headroom(
+      Map<Integer, List<Broker.DiskSpace>> spaces, double threshold) {
+    return spaces.entrySet().stream()
+        .collect(
+            Collectors.toMap(
+                Map.Entry::getKey,
+                e ->
+                    e.getValue().stream()
+                        .collect(
+                            Collectors.toMap(
+                                Broker.DiskSpace::path,
+                                s ->
+                                    s.usableBytes()
+                                        - Math.round((1 - threshold) * s.totalBytes())))));
+  }
+
+  /**
+   * @param headroom broker id -> data folder -> the bytes the folder can receive. The folder
+   *     without headroom is not limited.
+   */
+  static List<Set<TopicPartition>> schedule(
+      Map<Integer, Map<String, Long>> headroom,
+      ClusterInfo<Replica> current,
+      ClusterInfo<Replica> target) {
+    var remaining = new HashMap<Folder, Long>();
+    headroom.forEach(
+        (broker, folders) ->
+            folders.forEach((path, bytes) -> remaining.put(new Folder(broker, path), bytes)));
+    var pending =
+        findNonFulfilledAllocation(current, target).stream()
+            .sorted(
+                Comparator.comparingLong((TopicPartition tp) -> size(current.replicas(tp)))
+                    .thenComparing(tp -> tp))
+            .collect(Collectors.toCollection(ArrayList::new));
+    var waves = new ArrayList<Set<TopicPartition>>();
+    while (!pending.isEmpty()) {
+      var wave = new HashSet<TopicPartition>();
+      var received = new HashMap<Folder, Long>();
+      var released = new HashMap<Folder, Long>();
+      var iterator = pending.iterator();
+      while (iterator.hasNext()) {
+        var tp = iterator.next();
+        var size = size(current.replicas(tp));
+        var sources = folders(current.replicas(tp));
+        var targets = folders(target.replicas(tp));
+        var fit =
+            targets.stream()
+                .filter(f -> !sources.contains(f))
+                .allMatch(
+                    f ->
+                        received.getOrDefault(f, 0L) + size
+                            <= remaining.getOrDefault(f, Long.MAX_VALUE));
+        if (!fit) continue;
+        targets.stream()
+            .filter(f -> !sources.contains(f))
+            .forEach(f -> received.merge(f, size, Long::sum));
+        sources.stream()
+            .filter(f -> !targets.contains(f))
+            .forEach(f -> released.merge(f, size, Long::sum));
+        wave.add(tp);
+        iterator.remove();
+      }
+      if (wave.isEmpty())
+        throw new IllegalStateException(
+            "Can't move " + pending + " without exceeding the disk headroom " + remaining);
+      received.forEach((f, size) -> remaining.computeIfPresent(f, (ignored, v) -> v - size));
+      released.forEach((f, size) -> remaining.computeIfPresent(f, (ignored, v) -> v + size));
+      waves.add(Set.copyOf(wave));
+    }
+    return waves;
+  }
+
+  private static Set<Folder> folders(List<Replica> replicas) {
+    return replicas.stream()
+        .map(r -> new Folder(r.nodeInfo().id(), r.path()))
+        .collect(Collectors.toUnmodifiableSet());
+  }
+
+  /** the new replica copies the whole log, which is the largest replica */
+  private static long size(List<Replica> replicas) {
+    return replicas.stream().mapToLong(Replica::size).max().orElse(0);
+  }
+
+  private static final class Folder {
+    private final int broker;
+    private final String path;
+
+    private Folder(int broker, String path) {
+      this.broker = broker;
+      this.path = path;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      var folder = (Folder) o;
+      return broker == folder.broker && Objects.equals(path, folder.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(broker, path);
+    }
+
+    @Override
+    public String toString() {
+      return broker + ":" + path;
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.executor;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import org.astraea.common.admin.Admin;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicPartition;
+
+/**
+ * Divide the migrations of a plan into waves. The waves are executed one by one, and the
+ * partitions of a wave are moved together. It can be plugged into any {@link
+ * RebalancePlanExecutor} by {@link RebalancePlanExecutor#of(RebalancePlanExecutor,
+ * MigrationScheduler)}.
+ */
+@FunctionalInterface
+public interface MigrationScheduler {
+
+  /**
+   * @param threshold the maximum ratio of used space of each data folder during the migration
+   * @return a scheduler that keeps the disk usage of data folders under the threshold
+   */
+  static MigrationScheduler diskHeadroom(double threshold) {
+    return new DiskHeadroomScheduler(threshold);
+  }
+
+  /**
+   * @param admin to query the cluster state
+   * @param current the current allocation
+   * @param target the expected allocation
+   * @return the partitions to move in each wave. The partitions already fulfilling the target
+   *     allocation are excluded.
+   */
+  CompletionStage<List<Set<TopicPartition>>> schedule(
+      Admin admin, ClusterInfo<Replica> current, ClusterInfo<Replica> target);
+}
@@ -29,6 +29,15 @@ public interface RebalancePlanExecutor {
     return new StraightPlanExecutor();
   }
 
+  /**
+   * @param executor to execute each wave
+   * @param scheduler to divide the plan into waves
+   * @return an executor running the waves of the plan one by one
+   */
+  static RebalancePlanExecutor of(RebalancePlanExecutor executor, MigrationScheduler scheduler) {
+    return new ScheduledPlanExecutor(executor, scheduler);
+  }
+
   /**
    * submit the migration request to servers. It makes sure all migrated replicas get synced and all
    * new leaders get ready. The timeout to wait sync and re-election can be "large" and
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.executor;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+import org.astraea.common.admin.Admin;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Replica;
+
+/**
+ * Execute the waves offered by a {@link MigrationScheduler} one by one. Each wave is a sub plan
+ * consisting of its partitions, and it is executed by the given executor.
+ */
+class ScheduledPlanExecutor implements RebalancePlanExecutor {
+
+  private final RebalancePlanExecutor executor;
+  private final MigrationScheduler scheduler;
+
+  ScheduledPlanExecutor(RebalancePlanExecutor executor, MigrationScheduler scheduler) {
+    this.executor = executor;
+    this.scheduler = scheduler;
+  }
+
+  @Override
+  public CompletionStage<Void> run(
+      Admin admin, ClusterInfo<Replica> logAllocation, Duration timeout) {
+    return admin
+        .topicNames(true)
+        .thenCompose(admin::clusterInfo)
+        .thenCompose(clusterInfo -> scheduler.schedule(admin, clusterInfo, logAllocation))
+        .thenCompose(
+            waves -> {
+              CompletionStage<Void> result = CompletableFuture.completedFuture(null);
+              for (var wave : waves) {
+                var subPlan =
+                    ClusterInfo.of(
+                        logAllocation.nodes(),
+                        wave.stream()
+                            .flatMap(tp -> logAllocation.replicas(tp).stream())
+                            .collect(Collectors.toUnmodifiableList()));
+                result = result.thenCompose(ignored -> executor.run(admin, subPlan, timeout));
+              }
+              return result;
+            });
+  }
+}
@@ -16,8 +16,19 @@
  */
 package org.astraea.common.balancer.log;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.astraea.common.Lazy;
 import org.astraea.common.admin.ClusterInfo;
 import org.astraea.common.admin.NodeInfo;
 import org.astraea.common.admin.Replica;
@@ -44,30 +55,24 @@ public interface ClusterLogAllocation extends ClusterInfo<Replica> {
     // sanity check: no moving replicas
     if (clusterInfo.replicaStream().anyMatch(r -> r.isFuture() || r.isAdding() || r.isRemoving()))
       throw new IllegalArgumentException("There are moving replicas. Stop re-balance plan");
-    clusterInfo
-        .topicPartitions()
-        .forEach(
-            topicPartition -> {
-              var replicas = clusterInfo.replicas(topicPartition);
-              // sanity check: no duplicate preferred leader
-              var preferredLeaderCount =
-                  replicas.stream().filter(Replica::isPreferredLeader).count();
-              if (preferredLeaderCount > 1)
-                throw new IllegalArgumentException(
-                    "Duplicate preferred leader in " + topicPartition);
-              if (preferredLeaderCount < 1)
-                throw new IllegalArgumentException(
-                    "Illegal preferred leader count in "
-                        + topicPartition
-                        + ": "
-                        + preferredLeaderCount);
-              // sanity check: no duplicate node info
-              if (replicas.stream().map(ReplicaInfo::nodeInfo).map(NodeInfo::id).distinct().count()
-                  != replicas.size())
-                throw new IllegalArgumentException(
-                    "Duplicate replica inside the replica list of " + topicPartition);
-            });
-    return new ClusterLogAllocationImpl(clusterInfo);
+    var origin = new ClusterLogAllocationImpl.Origin(clusterInfo);
+    origin.byPartition.forEach(ClusterLogAllocation::validate);
+    return new ClusterLogAllocationImpl(origin, ClusterLogAllocationImpl.Shared.EMPTY, Map.of());
+  }
+
+  private static void validate(TopicPartition topicPartition, List<Replica> replicas) {
+    // sanity check: no duplicate preferred leader
+    var preferredLeaderCount = replicas.stream().filter(Replica::isPreferredLeader).count();
+    if (preferredLeaderCount > 1)
+      throw new IllegalArgumentException("Duplicate preferred leader in " + topicPartition);
+    if (preferredLeaderCount < 1)
+      throw new IllegalArgumentException(
+          "Illegal preferred leader count in " + topicPartition + ": " + preferredLeaderCount);
+    // sanity check: no duplicate node info
+    if (replicas.stream().map(ReplicaInfo::nodeInfo).map(NodeInfo::id).distinct().count()
+        != replicas.size())
+      throw new IllegalArgumentException(
+          "Duplicate replica inside the replica list of " + topicPartition);
   }
 
   /**
@@ -83,10 +88,162 @@ public interface ClusterLogAllocation extends ClusterInfo<Replica> {
   /** let specific replica become the preferred leader of its associated topic/partition. */
   ClusterLogAllocation becomeLeader(TopicPartitionReplica replica);
 
-  class ClusterLogAllocationImpl extends ClusterInfo.Optimized<Replica>
-      implements ClusterLogAllocation {
-    private ClusterLogAllocationImpl(ClusterInfo<Replica> clusterInfo) {
-      super(clusterInfo.nodes(), clusterInfo.replicas());
+  /**
+   * Replay the replica lists of a previous allocation onto this allocation. A partition is replayed
+   * only if its previous replica list has the same size, and all its brokers and data folders are
+   * still in this cluster. Other partitions keep their replica lists.
+   *
+   * @param previous the previous allocation, which is usually proposed for an older cluster
+   * @return the allocation derived from this allocation by {@link
+   *     ClusterLogAllocation#migrateReplica} and {@link ClusterLogAllocation#becomeLeader}
+   */
+  default ClusterLogAllocation replay(ClusterInfo<Replica> previous) {
+    var folders = brokerFolders();
+    ClusterLogAllocation allocation = this;
+    for (var tp : topicPartitions()) {
+      var current = replicas(tp);
+      var target = previous.replicas(tp);
+      if (target.size() != current.size()
+          || target.stream().filter(Replica::isPreferredLeader).count() != 1
+          || target.stream()
+              .anyMatch(
+                  r ->
+                      r.path() == null
+                          || !folders.containsKey(r.nodeInfo().id())
+                          || (!folders.get(r.nodeInfo().id()).isEmpty()
+                              && !folders.get(r.nodeInfo().id()).contains(r.path()))))
+        continue;
+      var targetBrokers =
+          target.stream().map(r -> r.nodeInfo().id()).collect(Collectors.toUnmodifiableSet());
+      var currentBrokers =
+          current.stream().map(r -> r.nodeInfo().id()).collect(Collectors.toUnmodifiableSet());
+      var leaving =
+          current.stream().filter(r -> !targetBrokers.contains(r.nodeInfo().id())).iterator();
+      for (var r : target) {
+        var replica =
+            currentBrokers.contains(r.nodeInfo().id())
+                ? allocation.replicas(tp).stream()
+                    .filter(c -> c.nodeInfo().id() == r.nodeInfo().id())
+                    .findFirst()
+                    .orElseThrow()
+                : leaving.next();
+        if (replica.nodeInfo().id() != r.nodeInfo().id() || !r.path().equals(replica.path()))
+          allocation =
+              allocation.migrateReplica(
+                  replica.topicPartitionReplica(), r.nodeInfo().id(), r.path());
+      }
+      var leader = target.stream().filter(Replica::isPreferredLeader).findFirst().orElseThrow();
+      var isLeader =
+          allocation.replicas(tp).stream()
+              .anyMatch(r -> r.isPreferredLeader() && r.nodeInfo().id() == leader.nodeInfo().id());
+      if (!isLeader) allocation = allocation.becomeLeader(leader.topicPartitionReplica());
+    }
+    return allocation;
+  }
+
+  /**
+   * @return the partitions changed by {@link ClusterLogAllocation#migrateReplica} and {@link
+   *     ClusterLogAllocation#becomeLeader} since the allocation is created by {@link
+   *     ClusterLogAllocation#of(ClusterInfo)}. The allocations derived from the same allocation
+   *     differ only in these partitions, so comparing them is cheap.
+   */
+  Set<TopicPartition> changedPartitions();
+
+  /**
+   * @param other an allocation derived from the same allocation as this one
+   * @return the partitions whose replica lists may differ between the two allocations. It can
+   *     contain some unchanged partitions, but it never misses a changed one. It is much smaller
+   *     than {@link ClusterLogAllocation#changedPartitions()} if one allocation is derived from the
+   *     other by a few changes.
+   */
+  default Set<TopicPartition> changedPartitions(ClusterLogAllocation other) {
+    var partitions = new HashSet<>(changedPartitions());
+    partitions.addAll(other.changedPartitions());
+    return Collections.unmodifiableSet(partitions);
+  }
+
+  /**
+   * A persistent allocation. The allocation created by {@link ClusterLogAllocation#of(ClusterInfo)}
+   * is indexed once, and the derived allocations share it. A derived allocation keeps only the
+   * replica lists which differ from the origin, in two layers: a large layer shared with its
+   * ancestors and a small layer of the latest changes. A change copies the small layer only, and
+   * the small layer is merged into a new shared layer when it is full. Hence, a change costs
+   * O(changed partitions / MAX_RECENT_CHANGES) amortized, rather than O(replicas).
+   */
+  class ClusterLogAllocationImpl implements ClusterLogAllocation {
+
+    private static final int MAX_RECENT_CHANGES = 32;
+
+    /**
+     * The shared layer. It remembers the layer it is merged from and the merged partitions, so two
+     * allocations whose shared layers are one merge apart can still be compared cheaply.
+     */
+    static final class Shared {
+      private static final AtomicLong ID = new AtomicLong();
+      static final Shared EMPTY = new Shared(Map.of(), -1, Set.of());
+
+      private final long id = ID.getAndIncrement();
+      private final Map<TopicPartition, List<Replica>> changes;
+      private final long baseId;
+      private final Set<TopicPartition> merged;
+
+      private Shared(
+          Map<TopicPartition, List<Replica>> changes, long baseId, Set<TopicPartition> merged) {
+        this.changes = changes;
+        this.baseId = baseId;
+        this.merged = merged;
+      }
+    }
+
+    private final Origin origin;
+    private final Shared sharedLayer;
+    private final Map<TopicPartition, List<Replica>> shared;
+    private final Map<TopicPartition, List<Replica>> recent;
+    private final Lazy<Set<TopicPartition>> changedPartitions;
+
+    private ClusterLogAllocationImpl(
+        Origin origin, Shared sharedLayer, Map<TopicPartition, List<Replica>> recent) {
+      this.origin = origin;
+      this.sharedLayer = sharedLayer;
+      this.shared = sharedLayer.changes;
+      this.recent = recent;
+      this.changedPartitions =
+          Lazy.of(
+              () -> {
+                if (recent.isEmpty()) return shared.keySet();
+                var partitions = new HashSet<>(shared.keySet());
+                partitions.addAll(recent.keySet());
+                return Collections.unmodifiableSet(partitions);
+              });
+    }
+
+    @Override
+    public Set<TopicPartition> changedPartitions() {
+      return changedPartitions.get();
+    }
+
+    @Override
+    public Set<TopicPartition> changedPartitions(ClusterLogAllocation other) {
+      if (!(other instanceof ClusterLogAllocationImpl))
+        return ClusterLogAllocation.super.changedPartitions(other);
+      var that = (ClusterLogAllocationImpl) other;
+      if (that.origin != origin) return ClusterLogAllocation.super.changedPartitions(other);
+      // outside the recent layers, both allocations read the same shared layer
+      if (that.sharedLayer == sharedLayer) return union(recent.keySet(), that.recent.keySet());
+      // one shared layer is merged from the other one
+      if (sharedLayer.baseId == that.sharedLayer.id)
+        return union(union(recent.keySet(), that.recent.keySet()), sharedLayer.merged);
+      if (that.sharedLayer.baseId == sharedLayer.id)
+        return union(union(recent.keySet(), that.recent.keySet()), that.sharedLayer.merged);
+      return ClusterLogAllocation.super.changedPartitions(other);
+    }
+
+    private static Set<TopicPartition> union(Set<TopicPartition> a, Set<TopicPartition> b) {
+      if (a.isEmpty()) return b;
+      if (b.isEmpty()) return a;
+      var partitions = new HashSet<>(a);
+      partitions.addAll(b);
+      return partitions;
     }
 
     @Override
@@ -104,20 +261,11 @@ public interface ClusterLogAllocation extends ClusterInfo<Replica> {
               .orElseThrow(() -> new IllegalArgumentException("No such replica: " + replica));
       var newReplica =
           Replica.builder(theReplica)
-              .nodeInfo(
-                  nodes().stream()
-                      .filter(n -> n.id() == toBroker)
-                      .findFirst()
-                      .orElse(NodeInfo.of(toBroker, "?", -1)))
+              .nodeInfo(origin.nodeById.getOrDefault(toBroker, NodeInfo.of(toBroker, "?", -1)))
               .path(toDir)
               .build();
 
-      return of(
-          ClusterInfo.of(
-              nodes(),
-              replicaStream()
-                  .map(r -> r == theReplica ? newReplica : r)
-                  .collect(Collectors.toUnmodifiableList())));
+      return update(topicPartition, r -> r == theReplica ? newReplica : r);
     }
 
     @Override
@@ -140,12 +288,136 @@ public interface ClusterLogAllocation extends ClusterInfo<Replica> {
       final var newSource = Replica.builder(source).isPreferredLeader(true).build();
       final var newTarget = Replica.builder(target).isPreferredLeader(false).build();
 
-      return of(
-          ClusterInfo.of(
-              nodes(),
-              replicaStream()
-                  .map(r -> (r == source ? newSource : (r == target ? newTarget : (r))))
-                  .collect(Collectors.toUnmodifiableList())));
+      return update(
+          topicPartition, r -> (r == source ? newSource : (r == target ? newTarget : (r))));
+    }
+
+    /** replace the replicas of a partition. Only the new replica list is validated. */
+    private ClusterLogAllocation update(
+        TopicPartition topicPartition, Function<Replica, Replica> replacement) {
+      var newReplicas =
+          replicas(topicPartition).stream()
+              .map(replacement)
+              .collect(Collectors.toUnmodifiableList());
+      validate(topicPartition, newReplicas);
+      var newRecent = new HashMap<>(recent);
+      newRecent.put(topicPartition, newReplicas);
+      if (newRecent.size() <= MAX_RECENT_CHANGES)
+        return new ClusterLogAllocationImpl(
+            origin, sharedLayer, Collections.unmodifiableMap(newRecent));
+      var newShared = new HashMap<>(shared);
+      newShared.putAll(newRecent);
+      return new ClusterLogAllocationImpl(
+          origin,
+          new Shared(
+              Collections.unmodifiableMap(newShared),
+              sharedLayer.id,
+              Set.copyOf(newRecent.keySet())),
+          Map.of());
+    }
+
+    private boolean changed(TopicPartition topicPartition) {
+      return recent.containsKey(topicPartition) || shared.containsKey(topicPartition);
+    }
+
+    /** the replicas of changed partitions, which are not in the index of origin */
+    private Stream<Replica> changedReplicas() {
+      return changedPartitions().stream().flatMap(tp -> replicas(tp).stream());
+    }
+
+    @Override
+    public List<Replica> replicas(TopicPartition topicPartition) {
+      var replicas = recent.get(topicPartition);
+      if (replicas != null) return replicas;
+      replicas = shared.get(topicPartition);
+      if (replicas != null) return replicas;
+      return origin.byPartition.getOrDefault(topicPartition, List.of());
+    }
+
+    @Override
+    public Stream<Replica> replicaStream(TopicPartition partition) {
+      return replicas(partition).stream();
+    }
+
+    @Override
+    public Stream<Replica> replicaStream(TopicPartitionReplica replica) {
+      return replicas(replica.topicPartition()).stream()
+          .filter(r -> r.nodeInfo().id() == replica.brokerId());
+    }
+
+    @Override
+    public Stream<Replica> replicaStream(int broker) {
+      var replicas = origin.indexed.replicaStream(broker);
+      if (recent.isEmpty() && shared.isEmpty()) return replicas;
+      return Stream.concat(
+          replicas.filter(r -> !changed(r.topicPartition())),
+          changedReplicas().filter(r -> r.nodeInfo().id() == broker));
+    }
+
+    @Override
+    public Stream<Replica> replicaStream(String topic) {
+      var replicas = origin.indexed.replicaStream(topic);
+      if (recent.isEmpty() && shared.isEmpty()) return replicas;
+      return Stream.concat(
+          replicas.filter(r -> !changed(r.topicPartition())),
+          changedReplicas().filter(r -> r.topic().equals(topic)));
+    }
+
+    @Override
+    public Stream<Replica> replicaStream(int broker, String topic) {
+      return replicaStream(broker).filter(r -> r.topic().equals(topic));
+    }
+
+    @Override
+    public Set<TopicPartition> topicPartitions() {
+      return origin.byPartition.keySet();
+    }
+
+    @Override
+    public Set<String> topics() {
+      return origin.indexed.topics();
+    }
+
+    @Override
+    public Map<Integer, Set<String>> brokerFolders() {
+      return origin.brokerFolders.get();
+    }
+
+    @Override
+    public Set<NodeInfo> nodes() {
+      return origin.indexed.nodes();
+    }
+
+    /** the replicas are grouped by partition, and the partitions keep their order in the origin */
+    @Override
+    public Stream<Replica> replicaStream() {
+      if (recent.isEmpty() && shared.isEmpty()) return origin.indexed.replicaStream();
+      return origin.byPartition.keySet().stream().flatMap(tp -> replicas(tp).stream());
+    }
+
+    /** The indexes shared by all allocations derived from the same origin. */
+    private static class Origin {
+      private final ClusterInfo<Replica> indexed;
+      private final Map<TopicPartition, List<Replica>> byPartition;
+      private final Map<Integer, NodeInfo> nodeById;
+      private final Lazy<Map<Integer, Set<String>>> brokerFolders;
+
+      private Origin(ClusterInfo<Replica> clusterInfo) {
+        this.indexed = ClusterInfo.of(clusterInfo.nodes(), clusterInfo.replicas());
+        this.byPartition =
+            Collections.unmodifiableMap(
+                indexed
+                    .replicaStream()
+                    .collect(
+                        Collectors.groupingBy(
+                            ReplicaInfo::topicPartition,
+                            LinkedHashMap::new,
+                            Collectors.toUnmodifiableList())));
+        this.nodeById =
+            indexed.nodes().stream()
+                .collect(Collectors.toUnmodifiableMap(NodeInfo::id, n -> n, (a, b) -> a));
+        this.brokerFolders = Lazy.of(indexed::brokerFolders);
+      }
     }
   }
 }
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+import org.astraea.common.Utils;
+import org.astraea.common.admin.Broker;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.NodeInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicPartition;
+import org.astraea.common.metrics.AttributeCodec;
+import org.astraea.common.metrics.BeanObject;
+import org.astraea.common.metrics.HasBeanObject;
+import org.astraea.common.metrics.collector.MetricCollector;
+
+/**
+ * Write the {@link ClusterInfo} snapshots and the sampled metrics of a cluster to a file, so the
+ * balancers can be run against the cluster offline. The file is read by {@link
+ * ClusterRecording#read(Path)}.
+ *
+ * <p>The file is a gzipped stream of entries. Each entry starts with its type, and the metrics are
+ * stored as their {@link BeanObject} with the class name of the metric. The metrics which have
+ * non-primitive attributes or can't be rebuilt from a {@link BeanObject} are skipped.
+ */
+public class ClusterRecorder implements AutoCloseable {
+
+  static final int MAGIC = 0x41535452;
+  static final byte VERSION = 1;
+
+  static final byte CLUSTER_INFO = 1;
+  static final byte METRIC = 2;
+
+  public static ClusterRecorder of(Path file) {
+    return Utils.packException(
+        () ->
+            new ClusterRecorder(
+                new DataOutputStream(
+                    new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file))))));
+  }
+
+  private final DataOutputStream output;
+
+  private ClusterRecorder(DataOutputStream output) throws IOException {
+    this.output = output;
+    output.writeInt(MAGIC);
+    output.writeByte(VERSION);
+  }
+
+  /**
+   * @param timestamp the time the {@link ClusterInfo} is taken
+   * @param clusterInfo to record. The detail of brokers is recorded only if the nodes are {@link
+   *     Broker}
+   */
+  public synchronized void record(long timestamp, ClusterInfo<Replica> clusterInfo) {
+    Utils.packException(
+        () -> {
+          output.writeByte(CLUSTER_INFO);
+          output.writeLong(timestamp);
+          var nodes =
+              clusterInfo.nodes().stream()
+                  .sorted(Comparator.comparing(NodeInfo::id))
+                  .toArray(NodeInfo[]::new);
+          output.writeInt(nodes.length);
+          for (var node : nodes) writeNode(node);
+          var replicas =
+              clusterInfo
+                  .replicaStream()
+                  .sorted(
+                      Comparator.comparing(Replica::topicPartition)
+                          .thenComparing(r -> r.nodeInfo().id()))
+                  .toArray(Replica[]::new);
+          output.writeInt(replicas.length);
+          for (var replica : replicas) writeReplica(replica);
+        });
+  }
+
+  /**
+   * @param identity the identity of the metrics. see {@link MetricCollector#listIdentities()}
+   * @param metrics to record
+   */
+  public synchronized void record(int identity, Collection<? extends HasBeanObject> metrics) {
+    Utils.packException(
+        () -> {
+          for (var metric : metrics) {
+            var className = metric.getClass().getName();
+            var bean = metric.beanObject();
+            if (bean == null
+                || HasBeanObject.constructor(className).isEmpty()
+                || !AttributeCodec.supported(bean)) continue;
+            output.writeByte(METRIC);
+            output.writeInt(identity);
+            output.writeUTF(className);
+            output.writeLong(bean.createdTimestamp());
+            output.writeUTF(bean.domainName());
+            writeMap(bean.properties());
+            output.writeInt(bean.attributes().size());
+            for (var entry : new TreeMap<>(bean.attributes()).entrySet()) {
+              output.writeUTF(entry.getKey());
+              AttributeCodec.write(output, entry.getValue(), output::writeUTF);
+            }
+          }
+        });
+  }
+
+  /**
+   * Record the metrics in the given collector. It can be called periodically to record the
+   * collector incrementally, since the collector keeps the metrics for a limited time.
+   *
+   * @param collector offers the metrics
+   * @param since record the metrics created since this time
+   * @return the time to pass as {@code since} in next call, so no metric is recorded twice
+   */
+  public long record(MetricCollector collector, long since) {
+    var next = since;
+    for (var identity : collector.listIdentities()) {
+      for (var metricClass : collector.listMetricTypes()) {
+        var metrics = collector.metrics(metricClass, identity, since);
+        record(identity, metrics);
+        for (var metric : metrics) next = Math.max(next, metric.createdTimestamp() + 1);
+      }
+    }
+    return next;
+  }
+
+  @Override
+  public synchronized void close() {
+    Utils.packException(output::close);
+  }
+
+  private void writeNode(NodeInfo node) throws IOException {
+    output.writeInt(node.id());
+    output.writeUTF(node.host());
+    output.writeInt(node.port());
+    output.writeBoolean(node instanceof Broker);
+    if (!(node instanceof Broker)) return;
+    var broker = (Broker) node;
+    output.writeBoolean(broker.isController());
+    writeMap(broker.config().raw());
+    output.writeInt(broker.dataFolders().size());
+    for (var folder : broker.dataFolders()) {
+      output.writeUTF(folder.path());
+      writeSizes(folder.partitionSizes());
+      writeSizes(folder.orphanPartitionSizes());
+    }
+  }
+
+  private void writeReplica(Replica replica) throws IOException {
+    output.writeUTF(replica.topic());
+    output.writeInt(replica.partition());
+    output.writeInt(replica.nodeInfo().id());
+    output.writeLong(replica.lag());
+    output.writeLong(replica.size());
+    var flags =
+        (replica.isLeader() ? 1 : 0)
+            | (replica.inSync() ? 1 << 1 : 0)
+            | (replica.isFuture() ? 1 << 2 : 0)
+            | (replica.isOffline() ? 1 << 3 : 0)
+            | (replica.isPreferredLeader() ? 1 << 4 : 0)
+            | (replica.isAdding() ? 1 << 5 : 0)
+            | (replica.isRemoving() ? 1 << 6 : 0)
+            | (replica.internal() ? 1 << 7 : 0);
+    output.writeByte(flags);
+    output.writeBoolean(replica.path() != null);
+    if (replica.path() != null) output.writeUTF(replica.path());
+  }
+
+  private void writeMap(Map<String, String> map) throws IOException {
+    output.writeInt(map.size());
+    for (var entry : new TreeMap<>(map).entrySet()) {
+      output.writeUTF(entry.getKey());
+      output.writeUTF(entry.getValue());
+    }
+  }
+
+  private void writeSizes(Map<TopicPartition, Long> sizes) throws IOException {
+    output.writeInt(sizes.size());
+    for (var entry : new TreeMap<>(sizes).entrySet()) {
+      output.writeUTF(entry.getKey().topic());
+      output.writeInt(entry.getKey().partition());
+      output.writeLong(entry.getValue());
+    }
+  }
+}
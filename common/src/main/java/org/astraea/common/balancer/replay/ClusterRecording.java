@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.replay;
+
+import static org.astraea.common.balancer.replay.ClusterRecorder.CLUSTER_INFO;
+import static org.astraea.common.balancer.replay.ClusterRecorder.MAGIC;
+import static org.astraea.common.balancer.replay.ClusterRecorder.METRIC;
+import static org.astraea.common.balancer.replay.ClusterRecorder.VERSION;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import org.astraea.common.Utils;
+import org.astraea.common.admin.Broker;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Config;
+import org.astraea.common.admin.NodeInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicPartition;
+import org.astraea.common.metrics.AttributeCodec;
+import org.astraea.common.metrics.BeanObject;
+import org.astraea.common.metrics.HasBeanObject;
+
+/** The {@link ClusterInfo} snapshots and the metrics written by {@link ClusterRecorder}. */
+public class ClusterRecording {
+
+  public static ClusterRecording read(Path file) {
+    var clusterInfos = new TreeMap<Long, ClusterInfo<Replica>>();
+    var metrics = new TreeMap<Integer, List<HasBeanObject>>();
+    Utils.packException(
+        () -> {
+          try (var input =
+              new DataInputStream(
+                  new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (input.readInt() != MAGIC)
+              throw new IllegalArgumentException(file + " is not a cluster recording");
+            var version = input.readByte();
+            if (version != VERSION)
+              throw new IllegalArgumentException("unsupported recording version: " + version);
+            while (true) {
+              int type;
+              try {
+                type = input.readByte();
+              } catch (EOFException e) {
+                // a recording which is not closed normally is still readable
+                break;
+              }
+              switch (type) {
+                case CLUSTER_INFO:
+                  var timestamp = input.readLong();
+                  clusterInfos.put(timestamp, readClusterInfo(input));
+                  break;
+                case METRIC:
+                  var identity = input.readInt();
+                  readMetric(input)
+                      .ifPresent(
+                          m -> metrics.computeIfAbsent(identity, i -> new ArrayList<>()).add(m));
+                  break;
+                default:
+                  throw new IllegalArgumentException("unknown entry type: " + type);
+              }
+            }
+          } catch (EOFException e) {
+            // the last entry is truncated
+          }
+        });
+    metrics
+        .values()
+        .forEach(ms -> ms.sort(Comparator.comparingLong(HasBeanObject::createdTimestamp)));
+    return new ClusterRecording(clusterInfos, metrics);
+  }
+
+  private final TreeMap<Long, ClusterInfo<Replica>> clusterInfos;
+  private final Map<Integer, List<HasBeanObject>> metrics;
+
+  private ClusterRecording(
+      TreeMap<Long, ClusterInfo<Replica>> clusterInfos,
+      Map<Integer, List<HasBeanObject>> metrics) {
+    this.clusterInfos = clusterInfos;
+    this.metrics = metrics;
+  }
+
+  /**
+   * @return the recorded {@link ClusterInfo} ordered by the time they are taken
+   */
+  public List<Map.Entry<Long, ClusterInfo<Replica>>> clusterInfos() {
+    return List.copyOf(clusterInfos.entrySet());
+  }
+
+  /**
+   * @return the last {@link ClusterInfo} taken at or before the given time
+   */
+  public Optional<Map.Entry<Long, ClusterInfo<Replica>>> clusterInfo(long timestamp) {
+    return Optional.ofNullable(clusterInfos.floorEntry(timestamp));
+  }
+
+  /**
+   * @return the recorded metrics of each identity. The metrics are ordered by their created time
+   */
+  public Map<Integer, List<HasBeanObject>> metrics() {
+    return Collections.unmodifiableMap(metrics);
+  }
+
+  /**
+   * @return a new {@link ReplayMetricCollector} offering the recorded metrics
+   */
+  public ReplayMetricCollector metricCollector() {
+    return new ReplayMetricCollector(metrics);
+  }
+
+  private static ClusterInfo<Replica> readClusterInfo(DataInputStream input) throws IOException {
+    var nodeCount = input.readInt();
+    var nodes = new TreeMap<Integer, NodeInfo>();
+    var brokers = new HashMap<Integer, BrokerDetail>();
+    for (var i = 0; i < nodeCount; i++) {
+      var node = NodeInfo.of(input.readInt(), input.readUTF(), input.readInt());
+      nodes.put(node.id(), node);
+      if (input.readBoolean()) brokers.put(node.id(), readBroker(input));
+    }
+
+    var replicaCount = input.readInt();
+    var replicas = new ArrayList<Replica>(replicaCount);
+    for (var i = 0; i < replicaCount; i++) {
+      var topic = input.readUTF();
+      var partition = input.readInt();
+      var nodeId = input.readInt();
+      var lag = input.readLong();
+      var size = input.readLong();
+      var flags = input.readByte();
+      var path = input.readBoolean() ? input.readUTF() : null;
+      replicas.add(
+          Replica.builder()
+              .topic(topic)
+              .partition(partition)
+              .nodeInfo(nodes.computeIfAbsent(nodeId, id -> NodeInfo.of(id, "", -1)))
+              .lag(lag)
+              .size(size)
+              .isLeader((flags & 1) != 0)
+              .inSync((flags & 1 << 1) != 0)
+              .isFuture((flags & 1 << 2) != 0)
+              .isOffline((flags & 1 << 3) != 0)
+              .isPreferredLeader((flags & 1 << 4) != 0)
+              .isAdding((flags & 1 << 5) != 0)
+              .isRemoving((flags & 1 << 6) != 0)
+              .internal((flags & 1 << 7) != 0)
+              .path(path)
+              .build());
+    }
+
+    // the partitions of a broker are derived from the replicas, as Admin does
+    var allNodes = new LinkedHashSet<NodeInfo>();
+    nodes.forEach(
+        (id, node) -> {
+          var detail = brokers.get(id);
+          if (detail == null) {
+            allNodes.add(node);
+            return;
+          }
+          var partitions =
+              replicas.stream()
+                  .filter(r -> r.nodeInfo().id() == id)
+                  .map(Replica::topicPartition)
+                  .collect(Collectors.toUnmodifiableSet());
+          var leaders =
+              replicas.stream()
+                  .filter(r -> r.nodeInfo().id() == id && r.isLeader())
+                  .map(Replica::topicPartition)
+                  .collect(Collectors.toUnmodifiableSet());
+          allNodes.add(
+              Broker.of(
+                  node,
+                  detail.isController,
+                  detail.config,
+                  detail.folders,
+                  partitions,
+                  leaders));
+        });
+    return ClusterInfo.of(Collections.unmodifiableSet(allNodes), replicas);
+  }
+
+  private static BrokerDetail readBroker(DataInputStream input) throws IOException {
+    var isController = input.readBoolean();
+    var config = Config.of(readMap(input));
+    var folderCount = input.readInt();
+    var folders = new ArrayList<Broker.DataFolder>(folderCount);
+    for (var i = 0; i < folderCount; i++)
+      folders.add(Broker.DataFolder.of(input.readUTF(), readSizes(input), readSizes(input)));
+    return new BrokerDetail(isController, config, folders);
+  }
+
+  private static Optional<HasBeanObject> readMetric(DataInputStream input) throws IOException {
+    var className = input.readUTF();
+    var timestamp = input.readLong();
+    var domain = input.readUTF();
+    var properties = readMap(input);
+    var attributeCount = input.readInt();
+    var attributes = new HashMap<String, Object>();
+    for (var i = 0; i < attributeCount; i++)
+      attributes.put(input.readUTF(), AttributeCodec.read(input, input::readUTF));
+    var bean = new BeanObject(domain, properties, attributes, timestamp);
+    return HasBeanObject.constructor(className).map(c -> c.apply(bean));
+  }
+
+  private static Map<String, String> readMap(DataInputStream input) throws IOException {
+    var size = input.readInt();
+    var map = new HashMap<String, String>();
+    for (var i = 0; i < size; i++) map.put(input.readUTF(), input.readUTF());
+    return map;
+  }
+
+  private static Map<TopicPartition, Long> readSizes(DataInputStream input) throws IOException {
+    var size = input.readInt();
+    var sizes = new HashMap<TopicPartition, Long>();
+    for (var i = 0; i < size; i++)
+      sizes.put(TopicPartition.of(input.readUTF(), input.readInt()), input.readLong());
+    return sizes;
+  }
+
+  private static class BrokerDetail {
+    private final boolean isController;
+    private final Config config;
+    private final List<Broker.DataFolder> folders;
+
+    private BrokerDetail(boolean isController, Config config, List<Broker.DataFolder> folders) {
+      this.isController = isController;
+      this.config = config;
+      this.folders = folders;
+    }
+  }
+}
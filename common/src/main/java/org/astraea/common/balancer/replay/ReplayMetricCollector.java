@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.replay;
+
+import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import org.astraea.common.admin.ClusterBean;
+import org.astraea.common.metrics.HasBeanObject;
+import org.astraea.common.metrics.collector.Fetcher;
+import org.astraea.common.metrics.collector.MetricCollector;
+
+/**
+ * A {@link MetricCollector} offering the recorded metrics. It has a replay clock instead of the
+ * wall clock: only the metrics created before the clock are visible, and the clock is moved by
+ * {@link ReplayMetricCollector#advance(long)}. So the same clock always offers the same metrics,
+ * in the same order.
+ *
+ * <p>There is nothing to sample, so the fetchers and the JMX servers are ignored.
+ */
+public class ReplayMetricCollector implements MetricCollector {
+
+  private final Map<Integer, List<HasBeanObject>> metrics;
+  private volatile long clock = Long.MIN_VALUE;
+  private volatile long version = 0;
+
+  /**
+   * @param metrics the metrics of each identity. The metrics must be ordered by their created time
+   */
+  public ReplayMetricCollector(Map<Integer, List<HasBeanObject>> metrics) {
+    this.metrics = new TreeMap<>(metrics);
+  }
+
+  /**
+   * Move the replay clock. The metrics created before the given time become visible.
+   *
+   * @param timestamp the new time of replay clock. It can't go backward
+   */
+  public synchronized void advance(long timestamp) {
+    if (timestamp < clock)
+      throw new IllegalArgumentException(
+          "the replay clock can't go backward. current: " + clock + ", new: " + timestamp);
+    if (timestamp == clock) return;
+    clock = timestamp;
+    version++;
+  }
+
+  /**
+   * @return the current time of replay clock
+   */
+  public long clock() {
+    return clock;
+  }
+
+  @Override
+  public void addFetcher(Fetcher fetcher, BiConsumer<Integer, Exception> noSuchMetricHandler) {}
+
+  @Override
+  public void registerJmx(int identity, InetSocketAddress socketAddress) {}
+
+  @Override
+  public void registerLocalJmx(int identity) {}
+
+  @Override
+  public Collection<Fetcher> listFetchers() {
+    return List.of();
+  }
+
+  @Override
+  public Set<Integer> listIdentities() {
+    return Collections.unmodifiableSet(metrics.keySet());
+  }
+
+  @Override
+  public Set<Class<? extends HasBeanObject>> listMetricTypes() {
+    var types = new TreeSet<Class<? extends HasBeanObject>>(Comparator.comparing(Class::getName));
+    metrics
+        .values()
+        .forEach(ms -> visible(ms, Long.MIN_VALUE).forEach(m -> types.add(m.getClass())));
+    return Collections.unmodifiableSet(types);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T extends HasBeanObject> List<T> metrics(Class<T> metricClass, int identity, long since) {
+    return visible(metrics.getOrDefault(identity, List.of()), since).stream()
+        .filter(m -> m.getClass() == metricClass)
+        .map(m -> (T) m)
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  @Override
+  public long version() {
+    return version;
+  }
+
+  /** Build the {@link ClusterBean} in the recorded order, so it is the same in every replay. */
+  @Override
+  public synchronized Snapshot snapshot() {
+    var version = this.version;
+    var beans = new LinkedHashMap<Integer, Collection<HasBeanObject>>();
+    metrics.forEach((identity, ms) -> beans.put(identity, visible(ms, Long.MIN_VALUE)));
+    var clusterBean = ClusterBean.of(Collections.unmodifiableMap(beans));
+    return new Snapshot() {
+      @Override
+      public long version() {
+        return version;
+      }
+
+      @Override
+      public ClusterBean clusterBean() {
+        return clusterBean;
+      }
+    };
+  }
+
+  @Override
+  public void close() {}
+
+  /**
+   * @return the metrics whose created time is in [since, clock)
+   */
+  private List<HasBeanObject> visible(List<HasBeanObject> ms, long since) {
+    var start = lowerBound(ms, since);
+    return ms.subList(start, Math.max(start, lowerBound(ms, clock)));
+  }
+
+  private static int lowerBound(List<HasBeanObject> ms, long timestamp) {
+    int low = 0;
+    int high = ms.size();
+    while (low < high) {
+      var mid = (low + high) >>> 1;
+      if (ms.get(mid).createdTimestamp() < timestamp) low = mid + 1;
+      else high = mid;
+    }
+    return low;
+  }
+}
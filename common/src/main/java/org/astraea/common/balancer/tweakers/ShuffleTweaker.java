@@ -16,19 +16,24 @@
  */
 package org.astraea.common.balancer.tweakers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
-import org.astraea.common.admin.NodeInfo;
 import org.astraea.common.admin.Replica;
 import org.astraea.common.admin.ReplicaInfo;
+import org.astraea.common.admin.TopicPartition;
 import org.astraea.common.balancer.log.ClusterLogAllocation;
 
 /**
@@ -43,17 +48,56 @@ import org.astraea.common.balancer.log.ClusterLogAllocation;
  *   <li>Remove a replica from the replica set, then add another broker(must not be part of the
  *       replica set before this action) into the replica set.
  * </ol>
+ *
+ * <p>The eligible partitions and the data folders are indexed by arrays when a base allocation is
+ * seen for the first time. The allocations derived from the same origin share the index, so a
+ * shuffle action costs constant time instead of a scan of all partitions.
  */
 public class ShuffleTweaker implements AllocationTweaker {
 
+  // the number of weighted picks before falling back to the uniform pick
+  private static final int MAX_STALE_PICKS = 8;
+
   private final Supplier<Integer> numberOfShuffle;
+  private final Supplier<Random> random;
+  private final Function<ClusterLogAllocation, Map<Integer, Double>> brokerWeights;
+  private final AtomicReference<Index> index = new AtomicReference<>();
 
   public ShuffleTweaker(int origin, int bound) {
     this(() -> ThreadLocalRandom.current().nextInt(origin, bound));
   }
 
+  /**
+   * Create a tweaker whose proposals are decided by the given random generator only. The same
+   * seed and the same base allocation always produce the same sequence of allocations, as long as
+   * the generated stream is consumed sequentially.
+   */
+  public ShuffleTweaker(int origin, int bound, Random random) {
+    this(() -> origin + random.nextInt(bound - origin), () -> random);
+  }
+
   public ShuffleTweaker(Supplier<Integer> numberOfShuffle) {
+    this(numberOfShuffle, ThreadLocalRandom::current);
+  }
+
+  public ShuffleTweaker(Supplier<Integer> numberOfShuffle, Supplier<Random> random) {
+    this(numberOfShuffle, random, ignored -> Map.of());
+  }
+
+  /**
+   * @param brokerWeights the weights of brokers. The partitions are picked by the weights of the
+   *     brokers hosting them, so the partitions on the heavy brokers (for example, the brokers with
+   *     highest cost) are shuffled more often. It is evaluated once for the base allocations
+   *     derived from the same origin, and a broker is weighted by the partitions it hosts in the
+   *     origin. Empty weights mean that all partitions are picked with the same probability.
+   */
+  public ShuffleTweaker(
+      Supplier<Integer> numberOfShuffle,
+      Supplier<Random> random,
+      Function<ClusterLogAllocation, Map<Integer, Double>> brokerWeights) {
     this.numberOfShuffle = numberOfShuffle;
+    this.random = random;
+    this.brokerWeights = brokerWeights;
   }
 
   @Override
@@ -69,78 +113,33 @@ public class ShuffleTweaker implements AllocationTweaker {
         && baseAllocation.brokerFolders().values().stream().findFirst().orElseThrow().size() == 1)
       return Stream.of();
 
+    final var index = index(baseAllocation);
+
+    // No partition can be altered
+    if (index.partitions.length == 0) return Stream.of();
+
     return Stream.generate(
         () -> {
           final var shuffleCount = numberOfShuffle.get();
 
-          var candidates =
-              IntStream.range(0, shuffleCount)
-                  .mapToObj(i -> allocationGenerator(baseAllocation.brokerFolders()))
-                  .collect(Collectors.toUnmodifiableList());
-
           var currentAllocation = baseAllocation;
-          for (var candidate : candidates) currentAllocation = candidate.apply(currentAllocation);
+          for (var i = 0; i < shuffleCount; i++)
+            currentAllocation = index.shuffle(currentAllocation, random.get());
 
           return currentAllocation;
         });
   }
 
-  private static Function<ClusterLogAllocation, ClusterLogAllocation> allocationGenerator(
-      Map<Integer, Set<String>> brokerFolders) {
-    return currentAllocation -> {
-      final var selectedPartition =
-          currentAllocation.topicPartitions().stream()
-              .filter(tp -> eligiblePartition((currentAllocation.replicas(tp))))
-              .map(tp -> Map.entry(tp, ThreadLocalRandom.current().nextInt()))
-              .min(Map.Entry.comparingByValue())
-              .map(Map.Entry::getKey)
-              .orElseThrow();
-
-      // [valid operation 1] change leader/follower identity
-      final var currentReplicas = currentAllocation.replicas(selectedPartition);
-      final var candidates0 =
-          currentReplicas.stream()
-              .skip(1)
-              .map(
-                  follower ->
-                      (Supplier<ClusterLogAllocation>)
-                          () -> currentAllocation.becomeLeader(follower.topicPartitionReplica()));
-
-      // [valid operation 2] change replica list
-      final var currentIds =
-          currentReplicas.stream()
-              .map(ReplicaInfo::nodeInfo)
-              .map(NodeInfo::id)
-              .collect(Collectors.toUnmodifiableSet());
-      final var candidates1 =
-          brokerFolders.keySet().stream()
-              .filter(brokerId -> !currentIds.contains(brokerId))
-              .flatMap(
-                  toThisBroker ->
-                      currentReplicas.stream()
-                          .map(
-                              replica ->
-                                  (Supplier<ClusterLogAllocation>)
-                                      () -> {
-                                        var toThisDir =
-                                            randomElement(brokerFolders.get(toThisBroker));
-                                        return currentAllocation.migrateReplica(
-                                            replica.topicPartitionReplica(),
-                                            toThisBroker,
-                                            toThisDir);
-                                      }));
-
-      return randomElement(
-              Stream.concat(candidates0, candidates1).collect(Collectors.toUnmodifiableSet()))
-          .get();
-    };
-  }
-
-  private static <T> T randomElement(Collection<T> collection) {
-    return collection.stream()
-        .skip(ThreadLocalRandom.current().nextInt(0, collection.size()))
-        .findFirst()
-        .orElseThrow();
+  private Index index(ClusterLogAllocation allocation) {
+    var current = index.get();
+    // the allocations derived from the same origin share the partition set and the folders. The
+    // shuffle actions keep the eligibility of partitions, so the index is still valid.
+    if (current != null
+        && current.topicPartitions == allocation.topicPartitions()
+        && current.brokerFolders == allocation.brokerFolders()) return current;
+    var newIndex = new Index(allocation, brokerWeights.apply(allocation));
+    index.set(newIndex);
+    return newIndex;
   }
 
   private static boolean eligiblePartition(Collection<Replica> replicas) {
@@ -151,4 +150,154 @@ public class ShuffleTweaker implements AllocationTweaker {
             r -> r.stream().noneMatch(ReplicaInfo::isLeader))
         .noneMatch(p -> p.test(replicas));
   }
+
+  private static boolean hosts(List<Replica> replicas, int broker) {
+    for (var replica : replicas) if (replica.nodeInfo().id() == broker) return true;
+    return false;
+  }
+
+  /** The arrays of the eligible partitions and the destinations. They are sorted for the seeds. */
+  private static class Index {
+    private final Set<TopicPartition> topicPartitions;
+    private final Map<Integer, Set<String>> brokerFolders;
+    private final TopicPartition[] partitions;
+    // the brokers having data folders
+    private final int[] brokers;
+    private final Map<Integer, String[]> folders;
+    // the weighted brokers and the indexes of partitions hosted by them in the origin allocation.
+    // They are null if the sampling is uniform
+    private final int[] weightedBrokers;
+    private final int[][] partitionsOfBroker;
+    private final AliasTable brokerSampler;
+
+    private Index(ClusterLogAllocation allocation, Map<Integer, Double> brokerWeights) {
+      this.topicPartitions = allocation.topicPartitions();
+      this.brokerFolders = allocation.brokerFolders();
+      this.partitions =
+          topicPartitions.stream()
+              .filter(tp -> eligiblePartition(allocation.replicas(tp)))
+              .sorted()
+              .toArray(TopicPartition[]::new);
+      this.folders =
+          brokerFolders.entrySet().stream()
+              .filter(e -> !e.getValue().isEmpty())
+              .collect(
+                  Collectors.toUnmodifiableMap(
+                      Map.Entry::getKey,
+                      e -> e.getValue().stream().sorted().toArray(String[]::new)));
+      this.brokers = folders.keySet().stream().mapToInt(id -> id).sorted().toArray();
+
+      var hosted = new TreeMap<Integer, List<Integer>>();
+      if (!brokerWeights.isEmpty())
+        for (var i = 0; i < partitions.length; i++)
+          for (var replica : allocation.replicas(partitions[i]))
+            hosted.computeIfAbsent(replica.nodeInfo().id(), ignored -> new ArrayList<>()).add(i);
+      hosted.keySet().removeIf(id -> brokerWeights.getOrDefault(id, 0D) <= 0);
+      if (hosted.isEmpty()) {
+        this.weightedBrokers = null;
+        this.partitionsOfBroker = null;
+        this.brokerSampler = null;
+      } else {
+        this.weightedBrokers = hosted.keySet().stream().mapToInt(id -> id).toArray();
+        this.partitionsOfBroker =
+            hosted.values().stream()
+                .map(list -> list.stream().mapToInt(i -> i).toArray())
+                .toArray(int[][]::new);
+        this.brokerSampler =
+            new AliasTable(hosted.keySet().stream().mapToDouble(brokerWeights::get).toArray());
+      }
+    }
+
+    private ClusterLogAllocation shuffle(ClusterLogAllocation allocation, Random random) {
+      final var partition = partitions[pickPartition(allocation, random)];
+      final var replicas = allocation.replicas(partition);
+
+      var destinations = brokers.length;
+      for (var replica : replicas)
+        if (Arrays.binarySearch(brokers, replica.nodeInfo().id()) >= 0) destinations--;
+
+      // the candidates are (replicas - 1) leader changes and (destinations * replicas) migrations.
+      // Pick one of them with the same probability.
+      final var leaderChanges = replicas.size() - 1;
+      final var candidates = leaderChanges + destinations * replicas.size();
+      if (candidates == 0) return allocation;
+      final var choice = random.nextInt(candidates);
+
+      // [valid operation 1] change leader/follower identity
+      if (choice < leaderChanges)
+        return allocation.becomeLeader(replicas.get(choice + 1).topicPartitionReplica());
+
+      // [valid operation 2] change replica list
+      final var source = replicas.get((choice - leaderChanges) % replicas.size());
+      int target;
+      do {
+        target = brokers[random.nextInt(brokers.length)];
+      } while (hosts(replicas, target));
+      final var targetFolders = folders.get(target);
+      return allocation.migrateReplica(
+          source.topicPartitionReplica(),
+          target,
+          targetFolders[random.nextInt(targetFolders.length)]);
+    }
+
+    /**
+     * The partitions of a weighted broker are indexed by the origin allocation, so a walk may have
+     * moved some of them away. A pick which is no longer hosted by the sampled broker is retried,
+     * and the partition is picked uniformly if all retries are stale. The partitions moved to a
+     * broker after the indexing are not weighted by that broker.
+     */
+    private int pickPartition(ClusterLogAllocation allocation, Random random) {
+      if (brokerSampler == null) return random.nextInt(partitions.length);
+      for (var i = 0; i < MAX_STALE_PICKS; i++) {
+        var broker = brokerSampler.sample(random);
+        var hosted = partitionsOfBroker[broker];
+        var partition = hosted[random.nextInt(hosted.length)];
+        if (hosts(allocation.replicas(partitions[partition]), weightedBrokers[broker]))
+          return partition;
+      }
+      return random.nextInt(partitions.length);
+    }
+  }
+
+  /**
+   * Vose's alias method. It samples an index by the given weights in constant time, after a linear
+   * time preparation.
+   */
+  static class AliasTable {
+    private final double[] probability;
+    private final int[] alias;
+
+    AliasTable(double[] weights) {
+      var n = weights.length;
+      var sum = Arrays.stream(weights).sum();
+      probability = new double[n];
+      alias = new int[n];
+      var scaled = Arrays.stream(weights).map(w -> w * n / sum).toArray();
+      var small = new int[n];
+      var large = new int[n];
+      var smallSize = 0;
+      var largeSize = 0;
+      for (var i = 0; i < n; i++) {
+        if (scaled[i] < 1) small[smallSize++] = i;
+        else large[largeSize++] = i;
+      }
+      while (smallSize > 0 && largeSize > 0) {
+        var less = small[--smallSize];
+        var more = large[--largeSize];
+        probability[less] = scaled[less];
+        alias[less] = more;
+        scaled[more] = scaled[more] + scaled[less] - 1;
+        if (scaled[more] < 1) small[smallSize++] = more;
+        else large[largeSize++] = more;
+      }
+      // the rest are 1 except the rounding errors
+      while (largeSize > 0) probability[large[--largeSize]] = 1;
+      while (smallSize > 0) probability[small[--smallSize]] = 1;
+    }
+
+    int sample(Random random) {
+      var i = random.nextInt(probability.length);
+      return random.nextDouble() < probability[i] ? i : alias[i];
+    }
+  }
 }
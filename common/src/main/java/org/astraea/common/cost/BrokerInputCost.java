@@ -16,7 +16,6 @@
  */
 package org.astraea.common.cost;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -47,7 +46,10 @@ public class BrokerInputCost implements HasBrokerCost, HasClusterCost {
 
   @Override
   public Optional<Fetcher> fetcher() {
-    return Optional.of(client -> List.of(ServerMetrics.BrokerTopic.BYTES_IN_PER_SEC.fetch(client)));
+    return Optional.of(
+        Fetcher.of(
+            ServerMetrics.BrokerTopic.BYTES_IN_PER_SEC.query(),
+            ServerMetrics.BrokerTopic.Meter::new));
   }
 
   @Override
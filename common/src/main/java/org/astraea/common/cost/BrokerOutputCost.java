@@ -16,7 +16,6 @@
  */
 package org.astraea.common.cost;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -48,7 +47,9 @@ public class BrokerOutputCost implements HasBrokerCost, HasClusterCost {
   @Override
   public Optional<Fetcher> fetcher() {
     return Optional.of(
-        client -> List.of(ServerMetrics.BrokerTopic.BYTES_OUT_PER_SEC.fetch(client)));
+        Fetcher.of(
+            ServerMetrics.BrokerTopic.BYTES_OUT_PER_SEC.query(),
+            ServerMetrics.BrokerTopic.Meter::new));
   }
 
   @Override
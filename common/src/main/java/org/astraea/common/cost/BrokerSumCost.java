@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.cost;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.NodeInfo;
+import org.astraea.common.admin.Replica;
+
+/**
+ * An {@link IncrementalClusterCost} which sums a value of replicas for each node, and aggregates
+ * the sums by a {@link Dispersion}. The replicas on the nodes which are not in the cluster are
+ * ignored. The sums are kept by node id, so the cost doesn't depend on the iteration order of the
+ * cluster, and an update costs O(nodes + changed replicas) instead of O(replicas).
+ */
+class BrokerSumCost implements IncrementalClusterCost {
+
+  static BrokerSumCost of(
+      ClusterInfo<Replica> clusterInfo, ToLongFunction<Replica> value, Dispersion dispersion) {
+    var sums = new TreeMap<Integer, Long>();
+    clusterInfo.nodes().stream().map(NodeInfo::id).forEach(id -> sums.put(id, 0L));
+    clusterInfo
+        .replicaStream()
+        .forEach(
+            r -> sums.computeIfPresent(r.nodeInfo().id(), (id, v) -> v + value.applyAsLong(r)));
+    return new BrokerSumCost(sums, value, dispersion);
+  }
+
+  private final Map<Integer, Long> sums;
+  private final ToLongFunction<Replica> value;
+  private final Dispersion dispersion;
+  private final double cost;
+
+  private BrokerSumCost(
+      Map<Integer, Long> sums, ToLongFunction<Replica> value, Dispersion dispersion) {
+    this.sums = sums;
+    this.value = value;
+    this.dispersion = dispersion;
+    this.cost =
+        dispersion.calculate(
+            sums.values().stream().map(v -> (double) v).collect(Collectors.toList()));
+  }
+
+  @Override
+  public ClusterCost clusterCost() {
+    return () -> cost;
+  }
+
+  @Override
+  public BrokerSumCost update(
+      Collection<Replica> removedReplicas, Collection<Replica> addedReplicas) {
+    var newSums = new TreeMap<>(sums);
+    removedReplicas.forEach(
+        r -> newSums.computeIfPresent(r.nodeInfo().id(), (id, v) -> v - value.applyAsLong(r)));
+    addedReplicas.forEach(
+        r -> newSums.computeIfPresent(r.nodeInfo().id(), (id, v) -> v + value.applyAsLong(r)));
+    return new BrokerSumCost(newSums, value, dispersion);
+  }
+}
@@ -17,7 +17,6 @@
 package org.astraea.common.cost;
 
 import java.util.Comparator;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -59,6 +58,6 @@ public class CpuCost implements HasBrokerCost {
 
   @Override
   public Optional<Fetcher> fetcher() {
-    return Optional.of(client -> List.of(HostMetrics.operatingSystem(client)));
+    return Optional.of(Fetcher.of(HostMetrics.OPERATING_SYSTEM_QUERY, OperatingSystemInfo::new));
   }
 }
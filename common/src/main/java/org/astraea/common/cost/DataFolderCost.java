@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.cost;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.astraea.common.admin.ClusterBean;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicPartitionReplica;
+import org.astraea.common.metrics.HasBeanObject;
+import org.astraea.common.metrics.broker.LogMetrics;
+import org.astraea.common.metrics.collector.Fetcher;
+
+/**
+ * Uneven data folders of a broker -> higher cost. For each broker, the sizes and the write rates of
+ * its data folders are aggregated by a {@link Dispersion}, and the cost of the broker is the sum of
+ * both. The cluster cost is the average cost of brokers, so it doesn't care about the balance
+ * between brokers.
+ *
+ * <p>The write rate of a replica is the growth of its log size between the oldest and the latest
+ * metrics. It is zero if there are not enough metrics.
+ */
+public class DataFolderCost implements HasClusterCost {
+  public static final String COST_NAME = "data folder";
+  private final Dispersion dispersion = Dispersion.correlationCoefficient();
+
+  @Override
+  public Optional<Fetcher> fetcher() {
+    return Optional.of(Fetcher.of(LogMetrics.Log.SIZE.query(), LogMetrics.Log.Gauge::new));
+  }
+
+  @Override
+  public ClusterCost clusterCost(ClusterInfo<Replica> clusterInfo, ClusterBean clusterBean) {
+    return incrementalCost(clusterInfo, clusterBean).orElseThrow().clusterCost();
+  }
+
+  @Override
+  public Optional<IncrementalClusterCost> incrementalCost(
+      ClusterInfo<Replica> clusterInfo, ClusterBean clusterBean) {
+    var rates = writeRates(clusterBean);
+    var loads = new TreeMap<Integer, Map<String, Load>>();
+    clusterInfo
+        .brokerFolders()
+        .forEach(
+            (id, paths) -> {
+              var folders = loads.computeIfAbsent(id, ignored -> new TreeMap<>());
+              paths.forEach(path -> folders.put(path, Load.EMPTY));
+            });
+    clusterInfo
+        .replicaStream()
+        .filter(r -> r.path() != null)
+        .forEach(
+            r ->
+                loads
+                    .computeIfAbsent(r.nodeInfo().id(), ignored -> new TreeMap<>())
+                    .merge(r.path(), Load.of(r, rates), Load::add));
+    return Optional.of(FolderCost.of(loads, rates, dispersion));
+  }
+
+  /**
+   * @return the bytes written to each replica per second. The replica without enough metrics is
+   *     absent.
+   */
+  public static Map<TopicPartitionReplica, Double> writeRates(ClusterBean clusterBean) {
+    var rates = new HashMap<TopicPartitionReplica, Double>();
+    clusterBean
+        .mapByReplica()
+        .forEach(
+            (replica, beans) -> {
+              var sizes =
+                  LogMetrics.Log.gauges(beans, LogMetrics.Log.SIZE).stream()
+                      .sorted(Comparator.comparing(HasBeanObject::createdTimestamp))
+                      .collect(Collectors.toList());
+              if (sizes.size() < 2) return;
+              var first = sizes.get(0);
+              var last = sizes.get(sizes.size() - 1);
+              var duration = last.createdTimestamp() - first.createdTimestamp();
+              if (duration <= 0) return;
+              rates.put(replica, Math.max(0, last.value() - first.value()) * 1000D / duration);
+            });
+    return rates;
+  }
+
+  private static class Load {
+    private static final Load EMPTY = new Load(0, 0);
+
+    private static Load of(Replica replica, Map<TopicPartitionReplica, Double> rates) {
+      return new Load(replica.size(), rates.getOrDefault(replica.topicPartitionReplica(), 0D));
+    }
+
+    private final long size;
+    private final double rate;
+
+    private Load(long size, double rate) {
+      this.size = size;
+      this.rate = rate;
+    }
+
+    private Load add(Load other) {
+      return new Load(size + other.size, rate + other.rate);
+    }
+
+    private Load subtract(Load other) {
+      return new Load(size - other.size, rate - other.rate);
+    }
+  }
+
+  /** The loads are kept by broker, and an update recalculates the changed brokers only. */
+  private static class FolderCost implements IncrementalClusterCost {
+
+    private static FolderCost of(
+        Map<Integer, Map<String, Load>> loads,
+        Map<TopicPartitionReplica, Double> rates,
+        Dispersion dispersion) {
+      var brokerCosts = new TreeMap<Integer, Double>();
+      loads.forEach((id, folders) -> brokerCosts.put(id, brokerCost(folders, dispersion)));
+      return new FolderCost(loads, rates, dispersion, brokerCosts);
+    }
+
+    private final Map<Integer, Map<String, Load>> loads;
+    private final Map<TopicPartitionReplica, Double> rates;
+    private final Dispersion dispersion;
+    private final Map<Integer, Double> brokerCosts;
+    private final double cost;
+
+    private FolderCost(
+        Map<Integer, Map<String, Load>> loads,
+        Map<TopicPartitionReplica, Double> rates,
+        Dispersion dispersion,
+        Map<Integer, Double> brokerCosts) {
+      this.loads = loads;
+      this.rates = rates;
+      this.dispersion = dispersion;
+      this.brokerCosts = brokerCosts;
+      this.cost = brokerCosts.values().stream().mapToDouble(c -> c).average().orElse(0);
+    }
+
+    private static double brokerCost(Map<String, Load> folders, Dispersion dispersion) {
+      var sizes = folders.values().stream().map(l -> (double) l.size).collect(Collectors.toList());
+      var rates = folders.values().stream().map(l -> l.rate).collect(Collectors.toList());
+      return dispersion.calculate(sizes) + dispersion.calculate(rates);
+    }
+
+    @Override
+    public ClusterCost clusterCost() {
+      return () -> cost;
+    }
+
+    @Override
+    public IncrementalClusterCost update(
+        Collection<Replica> removedReplicas, Collection<Replica> addedReplicas) {
+      var newLoads = new TreeMap<>(loads);
+      var changed = new HashMap<Integer, Map<String, Load>>();
+      // every replica of the origin is counted by a known folder, so a removed replica on an
+      // unknown folder was never counted and there is nothing to subtract
+      removedReplicas.stream()
+          .filter(
+              r ->
+                  r.path() != null
+                      && loads.containsKey(r.nodeInfo().id())
+                      && loads.get(r.nodeInfo().id()).containsKey(r.path()))
+          .forEach(
+              r ->
+                  changed
+                      .computeIfAbsent(r.nodeInfo().id(), id -> new TreeMap<>(loads.get(id)))
+                      .computeIfPresent(
+                          r.path(), (path, load) -> load.subtract(Load.of(r, rates))));
+      // an added replica on an unknown broker creates the broker, as the full calculation does
+      addedReplicas.stream()
+          .filter(r -> r.path() != null)
+          .forEach(
+              r ->
+                  changed
+                      .computeIfAbsent(
+                          r.nodeInfo().id(), id -> new TreeMap<>(loads.getOrDefault(id, Map.of())))
+                      .merge(r.path(), Load.of(r, rates), Load::add));
+      if (changed.isEmpty()) return this;
+      var newCosts = new TreeMap<>(brokerCosts);
+      changed.forEach(
+          (id, folders) -> {
+            newLoads.put(id, folders);
+            newCosts.put(id, brokerCost(folders, dispersion));
+          });
+      return new FolderCost(newLoads, rates, dispersion, newCosts);
+    }
+  }
+}
@@ -16,6 +16,9 @@
  */
 package org.astraea.common.cost;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -46,6 +49,18 @@ public interface HasClusterCost extends CostFunction {
         return () -> cost;
       }
 
+      @Override
+      public Optional<IncrementalClusterCost> incrementalCost(
+          ClusterInfo<Replica> clusterInfo, ClusterBean clusterBean) {
+        var costs = new ArrayList<Map.Entry<IncrementalClusterCost, Double>>();
+        for (var cw : costAndWeight.entrySet()) {
+          var cost = cw.getKey().incrementalCost(clusterInfo, clusterBean);
+          if (cost.isEmpty()) return Optional.empty();
+          costs.add(Map.entry(cost.get(), cw.getValue()));
+        }
+        return Optional.of(weighted(costs));
+      }
+
       @Override
       public Optional<Fetcher> fetcher() {
         return fetcher;
@@ -53,6 +68,33 @@ public interface HasClusterCost extends CostFunction {
     };
   }
 
+  /** sum the costs in the same order as {@link HasClusterCost#of(Map)}, so the values are equal */
+  private static IncrementalClusterCost weighted(
+      List<Map.Entry<IncrementalClusterCost, Double>> costAndWeight) {
+    var value =
+        costAndWeight.stream()
+            .mapToDouble(cw -> cw.getKey().clusterCost().value() * cw.getValue())
+            .sum();
+    return new IncrementalClusterCost() {
+      @Override
+      public ClusterCost clusterCost() {
+        return () -> value;
+      }
+
+      @Override
+      public IncrementalClusterCost update(
+          Collection<Replica> removedReplicas, Collection<Replica> addedReplicas) {
+        return weighted(
+            costAndWeight.stream()
+                .map(
+                    cw ->
+                        Map.entry(
+                            cw.getKey().update(removedReplicas, addedReplicas), cw.getValue()))
+                .collect(Collectors.toUnmodifiableList()));
+      }
+    };
+  }
+
   /**
    * score cluster for a particular metrics according to passed beans and cluster information.
    *
@@ -61,4 +103,20 @@ public interface HasClusterCost extends CostFunction {
    * @return the score of cluster.
    */
   ClusterCost clusterCost(ClusterInfo<Replica> clusterInfo, ClusterBean clusterBean);
+
+  /**
+   * The balancers evaluate many allocations which differ from the current allocation by a few
+   * replicas. A cost function which can apply the changed replicas to its aggregated state should
+   * override this method, so the balancers don't need to evaluate the whole cluster again.
+   *
+   * @param clusterInfo cluster information
+   * @param clusterBean cluster metrics
+   * @return the cost of given cluster which can be updated incrementally, or empty if this cost
+   *     function doesn't support it. The cost after the update must be equal to {@link
+   *     HasClusterCost#clusterCost(ClusterInfo, ClusterBean)} of the updated cluster.
+   */
+  default Optional<IncrementalClusterCost> incrementalCost(
+      ClusterInfo<Replica> clusterInfo, ClusterBean clusterBean) {
+    return Optional.empty();
+  }
 }
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.cost;
+
+import java.util.Collection;
+import org.astraea.common.admin.Replica;
+
+/**
+ * The cost of a cluster which can be updated by the changed replicas, rather than evaluating the
+ * whole cluster again. It is immutable, so a state can be updated by many threads concurrently.
+ *
+ * @see HasClusterCost#incrementalCost(org.astraea.common.admin.ClusterInfo,
+ *     org.astraea.common.admin.ClusterBean)
+ */
+public interface IncrementalClusterCost {
+
+  /**
+   * @param cost the cost which is never changed by the replicas
+   * @return an {@link IncrementalClusterCost} always offering the given cost
+   */
+  static IncrementalClusterCost constant(ClusterCost cost) {
+    return new IncrementalClusterCost() {
+      @Override
+      public ClusterCost clusterCost() {
+        return cost;
+      }
+
+      @Override
+      public IncrementalClusterCost update(
+          Collection<Replica> removedReplicas, Collection<Replica> addedReplicas) {
+        return this;
+      }
+    };
+  }
+
+  /**
+   * @return the cost of current state
+   */
+  ClusterCost clusterCost();
+
+  /**
+   * @param removedReplicas the replicas removed from the cluster
+   * @param addedReplicas the replicas added to the cluster
+   * @return the state after the change. This state is not changed
+   */
+  IncrementalClusterCost update(
+      Collection<Replica> removedReplicas, Collection<Replica> addedReplicas);
+}
@@ -151,11 +151,14 @@ public class LoadCost implements HasBrokerCost {
    */
   @Override
   public Optional<Fetcher> fetcher() {
-    return Optional.of(
-        client ->
-            List.of(
-                ServerMetrics.BrokerTopic.BYTES_IN_PER_SEC.fetch(client),
-                ServerMetrics.BrokerTopic.BYTES_OUT_PER_SEC.fetch(client)));
+    return Fetcher.of(
+        List.of(
+            Fetcher.of(
+                ServerMetrics.BrokerTopic.BYTES_IN_PER_SEC.query(),
+                ServerMetrics.BrokerTopic.Meter::new),
+            Fetcher.of(
+                ServerMetrics.BrokerTopic.BYTES_OUT_PER_SEC.query(),
+                ServerMetrics.BrokerTopic.Meter::new)));
   }
 
   private static class BrokerMetric {
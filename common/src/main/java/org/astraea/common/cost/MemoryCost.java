@@ -17,7 +17,6 @@
 package org.astraea.common.cost;
 
 import java.util.Comparator;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -27,6 +26,7 @@ import org.astraea.common.admin.ReplicaInfo;
 import org.astraea.common.metrics.collector.Fetcher;
 import org.astraea.common.metrics.platform.HasJvmMemory;
 import org.astraea.common.metrics.platform.HostMetrics;
+import org.astraea.common.metrics.platform.JvmMemory;
 
 public class MemoryCost implements HasBrokerCost {
 
@@ -59,6 +59,6 @@ public class MemoryCost implements HasBrokerCost {
 
   @Override
   public Optional<Fetcher> fetcher() {
-    return Optional.of(client -> List.of(HostMetrics.jvmMemory(client)));
+    return Optional.of(Fetcher.of(HostMetrics.JVM_MEMORY_QUERY, JvmMemory::new));
   }
 }
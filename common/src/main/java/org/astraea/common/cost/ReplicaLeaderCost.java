@@ -18,7 +18,6 @@ package org.astraea.common.cost;
 
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -48,9 +47,24 @@ public class ReplicaLeaderCost implements HasBrokerCost, HasClusterCost, HasMove
 
   @Override
   public ClusterCost clusterCost(ClusterInfo<Replica> clusterInfo, ClusterBean clusterBean) {
-    var brokerScore = brokerCost(clusterInfo, clusterBean).value();
-    var value = dispersion.calculate(brokerScore.values());
-    return () -> value;
+    return incrementalCost(clusterInfo, clusterBean).orElseThrow().clusterCost();
+  }
+
+  @Override
+  public Optional<IncrementalClusterCost> incrementalCost(
+      ClusterInfo<Replica> clusterInfo, ClusterBean clusterBean) {
+    if (clusterBean != ClusterBean.EMPTY) {
+      var leaderCount = leaderCount(clusterBean);
+      // the leader count from metrics doesn't change with the replica placement
+      if (leaderCount.values().stream().mapToInt(i -> i).sum() != 0) {
+        var value =
+            dispersion.calculate(
+                leaderCount.values().stream().map(v -> (double) v).collect(Collectors.toList()));
+        return Optional.of(IncrementalClusterCost.constant(() -> value));
+      }
+    }
+    return Optional.of(
+        BrokerSumCost.of(clusterInfo, r -> r.isLeader() && r.isOnline() ? 1 : 0, dispersion));
   }
 
   private static Map<Integer, Integer> leaderCount(
@@ -85,7 +99,10 @@ public class ReplicaLeaderCost implements HasBrokerCost, HasClusterCost, HasMove
 
   @Override
   public Optional<Fetcher> fetcher() {
-    return Optional.of(c -> List.of(ServerMetrics.ReplicaManager.LEADER_COUNT.fetch(c)));
+    return Optional.of(
+        Fetcher.of(
+            ServerMetrics.ReplicaManager.LEADER_COUNT.query(),
+            ServerMetrics.ReplicaManager.Gauge::new));
   }
 
   @Override
@@ -24,7 +24,6 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import org.astraea.common.admin.ClusterBean;
 import org.astraea.common.admin.ClusterInfo;
-import org.astraea.common.admin.NodeInfo;
 import org.astraea.common.admin.Replica;
 import org.astraea.common.admin.ReplicaInfo;
 import org.astraea.common.metrics.broker.LogMetrics;
@@ -39,7 +38,7 @@ public class ReplicaSizeCost implements HasMoveCost, HasBrokerCost, HasClusterCo
    */
   @Override
   public Optional<Fetcher> fetcher() {
-    return Optional.of(LogMetrics.Log.SIZE::fetch);
+    return Optional.of(Fetcher.of(LogMetrics.Log.SIZE.query(), LogMetrics.Log.Gauge::new));
   }
 
   @Override
@@ -94,20 +93,13 @@ public class ReplicaSizeCost implements HasMoveCost, HasBrokerCost, HasClusterCo
 
   @Override
   public ClusterCost clusterCost(ClusterInfo<Replica> clusterInfo, ClusterBean clusterBean) {
-    var brokerCost =
-        clusterInfo.nodes().stream()
-            .collect(
-                Collectors.toMap(
-                    NodeInfo::id,
-                    nodeInfo ->
-                        clusterInfo.replicas().stream()
-                            .filter(r -> r.nodeInfo().id() == nodeInfo.id())
-                            .mapToLong(Replica::size)
-                            .sum()));
-    var value =
-        dispersion.calculate(
-            brokerCost.values().stream().map(v -> (double) v).collect(Collectors.toList()));
-    return () -> value;
+    return incrementalCost(clusterInfo, clusterBean).orElseThrow().clusterCost();
+  }
+
+  @Override
+  public Optional<IncrementalClusterCost> incrementalCost(
+      ClusterInfo<Replica> clusterInfo, ClusterBean clusterBean) {
+    return Optional.of(BrokerSumCost.of(clusterInfo, Replica::size, dispersion));
   }
 
   static class MigrateInfo {
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.metrics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The binary codec of the {@link BeanObject} attributes which are primitive wrappers or strings.
+ * It is shared by the files storing the metrics. A value is a type tag followed by the value in
+ * the {@link DataOutput} format, and the strings are written by the caller, so a file is free to
+ * store them by reference.
+ */
+public final class AttributeCodec {
+
+  private static final byte LONG = 1;
+  private static final byte INTEGER = 2;
+  private static final byte DOUBLE = 3;
+  private static final byte FLOAT = 4;
+  private static final byte STRING = 5;
+  private static final byte BOOLEAN = 6;
+  private static final byte SHORT = 7;
+  private static final byte BYTE = 8;
+
+  @FunctionalInterface
+  public interface StringWriter {
+    void write(String value) throws IOException;
+  }
+
+  @FunctionalInterface
+  public interface StringReader {
+    String read() throws IOException;
+  }
+
+  /**
+   * @return true if all attributes of the bean can be encoded
+   */
+  public static boolean supported(BeanObject bean) {
+    return bean.attributes().values().stream().allMatch(v -> tag(v) != 0);
+  }
+
+  public static void write(DataOutput output, Object value, StringWriter strings)
+      throws IOException {
+    var tag = tag(value);
+    output.writeByte(tag);
+    switch (tag) {
+      case LONG:
+        output.writeLong((Long) value);
+        break;
+      case INTEGER:
+        output.writeInt((Integer) value);
+        break;
+      case DOUBLE:
+        output.writeDouble((Double) value);
+        break;
+      case FLOAT:
+        output.writeFloat((Float) value);
+        break;
+      case STRING:
+        strings.write((String) value);
+        break;
+      case BOOLEAN:
+        output.writeBoolean((Boolean) value);
+        break;
+      case SHORT:
+        output.writeShort((Short) value);
+        break;
+      case BYTE:
+        output.writeByte((Byte) value);
+        break;
+      default:
+        throw new IllegalArgumentException("unsupported value: " + value);
+    }
+  }
+
+  public static Object read(DataInput input, StringReader strings) throws IOException {
+    var tag = input.readByte();
+    switch (tag) {
+      case LONG:
+        return input.readLong();
+      case INTEGER:
+        return input.readInt();
+      case DOUBLE:
+        return input.readDouble();
+      case FLOAT:
+        return input.readFloat();
+      case STRING:
+        return strings.read();
+      case BOOLEAN:
+        return input.readBoolean();
+      case SHORT:
+        return input.readShort();
+      case BYTE:
+        return input.readByte();
+      default:
+        throw new IllegalArgumentException("unknown value type: " + tag);
+    }
+  }
+
+  private static byte tag(Object value) {
+    if (value instanceof Long) return LONG;
+    if (value instanceof Integer) return INTEGER;
+    if (value instanceof Double) return DOUBLE;
+    if (value instanceof Float) return FLOAT;
+    if (value instanceof String) return STRING;
+    if (value instanceof Boolean) return BOOLEAN;
+    if (value instanceof Short) return SHORT;
+    if (value instanceof Byte) return BYTE;
+    return 0;
+  }
+
+  private AttributeCodec() {}
+}
@@ -121,6 +121,51 @@ public class BeanQuery {
     return this.objectName;
   }
 
+  /**
+   * @return true if this query is a pattern, which might match multiple MBeans.
+   */
+  public boolean isPattern() {
+    return objectName.isPattern();
+  }
+
+  /**
+   * @param query the other query
+   * @return true if this query is a pattern, and the given non-pattern query targets a MBean
+   *     matched by this query.
+   */
+  public boolean covers(BeanQuery query) {
+    return isPattern() && !query.isPattern() && objectName.apply(query.objectName);
+  }
+
+  /**
+   * @param beanObject the MBean snapshot
+   * @return true if the given MBean is matched by this query.
+   */
+  public boolean matches(BeanObject beanObject) {
+    return Utils.packException(
+        () ->
+            objectName.apply(
+                ObjectName.getInstance(
+                    beanObject.domainName(), new Hashtable<>(beanObject.properties()))));
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    return objectName.equals(((BeanQuery) o).objectName);
+  }
+
+  @Override
+  public int hashCode() {
+    return objectName.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return objectName.toString();
+  }
+
   public static class Builder {
 
     private String domainName = "*";
@@ -16,7 +16,23 @@
  */
 package org.astraea.common.metrics;
 
+import java.util.Optional;
+import java.util.function.Function;
+
 public interface HasBeanObject {
+
+  /**
+   * Find the way to rebuild a metric from its {@link BeanObject}. It is used to restore the metrics
+   * which are persisted as bean objects.
+   *
+   * @param className the name of a {@link HasBeanObject} implementation
+   * @return the public constructor taking a {@link BeanObject}, or empty if there is no such
+   *     constructor
+   */
+  static Optional<Function<BeanObject, HasBeanObject>> constructor(String className) {
+    return MetricConstructors.of(className);
+  }
+
   BeanObject beanObject();
 
   default long createdTimestamp() {
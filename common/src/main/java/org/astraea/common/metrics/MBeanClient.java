@@ -20,13 +20,27 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.lang.management.ManagementFactory;
 import java.net.MalformedURLException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.management.AttributeNotFoundException;
 import javax.management.InstanceNotFoundException;
 import javax.management.IntrospectionException;
 import javax.management.MBeanFeatureInfo;
@@ -52,6 +66,12 @@ import org.astraea.common.Utils;
  */
 public interface MBeanClient extends AutoCloseable {
 
+  /** The default max number of concurrent requests sent by a batched query. */
+  int DEFAULT_BATCH_PARALLELISM = 8;
+
+  /** The default time to keep the attribute names resolved by a batched query. */
+  Duration DEFAULT_ATTRIBUTE_NAMES_TTL = Duration.ofMinutes(1);
+
   /**
    * @param host the address of jmx server
    * @param port the port of jmx server
@@ -69,9 +89,34 @@ public interface MBeanClient extends AutoCloseable {
   }
 
   static MBeanClient of(JMXServiceURL jmxServiceURL) {
+    return of(jmxServiceURL, DEFAULT_BATCH_PARALLELISM);
+  }
+
+  /**
+   * @param jmxServiceURL the address of jmx server
+   * @param batchParallelism the max number of concurrent requests sent by {@link
+   *     MBeanClient#queryBeans(BeanQuery)}
+   * @return a mbean client connecting to the given jmx server
+   */
+  static MBeanClient of(JMXServiceURL jmxServiceURL, int batchParallelism) {
+    return of(jmxServiceURL, batchParallelism, DEFAULT_ATTRIBUTE_NAMES_TTL);
+  }
+
+  /**
+   * @param jmxServiceURL the address of jmx server
+   * @param batchParallelism the max number of concurrent requests sent by {@link
+   *     MBeanClient#queryBeans(BeanQuery)}
+   * @param attributeNamesTtl the time to keep the attribute names resolved by {@link
+   *     MBeanClient#queryBeans(BeanQuery)}. The attributes added to an MBean are visible after it
+   *     expires.
+   * @return a mbean client connecting to the given jmx server
+   */
+  static MBeanClient of(
+      JMXServiceURL jmxServiceURL, int batchParallelism, Duration attributeNamesTtl) {
     try {
       var jmxConnector = JMXConnectorFactory.connect(jmxServiceURL);
-      return new AbstractMBeanClient(jmxConnector.getMBeanServerConnection()) {
+      return new AbstractMBeanClient(
+          jmxConnector.getMBeanServerConnection(), batchParallelism, attributeNamesTtl) {
         @Override
         public String host() {
           return jmxServiceURL.getHost();
@@ -84,6 +129,7 @@ public interface MBeanClient extends AutoCloseable {
 
         @Override
         public void close() {
+          super.close();
           Utils.packException(jmxConnector::close);
         }
       };
@@ -93,7 +139,9 @@ public interface MBeanClient extends AutoCloseable {
   }
 
   static MBeanClient local() {
-    return new AbstractMBeanClient(ManagementFactory.getPlatformMBeanServer()) {
+    // there is no network round-trip, so it is not worth fetching the attributes concurrently
+    return new AbstractMBeanClient(
+        ManagementFactory.getPlatformMBeanServer(), 1, DEFAULT_ATTRIBUTE_NAMES_TTL) {
       @Override
       public String host() {
         return Utils.hostname();
@@ -104,8 +152,6 @@ public interface MBeanClient extends AutoCloseable {
         return -1;
       }
 
-      @Override
-      public void close() {}
     };
   }
 
@@ -155,6 +201,14 @@ public interface MBeanClient extends AutoCloseable {
    */
   List<String> listDomains();
 
+  /**
+   * @return the number of requests this client has sent to the MBean server so far. For a remote
+   *     client, each request is a RMI round-trip.
+   */
+  default long requestCount() {
+    return 0;
+  }
+
   /**
    * @return the host address of jmx server
    */
@@ -171,22 +225,67 @@ public interface MBeanClient extends AutoCloseable {
   abstract class AbstractMBeanClient implements MBeanClient {
 
     private final MBeanServerConnection connection;
-
-    AbstractMBeanClient(MBeanServerConnection connection) {
+    private final int batchParallelism;
+    private final LongAdder requestCount = new LongAdder();
+
+    /**
+     * The attribute names of the MBeans which share the same class, domain and key property list
+     * layout. It saves the {@link MBeanServerConnection#getMBeanInfo(ObjectName)} round-trip of
+     * each MBean in {@link AbstractMBeanClient#queryBeans(BeanQuery)}. An entry gets refreshed
+     * once its attribute names are not resolvable anymore, or it expires. The expiry catches the
+     * attributes added to the MBeans, since there is no notification of {@link
+     * javax.management.MBeanInfo} changes.
+     */
+    private final Map<String, AttributeNames> attributeNames = new ConcurrentHashMap<>();
+
+    private final long attributeNamesTtl;
+
+    // created on demand, since most clients don't run batched queries
+    private ExecutorService executor;
+
+    AbstractMBeanClient(
+        MBeanServerConnection connection, int batchParallelism, Duration attributeNamesTtl) {
       this.connection = connection;
+      this.batchParallelism = Utils.requirePositive(batchParallelism);
+      this.attributeNamesTtl = attributeNamesTtl.toMillis();
+    }
+
+    private synchronized ExecutorService executor() {
+      if (executor == null) {
+        var pool =
+            new ThreadPoolExecutor(
+                batchParallelism,
+                batchParallelism,
+                30,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                  var thread = new Thread(runnable, "mbean-client-" + host());
+                  thread.setDaemon(true);
+                  return thread;
+                });
+        // the idle client should not hold any thread
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+      }
+      return executor;
     }
 
     @Override
     public BeanObject queryBean(BeanQuery beanQuery) {
       try {
         // ask for MBeanInfo
+        requestCount.increment();
         var mBeanInfo = connection.getMBeanInfo(beanQuery.objectName());
 
         // create a list builder all available attributes name
         var attributeName =
             Arrays.stream(mBeanInfo.getAttributes())
                 .map(MBeanFeatureInfo::getName)
-                .collect(Collectors.toList());
+                .collect(Collectors.toUnmodifiableList());
+        attributeNames.put(
+            attributeCacheKey(mBeanInfo.getClassName(), beanQuery.objectName()),
+            new AttributeNames(attributeName, System.currentTimeMillis() + attributeNamesTtl));
 
         // query the result
         return queryBean(beanQuery, attributeName);
@@ -205,6 +304,7 @@ public interface MBeanClient extends AutoCloseable {
 
         // fetch attribute value from mbean server
         var attributeNameArray = attributeNameCollection.toArray(new String[0]);
+        requestCount.increment();
         var attributeList =
             connection.getAttributes(beanQuery.objectName(), attributeNameArray).asList();
 
@@ -252,6 +352,7 @@ public interface MBeanClient extends AutoCloseable {
       // exception
       // into their result.
       try {
+        requestCount.increment();
         return connection.getAttribute(beanQuery.objectName(), attributeName);
       } catch (IOException e) {
         throw new UncheckedIOException(e);
@@ -260,27 +361,126 @@ public interface MBeanClient extends AutoCloseable {
       }
     }
 
+    /**
+     * Query mBeans by pattern. It takes one round-trip to list the matched MBeans, and then fetches
+     * the attributes of the MBeans concurrently. The attribute names are resolved by the cached
+     * {@link javax.management.MBeanInfo}, so there is only one round-trip per MBean in the steady
+     * state.
+     */
     @Override
     public Collection<BeanObject> queryBeans(BeanQuery beanQuery) {
+      Set<ObjectInstance> instances;
       try {
-        return connection.queryMBeans(beanQuery.objectName(), null).stream()
-            .map(ObjectInstance::getObjectName)
-            .map(BeanQuery::fromObjectName)
-            .map(this::queryBean)
-            .collect(Collectors.toSet());
-
+        requestCount.increment();
+        instances = connection.queryMBeans(beanQuery.objectName(), null);
       } catch (IOException e) {
         throw new UncheckedIOException(e);
       }
+      if (batchParallelism == 1 || instances.size() <= 1)
+        return instances.stream()
+            .map(this::queryCachedBean)
+            .flatMap(Optional::stream)
+            .collect(Collectors.toSet());
+
+      // split the MBeans into chunks, each chunk is fetched sequentially by one thread
+      var all = List.copyOf(instances);
+      var chunkSize = (all.size() + batchParallelism - 1) / batchParallelism;
+      var futures =
+          IntStream.range(0, (all.size() + chunkSize - 1) / chunkSize)
+              .mapToObj(i -> all.subList(i * chunkSize, Math.min(all.size(), (i + 1) * chunkSize)))
+              .map(
+                  chunk ->
+                      CompletableFuture.supplyAsync(
+                          () ->
+                              chunk.stream()
+                                  .map(this::queryCachedBean)
+                                  .flatMap(Optional::stream)
+                                  .collect(Collectors.toList()),
+                          executor()))
+              .collect(Collectors.toList());
+      try {
+        return futures.stream()
+            .map(CompletableFuture::join)
+            .flatMap(Collection::stream)
+            .collect(Collectors.toSet());
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+        throw e;
+      }
+    }
+
+    /**
+     * Fetch the attributes by the cached attribute names.
+     *
+     * @return empty if the MBean is unregistered after it gets listed.
+     */
+    private Optional<BeanObject> queryCachedBean(ObjectInstance instance) {
+      var beanQuery = BeanQuery.fromObjectName(instance.getObjectName());
+      var key = attributeCacheKey(instance.getClassName(), instance.getObjectName());
+      try {
+        var names = attributeNames.get(key);
+        if (names == null || names.expiredTime < System.currentTimeMillis())
+          return Optional.of(queryBean(beanQuery));
+        var bean = queryBean(beanQuery, names.names);
+        // some attributes are gone, the cached names are stale
+        if (bean.attributes().values().stream()
+            .anyMatch(v -> v instanceof AttributeNotFoundException)) {
+          attributeNames.remove(key);
+          return Optional.of(queryBean(beanQuery));
+        }
+        return Optional.of(bean);
+      } catch (NoSuchElementException e) {
+        return Optional.empty();
+      }
     }
 
     @Override
     public List<String> listDomains() {
       try {
+        requestCount.increment();
         return Arrays.asList(connection.getDomains());
       } catch (IOException e) {
         throw new UncheckedIOException(e);
       }
     }
+
+    @Override
+    public long requestCount() {
+      return requestCount.sum();
+    }
+
+    @Override
+    public synchronized void close() {
+      if (executor != null) executor.shutdownNow();
+    }
+
+    private static final class AttributeNames {
+      private final List<String> names;
+      private final long expiredTime;
+
+      private AttributeNames(List<String> names, long expiredTime) {
+        this.names = names;
+        this.expiredTime = expiredTime;
+      }
+    }
+
+    /**
+     * The MBeans of the same class, domain and key property layout have the same attributes. For
+     * example, all the {@code kafka.log:type=Log,name=Size,topic=*,partition=*} MBeans. The values
+     * of the "type" and "name" properties are part of the key since some MBean implementations
+     * (for example, the Kafka client metrics) share the same class among different metric groups.
+     */
+    private static String attributeCacheKey(String className, ObjectName objectName) {
+      var properties = objectName.getKeyPropertyList();
+      return className
+          + "/"
+          + objectName.getDomain()
+          + "/"
+          + new TreeSet<>(properties.keySet())
+          + "/"
+          + properties.get("type")
+          + "/"
+          + properties.get("name");
+    }
   }
 }
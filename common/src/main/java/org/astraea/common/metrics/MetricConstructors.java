@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.metrics;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.astraea.common.Utils;
+
+/** Cache the lookup of {@link HasBeanObject#constructor(String)}. */
+final class MetricConstructors {
+
+  private static final Map<String, Optional<Function<BeanObject, HasBeanObject>>> CONSTRUCTORS =
+      new ConcurrentHashMap<>();
+
+  static Optional<Function<BeanObject, HasBeanObject>> of(String className) {
+    return CONSTRUCTORS.computeIfAbsent(
+        className,
+        name -> {
+          try {
+            var clz = Class.forName(name);
+            if (!HasBeanObject.class.isAssignableFrom(clz)) return Optional.empty();
+            var constructor = clz.getConstructor(BeanObject.class);
+            return Optional.of(
+                bean -> (HasBeanObject) Utils.packException(() -> constructor.newInstance(bean)));
+          } catch (ReflectiveOperationException | LinkageError e) {
+            return Optional.empty();
+          }
+        });
+  }
+
+  private MetricConstructors() {}
+}
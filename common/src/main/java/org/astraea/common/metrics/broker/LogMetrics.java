@@ -136,17 +136,18 @@ public final class LogMetrics {
           .collect(Collectors.toUnmodifiableList());
     }
 
+    public BeanQuery query() {
+      return BeanQuery.builder()
+          .domainName("kafka.log")
+          .property("type", "Log")
+          .property("topic", "*")
+          .property("partition", "*")
+          .property("name", metricName)
+          .build();
+    }
+
     public List<Gauge> fetch(MBeanClient mBeanClient) {
-      return mBeanClient
-          .queryBeans(
-              BeanQuery.builder()
-                  .domainName("kafka.log")
-                  .property("type", "Log")
-                  .property("topic", "*")
-                  .property("partition", "*")
-                  .property("name", metricName)
-                  .build())
-          .stream()
+      return mBeanClient.queryBeans(query()).stream()
           .map(Gauge::new)
           .collect(Collectors.toUnmodifiableList());
     }
@@ -513,14 +513,16 @@ public final class ServerMetrics {
           .collect(Collectors.toUnmodifiableList());
     }
 
+    public BeanQuery query() {
+      return BeanQuery.builder()
+          .domainName("kafka.server")
+          .property("type", "BrokerTopicMetrics")
+          .property("name", this.metricName())
+          .build();
+    }
+
     public Meter fetch(MBeanClient mBeanClient) {
-      return new Meter(
-          mBeanClient.queryBean(
-              BeanQuery.builder()
-                  .domainName("kafka.server")
-                  .property("type", "BrokerTopicMetrics")
-                  .property("name", this.metricName())
-                  .build()));
+      return new Meter(mBeanClient.queryBean(query()));
     }
 
     public static class Meter implements HasMeter {
@@ -574,14 +576,16 @@ public final class ServerMetrics {
       return metricName;
     }
 
+    public BeanQuery query() {
+      return BeanQuery.builder()
+          .domainName("kafka.server")
+          .property("type", "ReplicaManager")
+          .property("name", metricName)
+          .build();
+    }
+
     public Gauge fetch(MBeanClient mBeanClient) {
-      return new Gauge(
-          mBeanClient.queryBean(
-              BeanQuery.builder()
-                  .domainName("kafka.server")
-                  .property("type", "ReplicaManager")
-                  .property("name", metricName)
-                  .build()));
+      return new Gauge(mBeanClient.queryBean(query()));
     }
 
     @Override
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.metrics.collector;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.astraea.common.metrics.BeanObject;
+import org.astraea.common.metrics.BeanQuery;
+import org.astraea.common.metrics.HasBeanObject;
+import org.astraea.common.metrics.MBeanClient;
+
+/**
+ * Execute a group of {@link Fetcher}s with the minimal set of JMX queries. The queries declared by
+ * the {@link QueryFetcher}s are de-duplicated, and a query is dropped if its MBean is matched by
+ * another pattern query. The fetched MBeans are then fanned out to the fetchers which need them.
+ * The other fetchers are executed as usual.
+ */
+class FetchPlan implements Fetcher {
+
+  static FetchPlan of(Collection<Fetcher> fetchers) {
+    var leaves =
+        fetchers.stream()
+            .distinct()
+            .collect(
+                Collectors.toMap(
+                    Function.identity(),
+                    f -> leaves(f).collect(Collectors.toUnmodifiableList()),
+                    (x, y) -> x,
+                    LinkedHashMap::new));
+    var declared =
+        leaves.values().stream()
+            .flatMap(Collection::stream)
+            .filter(f -> f instanceof QueryFetcher)
+            .flatMap(f -> ((QueryFetcher) f).queries().stream())
+            .collect(Collectors.toUnmodifiableSet());
+    var queries =
+        declared.stream()
+            .filter(q -> declared.stream().noneMatch(other -> other.covers(q)))
+            .collect(Collectors.toUnmodifiableSet());
+    return new FetchPlan(leaves, queries);
+  }
+
+  private static Stream<Fetcher> leaves(Fetcher fetcher) {
+    if (fetcher instanceof FetchPlan)
+      return ((FetchPlan) fetcher).leaves.values().stream().flatMap(Collection::stream);
+    return Stream.of(fetcher);
+  }
+
+  private final Map<Fetcher, List<Fetcher>> leaves;
+  private final Set<BeanQuery> queries;
+
+  private FetchPlan(Map<Fetcher, List<Fetcher>> leaves, Set<BeanQuery> queries) {
+    this.leaves = leaves;
+    this.queries = queries;
+  }
+
+  /**
+   * @return the JMX queries sent by this plan
+   */
+  Set<BeanQuery> queries() {
+    return queries;
+  }
+
+  @Override
+  public Collection<? extends HasBeanObject> fetch(MBeanClient client) {
+    return fetch(
+            client,
+            (fetcher, e) -> {
+              throw e;
+            })
+        .values()
+        .stream()
+        .flatMap(Collection::stream)
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  /**
+   * Execute the plan in the caller thread, so there is nothing to wait for.
+   *
+   * @see FetchPlan#fetch(MBeanClient, BiConsumer, Executor, Duration)
+   */
+  Map<Fetcher, Collection<? extends HasBeanObject>> fetch(
+      MBeanClient client, BiConsumer<Fetcher, NoSuchElementException> noSuchMetricHandler) {
+    return fetch(client, noSuchMetricHandler, Runnable::run, Duration.ofNanos(Long.MAX_VALUE));
+  }
+
+  /**
+   * Execute the plan. The merged queries and the opaque fetchers are submitted to the executor
+   * together, so they are sent to the JMX server concurrently if the executor has multiple threads.
+   *
+   * @param client the mbean client (don't close it!)
+   * @param noSuchMetricHandler called if a fetcher raises {@link NoSuchElementException}. The
+   *     metrics of that fetcher are absent from the result.
+   * @param executor runs the queries and the fetchers
+   * @param timeout the max time to wait for the queries and the fetchers. The tasks which are not
+   *     started yet are dropped when it is exceeded.
+   * @return the metrics of each fetcher given by {@link FetchPlan#of(Collection)}
+   * @throws IllegalStateException if the plan is not completed in the timeout
+   */
+  Map<Fetcher, Collection<? extends HasBeanObject>> fetch(
+      MBeanClient client,
+      BiConsumer<Fetcher, NoSuchElementException> noSuchMetricHandler,
+      Executor executor,
+      Duration timeout) {
+    var start = System.nanoTime();
+    var beans =
+        queries.stream()
+            .collect(
+                Collectors.toUnmodifiableMap(
+                    q -> q,
+                    q ->
+                        CompletableFuture.supplyAsync(
+                            () -> List.copyOf(client.queryBeans(q)), executor)));
+    var futures = new LinkedHashMap<Fetcher, CompletableFuture<List<HasBeanObject>>>();
+    leaves.forEach(
+        (fetcher, members) ->
+            futures.put(
+                fetcher,
+                CompletableFuture.supplyAsync(
+                    () ->
+                        members.stream()
+                            .flatMap(leaf -> fetch(leaf, client, beans, start, timeout).stream())
+                            .collect(Collectors.toUnmodifiableList()),
+                    executor)));
+    var result = new LinkedHashMap<Fetcher, Collection<? extends HasBeanObject>>();
+    try {
+      futures.forEach(
+          (fetcher, future) -> {
+            try {
+              result.put(fetcher, join(future, start, timeout));
+            } catch (NoSuchElementException e) {
+              noSuchMetricHandler.accept(fetcher, e);
+            }
+          });
+    } finally {
+      // a cancelled task is skipped by the executor, so a failed fetch leaves no work behind
+      beans.values().forEach(future -> future.cancel(false));
+      futures.values().forEach(future -> future.cancel(false));
+    }
+    return result;
+  }
+
+  private static Collection<? extends HasBeanObject> fetch(
+      Fetcher fetcher,
+      MBeanClient client,
+      Map<BeanQuery, CompletableFuture<List<BeanObject>>> beans,
+      long start,
+      Duration timeout) {
+    if (!(fetcher instanceof QueryFetcher)) return fetcher.fetch(client);
+    var queryFetcher = (QueryFetcher) fetcher;
+    return queryFetcher.wrap(
+        queryFetcher.queries().stream()
+            .flatMap(query -> matched(query, beans, start, timeout))
+            .distinct()
+            .collect(Collectors.toUnmodifiableList()));
+  }
+
+  /**
+   * Wait for the future until the timeout counted from the start of the fetch.
+   *
+   * @param start the {@link System#nanoTime()} when the fetch starts
+   */
+  private static <T> T join(CompletableFuture<T> future, long start, Duration timeout) {
+    try {
+      return future.get(
+          Math.max(0, timeout.toNanos() - (System.nanoTime() - start)), TimeUnit.NANOSECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+      throw new CompletionException(e.getCause());
+    } catch (TimeoutException e) {
+      throw new IllegalStateException("the fetch is not completed in " + timeout, e);
+    } catch (InterruptedException e) {
+      // the sampling thread is interrupted by close, so it is passed to the caller
+      Thread.currentThread().interrupt();
+      throw new CompletionException(e);
+    }
+  }
+
+  private static Stream<BeanObject> matched(
+      BeanQuery query,
+      Map<BeanQuery, CompletableFuture<List<BeanObject>>> beans,
+      long start,
+      Duration timeout) {
+    var exact = beans.get(query);
+    if (exact != null) return join(exact, start, timeout).stream();
+    // this query is merged into a pattern query
+    return beans.entrySet().stream()
+        .filter(e -> e.getKey().covers(query))
+        .findFirst()
+        .map(e -> join(e.getValue(), start, timeout).stream().filter(query::matches))
+        .orElse(Stream.of());
+  }
+}
@@ -17,26 +17,52 @@
 package org.astraea.common.metrics.collector;
 
 import java.util.Collection;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import org.astraea.common.metrics.BeanObject;
+import org.astraea.common.metrics.BeanQuery;
 import org.astraea.common.metrics.HasBeanObject;
 import org.astraea.common.metrics.MBeanClient;
 
 @FunctionalInterface
 public interface Fetcher {
   /**
-   * merge all fetchers into single one.
+   * merge all fetchers into single one. The queries declared by {@link QueryFetcher}s are merged,
+   * so the MBeans required by multiple fetchers are fetched only once.
    *
    * @param fetchers cost function
    * @return fetcher if there is available fetcher. Otherwise, empty is returned
    */
   static Optional<Fetcher> of(Collection<Fetcher> fetchers) {
     if (fetchers.isEmpty()) return Optional.empty();
-    return Optional.of(
-        client ->
-            fetchers.stream()
-                .flatMap(f -> f.fetch(client).stream())
-                .collect(Collectors.toUnmodifiableList()));
+    return Optional.of(FetchPlan.of(fetchers));
+  }
+
+  /**
+   * Create a {@link QueryFetcher} which wraps each MBean matched by the given query.
+   *
+   * @param query the MBeans to fetch. If it is not a pattern, the MBean is required, and the
+   *     fetcher raises {@link java.util.NoSuchElementException} when the MBean is absent.
+   * @param wrapper convert the MBean to the metric object
+   * @return a {@link QueryFetcher}
+   */
+  static QueryFetcher of(BeanQuery query, Function<BeanObject, ? extends HasBeanObject> wrapper) {
+    return new QueryFetcher() {
+      @Override
+      public Set<BeanQuery> queries() {
+        return Set.of(query);
+      }
+
+      @Override
+      public Collection<? extends HasBeanObject> wrap(Collection<BeanObject> beans) {
+        if (!query.isPattern() && beans.isEmpty())
+          throw new NoSuchElementException("No such MBean: " + query);
+        return beans.stream().map(wrapper).collect(Collectors.toUnmodifiableList());
+      }
+    };
   }
 
   /**
@@ -92,9 +92,25 @@ public interface MetricCollector extends AutoCloseable {
   <T extends HasBeanObject> List<T> metrics(Class<T> metricClass, int identity, long since);
 
   /**
-   * @return the {@link ClusterBean}.
+   * @return the version of the sampled metrics. It is increased whenever new metrics are stored or
+   *     old metrics are expired, so the same version always maps to the same metrics.
    */
-  default ClusterBean clusterBean() {
+  long version();
+
+  /**
+   * @param version a version returned by {@link MetricCollector#version()} or {@link
+   *     Snapshot#version()}
+   * @return true if any metric is stored or expired after the given version
+   */
+  default boolean changedSince(long version) {
+    return version() != version;
+  }
+
+  /**
+   * @return the {@link ClusterBean} and the version it is built from.
+   */
+  default Snapshot snapshot() {
+    var version = version();
     var metricClasses = listMetricTypes();
     Map<Integer, Collection<HasBeanObject>> metrics =
         listIdentities().stream()
@@ -107,7 +123,38 @@ public interface MetricCollector extends AutoCloseable {
                             .flatMap(Collection::stream)
                             .collect(Collectors.toUnmodifiableSet())));
 
-    return ClusterBean.of(metrics);
+    var clusterBean = ClusterBean.of(metrics);
+    return new Snapshot() {
+      @Override
+      public long version() {
+        return version;
+      }
+
+      @Override
+      public ClusterBean clusterBean() {
+        return clusterBean;
+      }
+    };
+  }
+
+  /**
+   * @return the {@link ClusterBean}.
+   */
+  default ClusterBean clusterBean() {
+    return snapshot().clusterBean();
+  }
+
+  /** A {@link ClusterBean} tagged with the version of {@link MetricCollector}. */
+  interface Snapshot {
+
+    /**
+     * @return the version of {@link MetricCollector} when this snapshot is taken, or -1 if some
+     *     stored metrics are not ready for consume yet. {@link MetricCollector#changedSince(long)}
+     *     is always true for the latter, so callers will take a complete snapshot later.
+     */
+    long version();
+
+    ClusterBean clusterBean();
   }
 
   @Override
@@ -17,40 +17,54 @@
 package org.astraea.common.metrics.collector;
 
 import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ConcurrentNavigableMap;
-import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.DelayQueue;
 import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicLongArray;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import javax.management.ObjectName;
 import org.astraea.common.Utils;
+import org.astraea.common.admin.ClusterBean;
+import org.astraea.common.admin.TopicPartitionReplica;
 import org.astraea.common.metrics.HasBeanObject;
 import org.astraea.common.metrics.MBeanClient;
+import org.astraea.common.metrics.jmx.MBeanRegister;
 
 public class MetricCollectorImpl implements MetricCollector {
 
+  private static final AtomicInteger COLLECTOR_ID = new AtomicInteger();
+  private static final Duration JOURNAL_SEGMENT_DURATION = Duration.ofMinutes(1);
+  private static final Duration DEFAULT_FETCH_TIMEOUT = Duration.ofSeconds(30);
+  // the fetch threads of each sampling thread
+  private static final int FETCH_PARALLELISM = 4;
+
   private final Map<Integer, MBeanClient> mBeanClients;
   private final CopyOnWriteArrayList<Map.Entry<Fetcher, BiConsumer<Integer, Exception>>> fetchers;
+  // the registered fetchers are executed with the merged queries
+  private volatile FetchPlan plan = FetchPlan.of(List.of());
   private final Duration expiration;
   private final Duration interval;
   private final Map<Class<? extends HasBeanObject>, MetricStorage<? extends HasBeanObject>>
@@ -58,9 +72,52 @@ public class MetricCollectorImpl implements MetricCollector {
   private final ScheduledExecutorService executorService;
   private final DelayQueue<DelayedIdentity> delayedWorks;
   private final ThreadTimeHighWatermark threadTime;
+  private final String collectorId = Integer.toString(COLLECTOR_ID.getAndIncrement());
+  // the number of requests sent to the JMX server by the latest fetch of each identity
+  private final Map<Integer, AtomicLong> requestsPerFetch = new ConcurrentHashMap<>();
+  private final Map<Integer, ObjectName> registeredMBeans = new ConcurrentHashMap<>();
+  // the latency, errors and next deadline of each identity
+  private final Map<Integer, SamplingState> samplingStates = new ConcurrentHashMap<>();
+  // run the fetchers of an identity concurrently. The pool is bounded, and the tasks are run in the
+  // submitted order, so a fetcher never waits for the queries queued behind it
+  private final ExecutorService fetchExecutor;
+  private final Duration fetchTimeout;
+  private final Optional<MetricJournal> journal;
+  // the batches of each identity which are not appended to the journal
+  private final Map<Integer, LongAdder> journalErrors = new ConcurrentHashMap<>();
+  // increased whenever metrics are stored or expired
+  private final AtomicLong version = new AtomicLong();
+  // the version when the metrics of each identity are changed lastly
+  private final Map<Integer, AtomicLong> lastChanges = new ConcurrentHashMap<>();
+  // the reusable part of the snapshot. It is guarded by "this"
+  private final Map<Integer, IdentitySnapshot> identitySnapshots = new HashMap<>();
+  private Snapshot latestSnapshot;
 
   public MetricCollectorImpl(
       int threadCount, Duration expiration, Duration interval, Duration cleanerInterval) {
+    this(
+        threadCount,
+        expiration,
+        interval,
+        cleanerInterval,
+        DEFAULT_FETCH_TIMEOUT,
+        Optional.empty());
+  }
+
+  /**
+   * @param fetchTimeout the max time of fetching the metrics of an identity. The sample fails if
+   *     it is exceeded.
+   * @param journalDirectory the folder of {@link MetricJournal}. If it is present, the metrics of
+   *     the latest {@code expiration} are reloaded from the journal when their identity is
+   *     registered, and the new metrics are appended to it.
+   */
+  public MetricCollectorImpl(
+      int threadCount,
+      Duration expiration,
+      Duration interval,
+      Duration cleanerInterval,
+      Duration fetchTimeout,
+      Optional<Path> journalDirectory) {
     this.mBeanClients = new ConcurrentHashMap<>();
     this.fetchers = new CopyOnWriteArrayList<>();
     this.expiration = expiration;
@@ -68,7 +125,17 @@ public class MetricCollectorImpl implements MetricCollector {
     this.storages = new ConcurrentHashMap<>();
     this.threadTime = new ThreadTimeHighWatermark(threadCount);
     this.executorService = Executors.newScheduledThreadPool(threadCount + 1);
+    this.fetchExecutor = Executors.newFixedThreadPool(threadCount * FETCH_PARALLELISM);
+    this.fetchTimeout = fetchTimeout;
     this.delayedWorks = new DelayQueue<>();
+    this.journal =
+        journalDirectory.map(
+            dir ->
+                MetricJournal.open(
+                    dir,
+                    expiration.compareTo(JOURNAL_SEGMENT_DURATION) < 0
+                        ? expiration
+                        : JOURNAL_SEGMENT_DURATION));
 
     // TODO: restart cleaner if it is dead
     executorService.scheduleWithFixedDelay(
@@ -78,7 +145,10 @@ public class MetricCollectorImpl implements MetricCollector {
 
   @Override
   public void addFetcher(Fetcher fetcher, BiConsumer<Integer, Exception> noSuchMetricHandler) {
-    this.fetchers.add(Map.entry(fetcher, noSuchMetricHandler));
+    synchronized (fetchers) {
+      this.fetchers.add(Map.entry(fetcher, noSuchMetricHandler));
+      this.plan = FetchPlan.of(listFetchers());
+    }
   }
 
   @Override
@@ -129,35 +199,149 @@ public class MetricCollectorImpl implements MetricCollector {
           if (client != null) throw new IllegalArgumentException(errorMessage.get());
           else return clientSupplier.get();
         });
+    var requests = requestsPerFetch.computeIfAbsent(identity, (ignore) -> new AtomicLong());
+    var errors = journalErrors.computeIfAbsent(identity, (ignore) -> new LongAdder());
+    var state = new SamplingState(interval, System.currentTimeMillis());
+    samplingStates.put(identity, state);
+    registeredMBeans.put(
+        identity,
+        MBeanRegister.local()
+            .setDomainName("astraea.collector")
+            .addProperty("id", collectorId)
+            .addProperty("identity", Integer.toString(identity))
+            .addAttribute("RequestsPerFetch", Long.class, requests::get)
+            .addAttribute("FetchTime", Long.class, state::fetchTime)
+            .addAttribute("QueueLag", Long.class, state::queueLag)
+            .addAttribute("SkippedSamples", Long.class, state::skippedSamples)
+            .addAttribute("ConsecutiveErrors", Integer.class, state::consecutiveErrors)
+            .addAttribute("ErrorRate", Double.class, state::errorRate)
+            .addAttribute("JournalErrors", Long.class, errors::sum)
+            .register());
+    journal.ifPresent(j -> reload(j, identity));
     this.delayedWorks.put(new DelayedIdentity(Duration.ZERO, identity));
   }
 
   @SuppressWarnings("unchecked")
   @Override
   public <T extends HasBeanObject> List<T> metrics(Class<T> metricClass, int identity, long since) {
-    return (List<T>)
-        (storages.computeIfAbsent(metricClass, (ignore) -> new MetricStorage<>(metricClass)))
-                .storage
-                .getOrDefault(identity, MetricStorage.emptyStorage())
-                // query range [since, threadTime)
-                // It's design as a half-open interval for a very specific reason.
-                // Other threads might insert metrics at the minimum thread time moment.
-                // Have to exclude that point of metrics, to prevent client miss any metrics.
-                .subMap(since, true, threadTime.read(), false)
-                .values()
-                .stream()
-                .flatMap(Collection::stream)
-                .collect(Collectors.toUnmodifiableList());
+    var storage = storages.get(metricClass);
+    if (storage == null) return List.of();
+    // query range [since, threadTime)
+    // It's design as a half-open interval for a very specific reason.
+    // Other threads might insert metrics at the minimum thread time moment.
+    // Have to exclude that point of metrics, to prevent client miss any metrics.
+    return Collections.unmodifiableList(
+        (List<T>) storage.range(identity, since, threadTime.read()));
+  }
+
+  @Override
+  public long version() {
+    return version.get();
+  }
+
+  /**
+   * Build the {@link ClusterBean} incrementally. The beans and the replica index of an identity are
+   * reused until new metrics of that identity are stored or expired, and the whole snapshot is
+   * reused until {@link MetricCollectorImpl#version()} is changed.
+   */
+  @Override
+  public synchronized Snapshot snapshot() {
+    var current = version.get();
+    if (latestSnapshot != null && latestSnapshot.version() == current) return latestSnapshot;
+
+    var watermark = threadTime.read();
+    var complete = true;
+    var all = new HashMap<Integer, Collection<HasBeanObject>>();
+    var byReplica = new HashMap<TopicPartitionReplica, Collection<HasBeanObject>>();
+    for (var identity : listIdentities()) {
+      var lastChange = lastChanges.getOrDefault(identity, new AtomicLong(-1)).get();
+      var snapshot = identitySnapshots.get(identity);
+      if (snapshot == null || snapshot.version != lastChange) {
+        snapshot = new IdentitySnapshot(identity, lastChange, watermark);
+        if (snapshot.complete) identitySnapshots.put(identity, snapshot);
+        else identitySnapshots.remove(identity);
+      }
+      complete &= snapshot.complete;
+      all.put(identity, snapshot.beans);
+      byReplica.putAll(snapshot.byReplica);
+    }
+    // drop the snapshots of the identities which are gone
+    identitySnapshots.keySet().retainAll(all.keySet());
+
+    var clusterBean =
+        ClusterBean.of(Collections.unmodifiableMap(all), Collections.unmodifiableMap(byReplica));
+    var snapshotVersion = complete ? current : -1;
+    var snapshot =
+        new Snapshot() {
+          @Override
+          public long version() {
+            return snapshotVersion;
+          }
+
+          @Override
+          public ClusterBean clusterBean() {
+            return clusterBean;
+          }
+        };
+    if (complete) latestSnapshot = snapshot;
+    return snapshot;
+  }
+
+  private void markChanged(int identity) {
+    var changed = version.incrementAndGet();
+    lastChanges
+        .computeIfAbsent(identity, (ignore) -> new AtomicLong(-1))
+        .accumulateAndGet(changed, Math::max);
+  }
+
+  /**
+   * Load the metrics of the latest expiration window from the journal. The journal can be shared
+   * with other collectors, so only the metrics of the given identity are loaded.
+   */
+  private void reload(MetricJournal journal, int identity) {
+    var metrics = new ArrayList<HasBeanObject>();
+    journal.replay(
+        System.currentTimeMillis() - expiration.toMillis(),
+        (id, metric) -> {
+          if (id == identity) metrics.add(metric);
+        });
+    // store them at once, so the storages are sized by the MBeans rather than by a single metric
+    store(identity, metrics);
+    if (!metrics.isEmpty()) markChanged(identity);
   }
 
   /** Store the metrics into the storage of specific identity */
   private void store(int identity, Collection<? extends HasBeanObject> metrics) {
-    metrics.forEach(
-        (metric) ->
-            storages
-                .computeIfAbsent(
-                    metric.getClass(), (ignore) -> new MetricStorage<>(metric.getClass()))
-                .put(identity, metric));
+    metrics.stream()
+        .collect(Collectors.groupingBy(HasBeanObject::getClass))
+        .forEach(
+            (metricClass, sameClass) ->
+                storages
+                    .computeIfAbsent(
+                        metricClass,
+                        (ignore) -> new MetricStorage<>(metricClass, capacity(), expiration))
+                    .put(identity, sameClass));
+  }
+
+  /** The number of samples of a single MBean in a retention window */
+  private int capacity() {
+    return (int) Math.max(1, expiration.toMillis() / Math.max(1, interval.toMillis())) + 1;
+  }
+
+  /**
+   * @return the number of distinct MBeans of the metrics. A sample has a metric per MBean, so a
+   *     storage receives this number of metrics from each sample.
+   */
+  private static int beans(Collection<? extends HasBeanObject> metrics) {
+    return (int)
+        metrics.stream()
+            .map(
+                m ->
+                    m.beanObject() == null
+                        ? m
+                        : Map.entry(m.beanObject().domainName(), m.beanObject().properties()))
+            .distinct()
+            .count();
   }
 
   /** Return a {@link Runnable} that perform the metric sampling task */
@@ -165,6 +349,8 @@ public class MetricCollectorImpl implements MetricCollector {
     return () -> {
       while (!Thread.currentThread().isInterrupted()) {
         DelayedIdentity identity = null;
+        var start = System.currentTimeMillis();
+        var succeed = false;
         try {
           identity = delayedWorks.poll(5, TimeUnit.MILLISECONDS);
           if (identity == null) {
@@ -173,29 +359,41 @@ public class MetricCollectorImpl implements MetricCollector {
           }
           var id = identity.id();
           var client = mBeanClients.get(id);
-
-          // TODO: employ better sampling mechanism
-          // see https://github.com/skiptests/astraea/pull/1035#discussion_r1010506993
-          // see https://github.com/skiptests/astraea/pull/1035#discussion_r1011079711
-
-          // for each fetcher, perform the fetching and store the metrics
-          fetchers.stream()
-              .map(
-                  entry -> {
-                    try {
-                      return entry.getKey().fetch(client);
-                    } catch (NoSuchElementException e) {
-                      entry.getValue().accept(id, e);
-                      return Collections.<HasBeanObject>emptyList();
-                    }
-                  })
-              .peek(metrics -> store(id, metrics))
-              .forEach(
-                  i -> {
-                    // Intentional sleep, make sure the recent result is published
-                    Utils.packException(() -> TimeUnit.MILLISECONDS.sleep(1));
-                    threadTime.update(threadId, System.currentTimeMillis());
-                  });
+          var requestsBefore = client.requestCount();
+          start = System.currentTimeMillis();
+          samplingStates.get(id).start(start);
+
+          // perform the merged queries of all fetchers concurrently, and store the metrics
+          var results =
+              plan.fetch(
+                  client,
+                  (fetcher, e) ->
+                      fetchers.stream()
+                          .filter(entry -> entry.getKey() == fetcher)
+                          .forEach(entry -> entry.getValue().accept(id, e)),
+                  fetchExecutor,
+                  fetchTimeout);
+          results.values().forEach(metrics -> store(id, metrics));
+          // The metrics created in this millisecond are published by the next update, since the
+          // query range is a half-open interval. see MetricCollectorImpl#metrics
+          threadTime.update(threadId, System.currentTimeMillis());
+          if (results.values().stream().anyMatch(metrics -> !metrics.isEmpty())) markChanged(id);
+          requestsPerFetch.get(id).set(client.requestCount() - requestsBefore);
+          succeed = true;
+          journal.ifPresent(
+              j ->
+                  results
+                      .values()
+                      .forEach(
+                          metrics -> {
+                            // a rejected batch doesn't stop the other batches from being journaled
+                            try {
+                              j.append(id, metrics);
+                            } catch (RuntimeException e) {
+                              journalErrors.get(id).increment();
+                              e.printStackTrace();
+                            }
+                          }));
         } catch (RuntimeException e) {
           if (e.getCause() instanceof InterruptedException)
             // swallow the interrupt exception and exit immediately
@@ -208,7 +406,13 @@ public class MetricCollectorImpl implements MetricCollector {
           e.printStackTrace();
         } finally {
           // if we pull out an identity, we must put it back
-          if (identity != null) delayedWorks.put(new DelayedIdentity(interval, identity.id()));
+          if (identity != null) {
+            var state = samplingStates.get(identity.id());
+            var end = System.currentTimeMillis();
+            var deadline = succeed ? state.succeed(start, end) : state.fail(start, end);
+            delayedWorks.put(
+                new DelayedIdentity(Duration.ofMillis(Math.max(0, deadline - end)), identity.id()));
+          }
         }
       }
     };
@@ -219,9 +423,11 @@ public class MetricCollectorImpl implements MetricCollector {
     return () -> {
       try {
         var before = System.currentTimeMillis() - expiration.toMillis();
-        for (var storage : this.storages.values()) storage.clear(before);
-      } catch (InterruptedException e) {
-        Thread.currentThread().interrupt();
+        journal.ifPresent(j -> j.expire(before));
+        this.storages.values().stream()
+            .flatMap(storage -> storage.clear(before).stream())
+            .distinct()
+            .forEach(this::markChanged);
       } catch (Exception e) {
         e.printStackTrace();
       }
@@ -233,48 +439,66 @@ public class MetricCollectorImpl implements MetricCollector {
     // do an interrupt shutdown so sampling threads know it is time to stop
     this.executorService.shutdownNow();
     Utils.packException(() -> this.executorService.awaitTermination(20, TimeUnit.SECONDS));
+    this.fetchExecutor.shutdownNow();
+    this.journal.ifPresent(MetricJournal::close);
     this.mBeanClients.forEach((ignore, client) -> client.close());
+    this.registeredMBeans.values().forEach(MBeanRegister::unregister);
   }
 
   private static class MetricStorage<T extends HasBeanObject> {
-    private static final ConcurrentNavigableMap<Long, ConcurrentLinkedQueue<?>> EMPTY_STORAGE =
-        new ConcurrentSkipListMap<>();
-
-    @SuppressWarnings({"unchecked", "rawtypes"})
-    private static <T> ConcurrentNavigableMap<Long, ConcurrentLinkedQueue<T>> emptyStorage() {
-      return ((ConcurrentSkipListMap) EMPTY_STORAGE);
-    }
 
     private final Class<T> theClass;
-    private final Map<Integer, ConcurrentNavigableMap<Long, ConcurrentLinkedQueue<T>>> storage;
-    private final ReentrantLock cleanerLock;
+    private final Map<Integer, RingBuffer<T>> storage;
+    // the samples of a single MBean in a retention window
+    private final int capacity;
+    private final Duration retention;
 
-    public MetricStorage(Class<T> theClass) {
+    public MetricStorage(Class<T> theClass, int capacity, Duration retention) {
       this.theClass = theClass;
-      this.cleanerLock = new ReentrantLock();
+      this.capacity = capacity;
+      this.retention = retention;
       this.storage = new ConcurrentHashMap<>();
     }
 
+    /**
+     * Put the metrics of a sample. The ring of a new identity is sized by the MBeans of the sample,
+     * since it keeps the samples of all of them.
+     */
     @SuppressWarnings("unchecked")
-    public void put(int identity, HasBeanObject metric) {
-      storage
-          .computeIfAbsent(identity, (ignore) -> new ConcurrentSkipListMap<>())
-          .computeIfAbsent(metric.createdTimestamp(), (ignore) -> new ConcurrentLinkedQueue<>())
-          .add((T) metric);
+    public void put(int identity, Collection<? extends HasBeanObject> metrics) {
+      var ring =
+          storage.computeIfAbsent(
+              identity,
+              (ignore) -> new RingBuffer<>(capacity * beans(metrics), retention.toMillis()));
+      metrics.forEach(metric -> ring.add(metric.createdTimestamp(), (T) metric));
     }
 
-    /** Scanning from the last metrics, delete any metrics that is sampled before the given time. */
-    public void clear(long before) throws InterruptedException {
-      try {
-        cleanerLock.lockInterruptibly();
-        storage.forEach(
-            (identity, map) ->
-                map.entrySet().stream()
-                    .takeWhile(x -> x.getKey() < before)
-                    .forEach(x -> map.remove(x.getKey())));
-      } finally {
-        if (cleanerLock.isHeldByCurrentThread()) cleanerLock.unlock();
-      }
+    /** Retrieve the metrics in the half-open interval [since, until). */
+    public List<T> range(int identity, long since, long until) {
+      var buffer = storage.get(identity);
+      if (buffer == null) return List.of();
+      return buffer.range(since, until);
+    }
+
+    /**
+     * Delete any metrics that is sampled before the given time.
+     *
+     * @return the identities having expired metrics
+     */
+    public Set<Integer> clear(long before) {
+      return storage.entrySet().stream()
+          .filter(e -> e.getValue().expire(before) > 0)
+          .map(Map.Entry::getKey)
+          .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * @return the timestamp of the newest metric of the identity
+     */
+    public long latest(int identity) {
+      var buffer = storage.get(identity);
+      if (buffer == null) return Long.MIN_VALUE;
+      return buffer.latest();
     }
 
     public Class<T> metricClass() {
@@ -282,12 +506,35 @@ public class MetricCollectorImpl implements MetricCollector {
     }
   }
 
+  /** The beans of an identity and their replica index */
+  private class IdentitySnapshot {
+
+    private final long version;
+    // false if some metrics are not ready for consume. see MetricCollectorImpl#metrics
+    private final boolean complete;
+    private final Collection<HasBeanObject> beans;
+    private final Map<TopicPartitionReplica, Collection<HasBeanObject>> byReplica;
+
+    private IdentitySnapshot(int identity, long version, long watermark) {
+      this.version = version;
+      this.complete =
+          storages.values().stream().allMatch(storage -> storage.latest(identity) < watermark);
+      this.beans =
+          storages.values().stream()
+              .flatMap(storage -> storage.range(identity, 0, watermark).stream())
+              .collect(Collectors.toUnmodifiableSet());
+      this.byReplica = ClusterBean.mapByReplica(identity, beans);
+    }
+  }
+
   public static class Builder {
 
     private int threadCount = Runtime.getRuntime().availableProcessors();
     private Duration expiration = Duration.ofMinutes(3);
     private Duration interval = Duration.ofSeconds(1);
     private Duration cleanerInterval = Duration.ofSeconds(30);
+    private Duration fetchTimeout = DEFAULT_FETCH_TIMEOUT;
+    private Path journalDirectory = null;
 
     Builder() {}
 
@@ -311,8 +558,29 @@ public class MetricCollectorImpl implements MetricCollector {
       return this;
     }
 
+    /** The sample of an identity fails if its metrics are not fetched in the timeout. */
+    public Builder fetchTimeout(Duration timeout) {
+      this.fetchTimeout = Objects.requireNonNull(timeout);
+      return this;
+    }
+
+    /**
+     * Persist the sampled metrics to the given folder, and reload the metrics of the latest
+     * expiration window from it when an identity is registered. See {@link MetricJournal}.
+     */
+    public Builder journal(Path directory) {
+      this.journalDirectory = Objects.requireNonNull(directory);
+      return this;
+    }
+
     public MetricCollector build() {
-      return new MetricCollectorImpl(threadCount, expiration, interval, cleanerInterval);
+      return new MetricCollectorImpl(
+          threadCount,
+          expiration,
+          interval,
+          cleanerInterval,
+          fetchTimeout,
+          Optional.ofNullable(journalDirectory));
     }
   }
 
@@ -0,0 +1,384 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.metrics.collector;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import org.astraea.common.Utils;
+import org.astraea.common.metrics.AttributeCodec;
+import org.astraea.common.metrics.BeanObject;
+import org.astraea.common.metrics.HasBeanObject;
+
+/**
+ * An append-only journal of the sampled metrics. It is used to reload the recent metrics after a
+ * restart.
+ *
+ * <p>The journal is a folder of memory-mapped segments. A segment holds the metrics sampled in a
+ * fixed period ({@code segmentDuration}) and it is named by the start of the period, so an expired
+ * segment can be deleted without reading it. The collectors of a JVM which open the same folder
+ * with the same settings share a journal, so they write the same segments. Every journal creates
+ * new segments, hence the writers sharing the same folder don't overwrite each other. A journal
+ * locks its active segment, and the locked segments are never deleted by the other writers.
+ *
+ * <p>A segment is a sequence of records. Each record is an int length followed by the payload, and
+ * the length is written after the payload, so a partially written record is never read. The
+ * strings (class names, domains, property keys and so on) are stored once per segment and then
+ * referenced by index.
+ *
+ * <p>Only the metrics which can be rebuilt from the {@link BeanObject} are journaled. That is, the
+ * metric class has a public constructor taking a {@link BeanObject} and all attributes are
+ * primitive wrappers or strings.
+ */
+class MetricJournal implements AutoCloseable {
+
+  static final String SUFFIX = ".journal";
+  static final int DEFAULT_SEGMENT_BYTES = 16 * 1024 * 1024;
+
+  // the journals opened by this JVM. They are keyed by the folder and the settings
+  private static final Map<List<Object>, MetricJournal> OPENED = new HashMap<>();
+
+  static MetricJournal open(Path directory, Duration segmentDuration) {
+    return open(directory, segmentDuration, DEFAULT_SEGMENT_BYTES);
+  }
+
+  /**
+   * @return the journal of the folder. It is shared with the other callers opening the same folder
+   *     by the same settings, and the segments are closed after all callers close the journal.
+   */
+  static MetricJournal open(Path directory, Duration segmentDuration, int segmentBytes) {
+    Utils.packException(() -> Files.createDirectories(directory));
+    var realPath = Utils.packException(() -> directory.toRealPath());
+    var segmentMs = Math.max(1, segmentDuration.toMillis());
+    Utils.requirePositive(segmentBytes);
+    synchronized (OPENED) {
+      var journal =
+          OPENED.computeIfAbsent(
+              List.of(realPath, segmentMs, segmentBytes),
+              ignored -> new MetricJournal(realPath, segmentMs, segmentBytes));
+      journal.references++;
+      return journal;
+    }
+  }
+
+  private final Path directory;
+  private final long segmentMs;
+  private final int segmentBytes;
+  // guarded by "OPENED"
+  private int references = 0;
+  // guarded by "this"
+  private Segment active;
+
+  private MetricJournal(Path directory, long segmentMs, int segmentBytes) {
+    this.directory = directory;
+    this.segmentMs = segmentMs;
+    this.segmentBytes = segmentBytes;
+  }
+
+  /**
+   * Append the metrics of an identity. The metrics which can't be rebuilt are ignored.
+   *
+   * @param identity the identity of metrics
+   * @param metrics to append
+   * @throws IllegalArgumentException if a metric is larger than a segment. The metrics before it
+   *     are appended.
+   */
+  synchronized void append(int identity, Collection<? extends HasBeanObject> metrics) {
+    for (var metric : metrics) {
+      var className = metric.getClass().getName();
+      var bean = metric.beanObject();
+      if (bean == null
+          || HasBeanObject.constructor(className).isEmpty()
+          || !AttributeCodec.supported(bean)) continue;
+      var timestamp = bean.createdTimestamp();
+      if (active == null || timestamp >= active.base + segmentMs) roll(timestamp);
+      if (!active.write(identity, className, bean)) {
+        // the segment is full, retry with a new segment
+        roll(timestamp);
+        if (!active.write(identity, className, bean))
+          throw new IllegalArgumentException(
+              "the metric "
+                  + bean
+                  + " is larger than the segment size: "
+                  + segmentBytes
+                  + " bytes");
+      }
+    }
+  }
+
+  /**
+   * Read the journaled metrics.
+   *
+   * @param since read the metrics created since this time
+   * @param consumer accept the identity and the rebuilt metric
+   */
+  void replay(long since, BiConsumer<Integer, HasBeanObject> consumer) {
+    for (var path : segments()) {
+      if (base(path) + segmentMs <= since) continue;
+      Utils.swallowException(
+          () -> {
+            try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+              read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), since, consumer);
+            }
+          });
+    }
+  }
+
+  /**
+   * Delete the segments which contain only the metrics created before the given time. The segments
+   * which are still written by other journals are kept.
+   *
+   * @param before the expired time
+   */
+  synchronized void expire(long before) {
+    for (var path : segments()) {
+      if (active != null && active.path.equals(path)) continue;
+      if (base(path) + segmentMs <= before) Utils.swallowException(() -> deleteIfIdle(path));
+    }
+  }
+
+  @Override
+  public void close() {
+    synchronized (OPENED) {
+      if (references == 0 || --references > 0) return;
+      OPENED.values().remove(this);
+    }
+    synchronized (this) {
+      if (active != null) active.close();
+      active = null;
+    }
+  }
+
+  /**
+   * @return the segments ordered by their start time
+   */
+  List<Path> segments() {
+    try (var files = Files.list(directory)) {
+      return files
+          .filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+          .sorted(Comparator.comparingLong(MetricJournal::base))
+          .collect(Collectors.toUnmodifiableList());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void roll(long timestamp) {
+    if (active != null) active.close();
+    var base = timestamp - Math.floorMod(timestamp, segmentMs);
+    active = new Segment(directory, base, segmentBytes);
+  }
+
+  /** Delete the segment unless it is locked by the journal writing it. */
+  private static void deleteIfIdle(Path segment) throws IOException {
+    try (var channel =
+        FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      // the lock is released by closing the channel
+      if (channel.tryLock() == null) return;
+      Files.deleteIfExists(segment);
+    } catch (OverlappingFileLockException e) {
+      // the segment is written by another journal of this JVM
+    }
+  }
+
+  private static long base(Path segment) {
+    var name = segment.getFileName().toString();
+    return Long.parseLong(name.substring(0, name.indexOf('-')));
+  }
+
+  private static void read(
+      ByteBuffer buffer, long since, BiConsumer<Integer, HasBeanObject> consumer)
+      throws IOException {
+    var strings = new ArrayList<String>();
+    while (buffer.remaining() >= Integer.BYTES) {
+      var length = buffer.getInt();
+      if (length <= 0 || length > buffer.remaining()) return;
+      var bytes = new byte[length];
+      buffer.get(bytes);
+      var record = new DataInputStream(new ByteArrayInputStream(bytes));
+
+      var identity = readVarInt(record);
+      var timestamp = record.readLong();
+      var className = readString(record, strings);
+      var domain = readString(record, strings);
+      var properties = new HashMap<String, String>();
+      for (var i = readVarInt(record); i > 0; i--)
+        properties.put(readString(record, strings), readString(record, strings));
+      var attributes = new HashMap<String, Object>();
+      for (var i = readVarInt(record); i > 0; i--)
+        attributes.put(
+            readString(record, strings),
+            AttributeCodec.read(record, () -> readString(record, strings)));
+      // the strings must be read even if the record is skipped, since later records refer to them
+      if (timestamp < since) continue;
+      var bean = new BeanObject(domain, properties, attributes, timestamp);
+      HasBeanObject.constructor(className)
+          .ifPresent(c -> consumer.accept(identity, c.apply(bean)));
+    }
+  }
+
+  private static String readString(DataInput input, List<String> strings) throws IOException {
+    var ref = readVarInt(input);
+    if (ref > 0) return strings.get(ref - 1);
+    var bytes = new byte[readVarInt(input)];
+    input.readFully(bytes);
+    var string = new String(bytes, StandardCharsets.UTF_8);
+    strings.add(string);
+    return string;
+  }
+
+  private static int readVarInt(DataInput input) throws IOException {
+    var value = 0;
+    var shift = 0;
+    byte b;
+    do {
+      b = input.readByte();
+      value |= (b & 0x7f) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    // zigzag decoding
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static class Segment {
+    private final Path path;
+    private final long base;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    // the index of the strings written to this segment
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final Encoder encoder = new Encoder();
+
+    private Segment(Path directory, long base, int size) {
+      this.base = base;
+      this.path = Utils.packException(() -> Files.createTempFile(directory, base + "-", SUFFIX));
+      this.channel =
+          Utils.packException(
+              () -> FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE));
+      // keep the other writers from deleting this segment. It is released by closing the channel
+      Utils.packException(() -> channel.lock());
+      this.buffer = Utils.packException(() -> channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    /**
+     * @return false if there is no enough space for the record
+     */
+    boolean write(int identity, String className, BeanObject bean) {
+      var pending = new HashMap<String, Integer>();
+      encoder.reset();
+      encoder.writeVarInt(identity);
+      encoder.writeLong(bean.createdTimestamp());
+      encoder.writeString(className, strings, pending);
+      encoder.writeString(bean.domainName(), strings, pending);
+      encoder.writeVarInt(bean.properties().size());
+      bean.properties()
+          .forEach(
+              (k, v) -> {
+                encoder.writeString(k, strings, pending);
+                encoder.writeString(v, strings, pending);
+              });
+      encoder.writeVarInt(bean.attributes().size());
+      bean.attributes()
+          .forEach(
+              (k, v) -> {
+                encoder.writeString(k, strings, pending);
+                encoder.writeValue(v, strings, pending);
+              });
+      // keep 4 bytes for the end mark
+      if (buffer.remaining() < encoder.size() + 2 * Integer.BYTES) return false;
+      var position = buffer.position();
+      buffer.position(position + Integer.BYTES);
+      buffer.put(encoder.bytes(), 0, encoder.size());
+      // publish the record by writing its length
+      buffer.putInt(position, encoder.size());
+      strings.putAll(pending);
+      return true;
+    }
+
+    void close() {
+      Utils.swallowException(
+          () -> {
+            buffer.force();
+            channel.truncate(buffer.position());
+            channel.close();
+          });
+    }
+  }
+
+  private static class Encoder extends ByteArrayOutputStream {
+
+    private final DataOutputStream output = new DataOutputStream(this);
+
+    byte[] bytes() {
+      return buf;
+    }
+
+    void writeLong(long value) {
+      for (var i = Long.BYTES - 1; i >= 0; i--) write((int) (value >>> (i * 8)));
+    }
+
+    void writeVarInt(int value) {
+      // zigzag encoding, so the small negative numbers are short as well
+      var v = (value << 1) ^ (value >> 31);
+      while ((v & ~0x7f) != 0) {
+        write((v & 0x7f) | 0x80);
+        v >>>= 7;
+      }
+      write(v);
+    }
+
+    void writeString(String value, Map<String, Integer> strings, Map<String, Integer> pending) {
+      var index = strings.get(value);
+      if (index == null) index = pending.get(value);
+      if (index != null) {
+        writeVarInt(index + 1);
+        return;
+      }
+      pending.put(value, strings.size() + pending.size());
+      var bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(0);
+      writeVarInt(bytes.length);
+      write(bytes, 0, bytes.length);
+    }
+
+    void writeValue(Object value, Map<String, Integer> strings, Map<String, Integer> pending) {
+      Utils.packException(
+          () -> AttributeCodec.write(output, value, v -> writeString(v, strings, pending)));
+    }
+  }
+}
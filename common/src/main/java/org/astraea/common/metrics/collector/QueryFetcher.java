@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.metrics.collector;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.astraea.common.metrics.BeanObject;
+import org.astraea.common.metrics.BeanQuery;
+import org.astraea.common.metrics.HasBeanObject;
+import org.astraea.common.metrics.MBeanClient;
+
+/**
+ * A {@link Fetcher} which declares the MBeans it needs instead of querying them by itself. The
+ * queries of multiple {@link QueryFetcher}s can be merged, so the overlapping MBeans are fetched
+ * only once. See {@link Fetcher#of(Collection)}.
+ */
+public interface QueryFetcher extends Fetcher {
+
+  /**
+   * @return the MBeans required by this fetcher
+   */
+  Set<BeanQuery> queries();
+
+  /**
+   * Convert the fetched MBeans to the metric objects.
+   *
+   * @param beans the MBeans matched by {@link QueryFetcher#queries()}
+   * @return the metrics
+   * @throws java.util.NoSuchElementException if the required MBeans are not available
+   */
+  Collection<? extends HasBeanObject> wrap(Collection<BeanObject> beans);
+
+  @Override
+  default Collection<? extends HasBeanObject> fetch(MBeanClient client) {
+    return wrap(
+        queries().stream()
+            .flatMap(query -> client.queryBeans(query).stream())
+            .distinct()
+            .collect(Collectors.toUnmodifiableList()));
+  }
+}
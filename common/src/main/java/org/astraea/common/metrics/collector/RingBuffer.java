@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.metrics.collector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.astraea.common.Utils;
+
+/**
+ * A time-ordered ring buffer. The timestamps are kept in a primitive array and the values are kept
+ * in a parallel object array, so there is no per-sample node or boxed key.
+ *
+ * <p>Old samples are dropped by advancing the head of the ring. When the ring is full and its
+ * oldest sample is still inside the retention window, the capacity is doubled. So the capacity
+ * converges to the number of samples one retention window holds and stays there.
+ *
+ * <p>The samples are expected to arrive in timestamp order. A sample that is older than the newest
+ * one is moved into its place, so range reads can always do a binary search.
+ */
+class RingBuffer<T> {
+
+  private final long retentionMs;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private long[] timestamps;
+  private Object[] values;
+  // the physical index of the oldest sample
+  private int head = 0;
+  private int size = 0;
+
+  /**
+   * @param initialCapacity the initial number of slots. It should be the number of samples in a
+   *     retention window, for example {@code expiration / interval} times the number of MBeans
+   *     sharing the ring.
+   * @param retentionMs a full ring can overwrite the samples which are older than this period
+   *     (compared with the incoming sample).
+   */
+  RingBuffer(int initialCapacity, long retentionMs) {
+    this.timestamps = new long[Utils.requirePositive(initialCapacity)];
+    this.values = new Object[initialCapacity];
+    this.retentionMs = retentionMs;
+  }
+
+  void add(long timestamp, T value) {
+    lock.writeLock().lock();
+    try {
+      if (size == timestamps.length) {
+        if (timestamps[head] < timestamp - retentionMs) dropOldest();
+        else grow();
+      }
+      // shift the newer samples to keep the timestamps ordered. It is a no-op in normal case.
+      var index = size;
+      while (index > 0 && timestamps[physical(index - 1)] > timestamp) {
+        timestamps[physical(index)] = timestamps[physical(index - 1)];
+        values[physical(index)] = values[physical(index - 1)];
+        index--;
+      }
+      timestamps[physical(index)] = timestamp;
+      values[physical(index)] = value;
+      size++;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return the samples whose timestamp is in the half-open interval [from, to)
+   */
+  @SuppressWarnings("unchecked")
+  List<T> range(long from, long to) {
+    lock.readLock().lock();
+    try {
+      var start = lowerBound(from);
+      var end = Math.max(start, lowerBound(to));
+      var result = new ArrayList<T>(end - start);
+      for (var i = start; i < end; i++) result.add((T) values[physical(i)]);
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * drop the samples which are created before the given time.
+   *
+   * @return the number of dropped samples
+   */
+  int expire(long before) {
+    lock.writeLock().lock();
+    try {
+      var count = 0;
+      while (size > 0 && timestamps[head] < before) {
+        dropOldest();
+        count++;
+      }
+      return count;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return the timestamp of the newest sample, or {@link Long#MIN_VALUE} if there is no sample
+   */
+  long latest() {
+    lock.readLock().lock();
+    try {
+      return size == 0 ? Long.MIN_VALUE : timestamps[physical(size - 1)];
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  int size() {
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  int capacity() {
+    lock.readLock().lock();
+    try {
+      return timestamps.length;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return the logical index of the first sample whose timestamp is not less than the given time
+   */
+  private int lowerBound(long timestamp) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      var mid = (low + high) >>> 1;
+      if (timestamps[physical(mid)] < timestamp) low = mid + 1;
+      else high = mid;
+    }
+    return low;
+  }
+
+  private void dropOldest() {
+    // release the reference so the sample can be collected
+    values[head] = null;
+    head = (head + 1) % timestamps.length;
+    size--;
+  }
+
+  private void grow() {
+    var newTimestamps = new long[timestamps.length * 2];
+    var newValues = new Object[timestamps.length * 2];
+    for (var i = 0; i < size; i++) {
+      newTimestamps[i] = timestamps[physical(i)];
+      newValues[i] = values[physical(i)];
+    }
+    timestamps = newTimestamps;
+    values = newValues;
+    head = 0;
+  }
+
+  private int physical(int logicalIndex) {
+    var index = head + logicalIndex;
+    return index >= timestamps.length ? index - timestamps.length : index;
+  }
+}
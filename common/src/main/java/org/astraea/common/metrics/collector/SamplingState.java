@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.metrics.collector;
+
+import java.time.Duration;
+
+/**
+ * Track the sampling of an identity and decide when to sample it again.
+ *
+ * <p>A healthy identity is sampled at a fixed rate: the next deadline is the previous deadline
+ * plus the interval, so the fetch time doesn't delay the following samples. If a fetch takes
+ * longer than the interval, the missed deadlines are skipped instead of being sampled in a burst.
+ *
+ * <p>A failed identity is backed off exponentially: the n-th consecutive failure waits {@code
+ * interval * 2^n}, up to {@code interval * 2^MAX_BACKOFF_EXPONENT}. The first success resets the
+ * backoff.
+ */
+class SamplingState {
+
+  static final int MAX_BACKOFF_EXPONENT = 6;
+  // the weight of the latest fetch in the error rate
+  private static final double ERROR_RATE_ALPHA = 0.2;
+
+  private final long intervalMs;
+  private long deadline;
+  private int consecutiveErrors = 0;
+  private double errorRate = 0;
+  private long fetchTime = 0;
+  private long queueLag = 0;
+  private long skippedSamples = 0;
+
+  /**
+   * @param interval the target sampling interval
+   * @param now the first deadline
+   */
+  SamplingState(Duration interval, long now) {
+    this.intervalMs = Math.max(1, interval.toMillis());
+    this.deadline = now;
+  }
+
+  /**
+   * @return the time to sample this identity
+   */
+  synchronized long deadline() {
+    return deadline;
+  }
+
+  /**
+   * record the moment a sampler thread picks up this identity.
+   *
+   * @param now current time
+   */
+  synchronized void start(long now) {
+    queueLag = Math.max(0, now - deadline);
+  }
+
+  /**
+   * @param start the time the fetch begins
+   * @param end the time the fetch completes
+   * @return the next deadline
+   */
+  synchronized long succeed(long start, long end) {
+    fetchTime = end - start;
+    consecutiveErrors = 0;
+    errorRate = errorRate * (1 - ERROR_RATE_ALPHA);
+    var next = deadline + intervalMs;
+    if (next < end) {
+      var missed = (end - next) / intervalMs + 1;
+      skippedSamples += missed;
+      next += missed * intervalMs;
+    }
+    deadline = next;
+    return next;
+  }
+
+  /**
+   * @param start the time the fetch begins
+   * @param end the time the fetch fails
+   * @return the next deadline
+   */
+  synchronized long fail(long start, long end) {
+    fetchTime = end - start;
+    consecutiveErrors++;
+    errorRate = errorRate * (1 - ERROR_RATE_ALPHA) + ERROR_RATE_ALPHA;
+    var next = end + (intervalMs << Math.min(consecutiveErrors, MAX_BACKOFF_EXPONENT));
+    skippedSamples += Math.max(0, (next - deadline) / intervalMs - 1);
+    deadline = next;
+    return next;
+  }
+
+  /**
+   * @return the time spent by the latest fetch, in milliseconds
+   */
+  synchronized long fetchTime() {
+    return fetchTime;
+  }
+
+  /**
+   * @return the time between the deadline and the moment the latest fetch is picked up, in
+   *     milliseconds. A growing lag means the sampler threads can't keep up.
+   */
+  synchronized long queueLag() {
+    return queueLag;
+  }
+
+  /**
+   * @return the number of deadlines which are not sampled
+   */
+  synchronized long skippedSamples() {
+    return skippedSamples;
+  }
+
+  synchronized int consecutiveErrors() {
+    return consecutiveErrors;
+  }
+
+  /**
+   * @return the exponentially weighted ratio of the failed fetches
+   */
+  synchronized double errorRate() {
+    return errorRate;
+  }
+}
@@ -184,14 +184,33 @@ public class MBeanRegister {
       };
     }
 
-    /** Build this Mbean, and register it to the local JVM MBean server. */
-    public void register() {
-      Utils.packException(
+    /**
+     * Build this Mbean, and register it to the local JVM MBean server.
+     *
+     * @return the name of the registered MBean. It can be used to unregister the MBean by {@link
+     *     MBeanRegister#unregister(ObjectName)}.
+     */
+    public ObjectName register() {
+      return Utils.packException(
           () -> {
             var name = new ObjectName(domainName, new Hashtable<>(properties));
             var mBean = buildMBean();
             ManagementFactory.getPlatformMBeanServer().registerMBean(mBean, name);
+            return name;
           });
     }
   }
+
+  /**
+   * Remove the MBean from the local JVM MBean server. Nothing happens if there is no such MBean.
+   *
+   * @param name the name of the MBean
+   */
+  public static void unregister(ObjectName name) {
+    var server = ManagementFactory.getPlatformMBeanServer();
+    Utils.packException(
+        () -> {
+          if (server.isRegistered(name)) server.unregisterMBean(name);
+        });
+  }
 }
@@ -21,19 +21,18 @@ import org.astraea.common.metrics.MBeanClient;
 
 public final class HostMetrics {
 
+  public static final BeanQuery OPERATING_SYSTEM_QUERY =
+      BeanQuery.builder().domainName("java.lang").property("type", "OperatingSystem").build();
+
+  public static final BeanQuery JVM_MEMORY_QUERY =
+      BeanQuery.builder().domainName("java.lang").property("type", "Memory").build();
+
   public static OperatingSystemInfo operatingSystem(MBeanClient mBeanClient) {
-    return new OperatingSystemInfo(
-        mBeanClient.queryBean(
-            BeanQuery.builder()
-                .domainName("java.lang")
-                .property("type", "OperatingSystem")
-                .build()));
+    return new OperatingSystemInfo(mBeanClient.queryBean(OPERATING_SYSTEM_QUERY));
   }
 
   public static JvmMemory jvmMemory(MBeanClient mBeanClient) {
-    return new JvmMemory(
-        mBeanClient.queryBean(
-            BeanQuery.builder().domainName("java.lang").property("type", "Memory").build()));
+    return new JvmMemory(mBeanClient.queryBean(JVM_MEMORY_QUERY));
   }
 
   private HostMetrics() {}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.partitioner;
+
+import org.astraea.common.admin.ClusterBean;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.ReplicaInfo;
+import org.astraea.common.cost.BrokerCost;
+import org.astraea.common.cost.HasBrokerCost;
+import org.astraea.common.metrics.collector.MetricCollector;
+
+/**
+ * Cache the broker cost of a dispatcher. The cost is computed again only if the version of metrics,
+ * the cluster or the cost function is changed, so the dispatchers don't rebuild the {@link
+ * ClusterBean} and the cost for every record.
+ */
+public final class BrokerCostCache {
+
+  private final MetricCollector metricCollector;
+  // all the fields below are guarded by "this"
+  private HasBrokerCost costFunction;
+  private ClusterInfo<? extends ReplicaInfo> clusterInfo;
+  private long version;
+  private BrokerCost cost;
+
+  public BrokerCostCache(MetricCollector metricCollector) {
+    this.metricCollector = metricCollector;
+  }
+
+  /**
+   * @param costFunction to compute the cost
+   * @param clusterInfo to compute the cost. The clusters are compared by identity, since the
+   *     dispatchers reuse the same {@link ClusterInfo} until the metadata is changed.
+   * @return the cost of the latest metrics
+   */
+  public synchronized BrokerCost brokerCost(
+      HasBrokerCost costFunction, ClusterInfo<? extends ReplicaInfo> clusterInfo) {
+    if (cost != null
+        && this.costFunction == costFunction
+        && this.clusterInfo == clusterInfo
+        && !metricCollector.changedSince(version)) return cost;
+    var snapshot = metricCollector.snapshot();
+    cost = costFunction.brokerCost(clusterInfo, snapshot.clusterBean());
+    this.costFunction = costFunction;
+    this.clusterInfo = clusterInfo;
+    version = snapshot.version();
+    return cost;
+  }
+}
@@ -60,6 +60,8 @@ public class StrictCostDispatcher implements Dispatcher {
   final MetricCollector metricCollector =
       MetricCollector.builder().interval(Duration.ofSeconds(4)).build();
 
+  private final BrokerCostCache brokerCost = new BrokerCostCache(metricCollector);
+
   Duration roundRobinLease;
 
   HasBrokerCost costFunction = HasBrokerCost.EMPTY;
@@ -120,8 +122,7 @@ public class StrictCostDispatcher implements Dispatcher {
   synchronized void tryToUpdateRoundRobin(ClusterInfo<ReplicaInfo> clusterInfo) {
     if (System.currentTimeMillis() >= timeToUpdateRoundRobin) {
       var roundRobin =
-          RoundRobin.smooth(
-              costToScore(costFunction.brokerCost(clusterInfo, metricCollector.clusterBean())));
+          RoundRobin.smooth(costToScore(brokerCost.brokerCost(costFunction, clusterInfo)));
       var ids =
           clusterInfo.nodes().stream().map(NodeInfo::id).collect(Collectors.toUnmodifiableSet());
       // TODO: make ROUND_ROBIN_LENGTH configurable ???
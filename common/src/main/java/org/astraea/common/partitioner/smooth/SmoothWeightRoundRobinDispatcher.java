@@ -34,12 +34,12 @@ import org.apache.kafka.common.Cluster;
 import org.astraea.common.Configuration;
 import org.astraea.common.Lazy;
 import org.astraea.common.Utils;
-import org.astraea.common.admin.ClusterBean;
 import org.astraea.common.admin.ClusterInfo;
 import org.astraea.common.admin.NodeInfo;
 import org.astraea.common.admin.ReplicaInfo;
 import org.astraea.common.cost.NeutralIntegratedCost;
 import org.astraea.common.metrics.collector.MetricCollector;
+import org.astraea.common.partitioner.BrokerCostCache;
 import org.astraea.common.partitioner.Dispatcher;
 import org.astraea.common.partitioner.PartitionerUtils;
 
@@ -60,6 +60,8 @@ public class SmoothWeightRoundRobinDispatcher implements Dispatcher {
 
   private final NeutralIntegratedCost neutralIntegratedCost = new NeutralIntegratedCost();
 
+  private final BrokerCostCache brokerCost = new BrokerCostCache(metricCollector);
+
   private List<ReplicaInfo> partitions;
 
   public static final String JMX_PORT = "jmx.port";
@@ -69,13 +71,9 @@ public class SmoothWeightRoundRobinDispatcher implements Dispatcher {
       String topic, byte[] key, byte[] value, ClusterInfo<ReplicaInfo> clusterInfo) {
     var targetPartition = unusedPartitions.poll();
     refreshPartitionMetaData(clusterInfo, topic);
+    // the cost is computed again only if the beans of nodes are changed
     Supplier<Map<Integer, Double>> supplier =
-        () -> {
-          // fetch the latest beans for each node
-          var beans = metricCollector.clusterBean().all();
-
-          return neutralIntegratedCost.brokerCost(clusterInfo, ClusterBean.of(beans)).value();
-        };
+        () -> brokerCost.brokerCost(neutralIntegratedCost, clusterInfo).value();
     // just return first partition if there is no available partitions
     if (partitions.isEmpty()) return 0;
 
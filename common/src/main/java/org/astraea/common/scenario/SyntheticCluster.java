@@ -0,0 +1,443 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.scenario;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.commons.math3.distribution.ZipfDistribution;
+import org.apache.commons.math3.random.RandomGeneratorFactory;
+import org.astraea.common.DistributionType;
+import org.astraea.common.Lazy;
+import org.astraea.common.Utils;
+import org.astraea.common.admin.Broker;
+import org.astraea.common.admin.ClusterBean;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.ColumnarClusterInfo;
+import org.astraea.common.admin.Config;
+import org.astraea.common.admin.NodeInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicPartitionReplica;
+import org.astraea.common.metrics.BeanObject;
+import org.astraea.common.metrics.HasBeanObject;
+import org.astraea.common.metrics.broker.LogMetrics;
+import org.astraea.common.metrics.broker.ServerMetrics;
+
+/**
+ * Synthesize a {@link ClusterInfo} and its {@link ClusterBean} in memory, so the balancers and the
+ * cost functions can be measured against a large cluster without hardware. The same builder
+ * arguments, including the seed, always produce the same cluster.
+ *
+ * <p>The size and the write rate of each partition are sampled from the given distributions, and
+ * all the replicas of a partition have the same size. The replicas are laid out by the {@link
+ * Placement}. By default, the leader of a partition is sampled from a Zipf distribution over the
+ * brokers, so the leader skew zero means the leaders are spread evenly. The followers and the data
+ * folders are picked uniformly.
+ *
+ * <p>The metrics are built on the first call of {@link #clusterBean()}. Each replica has the {@link
+ * LogMetrics.Log#SIZE} gauges at the beginning and the end of the metric window, so the size grows
+ * by the write rate. Each broker has the {@link ServerMetrics.BrokerTopic} meters of client and
+ * replication traffic.
+ */
+public final class SyntheticCluster {
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private final ClusterInfo<Replica> clusterInfo;
+  private final Map<TopicPartitionReplica, Long> writeRates;
+  private final long timestamp;
+  private final Duration metricWindow;
+  private final Lazy<ClusterBean> clusterBean = Lazy.of();
+
+  private SyntheticCluster(
+      ClusterInfo<Replica> clusterInfo,
+      Map<TopicPartitionReplica, Long> writeRates,
+      long timestamp,
+      Duration metricWindow) {
+    this.clusterInfo = clusterInfo;
+    this.writeRates = writeRates;
+    this.timestamp = timestamp;
+    this.metricWindow = metricWindow;
+  }
+
+  public ClusterInfo<Replica> clusterInfo() {
+    return clusterInfo;
+  }
+
+  public ClusterBean clusterBean() {
+    return clusterBean.get(this::buildClusterBean);
+  }
+
+  /**
+   * @return the write rate (bytes/second) of each replica
+   */
+  public Map<TopicPartitionReplica, Long> writeRates() {
+    return writeRates;
+  }
+
+  private ClusterBean buildClusterBean() {
+    var beans = new HashMap<Integer, Collection<HasBeanObject>>();
+    var byReplica = new HashMap<TopicPartitionReplica, Collection<HasBeanObject>>();
+    var traffic = new HashMap<Integer, Map<ServerMetrics.BrokerTopic, Long>>();
+    clusterInfo.nodes().forEach(node -> beans.put(node.id(), new ArrayList<>()));
+    var since = timestamp - metricWindow.toMillis();
+    clusterInfo
+        .replicaStream()
+        .forEach(
+            replica -> {
+              var tpr = replica.topicPartitionReplica();
+              var rate = writeRates.get(tpr);
+              var grown = rate * metricWindow.toSeconds();
+              var gauges =
+                  grown == 0
+                      ? List.<HasBeanObject>of(size(replica, replica.size(), timestamp))
+                      : List.<HasBeanObject>of(
+                          size(replica, Math.max(0, replica.size() - grown), since),
+                          size(replica, replica.size(), timestamp));
+              beans.get(replica.nodeInfo().id()).addAll(gauges);
+              byReplica.put(tpr, gauges);
+
+              var brokerTraffic =
+                  traffic.computeIfAbsent(replica.nodeInfo().id(), ignored -> new HashMap<>());
+              if (replica.isLeader()) {
+                var followers = clusterInfo.replicas(replica.topicPartition()).size() - 1;
+                brokerTraffic.merge(ServerMetrics.BrokerTopic.BYTES_IN_PER_SEC, rate, Long::sum);
+                brokerTraffic.merge(ServerMetrics.BrokerTopic.BYTES_OUT_PER_SEC, rate, Long::sum);
+                brokerTraffic.merge(
+                    ServerMetrics.BrokerTopic.REPLICATION_BYTES_OUT_PER_SEC,
+                    rate * followers,
+                    Long::sum);
+              } else
+                brokerTraffic.merge(
+                    ServerMetrics.BrokerTopic.REPLICATION_BYTES_IN_PER_SEC, rate, Long::sum);
+            });
+    traffic.forEach(
+        (id, meters) ->
+            meters.forEach(
+                (type, rate) ->
+                    beans
+                        .get(id)
+                        .add(meter(type, rate, rate * metricWindow.toSeconds(), timestamp))));
+    return ClusterBean.of(beans, byReplica);
+  }
+
+  private static HasBeanObject size(Replica replica, long size, long timestamp) {
+    return new LogMetrics.Log.Gauge(
+        new BeanObject(
+            "kafka.log",
+            Map.of(
+                "type",
+                "Log",
+                "topic",
+                replica.topic(),
+                "partition",
+                String.valueOf(replica.partition()),
+                "name",
+                LogMetrics.Log.SIZE.metricName()),
+            Map.of("Value", size),
+            timestamp));
+  }
+
+  private static HasBeanObject meter(
+      ServerMetrics.BrokerTopic type, long rate, long count, long timestamp) {
+    return new ServerMetrics.BrokerTopic.Meter(
+        new BeanObject(
+            "kafka.server",
+            Map.of("type", "BrokerTopicMetrics", "name", type.metricName()),
+            Map.of(
+                "Count",
+                count,
+                "MeanRate",
+                (double) rate,
+                "OneMinuteRate",
+                (double) rate,
+                "FiveMinuteRate",
+                (double) rate,
+                "FifteenMinuteRate",
+                (double) rate),
+            timestamp));
+  }
+
+  /** The layout of the replicas over the brokers. */
+  public enum Placement {
+    /**
+     * The leaders follow the Zipf distribution of the leader skew, and the followers and the data
+     * folders are picked uniformly.
+     */
+    RANDOM,
+    /**
+     * The replica r of the i-th partition is on the broker {@code (i + r) % hotBrokers} and the
+     * data folder {@code (i + r) % folders}.
+     */
+    ROUND_ROBIN,
+    /**
+     * The replica r of every partition is on the broker r, so the first broker leads all
+     * partitions. It is the most skewed cluster, which gives the balancers the most work.
+     */
+    PACKED
+  }
+
+  public static class Builder {
+    // the number of values drawn by the distributions
+    private static final int RESOLUTION = 1000;
+
+    private int brokers = 3;
+    private int hotBrokers = -1;
+    private int folders = 1;
+    private int topics = 1;
+    private int partitions = 10;
+    private int replicas = 1;
+    private DistributionType sizeDistribution = DistributionType.FIXED;
+    private long maxSize = 0;
+    private DistributionType writeRateDistribution = DistributionType.FIXED;
+    private long maxWriteRate = 0;
+    private Placement placement = Placement.RANDOM;
+    private double leaderSkew = 0;
+    private long seed = 0;
+    private long timestamp = System.currentTimeMillis();
+    private Duration metricWindow = Duration.ofMinutes(1);
+
+    private Builder() {}
+
+    public Builder brokers(int brokers) {
+      this.brokers = nonNegative(brokers, "brokers");
+      return this;
+    }
+
+    /**
+     * @param hotBrokers the replicas are placed on the first {@code hotBrokers} brokers only, and
+     *     the other brokers are empty. All brokers are hot by default.
+     * @return this
+     */
+    public Builder hotBrokers(int hotBrokers) {
+      this.hotBrokers = Utils.requirePositive(hotBrokers);
+      return this;
+    }
+
+    /**
+     * @param folders the number of data folders of each broker
+     * @return this
+     */
+    public Builder folders(int folders) {
+      this.folders = Utils.requirePositive(folders);
+      return this;
+    }
+
+    public Builder topics(int topics) {
+      this.topics = nonNegative(topics, "topics");
+      return this;
+    }
+
+    /**
+     * @param partitions the number of partitions of each topic
+     * @return this
+     */
+    public Builder partitions(int partitions) {
+      this.partitions = nonNegative(partitions, "partitions");
+      return this;
+    }
+
+    /**
+     * @param replicas the replication factor. It must not exceed the number of brokers.
+     * @return this
+     */
+    public Builder replicas(int replicas) {
+      this.replicas = nonNegative(replicas, "replicas");
+      return this;
+    }
+
+    /**
+     * @param distribution the distribution of partition sizes. The sizes are {@code max * k /
+     *     1000}, where k in [0, 1000) is sampled from the distribution, and {@link
+     *     DistributionType#FIXED} makes all partitions as large as the max.
+     * @param max the max partition size in bytes
+     * @return this
+     */
+    public Builder size(DistributionType distribution, long max) {
+      this.sizeDistribution = Objects.requireNonNull(distribution);
+      this.maxSize = max;
+      return this;
+    }
+
+    /**
+     * @param distribution the distribution of partition write rates. It is scaled like {@link
+     *     #size(DistributionType, long)}.
+     * @param max the max partition write rate in bytes/second
+     * @return this
+     */
+    public Builder writeRate(DistributionType distribution, long max) {
+      this.writeRateDistribution = Objects.requireNonNull(distribution);
+      this.maxWriteRate = max;
+      return this;
+    }
+
+    public Builder placement(Placement placement) {
+      this.placement = Objects.requireNonNull(placement);
+      return this;
+    }
+
+    /**
+     * @param leaderSkew the exponent of the Zipf distribution which the leaders follow. Zero means
+     *     the leaders are spread evenly, and the larger value puts more leaders on the brokers of
+     *     smaller id. It is used by {@link Placement#RANDOM} only.
+     * @return this
+     */
+    public Builder leaderSkew(double leaderSkew) {
+      if (leaderSkew < 0)
+        throw new IllegalArgumentException("the leader skew: " + leaderSkew + " is negative");
+      this.leaderSkew = leaderSkew;
+      return this;
+    }
+
+    public Builder seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /**
+     * @param timestamp the time of the latest metrics
+     * @return this
+     */
+    public Builder timestamp(long timestamp) {
+      this.timestamp = timestamp;
+      return this;
+    }
+
+    /**
+     * @param metricWindow the time between the first and the latest metrics
+     * @return this
+     */
+    public Builder metricWindow(Duration metricWindow) {
+      this.metricWindow = Objects.requireNonNull(metricWindow);
+      return this;
+    }
+
+    public SyntheticCluster build() {
+      var hot = hotBrokers < 0 ? brokers : hotBrokers;
+      if (hot > brokers)
+        throw new IllegalArgumentException(
+            "the hot brokers: " + hot + " exceed the brokers: " + brokers);
+      if (replicas > hot)
+        throw new IllegalArgumentException(
+            "the replicas: " + replicas + " exceed the brokers: " + hot);
+      var random = new Random(seed);
+      var sizes = sampler(sizeDistribution, maxSize, random);
+      var rates = sampler(writeRateDistribution, maxWriteRate, random);
+      IntSupplier leaders;
+      if (leaderSkew == 0 || placement != Placement.RANDOM || replicas == 0)
+        leaders = () -> random.nextInt(hot);
+      else {
+        var zipf =
+            new ZipfDistribution(
+                RandomGeneratorFactory.createRandomGenerator(random), hot, leaderSkew);
+        leaders = () -> zipf.sample() - 1;
+      }
+
+      var paths =
+          IntStream.range(0, folders)
+              .mapToObj(i -> "/tmp/data-directory-" + i)
+              .collect(Collectors.toUnmodifiableList());
+      var nodes =
+          IntStream.range(0, brokers)
+              .mapToObj(
+                  id ->
+                      Broker.of(
+                          NodeInfo.of(id, "host" + id, 9092),
+                          id == 0,
+                          Config.of(Map.of()),
+                          paths.stream()
+                              .map(path -> Broker.DataFolder.of(path, Map.of(), Map.of()))
+                              .collect(Collectors.toUnmodifiableList()),
+                          Set.of(),
+                          Set.of()))
+              .collect(Collectors.toUnmodifiableList());
+
+      var columns = ColumnarClusterInfo.builder().nodes(Set.copyOf(nodes));
+      var writeRates = new HashMap<TopicPartitionReplica, Long>(topics * partitions * replicas * 2);
+      var ids = new int[replicas];
+      for (var t = 0; t < topics; t++) {
+        var topic = "topic-" + t;
+        for (var p = 0; p < partitions; p++) {
+          var index = t * partitions + p;
+          var partitionSize = sizes.getAsLong();
+          var partitionRate = rates.getAsLong();
+          for (var r = 0; r < replicas; r++) {
+            switch (placement) {
+              case RANDOM:
+                var id = r == 0 ? leaders.getAsInt() : random.nextInt(hot);
+                while (contains(ids, r, id)) id = random.nextInt(hot);
+                ids[r] = id;
+                break;
+              case ROUND_ROBIN:
+                ids[r] = (index + r) % hot;
+                break;
+              default:
+                ids[r] = r;
+            }
+          }
+          for (var r = 0; r < replicas; r++) {
+            var flags =
+                r == 0
+                    ? ColumnarClusterInfo.LEADER
+                        | ColumnarClusterInfo.PREFERRED_LEADER
+                        | ColumnarClusterInfo.IN_SYNC
+                    : ColumnarClusterInfo.IN_SYNC;
+            var folder =
+                placement == Placement.RANDOM
+                    ? random.nextInt(folders)
+                    : placement == Placement.ROUND_ROBIN ? (index + r) % folders : p % folders;
+            columns.add(topic, p, nodes.get(ids[r]), 0, partitionSize, paths.get(folder), flags);
+            writeRates.put(TopicPartitionReplica.of(topic, p, ids[r]), partitionRate);
+          }
+        }
+      }
+      return new SyntheticCluster(columns.build(), writeRates, timestamp, metricWindow);
+    }
+
+    /**
+     * @return the values are {@code max * k / RESOLUTION}, where k in [0, RESOLUTION) is sampled
+     *     from the distribution
+     */
+    private static LongSupplier sampler(DistributionType distribution, long max, Random random) {
+      var values = distribution.create(RESOLUTION, random);
+      return () -> max * values.get() / RESOLUTION;
+    }
+
+    private static int nonNegative(int value, String name) {
+      if (value < 0)
+        throw new IllegalArgumentException("the " + name + ": " + value + " is negative");
+      return value;
+    }
+
+    private static boolean contains(int[] ids, int length, int id) {
+      for (var i = 0; i < length; i++) if (ids[i] == id) return true;
+      return false;
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FutureUtilsTest {
+
+  @Test
+  void testParallel() {
+    var running = new AtomicInteger();
+    var maxRunning = new AtomicInteger();
+    var tasks =
+        IntStream.range(0, 20)
+            .mapToObj(
+                i ->
+                    (Supplier<CompletionStage<Integer>>)
+                        () -> {
+                          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                          return CompletableFuture.supplyAsync(
+                              () -> {
+                                Utils.sleep(Duration.ofMillis(10));
+                                running.decrementAndGet();
+                                return i;
+                              });
+                        })
+            .collect(Collectors.toList());
+
+    var result = FutureUtils.parallel(tasks, 3).toCompletableFuture().join();
+    Assertions.assertEquals(
+        IntStream.range(0, 20).boxed().collect(Collectors.toSet()), Set.copyOf(result));
+    Assertions.assertTrue(maxRunning.get() <= 3, "running: " + maxRunning.get());
+  }
+
+  @Test
+  void testParallelWithCompletedStages() {
+    var tasks =
+        IntStream.range(0, 10000)
+            .mapToObj(
+                i ->
+                    (Supplier<CompletionStage<Integer>>) () -> CompletableFuture.completedFuture(i))
+            .collect(Collectors.toList());
+    Assertions.assertEquals(
+        10000, FutureUtils.parallel(tasks, 2).toCompletableFuture().join().size());
+    Assertions.assertEquals(
+        List.of(), FutureUtils.parallel(List.of(), 2).toCompletableFuture().join());
+  }
+
+  @Test
+  void testParallelFailure() {
+    var started = new AtomicInteger();
+    var tasks =
+        IntStream.range(0, 10)
+            .mapToObj(
+                i ->
+                    (Supplier<CompletionStage<Integer>>)
+                        () -> {
+                          started.incrementAndGet();
+                          return CompletableFuture.failedFuture(new IllegalStateException());
+                        })
+            .collect(Collectors.toList());
+    var e =
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> FutureUtils.parallel(tasks, 1).toCompletableFuture().join());
+    Assertions.assertInstanceOf(IllegalStateException.class, e.getCause());
+    Assertions.assertEquals(1, started.get(), "the pending tasks are not started");
+  }
+}
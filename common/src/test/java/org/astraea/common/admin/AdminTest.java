@@ -30,12 +30,14 @@ import java.util.SortedSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.admin.ListTopicsOptions;
 import org.apache.kafka.common.config.TopicConfig;
 import org.apache.kafka.common.internals.KafkaFutureImpl;
 import org.astraea.common.DataRate;
@@ -52,6 +54,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mockito;
 
 public class AdminTest extends RequireBrokerCluster {
 
@@ -195,6 +198,33 @@ public class AdminTest extends RequireBrokerCluster {
     }
   }
 
+  @Test
+  void testClusterInfoRequests() {
+    var kafkaAdmin =
+        Mockito.spy(
+            org.apache.kafka.clients.admin.Admin.create(
+                Map.<String, Object>of(
+                    CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers())));
+    try (var admin = new AdminImpl(kafkaAdmin)) {
+      var topic = Utils.randomString();
+      admin.creator().topic(topic).numberOfPartitions(2).run().toCompletableFuture().join();
+      Utils.sleep(Duration.ofSeconds(2));
+
+      Mockito.clearInvocations(kafkaAdmin);
+      var clusterInfo = admin.clusterInfo(Set.of(topic)).toCompletableFuture().join();
+      Assertions.assertEquals(2, clusterInfo.replicas(topic).size());
+      Assertions.assertEquals(logFolders(), clusterInfo.brokerFolders());
+
+      // one request of each kind, and only the requested topic is described
+      Mockito.verify(kafkaAdmin, Mockito.times(1)).describeCluster();
+      Mockito.verify(kafkaAdmin, Mockito.times(1)).describeTopics(Set.of(topic));
+      Mockito.verify(kafkaAdmin, Mockito.times(1)).describeLogDirs(Mockito.anyCollection());
+      Mockito.verify(kafkaAdmin, Mockito.times(1)).describeConfigs(Mockito.anyCollection());
+      Mockito.verify(kafkaAdmin, Mockito.times(1)).listPartitionReassignments(Mockito.anySet());
+      Mockito.verify(kafkaAdmin, Mockito.never()).listTopics(Mockito.any(ListTopicsOptions.class));
+    }
+  }
+
   @Test
   void testWaitClusterWithException() {
 
@@ -214,6 +244,26 @@ public class AdminTest extends RequireBrokerCluster {
     }
   }
 
+  @Test
+  void testWaitDeletedReplicasSynced() {
+    // the topic of replica is deleted, so there is nothing to sync
+    try (var admin =
+        new AdminImpl(Map.of(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers())) {
+          @Override
+          public CompletionStage<ClusterInfo<Replica>> clusterInfo(Set<String> topics) {
+            return CompletableFuture.completedFuture(ClusterInfo.empty());
+          }
+        }) {
+      Assertions.assertTrue(
+          admin
+              .waitReplicasSynced(
+                  Set.of(TopicPartitionReplica.of(Utils.randomString(), 0, 0)),
+                  Duration.ofSeconds(3))
+              .toCompletableFuture()
+              .join());
+    }
+  }
+
   @Test
   void testWaitCluster() {
     try (var admin = Admin.of(bootstrapServers())) {
@@ -703,6 +753,52 @@ public class AdminTest extends RequireBrokerCluster {
     }
   }
 
+  @Test
+  void testStreamingOffsets() {
+    var topic = Utils.randomString();
+    try (var admin = Admin.of(bootstrapServers())) {
+      admin.creator().topic(topic).numberOfPartitions(6).run().toCompletableFuture().join();
+      Utils.sleep(Duration.ofSeconds(2));
+      try (var producer = Producer.of(bootstrapServers())) {
+        IntStream.range(0, 6)
+            .forEach(
+                i ->
+                    producer.send(
+                        Record.builder().topic(topic).key(new byte[10]).partition(i).build()));
+      }
+      var partitions = admin.topicPartitions(Set.of(topic)).toCompletableFuture().join();
+      var leaders = new ConcurrentHashMap<Integer, Set<TopicPartition>>();
+      var streamed = new ConcurrentHashMap<TopicPartition, Long>();
+      var offsets =
+          admin
+              .latestOffsets(
+                  partitions,
+                  (id, result) -> {
+                    leaders
+                        .computeIfAbsent(id, ignored -> ConcurrentHashMap.newKeySet())
+                        .addAll(result.keySet());
+                    streamed.putAll(result);
+                  })
+              .toCompletableFuture()
+              .join();
+      Assertions.assertEquals(6, offsets.size());
+      offsets.values().forEach(offset -> Assertions.assertEquals(1, offset));
+      Assertions.assertEquals(offsets, streamed);
+
+      // the results are grouped by leader
+      var expectedLeaders =
+          admin.partitions(Set.of(topic)).toCompletableFuture().join().stream()
+              .collect(
+                  Collectors.groupingBy(
+                      p -> p.leader().get().id(),
+                      Collectors.mapping(Partition::topicPartition, Collectors.toSet())));
+      Assertions.assertEquals(expectedLeaders, leaders);
+
+      var timestamps = admin.maxTimestamps(partitions, (id, result) -> {});
+      Assertions.assertEquals(6, timestamps.toCompletableFuture().join().size());
+    }
+  }
+
   @Test
   void testConsumerGroups() {
     var topic = Utils.randomString();
@@ -1021,6 +1117,29 @@ public class AdminTest extends RequireBrokerCluster {
     }
   }
 
+  @Test
+  void testDiskSpaces() {
+    try (var admin = Admin.of(bootstrapServers())) {
+      var spaces = admin.diskSpaces().toCompletableFuture().join();
+      Assertions.assertEquals(brokerIds(), spaces.keySet());
+      logFolders()
+          .forEach(
+              (id, ds) ->
+                  Assertions.assertEquals(
+                      ds,
+                      spaces.get(id).stream()
+                          .map(Broker.DiskSpace::path)
+                          .collect(Collectors.toSet())));
+      spaces.values().stream()
+          .flatMap(List::stream)
+          .forEach(
+              s -> {
+                Assertions.assertTrue(s.totalBytes() > 0);
+                Assertions.assertTrue(s.usableBytes() <= s.totalBytes());
+              });
+    }
+  }
+
   @Test
   void testBrokerFolders() {
     try (var admin = Admin.of(bootstrapServers())) {
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.admin;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import org.astraea.common.Utils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class CachedAdminTest {
+
+  private static final NodeInfo NODE = NodeInfo.of(0, "host", 9092);
+
+  private static ClusterInfo<Replica> clusterInfo(Set<String> topics) {
+    return ClusterInfo.of(
+        Set.of(NODE),
+        topics.stream()
+            .map(
+                topic ->
+                    Replica.builder()
+                        .topic(topic)
+                        .partition(0)
+                        .nodeInfo(NODE)
+                        .isLeader(true)
+                        .path("/tmp/a")
+                        .build())
+            .collect(Collectors.toUnmodifiableList()));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Admin mock() {
+    var admin = Mockito.mock(Admin.class);
+    Mockito.when(admin.clusterInfo(Mockito.anySet()))
+        .thenAnswer(
+            invocation ->
+                CompletableFuture.completedFuture(
+                    clusterInfo((Set<String>) invocation.getArgument(0))));
+    Mockito.when(admin.moveToBrokers(Mockito.anyMap()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    return admin;
+  }
+
+  @Test
+  void testCache() {
+    var delegate = mock();
+    var admin = Admin.cached(delegate, Duration.ofMinutes(1));
+
+    var result = admin.clusterInfo(Set.of("a", "b")).toCompletableFuture().join();
+    Assertions.assertEquals(Set.of("a", "b"), result.topics());
+    Assertions.assertEquals(Set.of(NODE), result.nodes());
+    Mockito.verify(delegate, Mockito.times(1)).clusterInfo(Set.of("a", "b"));
+
+    // only the missing topic is fetched
+    result = admin.clusterInfo(Set.of("a", "c")).toCompletableFuture().join();
+    Assertions.assertEquals(Set.of("a", "c"), result.topics());
+    Mockito.verify(delegate, Mockito.times(1)).clusterInfo(Set.of("c"));
+    admin.clusterInfo(Set.of("a", "b", "c")).toCompletableFuture().join();
+    Mockito.verify(delegate, Mockito.times(2)).clusterInfo(Mockito.anySet());
+
+    // the write drops the snapshot of the affected topic
+    admin.moveToBrokers(Map.of(TopicPartition.of("b", 0), List.of(0))).toCompletableFuture().join();
+    admin.clusterInfo(Set.of("a", "b", "c")).toCompletableFuture().join();
+    Mockito.verify(delegate, Mockito.times(1)).clusterInfo(Set.of("b"));
+    Mockito.verify(delegate, Mockito.times(3)).clusterInfo(Mockito.anySet());
+  }
+
+  @Test
+  void testView() {
+    var delegate = mock();
+    var admin = Admin.cached(delegate, Duration.ofMinutes(1));
+    var first = admin.clusterInfo(Set.of("a", "b")).toCompletableFuture().join();
+    // the view of the same snapshots is reused
+    Assertions.assertSame(first, admin.clusterInfo(Set.of("b", "a")).toCompletableFuture().join());
+
+    var other = admin.clusterInfo(Set.of("a")).toCompletableFuture().join();
+    Assertions.assertNotSame(first, other);
+    Assertions.assertEquals(Set.of("a"), other.topics());
+
+    admin.moveToBrokers(Map.of(TopicPartition.of("a", 0), List.of(0))).toCompletableFuture().join();
+    Assertions.assertNotSame(other, admin.clusterInfo(Set.of("a")).toCompletableFuture().join());
+  }
+
+  @Test
+  void testCreator() {
+    var delegate = mock();
+    var creator = Mockito.mock(TopicCreator.class);
+    Mockito.when(delegate.creator()).thenReturn(creator);
+    Mockito.when(creator.run()).thenReturn(CompletableFuture.completedFuture(true));
+    var admin = Admin.cached(delegate, Duration.ofMinutes(1));
+
+    admin.clusterInfo(Set.of("a")).toCompletableFuture().join();
+    Assertions.assertTrue(
+        admin.creator().topic("a").numberOfPartitions(2).run().toCompletableFuture().join());
+    Mockito.verify(creator).topic("a");
+    Mockito.verify(creator).numberOfPartitions(2);
+
+    // the created topic is fetched again
+    admin.clusterInfo(Set.of("a")).toCompletableFuture().join();
+    Mockito.verify(delegate, Mockito.times(2)).clusterInfo(Set.of("a"));
+  }
+
+  @Test
+  void testStaleness() {
+    var delegate = mock();
+    var admin = Admin.cached(delegate, Duration.ofMillis(100));
+    admin.clusterInfo(Set.of("a")).toCompletableFuture().join();
+    admin.clusterInfo(Set.of("a")).toCompletableFuture().join();
+    Mockito.verify(delegate, Mockito.times(1)).clusterInfo(Set.of("a"));
+
+    Utils.sleep(Duration.ofMillis(200));
+    admin.clusterInfo(Set.of("a")).toCompletableFuture().join();
+    Mockito.verify(delegate, Mockito.times(2)).clusterInfo(Set.of("a"));
+
+    // the nodes are refreshed alone if there is no topic
+    Utils.sleep(Duration.ofMillis(200));
+    Assertions.assertEquals(
+        Set.of(NODE), admin.clusterInfo(Set.of()).toCompletableFuture().join().nodes());
+    Mockito.verify(delegate, Mockito.times(1)).clusterInfo(Set.of());
+  }
+
+  @Test
+  void testCoalesce() {
+    var delegate = Mockito.mock(Admin.class);
+    var future = new CompletableFuture<ClusterInfo<Replica>>();
+    Mockito.when(delegate.clusterInfo(Mockito.anySet())).thenReturn(future);
+    var admin = Admin.cached(delegate, Duration.ofMinutes(1));
+
+    var first = admin.clusterInfo(Set.of("a")).toCompletableFuture();
+    var second = admin.clusterInfo(Set.of("a")).toCompletableFuture();
+    Mockito.verify(delegate, Mockito.times(1)).clusterInfo(Mockito.anySet());
+    Assertions.assertFalse(first.isDone());
+
+    future.complete(clusterInfo(Set.of("a")));
+    Assertions.assertEquals(Set.of("a"), first.join().topics());
+    Assertions.assertEquals(Set.of("a"), second.join().topics());
+  }
+
+  @Test
+  void testFailure() {
+    var delegate = Mockito.mock(Admin.class);
+    Mockito.when(delegate.clusterInfo(Mockito.anySet()))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException()));
+    var admin = Admin.cached(delegate, Duration.ofMinutes(1));
+    for (var i = 0; i < 2; i++)
+      Assertions.assertThrows(
+          Exception.class, () -> admin.clusterInfo(Set.of("a")).toCompletableFuture().join());
+    // the failure is not cached
+    Mockito.verify(delegate, Mockito.times(2)).clusterInfo(Mockito.anySet());
+  }
+}
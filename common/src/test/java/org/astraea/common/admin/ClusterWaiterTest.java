@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.admin;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ClusterWaiterTest {
+
+  private static final NodeInfo NODE = NodeInfo.of(1, "host", 1000);
+
+  private static ClusterInfo<Replica> leaders(Set<String> topics) {
+    return ClusterInfo.of(
+        Set.of(NODE),
+        topics.stream()
+            .map(
+                topic ->
+                    Replica.builder()
+                        .topic(topic)
+                        .partition(0)
+                        .nodeInfo(NODE)
+                        .isLeader(true)
+                        .path("/tmp/a")
+                        .build())
+            .collect(Collectors.toUnmodifiableList()));
+  }
+
+  @Test
+  void testNarrowScope() {
+    var start = System.currentTimeMillis();
+    var polls = new CopyOnWriteArrayList<Set<String>>();
+    var done = new ConcurrentLinkedQueue<String>();
+    var result =
+        ClusterWaiter.wait(
+                Set.of("a", "b"),
+                topics -> {
+                  polls.add(topics);
+                  return CompletableFuture.completedFuture(leaders(topics));
+                },
+                // topic "b" is converged after 500ms
+                (clusterInfo, topic) ->
+                    topic.equals("a") || System.currentTimeMillis() - start >= 500,
+                done::add,
+                Duration.ofSeconds(5),
+                1);
+
+    Assertions.assertTrue(result.toCompletableFuture().join());
+    Assertions.assertEquals(List.of("a", "b"), List.copyOf(done));
+    Assertions.assertEquals(Set.of("a", "b"), polls.get(0));
+    // "a" is converged after two polls, so the following polls query "b" only
+    polls.subList(2, polls.size()).forEach(p -> Assertions.assertEquals(Set.of("b"), p));
+  }
+
+  @Test
+  void testDebounce() {
+    var count = new AtomicInteger();
+    Assertions.assertTrue(
+        ClusterWaiter.wait(
+                Set.of("a"),
+                topics -> CompletableFuture.completedFuture(leaders(topics)),
+                (clusterInfo, topic) -> count.incrementAndGet() != 2,
+                topic -> {},
+                Duration.ofSeconds(5),
+                2)
+            .toCompletableFuture()
+            .join());
+    // the second poll resets the debounce
+    Assertions.assertEquals(5, count.get());
+  }
+
+  @Test
+  void testTimeout() {
+    var count = new AtomicInteger();
+    var start = System.currentTimeMillis();
+    Assertions.assertFalse(
+        ClusterWaiter.wait(
+                Set.of("a"),
+                topics -> CompletableFuture.completedFuture(leaders(topics)),
+                (clusterInfo, topic) -> {
+                  count.incrementAndGet();
+                  return false;
+                },
+                topic -> {},
+                Duration.ofSeconds(2),
+                0)
+            .toCompletableFuture()
+            .join());
+    Assertions.assertTrue(System.currentTimeMillis() - start >= 2000);
+    // the backoff grows, so it should not poll every 200ms
+    Assertions.assertTrue(count.get() < 10, "polls: " + count.get());
+
+    Assertions.assertFalse(
+        ClusterWaiter.wait(
+                Set.of("a"),
+                topics -> CompletableFuture.completedFuture(leaders(topics)),
+                (clusterInfo, topic) -> true,
+                topic -> {},
+                Duration.ZERO,
+                0)
+            .toCompletableFuture()
+            .join());
+  }
+
+  @Test
+  void testError() {
+    Assertions.assertFalse(
+        ClusterWaiter.wait(
+                Set.of("a"),
+                topics -> CompletableFuture.failedFuture(new UnknownTopicOrPartitionException()),
+                (clusterInfo, topic) -> true,
+                topic -> {},
+                Duration.ofSeconds(1),
+                0)
+            .toCompletableFuture()
+            .join());
+
+    var e =
+        Assertions.assertThrows(
+            CompletionException.class,
+            () ->
+                ClusterWaiter.wait(
+                        Set.of("a"),
+                        topics -> CompletableFuture.failedFuture(new IllegalStateException()),
+                        (clusterInfo, topic) -> true,
+                        topic -> {},
+                        Duration.ofSeconds(1),
+                        0)
+                    .toCompletableFuture()
+                    .join());
+    Assertions.assertInstanceOf(IllegalStateException.class, e.getCause());
+  }
+
+  @Test
+  void testBackoff() {
+    for (var attempts = 0; attempts < 30; attempts++) {
+      var expected =
+          Math.min(
+              ClusterWaiter.MAX_BACKOFF.toMillis(),
+              ClusterWaiter.INITIAL_BACKOFF.toMillis() << Math.min(attempts, 20));
+      var backoff = ClusterWaiter.backoff(attempts);
+      Assertions.assertTrue(backoff >= expected / 2, "backoff: " + backoff);
+      Assertions.assertTrue(backoff <= expected, "backoff: " + backoff);
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.admin;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.astraea.common.Utils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class CoalescingAdminTest {
+
+  @Test
+  void testCoalesce() {
+    var delegate = Mockito.mock(Admin.class);
+    var brokers = new CompletableFuture<List<Broker>>();
+    Mockito.when(delegate.brokers()).thenReturn(brokers);
+    try (var admin = (CoalescingAdmin) Admin.coalescing(delegate)) {
+      var first = admin.brokers().toCompletableFuture();
+      var second = admin.brokers().toCompletableFuture();
+      Mockito.verify(delegate, Mockito.times(1)).brokers();
+      Assertions.assertEquals(1, admin.misses());
+      Assertions.assertEquals(1, admin.coalesced());
+
+      brokers.complete(List.of());
+      Assertions.assertEquals(List.of(), first.join());
+      Assertions.assertEquals(List.of(), second.join());
+
+      // the result is not reused without ttl
+      admin.brokers().toCompletableFuture().join();
+      Mockito.verify(delegate, Mockito.times(2)).brokers();
+      Assertions.assertEquals(0, admin.hits());
+    }
+  }
+
+  @Test
+  void testTtl() {
+    var delegate = Mockito.mock(Admin.class);
+    Mockito.when(delegate.topicNames(Mockito.anyBoolean()))
+        .thenReturn(CompletableFuture.completedFuture(Set.of("a")));
+    Mockito.when(delegate.deleteTopics(Mockito.anySet()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    try (var admin = (CoalescingAdmin) Admin.coalescing(delegate, Duration.ofMillis(300))) {
+      admin.topicNames(false).toCompletableFuture().join();
+      admin.topicNames(false).toCompletableFuture().join();
+      Mockito.verify(delegate, Mockito.times(1)).topicNames(false);
+      Assertions.assertEquals(1, admin.hits());
+
+      // the arguments are a part of the key
+      admin.topicNames(true).toCompletableFuture().join();
+      Mockito.verify(delegate, Mockito.times(1)).topicNames(true);
+
+      // the write drops the results
+      admin.deleteTopics(Set.of("a")).toCompletableFuture().join();
+      admin.topicNames(false).toCompletableFuture().join();
+      Mockito.verify(delegate, Mockito.times(2)).topicNames(false);
+
+      Utils.sleep(Duration.ofMillis(500));
+      admin.topicNames(false).toCompletableFuture().join();
+      Mockito.verify(delegate, Mockito.times(3)).topicNames(false);
+    }
+  }
+
+  @Test
+  void testCreatorDropsResults() {
+    var delegate = Mockito.mock(Admin.class);
+    var creator = Mockito.mock(TopicCreator.class);
+    Mockito.when(delegate.creator()).thenReturn(creator);
+    Mockito.when(creator.run()).thenReturn(CompletableFuture.completedFuture(true));
+    Mockito.when(delegate.topicNames(false))
+        .thenReturn(CompletableFuture.completedFuture(Set.of()))
+        .thenReturn(CompletableFuture.completedFuture(Set.of("a")));
+    try (var admin = Admin.coalescing(delegate, Duration.ofMinutes(1))) {
+      Assertions.assertEquals(Set.of(), admin.topicNames(false).toCompletableFuture().join());
+      admin.creator().topic("a").run().toCompletableFuture().join();
+      Mockito.verify(creator).topic("a");
+
+      // the created topic is listed without waiting for the ttl
+      Assertions.assertEquals(Set.of("a"), admin.topicNames(false).toCompletableFuture().join());
+      Mockito.verify(delegate, Mockito.times(2)).topicNames(false);
+    }
+  }
+
+  @Test
+  void testWriteDropsInFlightRequest() {
+    var delegate = Mockito.mock(Admin.class);
+    var before = new CompletableFuture<Set<String>>();
+    var after = new CompletableFuture<Set<String>>();
+    Mockito.when(delegate.topicNames(false)).thenReturn(before).thenReturn(after);
+    Mockito.when(delegate.deleteTopics(Mockito.anySet()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    try (var admin = Admin.coalescing(delegate, Duration.ofMinutes(1))) {
+      // the read is sent before the write, and it is still pending when the write is done
+      var pending = admin.topicNames(false).toCompletableFuture();
+      admin.deleteTopics(Set.of("a")).toCompletableFuture().join();
+
+      var read = admin.topicNames(false).toCompletableFuture();
+      Mockito.verify(delegate, Mockito.times(2)).topicNames(false);
+
+      before.complete(Set.of("a"));
+      after.complete(Set.of());
+      Assertions.assertEquals(Set.of("a"), pending.join());
+      Assertions.assertEquals(Set.of(), read.join());
+
+      // the late result of the dropped request is not reused
+      Assertions.assertEquals(Set.of(), admin.topicNames(false).toCompletableFuture().join());
+      Mockito.verify(delegate, Mockito.times(2)).topicNames(false);
+    }
+  }
+
+  @Test
+  void testFailure() {
+    var delegate = Mockito.mock(Admin.class);
+    Mockito.when(delegate.nodeInfos())
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException()));
+    Mockito.when(delegate.brokers()).thenThrow(new IllegalStateException());
+    try (var admin = Admin.coalescing(delegate, Duration.ofMinutes(1))) {
+      for (var i = 0; i < 2; i++) {
+        Assertions.assertThrows(
+            Exception.class, () -> admin.nodeInfos().toCompletableFuture().join());
+        Assertions.assertThrows(
+            Exception.class, () -> admin.brokers().toCompletableFuture().join());
+      }
+      // the failures are not reused
+      Mockito.verify(delegate, Mockito.times(2)).nodeInfos();
+      Mockito.verify(delegate, Mockito.times(2)).brokers();
+    }
+  }
+}
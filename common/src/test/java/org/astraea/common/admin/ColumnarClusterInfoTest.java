@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.admin;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.astraea.common.balancer.FakeClusterInfo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ColumnarClusterInfoTest {
+
+  @Test
+  void testQueries() {
+    // the fake cluster is columnar, so it is copied to the plain layout to be the reference
+    var fake = FakeClusterInfo.of(5, 10, 6, 3);
+    var origin = ClusterInfo.of(fake.nodes(), fake.replicas());
+    var columnar = ColumnarClusterInfo.of(origin.nodes(), origin.replicas());
+
+    Assertions.assertEquals(origin.nodes(), columnar.nodes());
+    Assertions.assertEquals(origin.topics(), columnar.topics());
+    Assertions.assertEquals(origin.topicPartitions(), columnar.topicPartitions());
+    Assertions.assertEquals(origin.topicPartitionReplicas(), columnar.topicPartitionReplicas());
+    Assertions.assertEquals(Set.copyOf(origin.replicas()), Set.copyOf(columnar.replicas()));
+    Assertions.assertEquals(
+        Set.copyOf(origin.replicaLeaders()), Set.copyOf(columnar.replicaLeaders()));
+
+    for (var topic : origin.topics()) {
+      Assertions.assertEquals(
+          Set.copyOf(origin.replicas(topic)), Set.copyOf(columnar.replicas(topic)));
+      Assertions.assertEquals(
+          Set.copyOf(origin.replicaLeaders(topic)), Set.copyOf(columnar.replicaLeaders(topic)));
+      for (var node : origin.nodes()) {
+        Assertions.assertEquals(
+            Set.copyOf(origin.replicaLeaders(node.id(), topic)),
+            Set.copyOf(columnar.replicaLeaders(node.id(), topic)));
+        Assertions.assertEquals(
+            origin.replicaStream(node.id(), topic).collect(Collectors.toSet()),
+            columnar.replicaStream(node.id(), topic).collect(Collectors.toSet()));
+      }
+    }
+    for (var node : origin.nodes()) {
+      Assertions.assertEquals(
+          origin.replicaStream(node.id()).collect(Collectors.toSet()),
+          columnar.replicaStream(node.id()).collect(Collectors.toSet()));
+      Assertions.assertEquals(
+          Set.copyOf(origin.replicaLeaders(node.id())),
+          Set.copyOf(columnar.replicaLeaders(node.id())));
+    }
+    for (var tp : origin.topicPartitions()) {
+      Assertions.assertEquals(Set.copyOf(origin.replicas(tp)), Set.copyOf(columnar.replicas(tp)));
+      Assertions.assertEquals(origin.replicaLeader(tp), columnar.replicaLeader(tp));
+    }
+    for (var tpr : origin.topicPartitionReplicas())
+      Assertions.assertEquals(origin.replica(tpr), columnar.replica(tpr));
+
+    Assertions.assertEquals(List.of(), columnar.replicas("unknown"));
+    Assertions.assertEquals(List.of(), columnar.replicas(TopicPartition.of("unknown", 0)));
+    Assertions.assertEquals(0, columnar.replicaStream(-1).count());
+    Assertions.assertEquals(List.of(), columnar.replicaLeaders(-1, "unknown"));
+  }
+
+  @Test
+  void testOrderAndFlags() {
+    var node0 = NodeInfo.of(0, "host0", 9092);
+    var node1 = NodeInfo.of(1, "host1", 9092);
+    var columnar =
+        ColumnarClusterInfo.builder()
+            .add("b", 1, node1, 0, 10, "/a", ColumnarClusterInfo.LEADER)
+            .add("b", 0, node1, 5, 20, null, ColumnarClusterInfo.OFFLINE)
+            .add("a", 0, node1, 0, 30, "/a", ColumnarClusterInfo.IN_SYNC)
+            .add("a", 0, node0, 0, 40, "/b", ColumnarClusterInfo.INTERNAL)
+            .add("a", 0, node0, 1, 50, "/c", ColumnarClusterInfo.FUTURE)
+            .build();
+
+    Assertions.assertEquals(Set.of(node0, node1), columnar.nodes());
+    Assertions.assertEquals(
+        List.of(40L, 50L, 30L, 20L, 10L),
+        columnar.replicaStream().map(Replica::size).collect(Collectors.toList()),
+        "sorted by topic, partition and broker. The future log follows the current log");
+    Assertions.assertEquals(
+        List.of(20L, 10L),
+        columnar.replicaStream(1, "b").map(Replica::size).collect(Collectors.toList()));
+
+    var offline = columnar.replica(TopicPartitionReplica.of("b", 0, 1)).orElseThrow();
+    Assertions.assertTrue(offline.isOffline());
+    Assertions.assertNull(offline.path());
+    Assertions.assertEquals(5, offline.lag());
+    Assertions.assertEquals(
+        Replica.builder()
+            .topic("a")
+            .partition(0)
+            .nodeInfo(node0)
+            .size(40)
+            .internal(true)
+            .path("/b")
+            .build(),
+        columnar.replicaStream(TopicPartitionReplica.of("a", 0, 0)).findFirst().orElseThrow(),
+        "the replica is equal to the one created by builder");
+    Assertions.assertTrue(
+        columnar.replicas(TopicPartition.of("a", 0)).stream().anyMatch(Replica::isFuture));
+    Assertions.assertEquals(1, columnar.replicaLeaders().size());
+    Assertions.assertEquals(
+        TopicPartition.of("b", 1), columnar.replicaLeaders().get(0).topicPartition());
+  }
+}
@@ -34,6 +34,7 @@ import org.astraea.common.admin.ClusterInfo;
 import org.astraea.common.admin.Replica;
 import org.astraea.common.balancer.algorithms.AlgorithmConfig;
 import org.astraea.common.balancer.algorithms.GreedyBalancer;
+import org.astraea.common.balancer.algorithms.SimulatedAnnealingBalancer;
 import org.astraea.common.balancer.algorithms.SingleStepBalancer;
 import org.astraea.common.balancer.executor.StraightPlanExecutor;
 import org.astraea.common.balancer.log.ClusterLogAllocation;
@@ -56,7 +57,12 @@ import org.mockito.Mockito;
 class BalancerTest extends RequireBrokerCluster {
 
   @ParameterizedTest
-  @ValueSource(classes = {SingleStepBalancer.class, GreedyBalancer.class})
+  @ValueSource(
+      classes = {
+        SingleStepBalancer.class,
+        GreedyBalancer.class,
+        SimulatedAnnealingBalancer.class
+      })
   void testLeaderCountRebalance(Class<? extends Balancer> theClass) {
     try (var admin = Admin.of(bootstrapServers())) {
       var topicName = Utils.randomString();
@@ -122,7 +128,12 @@ class BalancerTest extends RequireBrokerCluster {
   }
 
   @ParameterizedTest
-  @ValueSource(classes = {SingleStepBalancer.class, GreedyBalancer.class})
+  @ValueSource(
+      classes = {
+        SingleStepBalancer.class,
+        GreedyBalancer.class,
+        SimulatedAnnealingBalancer.class
+      })
   void testFilter(Class<? extends Balancer> theClass) {
     try (var admin = Admin.of(bootstrapServers())) {
       var theTopic = Utils.randomString();
@@ -176,7 +187,12 @@ class BalancerTest extends RequireBrokerCluster {
   }
 
   @ParameterizedTest
-  @ValueSource(classes = {SingleStepBalancer.class, GreedyBalancer.class})
+  @ValueSource(
+      classes = {
+        SingleStepBalancer.class,
+        GreedyBalancer.class,
+        SimulatedAnnealingBalancer.class
+      })
   void testExecutionTime(Class<? extends Balancer> theClass) {
     try (var admin = Admin.of(bootstrapServers())) {
       var theTopic = Utils.randomString();
@@ -214,7 +230,12 @@ class BalancerTest extends RequireBrokerCluster {
   }
 
   @ParameterizedTest
-  @ValueSource(classes = {SingleStepBalancer.class, GreedyBalancer.class})
+  @ValueSource(
+      classes = {
+        SingleStepBalancer.class,
+        GreedyBalancer.class,
+        SimulatedAnnealingBalancer.class
+      })
   void testWithMetrics(Class<? extends Balancer> theClass) {
     var counter = new AtomicLong();
     Supplier<ClusterBean> metricSource =
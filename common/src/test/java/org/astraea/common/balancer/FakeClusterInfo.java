@@ -16,20 +16,14 @@
  */
 package org.astraea.common.balancer;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Random;
-import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import org.astraea.common.admin.Broker;
 import org.astraea.common.admin.ClusterInfo;
-import org.astraea.common.admin.Config;
-import org.astraea.common.admin.NodeInfo;
 import org.astraea.common.admin.Replica;
-import org.astraea.common.admin.TopicPartition;
+import org.astraea.common.scenario.SyntheticCluster;
 
+/**
+ * The packed cluster of the tests. The replica r of every partition is on the broker r, so the
+ * first broker leads all partitions. See {@link SyntheticCluster.Placement#PACKED}.
+ */
 public class FakeClusterInfo {
 
   public static ClusterInfo<Replica> of(
@@ -39,137 +33,14 @@ public class FakeClusterInfo {
 
   public static ClusterInfo<Replica> of(
       int nodeCount, int topicCount, int partitionCount, int replicaCount, int folderCount) {
-    final var random = new Random();
-    random.setSeed(0);
-
-    return of(
-        nodeCount,
-        topicCount,
-        partitionCount,
-        replicaCount,
-        folderCount,
-        (partition) ->
-            IntStream.range(0, partition)
-                .mapToObj(
-                    (ignore) -> {
-                      final var suffix =
-                          IntStream.range(0, 5)
-                              .map(i -> random.nextInt(26))
-                              .map(i -> 'a' + i)
-                              .mapToObj(i -> String.valueOf((char) i))
-                              .collect(Collectors.joining());
-                      return "fake-topic-" + suffix;
-                    })
-                .collect(Collectors.toUnmodifiableSet()));
-  }
-
-  public static ClusterInfo<Replica> of(
-      int nodeCount,
-      int topicCount,
-      int partitionCount,
-      int replicaCount,
-      int folderCount,
-      Function<Integer, Set<String>> topicNameGenerator) {
-    final var dataDirectories =
-        IntStream.range(0, folderCount)
-            .mapToObj(i -> "/tmp/data-directory-" + i)
-            .collect(Collectors.toUnmodifiableSet());
-    final var nodes =
-        IntStream.range(0, nodeCount)
-            .mapToObj(nodeId -> NodeInfo.of(nodeId, "host" + nodeId, 9092))
-            .map(
-                node ->
-                    new Broker() {
-                      @Override
-                      public boolean isController() {
-                        throw new UnsupportedOperationException();
-                      }
-
-                      @Override
-                      public Config config() {
-                        throw new UnsupportedOperationException();
-                      }
-
-                      @Override
-                      public List<DataFolder> dataFolders() {
-                        return dataDirectories.stream()
-                            .map(
-                                x ->
-                                    new DataFolder() {
-                                      @Override
-                                      public String path() {
-                                        return x;
-                                      }
-
-                                      @Override
-                                      public Map<TopicPartition, Long> partitionSizes() {
-                                        throw new UnsupportedOperationException();
-                                      }
-
-                                      @Override
-                                      public Map<TopicPartition, Long> orphanPartitionSizes() {
-                                        throw new UnsupportedOperationException();
-                                      }
-                                    })
-                            .collect(Collectors.toUnmodifiableList());
-                      }
-
-                      @Override
-                      public Set<TopicPartition> topicPartitions() {
-                        throw new UnsupportedOperationException();
-                      }
-
-                      @Override
-                      public Set<TopicPartition> topicPartitionLeaders() {
-                        throw new UnsupportedOperationException();
-                      }
-
-                      @Override
-                      public String host() {
-                        return node.host();
-                      }
-
-                      @Override
-                      public int port() {
-                        return node.port();
-                      }
-
-                      @Override
-                      public int id() {
-                        return node.id();
-                      }
-                    })
-            .collect(Collectors.toUnmodifiableList());
-    final var dataDirectoryList = List.copyOf(dataDirectories);
-    final var topics = topicNameGenerator.apply(topicCount);
-    final var replicas =
-        topics.stream()
-            .flatMap(
-                topic ->
-                    IntStream.range(0, partitionCount)
-                        .mapToObj(p -> TopicPartition.of(topic, Integer.toString(p))))
-            .flatMap(
-                tp ->
-                    IntStream.range(0, replicaCount)
-                        .mapToObj(
-                            r ->
-                                Replica.builder()
-                                    .topic(tp.topic())
-                                    .partition(tp.partition())
-                                    .nodeInfo(nodes.get(r))
-                                    .lag(0)
-                                    .size(-1)
-                                    .isLeader(r == 0)
-                                    .inSync(true)
-                                    .isFuture(false)
-                                    .isOffline(false)
-                                    .isPreferredLeader(r == 0)
-                                    .path(
-                                        dataDirectoryList.get(
-                                            tp.partition() % dataDirectories.size()))
-                                    .build()))
-            .collect(Collectors.toUnmodifiableList());
-
-    return ClusterInfo.of(Set.copyOf(nodes), replicas);
+    return SyntheticCluster.builder()
+        .brokers(nodeCount)
+        .folders(folderCount)
+        .topics(topicCount)
+        .partitions(partitionCount)
+        .replicas(replicaCount)
+        .placement(SyntheticCluster.Placement.PACKED)
+        .build()
+        .clusterInfo();
   }
 }
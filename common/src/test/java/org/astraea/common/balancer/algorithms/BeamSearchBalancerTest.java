@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.algorithms;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.astraea.common.Utils;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.balancer.Balancer;
+import org.astraea.common.balancer.FakeClusterInfo;
+import org.astraea.common.balancer.log.ClusterLogAllocation;
+import org.astraea.common.cost.ReplicaLeaderCost;
+import org.astraea.common.metrics.BeanQuery;
+import org.astraea.common.metrics.MBeanClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BeamSearchBalancerTest {
+
+  @Test
+  void testConfig() {
+    Assertions.assertTrue(BeamSearchBalancer.ALL_CONFIGS.contains("beam.width"));
+    Assertions.assertTrue(BeamSearchBalancer.ALL_CONFIGS.contains("branch"));
+    Assertions.assertEquals(
+        BeamSearchBalancer.ALL_CONFIGS.size(),
+        Utils.constants(BeamSearchBalancer.class, name -> name.endsWith("CONFIG")).size(),
+        "No duplicate element");
+  }
+
+  @Test
+  void testOffer() {
+    var id = "TestBeamSearch-" + UUID.randomUUID();
+    var clusterInfo = FakeClusterInfo.of(5, 10, 10, 2);
+    var balancer =
+        Balancer.create(
+            BeamSearchBalancer.class,
+            AlgorithmConfig.builder()
+                .executionId(id)
+                .clusterCost(new ReplicaLeaderCost())
+                .config(BeamSearchBalancer.ITERATION_CONFIG, "50")
+                .config(BeamSearchBalancer.BEAM_WIDTH_CONFIG, "4")
+                .config(BeamSearchBalancer.PARALLELISM_CONFIG, "4")
+                .build());
+
+    var plan = balancer.offer(clusterInfo, Duration.ofSeconds(3)).orElseThrow();
+    Assertions.assertTrue(plan.proposalClusterCost().value() < plan.initialClusterCost().value());
+
+    try (MBeanClient client = MBeanClient.local()) {
+      var bean =
+          client.queryBean(
+              BeanQuery.builder()
+                  .domainName("astraea.balancer")
+                  .property("id", id)
+                  .property("algorithm", BeamSearchBalancer.class.getSimpleName())
+                  .property("run", "0")
+                  .build());
+      Assertions.assertTrue(0 < (long) bean.attributes().get("Generation"));
+      Assertions.assertTrue(50 >= (long) bean.attributes().get("Generation"));
+      Assertions.assertEquals(
+          plan.proposalClusterCost().value(), (double) bean.attributes().get("MinCost"));
+    }
+  }
+
+  @Test
+  void testSeed() {
+    var clusterInfo = FakeClusterInfo.of(5, 10, 10, 2);
+    // each balancer has its own execution id, so their progress beans don't collide
+    Function<String, AlgorithmConfig> config =
+        id ->
+            AlgorithmConfig.builder()
+                .executionId(id)
+                .clusterCost(new ReplicaLeaderCost())
+                .config(BeamSearchBalancer.ITERATION_CONFIG, "10")
+                .config(BeamSearchBalancer.SEED_CONFIG, "5566")
+                .build();
+    var plan0 =
+        Balancer.create(BeamSearchBalancer.class, config.apply("TestSeed-" + UUID.randomUUID()))
+            .offer(clusterInfo, Duration.ofSeconds(10))
+            .orElseThrow();
+    var plan1 =
+        Balancer.create(BeamSearchBalancer.class, config.apply("TestSeed-" + UUID.randomUUID()))
+            .offer(clusterInfo, Duration.ofSeconds(10))
+            .orElseThrow();
+    Assertions.assertEquals(
+        plan0.proposalClusterCost().value(), plan1.proposalClusterCost().value());
+    Assertions.assertEquals(
+        BeamSearchBalancer.placementHash(ClusterLogAllocation.of(clusterInfo), plan0.proposal()),
+        BeamSearchBalancer.placementHash(ClusterLogAllocation.of(clusterInfo), plan1.proposal()));
+  }
+
+  @Test
+  void testPlacementHash() {
+    var origin = ClusterLogAllocation.of(FakeClusterInfo.of(5, 2, 2, 2));
+    var followers =
+        origin.replicaStream()
+            .filter(r -> !r.isPreferredLeader())
+            .map(Replica::topicPartitionReplica)
+            .distinct()
+            .limit(2)
+            .collect(Collectors.toUnmodifiableList());
+    var leader =
+        origin.replicaStream()
+            .filter(r -> r.topicPartition().equals(followers.get(0).topicPartition()))
+            .filter(Replica::isPreferredLeader)
+            .findFirst()
+            .orElseThrow()
+            .topicPartitionReplica();
+    var first = origin.becomeLeader(followers.get(0)).becomeLeader(followers.get(1));
+    var second = origin.becomeLeader(followers.get(1)).becomeLeader(followers.get(0));
+
+    Assertions.assertEquals(0, BeamSearchBalancer.placementHash(origin, origin));
+    Assertions.assertEquals(
+        BeamSearchBalancer.placementHash(origin, first),
+        BeamSearchBalancer.placementHash(origin, second),
+        "the order of changes doesn't matter");
+    Assertions.assertNotEquals(
+        BeamSearchBalancer.placementHash(origin, first),
+        BeamSearchBalancer.placementHash(origin, origin.becomeLeader(followers.get(0))));
+    Assertions.assertEquals(
+        BeamSearchBalancer.placementHash(origin, origin.becomeLeader(followers.get(1))),
+        BeamSearchBalancer.placementHash(origin, first.becomeLeader(leader)),
+        "the partition changed back to the origin is ignored");
+  }
+
+  @Test
+  void testSamePlacement() {
+    var origin = ClusterLogAllocation.of(FakeClusterInfo.of(5, 2, 2, 2));
+    var followers =
+        origin.replicaStream()
+            .filter(r -> !r.isPreferredLeader())
+            .map(Replica::topicPartitionReplica)
+            .distinct()
+            .limit(2)
+            .collect(Collectors.toUnmodifiableList());
+    var leader =
+        origin.replicaStream()
+            .filter(r -> r.topicPartition().equals(followers.get(0).topicPartition()))
+            .filter(Replica::isPreferredLeader)
+            .findFirst()
+            .orElseThrow()
+            .topicPartitionReplica();
+    var first = origin.becomeLeader(followers.get(0)).becomeLeader(followers.get(1));
+    var second = origin.becomeLeader(followers.get(1)).becomeLeader(followers.get(0));
+
+    Assertions.assertTrue(BeamSearchBalancer.samePlacement(origin, origin));
+    Assertions.assertTrue(BeamSearchBalancer.samePlacement(first, second));
+    Assertions.assertFalse(
+        BeamSearchBalancer.samePlacement(first, origin.becomeLeader(followers.get(0))));
+    Assertions.assertTrue(
+        BeamSearchBalancer.samePlacement(
+            origin.becomeLeader(followers.get(1)), first.becomeLeader(leader)));
+  }
+}
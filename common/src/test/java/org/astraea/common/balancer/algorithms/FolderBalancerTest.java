@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.algorithms;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.NodeInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicPartitionReplica;
+import org.astraea.common.balancer.Balancer;
+import org.astraea.common.cost.DataFolderCost;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class FolderBalancerTest {
+
+  private static Replica replica(String topic, int broker, String path, long size) {
+    return Replica.builder()
+        .topic(topic)
+        .partition(0)
+        .nodeInfo(NodeInfo.of(broker, "", -1))
+        .lag(0)
+        .size(size)
+        .isLeader(true)
+        .inSync(true)
+        .isFuture(false)
+        .isOffline(false)
+        .isPreferredLeader(true)
+        .path(path)
+        .build();
+  }
+
+  private static final ClusterInfo<Replica> SKEWED =
+      ClusterInfo.of(
+          List.of(
+              replica("a", 0, "/a", 40),
+              replica("b", 0, "/a", 30),
+              replica("c", 0, "/a", 20),
+              replica("d", 0, "/a", 10),
+              replica("e", 0, "/b", 0),
+              replica("f", 1, "/a", 10)));
+
+  @Test
+  void testBalance() {
+    var moves = FolderBalancer.balance(SKEWED, SKEWED, 0, Map.of(), Long.MAX_VALUE);
+    Assertions.assertEquals(
+        Map.of(
+            TopicPartitionReplica.of("a", 0, 0), "/b", TopicPartitionReplica.of("d", 0, 0), "/b"),
+        moves);
+
+    // the replicas out of the allocation are not moved
+    var allocation = ClusterInfo.of(List.of(replica("d", 0, "/a", 10)));
+    Assertions.assertEquals(
+        Map.of(TopicPartitionReplica.of("d", 0, 0), "/b"),
+        FolderBalancer.balance(SKEWED, allocation, 0, Map.of(), Long.MAX_VALUE));
+
+    // the write rates count also. The empty folder takes all writes, so the folders are balanced
+    var rates = Map.of(TopicPartitionReplica.of("e", 0, 0), 100D);
+    Assertions.assertEquals(
+        Map.of(), FolderBalancer.balance(SKEWED, SKEWED, 0, rates, Long.MAX_VALUE));
+  }
+
+  @Test
+  void testOffer() {
+    var plan =
+        Balancer.create(
+                FolderBalancer.class,
+                AlgorithmConfig.builder().clusterCost(new DataFolderCost()).build())
+            .offer(SKEWED, Duration.ofSeconds(3))
+            .orElseThrow();
+    Assertions.assertEquals(0, plan.proposalClusterCost().value(), 0.0001);
+    Assertions.assertTrue(plan.initialClusterCost().value() > 0);
+    // the replicas stay in the same brokers
+    Assertions.assertEquals(
+        SKEWED.replicaStream().map(Replica::topicPartitionReplica).collect(Collectors.toSet()),
+        plan.proposal()
+            .replicaStream()
+            .map(Replica::topicPartitionReplica)
+            .collect(Collectors.toSet()));
+
+    // the balanced cluster has no plan
+    Assertions.assertTrue(
+        Balancer.create(
+                FolderBalancer.class,
+                AlgorithmConfig.builder().clusterCost(new DataFolderCost()).build())
+            .offer(
+                ClusterInfo.of(List.of(replica("a", 0, "/a", 10), replica("b", 0, "/b", 10))),
+                Duration.ofSeconds(3))
+            .isEmpty());
+  }
+}
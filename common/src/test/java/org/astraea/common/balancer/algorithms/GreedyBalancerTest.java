@@ -19,12 +19,14 @@ package org.astraea.common.balancer.algorithms;
 import java.time.Duration;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.IntStream;
 import org.astraea.common.Configuration;
 import org.astraea.common.Utils;
 import org.astraea.common.balancer.Balancer;
 import org.astraea.common.balancer.FakeClusterInfo;
 import org.astraea.common.cost.DecreasingCost;
+import org.astraea.common.cost.ReplicaLeaderCost;
 import org.astraea.common.metrics.BeanQuery;
 import org.astraea.common.metrics.MBeanClient;
 import org.junit.jupiter.api.Assertions;
@@ -86,4 +88,66 @@ class GreedyBalancerTest {
               });
     }
   }
+
+  @Test
+  void testParallelWalks() {
+    var id = "TestParallelWalks-" + UUID.randomUUID();
+    var clusterInfo = FakeClusterInfo.of(5, 10, 10, 2);
+    var balancer =
+        Balancer.create(
+            GreedyBalancer.class,
+            AlgorithmConfig.builder()
+                .executionId(id)
+                .clusterCost(new ReplicaLeaderCost())
+                .config(GreedyBalancer.PARALLELISM_CONFIG, "4")
+                .build());
+    var walkQuery =
+        BeanQuery.builder()
+            .domainName("astraea.balancer")
+            .property("id", id)
+            .property("walk", "*")
+            .usePropertyListPattern()
+            .build();
+
+    try (MBeanClient client = MBeanClient.local()) {
+      var offer =
+          CompletableFuture.supplyAsync(() -> balancer.offer(clusterInfo, Duration.ofSeconds(3)));
+      // each walk has a bean while the offer runs
+      Utils.waitFor(() -> client.queryBeans(walkQuery).size() == 4, Duration.ofSeconds(3));
+      client
+          .queryBeans(walkQuery)
+          .forEach(
+              walk -> {
+                Assertions.assertEquals("0", walk.properties().get("run"));
+                Assertions.assertTrue((long) walk.attributes().get("Iteration") >= 0);
+                Assertions.assertTrue((double) walk.attributes().get("Cost") <= 1.0);
+              });
+
+      var plan = offer.join().orElseThrow();
+      Assertions.assertTrue(plan.proposalClusterCost().value() < plan.initialClusterCost().value());
+      Assertions.assertEquals(0, client.queryBeans(walkQuery).size(), "the walks are done");
+
+      var run =
+          client.queryBean(
+              BeanQuery.builder()
+                  .domainName("astraea.balancer")
+                  .property("id", id)
+                  .property("algorithm", GreedyBalancer.class.getSimpleName())
+                  .property("run", "0")
+                  .build());
+      Assertions.assertEquals(
+          plan.proposalClusterCost().value(), (double) run.attributes().get("MinCost"));
+      Assertions.assertTrue((long) run.attributes().get("Iteration") >= 4);
+      Assertions.assertTrue((long) run.attributes().get("Restart") >= 0);
+    }
+
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new GreedyBalancer(
+                AlgorithmConfig.builder()
+                    .clusterCost(new ReplicaLeaderCost())
+                    .config(GreedyBalancer.PRUNE_RATIO_CONFIG, "-1")
+                    .build()));
+  }
 }
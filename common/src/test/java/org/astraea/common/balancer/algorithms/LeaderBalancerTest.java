@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.algorithms;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.NodeInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicPartition;
+import org.astraea.common.balancer.Balancer;
+import org.astraea.common.balancer.FakeClusterInfo;
+import org.astraea.common.cost.ReplicaLeaderCost;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LeaderBalancerTest {
+
+  private static Map<Integer, Long> leaders(ClusterInfo<Replica> clusterInfo) {
+    return clusterInfo
+        .replicaStream()
+        .filter(Replica::isPreferredLeader)
+        .collect(Collectors.groupingBy(r -> r.nodeInfo().id(), Collectors.counting()));
+  }
+
+  @Test
+  void testBalance() {
+    // all the leaders are on broker 0
+    var clusterInfo = FakeClusterInfo.of(3, 10, 10, 3);
+    var leaders = LeaderBalancer.balance(clusterInfo, Long.MAX_VALUE);
+    Assertions.assertFalse(leaders.containsValue(0), "only the moved leaders are returned");
+    var counts =
+        leaders.values().stream().collect(Collectors.groupingBy(id -> id, Collectors.counting()));
+    counts.put(0, 100L - leaders.size());
+    Assertions.assertEquals(
+        List.of(33L, 33L, 34L), counts.values().stream().sorted().collect(Collectors.toList()));
+  }
+
+  @Test
+  void testPath() {
+    // broker 0 leads everything, but it shares partitions with broker 1 only. Broker 1 shares
+    // the partitions b-* with broker 2, so the leaders move to broker 2 through broker 1.
+    var replicas =
+        List.of(
+            replica("a", 0, 0, true, true),
+            replica("a", 0, 1, false, true),
+            replica("a", 1, 0, true, true),
+            replica("a", 1, 1, false, true),
+            replica("b", 0, 1, true, true),
+            replica("b", 0, 2, false, true),
+            replica("b", 1, 1, true, true),
+            replica("b", 1, 2, false, true));
+    var clusterInfo = ClusterInfo.of(replicas);
+    Assertions.assertEquals(Map.of(0, 2L, 1, 2L), leaders(clusterInfo));
+    var leaders = LeaderBalancer.balance(clusterInfo, Long.MAX_VALUE);
+    var counts =
+        clusterInfo.topicPartitions().stream()
+            .collect(
+                Collectors.groupingBy(
+                    tp ->
+                        leaders.getOrDefault(
+                            tp,
+                            clusterInfo.replicas(tp).stream()
+                                .filter(Replica::isPreferredLeader)
+                                .findFirst()
+                                .orElseThrow()
+                                .nodeInfo()
+                                .id()),
+                    Collectors.counting()));
+    Assertions.assertEquals(3, counts.size(), "each broker leads a partition at least");
+    Assertions.assertTrue(counts.values().stream().allMatch(c -> c <= 2));
+  }
+
+  @Test
+  void testOutOfSyncReplica() {
+    var replicas =
+        List.of(
+            replica("a", 0, 0, true, true),
+            replica("a", 0, 1, false, false),
+            replica("a", 1, 0, true, true),
+            replica("a", 1, 1, false, false));
+    Assertions.assertEquals(
+        Map.of(), LeaderBalancer.balance(ClusterInfo.of(replicas), Long.MAX_VALUE));
+  }
+
+  @Test
+  void testOffer() {
+    var clusterInfo = FakeClusterInfo.of(3, 10, 10, 3);
+    var plan =
+        Balancer.create(
+                LeaderBalancer.class,
+                AlgorithmConfig.builder().clusterCost(new ReplicaLeaderCost()).build())
+            .offer(clusterInfo, Duration.ofSeconds(3))
+            .orElseThrow();
+    Assertions.assertTrue(
+        plan.proposalClusterCost().value() < plan.initialClusterCost().value(),
+        "the leader count is more even");
+    Assertions.assertEquals(
+        List.of(33L, 33L, 34L),
+        leaders(plan.proposal()).values().stream().sorted().collect(Collectors.toList()));
+    // no replica is moved
+    clusterInfo
+        .topicPartitions()
+        .forEach(
+            tp ->
+                Assertions.assertEquals(
+                    clusterInfo.replicas(tp).stream()
+                        .map(r -> r.nodeInfo().id())
+                        .collect(Collectors.toSet()),
+                    plan.proposal().replicas(tp).stream()
+                        .map(r -> r.nodeInfo().id())
+                        .collect(Collectors.toSet())));
+
+    // the balanced cluster has no plan
+    Assertions.assertTrue(
+        Balancer.create(
+                LeaderBalancer.class,
+                AlgorithmConfig.builder().clusterCost(new ReplicaLeaderCost()).build())
+            .offer(FakeClusterInfo.of(3, 1, 1, 3), Duration.ofSeconds(3))
+            .isEmpty());
+  }
+
+  private static Replica replica(
+      String topic, int partition, int broker, boolean leader, boolean inSync) {
+    return Replica.builder()
+        .topic(topic)
+        .partition(partition)
+        .nodeInfo(NodeInfo.of(broker, "", -1))
+        .lag(0)
+        .size(0)
+        .isLeader(leader)
+        .inSync(inSync)
+        .isFuture(false)
+        .isOffline(false)
+        .isPreferredLeader(leader)
+        .path("/tmp/aa")
+        .build();
+  }
+}
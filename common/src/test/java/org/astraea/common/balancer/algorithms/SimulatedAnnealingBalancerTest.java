@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.algorithms;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import org.astraea.common.Configuration;
+import org.astraea.common.Utils;
+import org.astraea.common.balancer.Balancer;
+import org.astraea.common.balancer.FakeClusterInfo;
+import org.astraea.common.cost.DecreasingCost;
+import org.astraea.common.cost.ReplicaLeaderCost;
+import org.astraea.common.metrics.BeanQuery;
+import org.astraea.common.metrics.MBeanClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SimulatedAnnealingBalancerTest {
+
+  @Test
+  void testConfig() {
+    Assertions.assertTrue(
+        SimulatedAnnealingBalancer.ALL_CONFIGS.containsAll(
+            Set.of(
+                GreedyBalancer.SHUFFLE_PLAN_GENERATOR_MIN_STEP_CONFIG,
+                GreedyBalancer.SHUFFLE_PLAN_GENERATOR_MAX_STEP_CONFIG,
+                GreedyBalancer.ITERATION_CONFIG,
+                GreedyBalancer.SEED_CONFIG)),
+        "The walk configs of greedy balancer are supported");
+    Assertions.assertEquals(
+        SimulatedAnnealingBalancer.ALL_CONFIGS.size(),
+        Utils.constants(SimulatedAnnealingBalancer.class, name -> name.endsWith("CONFIG")).size(),
+        "No duplicate element");
+
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new SimulatedAnnealingBalancer(
+                AlgorithmConfig.builder()
+                    .clusterCost(new ReplicaLeaderCost())
+                    .config(SimulatedAnnealingBalancer.COOLING_RATE_CONFIG, "1.5")
+                    .build()));
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new SimulatedAnnealingBalancer(
+                AlgorithmConfig.builder()
+                    .clusterCost(new ReplicaLeaderCost())
+                    .config(SimulatedAnnealingBalancer.INITIAL_TEMPERATURE_CONFIG, "0")
+                    .build()));
+  }
+
+  @Test
+  void testAccept() {
+    var random = new Random(0);
+    Assertions.assertTrue(SimulatedAnnealingBalancer.accept(1, 0.5, 0.1, random));
+    Assertions.assertTrue(SimulatedAnnealingBalancer.accept(1, 1, 0.1, random));
+
+    // a slightly worse candidate is accepted by high temperature, but not by low temperature
+    var hot =
+        IntStream.range(0, 1000)
+            .filter(i -> SimulatedAnnealingBalancer.accept(1, 1.01, 1, random))
+            .count();
+    var cold =
+        IntStream.range(0, 1000)
+            .filter(i -> SimulatedAnnealingBalancer.accept(1, 1.01, 0.0001, random))
+            .count();
+    Assertions.assertTrue(hot > 900, "accepted: " + hot);
+    Assertions.assertEquals(0, cold);
+  }
+
+  @Test
+  void testSeed() {
+    var clusterInfo = FakeClusterInfo.of(5, 10, 10, 2);
+    // each balancer has its own execution id, so their progress beans don't collide
+    Function<String, AlgorithmConfig> config =
+        id ->
+            AlgorithmConfig.builder()
+                .executionId(id)
+                .clusterCost(new ReplicaLeaderCost())
+                .config(SimulatedAnnealingBalancer.SEED_CONFIG, "100")
+                .config(SimulatedAnnealingBalancer.ITERATION_CONFIG, "300")
+                .config(SimulatedAnnealingBalancer.REHEAT_STALL_CONFIG, "50")
+                .build();
+    var plan0 =
+        Balancer.create(
+                SimulatedAnnealingBalancer.class, config.apply("TestSeed-" + UUID.randomUUID()))
+            .offer(clusterInfo, Duration.ofSeconds(30))
+            .orElseThrow();
+    var plan1 =
+        Balancer.create(
+                SimulatedAnnealingBalancer.class, config.apply("TestSeed-" + UUID.randomUUID()))
+            .offer(clusterInfo, Duration.ofSeconds(30))
+            .orElseThrow();
+
+    Assertions.assertTrue(plan0.proposalClusterCost().value() < plan0.initialClusterCost().value());
+    Assertions.assertEquals(
+        plan0.proposalClusterCost().value(), plan1.proposalClusterCost().value());
+    Assertions.assertEquals(
+        Set.copyOf(plan0.proposal().replicas()), Set.copyOf(plan1.proposal().replicas()));
+  }
+
+  @Test
+  void testJmx() {
+    var cost = new DecreasingCost(Configuration.of(Map.of()));
+    var id = "TestJmx-" + UUID.randomUUID();
+    var clusterInfo = FakeClusterInfo.of(5, 5, 5, 2);
+    var balancer =
+        Balancer.create(
+            SimulatedAnnealingBalancer.class,
+            AlgorithmConfig.builder()
+                .executionId(id)
+                .clusterCost(cost)
+                .config(SimulatedAnnealingBalancer.ITERATION_CONFIG, "100")
+                .build());
+
+    try (MBeanClient client = MBeanClient.local()) {
+      IntStream.range(0, 10)
+          .forEach(
+              run -> {
+                var plan = balancer.offer(clusterInfo, Duration.ofMillis(300));
+                Assertions.assertTrue(plan.isPresent());
+                var bean =
+                    Assertions.assertDoesNotThrow(
+                        () ->
+                            client.queryBean(
+                                BeanQuery.builder()
+                                    .domainName("astraea.balancer")
+                                    .property("id", id)
+                                    .property(
+                                        "algorithm",
+                                        SimulatedAnnealingBalancer.class.getSimpleName())
+                                    .property("run", Integer.toString(run))
+                                    .build()));
+                Assertions.assertEquals("astraea.balancer", bean.domainName());
+                Assertions.assertTrue(0 < (long) bean.attributes().get("Iteration"));
+                Assertions.assertTrue(1.0 > (double) bean.attributes().get("MinCost"));
+              });
+    }
+  }
+}
@@ -0,0 +1,330 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.executor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.astraea.common.DataRate;
+import org.astraea.common.DataSize;
+import org.astraea.common.Utils;
+import org.astraea.common.admin.Admin;
+import org.astraea.common.admin.Broker;
+import org.astraea.common.admin.BrokerConfigs;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Config;
+import org.astraea.common.admin.NodeInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicConfigs;
+import org.astraea.common.admin.TopicPartition;
+import org.astraea.common.balancer.log.ClusterLogAllocation;
+import org.astraea.common.metrics.BeanQuery;
+import org.astraea.common.metrics.MBeanClient;
+import org.astraea.it.RequireBrokerCluster;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class BatchedPlanExecutorTest extends RequireBrokerCluster {
+
+  private static Replica replica(TopicPartition tp, int broker, long size, boolean leader) {
+    return Replica.builder()
+        .topic(tp.topic())
+        .partition(tp.partition())
+        .nodeInfo(NodeInfo.of(broker, "", -1))
+        .lag(0)
+        .size(size)
+        .isLeader(leader)
+        .inSync(true)
+        .isFuture(false)
+        .isOffline(false)
+        .isPreferredLeader(leader)
+        .path("/tmp/aa")
+        .build();
+  }
+
+  private static BatchedPlanExecutor.Move move(int partition, int from, int to, long size) {
+    var tp = TopicPartition.of("topic", partition);
+    return BatchedPlanExecutor.Move.of(
+        tp, List.of(replica(tp, from, size, true)), List.of(replica(tp, to, size, true)));
+  }
+
+  @Test
+  void testAdmit() {
+    var executor =
+        new BatchedPlanExecutor(3, DataSize.Byte.of(100), Optional.empty(), Duration.ZERO);
+
+    // broker 0 -> 1 is full after the first move, so the small move of 2 -> 3 fills the window
+    var pending = new ArrayList<>(List.of(move(0, 0, 1, 80), move(1, 0, 1, 80), move(2, 2, 3, 10)));
+    var admitted = executor.admit(pending, 0, Map.of());
+    Assertions.assertEquals(2, admitted.size());
+    Assertions.assertEquals(1, pending.size());
+
+    // the move larger than the limit is admitted once its brokers are idle
+    pending = new ArrayList<>(List.of(move(0, 0, 1, 1000)));
+    Assertions.assertEquals(0, executor.admit(pending, 0, Map.of(0, 10L)).size());
+    Assertions.assertEquals(1, executor.admit(pending, 0, Map.of(0, 0L)).size());
+
+    // the number of moving partitions is limited
+    pending =
+        IntStream.range(0, 10)
+            .mapToObj(i -> move(i, i, i + 100, 1))
+            .collect(Collectors.toCollection(ArrayList::new));
+    Assertions.assertEquals(3, executor.admit(pending, 0, Map.of()).size());
+    Assertions.assertEquals(1, executor.admit(pending, 2, Map.of()).size());
+    Assertions.assertEquals(0, executor.admit(pending, 3, Map.of()).size());
+  }
+
+  @Test
+  void testMove() {
+    var tp = TopicPartition.of("topic", 0);
+    var move =
+        BatchedPlanExecutor.Move.of(
+            tp,
+            List.of(replica(tp, 0, 50, true), replica(tp, 1, 40, false)),
+            List.of(replica(tp, 1, 40, true), replica(tp, 2, 0, false)));
+    Assertions.assertEquals(Set.of(0, 1, 2), move.brokers());
+
+    // nothing is copied if the brokers are unchanged
+    var reorder =
+        BatchedPlanExecutor.Move.of(
+            tp,
+            List.of(replica(tp, 0, 50, true), replica(tp, 1, 40, false)),
+            List.of(replica(tp, 1, 40, true), replica(tp, 0, 50, false)));
+    Assertions.assertEquals(Set.of(), reorder.brokers());
+  }
+
+  @Test
+  void testRestoreRates() {
+    var p0 = TopicPartition.of("topic", 0);
+    var p1 = TopicPartition.of("topic", 1);
+    var current = ClusterInfo.of(List.of(replica(p0, 0, 10, true), replica(p1, 2, 10, true)));
+    var moving = ClusterInfo.of(List.of(replica(p0, 1, 10, true), replica(p1, 2, 10, true)));
+    var target = ClusterInfo.of(List.of(replica(p0, 1, 10, true), replica(p1, 3, 10, true)));
+    var timeout = Duration.ofSeconds(3);
+
+    var admin = Mockito.mock(Admin.class);
+    Mockito.when(admin.topicNames(true))
+        .thenReturn(CompletableFuture.completedFuture(Set.of("topic")));
+    Mockito.when(admin.clusterInfo(Set.of("topic")))
+        .thenReturn(CompletableFuture.completedFuture(current))
+        .thenReturn(CompletableFuture.completedFuture(moving))
+        .thenReturn(CompletableFuture.completedFuture(target));
+    // broker 0 has a leader rate already
+    var originalRate = Map.of(BrokerConfigs.LEADER_REPLICATION_THROTTLED_RATE_CONFIG, "10");
+    var brokers =
+        IntStream.range(0, 4)
+            .mapToObj(
+                id -> {
+                  var broker = Mockito.mock(Broker.class);
+                  Mockito.when(broker.id()).thenReturn(id);
+                  Mockito.when(broker.config())
+                      .thenReturn(Config.of(id == 0 ? originalRate : Map.of()));
+                  return broker;
+                })
+            .collect(Collectors.toUnmodifiableList());
+    Mockito.when(admin.brokers()).thenReturn(CompletableFuture.completedFuture(brokers));
+    Mockito.when(admin.setBrokerConfigs(Mockito.anyMap()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    Mockito.when(admin.unsetBrokerConfigs(Mockito.anyMap()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    Mockito.when(admin.appendTopicConfigs(Mockito.anyMap()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    Mockito.when(admin.subtractTopicConfigs(Mockito.anyMap()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    Mockito.when(admin.moveToBrokers(Mockito.anyMap()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    Mockito.when(admin.moveToFolders(Mockito.anyMap()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    Mockito.when(admin.waitReplicasSynced(target.topicPartitionReplicas(), timeout))
+        .thenReturn(CompletableFuture.completedFuture(true));
+    Mockito.when(admin.preferredLeaderElection(target.topicPartitions()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    Mockito.when(admin.waitPreferredLeaderSynced(target.topicPartitions(), timeout))
+        .thenReturn(CompletableFuture.completedFuture(true));
+
+    // one partition at a time, so the brokers are throttled in two windows
+    new BatchedPlanExecutor(
+            1, DataSize.Byte.of(100), Optional.of(DataRate.Byte.of(5).perSecond()), Duration.ZERO)
+        .run(admin, target, timeout)
+        .toCompletableFuture()
+        .join();
+
+    var both =
+        Set.of(
+            BrokerConfigs.LEADER_REPLICATION_THROTTLED_RATE_CONFIG,
+            BrokerConfigs.FOLLOWER_REPLICATION_THROTTLED_RATE_CONFIG);
+    Mockito.verify(admin, Mockito.times(1))
+        .setBrokerConfigs(
+            Map.of(
+                0,
+                Map.of(
+                    BrokerConfigs.LEADER_REPLICATION_THROTTLED_RATE_CONFIG,
+                    "5",
+                    BrokerConfigs.FOLLOWER_REPLICATION_THROTTLED_RATE_CONFIG,
+                    "5"),
+                1,
+                Map.of(
+                    BrokerConfigs.LEADER_REPLICATION_THROTTLED_RATE_CONFIG,
+                    "5",
+                    BrokerConfigs.FOLLOWER_REPLICATION_THROTTLED_RATE_CONFIG,
+                    "5")));
+    // the original rate of broker 0 is set back, and the others are unset
+    Mockito.verify(admin, Mockito.times(1))
+        .setBrokerConfigs(Map.of(0, originalRate));
+    Mockito.verify(admin, Mockito.times(1))
+        .unsetBrokerConfigs(
+            Map.of(
+                0, Set.of(BrokerConfigs.FOLLOWER_REPLICATION_THROTTLED_RATE_CONFIG), 1, both));
+    Mockito.verify(admin, Mockito.times(1)).unsetBrokerConfigs(Map.of(2, both, 3, both));
+  }
+
+  @Test
+  void testTimeout() {
+    var partitions =
+        IntStream.range(0, 4)
+            .mapToObj(i -> TopicPartition.of("topic", i))
+            .collect(Collectors.toUnmodifiableList());
+    var target =
+        ClusterInfo.of(
+            partitions.stream()
+                .map(tp -> replica(tp, 1, 10, true))
+                .collect(Collectors.toUnmodifiableList()));
+    var polls = new AtomicInteger();
+    var admin = Mockito.mock(Admin.class);
+    Mockito.when(admin.topicNames(true))
+        .thenReturn(CompletableFuture.completedFuture(Set.of("topic")));
+    // a partition gets moved every 10 polls, so each batch is shorter than the timeout
+    Mockito.when(admin.clusterInfo(Set.of("topic")))
+        .thenAnswer(
+            invocation -> {
+              var moved = polls.getAndIncrement() / 10;
+              return CompletableFuture.completedFuture(
+                  ClusterInfo.of(
+                      IntStream.range(0, partitions.size())
+                          .mapToObj(i -> replica(partitions.get(i), i < moved ? 1 : 0, 10, true))
+                          .collect(Collectors.toUnmodifiableList())));
+            });
+    Mockito.when(admin.moveToBrokers(Mockito.anyMap()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    Mockito.when(admin.moveToFolders(Mockito.anyMap()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    var executor =
+        new BatchedPlanExecutor(1, DataSize.Byte.of(100), Optional.empty(), Duration.ofMillis(10));
+    var error =
+        Assertions.assertThrows(
+            CompletionException.class,
+            () ->
+                executor
+                    .run(admin, target, Duration.ofMillis(250))
+                    .toCompletableFuture()
+                    .join());
+    Assertions.assertInstanceOf(IllegalStateException.class, error.getCause());
+
+    // the bean of the run is unregistered even if the run fails
+    try (MBeanClient client = MBeanClient.local()) {
+      Assertions.assertEquals(
+          0,
+          client
+              .queryBeans(
+                  BeanQuery.builder()
+                      .domainName("astraea.balancer")
+                      .property("executor", BatchedPlanExecutor.class.getSimpleName())
+                      .property("run", "*")
+                      .usePropertyListPattern()
+                      .build())
+              .size());
+    }
+  }
+
+  @Test
+  void testRun() {
+    try (Admin admin = Admin.of(bootstrapServers())) {
+      final var topicName = "BatchedPlanExecutorTest_" + Utils.randomString(8);
+      admin
+          .creator()
+          .topic(topicName)
+          .numberOfPartitions(10)
+          .numberOfReplicas((short) 1)
+          .run()
+          .toCompletableFuture()
+          .join();
+      Utils.sleep(Duration.ofSeconds(2));
+
+      final var logFolder = logFolders().get(0).stream().findAny().orElseThrow();
+      final var allocation =
+          IntStream.range(0, 10)
+              .mapToObj(i -> TopicPartition.of(topicName, i))
+              .map(
+                  tp ->
+                      Replica.builder()
+                          .topic(tp.topic())
+                          .partition(tp.partition())
+                          .nodeInfo(NodeInfo.of(0, "", -1))
+                          .lag(0)
+                          .size(0)
+                          .isLeader(true)
+                          .inSync(true)
+                          .isFuture(false)
+                          .isOffline(false)
+                          .isPreferredLeader(true)
+                          .path(logFolder)
+                          .build())
+              .collect(Collectors.toUnmodifiableList());
+      final var expectedAllocation = ClusterLogAllocation.of(ClusterInfo.of(allocation));
+
+      new BatchedPlanExecutor(
+              2,
+              DataSize.MB.of(1),
+              Optional.of(DataRate.MB.of(10).perSecond()),
+              Duration.ofMillis(300))
+          .run(admin, expectedAllocation, Duration.ofSeconds(10))
+          .toCompletableFuture()
+          .join();
+
+      final var currentAllocation =
+          admin
+              .clusterInfo(Set.of(topicName))
+              .thenApply(ClusterLogAllocation::of)
+              .toCompletableFuture()
+              .join();
+      expectedAllocation
+          .topicPartitions()
+          .forEach(
+              tp ->
+                  Assertions.assertTrue(
+                      ClusterInfo.placementMatch(
+                          expectedAllocation.replicas(tp), currentAllocation.replicas(tp))));
+
+      // the throttled replicas are cleared
+      var config = admin.topics(Set.of(topicName)).toCompletableFuture().join().get(0).config();
+      Assertions.assertEquals(
+          "", config.value(TopicConfigs.LEADER_REPLICATION_THROTTLED_REPLICAS_CONFIG).orElse(""));
+      Assertions.assertEquals(
+          "", config.value(TopicConfigs.FOLLOWER_REPLICATION_THROTTLED_REPLICAS_CONFIG).orElse(""));
+    }
+  }
+}
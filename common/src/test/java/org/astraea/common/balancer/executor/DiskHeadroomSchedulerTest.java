@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.executor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.astraea.common.admin.Broker;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.NodeInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicPartition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DiskHeadroomSchedulerTest {
+
+  private static Replica replica(int partition, int broker, long size) {
+    return replica(partition, broker, size, "/tmp/aa");
+  }
+
+  private static Replica replica(int partition, int broker, long size, String path) {
+    return Replica.builder()
+        .topic("topic")
+        .partition(partition)
+        .nodeInfo(NodeInfo.of(broker, "", -1))
+        .lag(0)
+        .size(size)
+        .isLeader(true)
+        .inSync(true)
+        .isFuture(false)
+        .isOffline(false)
+        .isPreferredLeader(true)
+        .path(path)
+        .build();
+  }
+
+  @Test
+  void testSchedule() {
+    var current = ClusterInfo.of(List.of(replica(0, 0, 40), replica(1, 1, 30), replica(2, 0, 20)));
+    var target = ClusterInfo.of(List.of(replica(0, 1, 40), replica(1, 0, 30), replica(2, 1, 20)));
+
+    // broker 0 has no headroom until partition 0 and 2 leave
+    var waves = DiskHeadroomScheduler.schedule(
+            Map.of(0, Map.of("/tmp/aa", 0L), 1, Map.of("/tmp/aa", 60L)), current, target);
+    Assertions.assertEquals(
+        List.of(
+            Set.of(TopicPartition.of("topic", 0), TopicPartition.of("topic", 2)),
+            Set.of(TopicPartition.of("topic", 1))),
+        waves);
+
+    // the brokers without headroom are not limited
+    Assertions.assertEquals(1, DiskHeadroomScheduler.schedule(Map.of(), current, target).size());
+
+    // the fulfilled partitions are excluded
+    Assertions.assertEquals(List.of(), DiskHeadroomScheduler.schedule(Map.of(), current, current));
+
+    Assertions.assertThrows(
+        IllegalStateException.class,
+        () ->
+            DiskHeadroomScheduler.schedule(
+                Map.of(0, Map.of("/tmp/aa", 0L), 1, Map.of("/tmp/aa", 0L)), current, target));
+  }
+
+  @Test
+  void testScheduleByFolder() {
+    var current =
+        ClusterInfo.of(
+            List.of(replica(0, 1, 40, "/b"), replica(1, 0, 30, "/a"), replica(2, 0, 20, "/a")));
+    var target =
+        ClusterInfo.of(
+            List.of(replica(0, 1, 40, "/a"), replica(1, 1, 30, "/b"), replica(2, 1, 20, "/b")));
+
+    // broker 1 has plenty of space in total, but the folder "/b" can't hold partition 1 until
+    // partition 0 leaves
+    var waves =
+        DiskHeadroomScheduler.schedule(
+            Map.of(1, Map.of("/a", 1000L, "/b", 20L)), current, target);
+    Assertions.assertEquals(
+        List.of(
+            Set.of(TopicPartition.of("topic", 0), TopicPartition.of("topic", 2)),
+            Set.of(TopicPartition.of("topic", 1))),
+        waves);
+  }
+
+  @Test
+  void testHeadroom() {
+    var spaces =
+        Map.of(
+            0,
+            List.of(Broker.DiskSpace.of("/a", 100, 50), Broker.DiskSpace.of("/b", 100, 30)),
+            1,
+            List.of(Broker.DiskSpace.of("/a", 100, 5)));
+    Assertions.assertEquals(
+        Map.of(0, Map.of("/a", 40L, "/b", 20L), 1, Map.of("/a", -5L)),
+        DiskHeadroomScheduler.headroom(spaces, 0.9));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new DiskHeadroomScheduler(0));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new DiskHeadroomScheduler(1.1));
+  }
+}
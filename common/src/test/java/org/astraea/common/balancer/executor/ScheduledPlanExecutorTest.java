@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.executor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.astraea.common.Utils;
+import org.astraea.common.admin.Admin;
+import org.astraea.common.admin.Broker;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.NodeInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicPartition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class ScheduledPlanExecutorTest {
+
+  private static Replica replica(int partition, int broker, long size) {
+    return Replica.builder()
+        .topic("topic")
+        .partition(partition)
+        .nodeInfo(NodeInfo.of(broker, "", -1))
+        .lag(0)
+        .size(size)
+        .isLeader(true)
+        .inSync(true)
+        .isFuture(false)
+        .isOffline(false)
+        .isPreferredLeader(true)
+        .path("/tmp/aa")
+        .build();
+  }
+
+  @Test
+  void testRunWavesInOrder() {
+    var current = ClusterInfo.of(List.of(replica(0, 1, 40), replica(1, 0, 30), replica(2, 0, 20)));
+    var target = ClusterInfo.of(List.of(replica(0, 0, 40), replica(1, 1, 30), replica(2, 1, 20)));
+
+    var admin = Mockito.mock(Admin.class);
+    Mockito.when(admin.topicNames(true))
+        .thenReturn(CompletableFuture.completedFuture(Set.of("topic")));
+    Mockito.when(admin.clusterInfo(Set.of("topic")))
+        .thenReturn(CompletableFuture.completedFuture(current));
+    // the folder of broker 1 can receive 30 bytes, so partition 1 has to wait for partition 0
+    Mockito.when(admin.diskSpaces())
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                Map.of(1, List.of(Broker.DiskSpace.of("/tmp/aa", 1000, 130)))));
+
+    var waves = new ArrayList<Set<TopicPartition>>();
+    var running = new ArrayList<Boolean>();
+    var executor =
+        new RebalancePlanExecutor() {
+          private volatile boolean busy = false;
+
+          @Override
+          public CompletionStage<Void> run(
+              Admin admin, ClusterInfo<Replica> targetAllocation, Duration timeout) {
+            // a wave should not be started before the previous wave is completed
+            running.add(busy);
+            busy = true;
+            waves.add(targetAllocation.topicPartitions());
+            return CompletableFuture.runAsync(
+                () -> {
+                  Utils.sleep(Duration.ofMillis(100));
+                  busy = false;
+                });
+          }
+        };
+
+    RebalancePlanExecutor.of(executor, MigrationScheduler.diskHeadroom(0.9))
+        .run(admin, target, Duration.ofSeconds(3))
+        .toCompletableFuture()
+        .join();
+
+    Assertions.assertEquals(
+        List.of(
+            Set.of(TopicPartition.of("topic", 0), TopicPartition.of("topic", 2)),
+            Set.of(TopicPartition.of("topic", 1))),
+        waves);
+    Assertions.assertEquals(List.of(false, false), running);
+  }
+}
@@ -17,6 +17,7 @@
 package org.astraea.common.balancer.log;
 
 import java.time.Duration;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -241,6 +242,149 @@ class ClusterLogAllocationTest extends RequireBrokerCluster {
             .path());
   }
 
+  @Test
+  void testChangedPartitions() {
+    final var randomTopicPartitions = generateRandomTopicPartition();
+    final var randomReplicas = generateRandomReplicaList(randomTopicPartitions, (short) 3);
+    final var allocation = ClusterLogAllocation.of(ClusterInfo.of(randomReplicas));
+    final var replicas = List.copyOf(randomReplicas);
+    final var first = replicas.get(0);
+    final var second =
+        replicas.stream()
+            .filter(r -> !r.topicPartition().equals(first.topicPartition()))
+            .findFirst()
+            .orElseThrow();
+    Assertions.assertEquals(Set.of(), allocation.changedPartitions());
+
+    final var migrated = allocation.migrateReplica(first.topicPartitionReplica(), 9999, "/dir");
+    Assertions.assertEquals(Set.of(first.topicPartition()), migrated.changedPartitions());
+    Assertions.assertEquals(Set.of(), allocation.changedPartitions(), "the origin is unchanged");
+
+    final var leader = migrated.becomeLeader(second.topicPartitionReplica());
+    Assertions.assertEquals(
+        Set.of(first.topicPartition(), second.topicPartition()), leader.changedPartitions());
+  }
+
+  @Test
+  void testChangedPartitionsSinceParent() {
+    final var topicPartitions =
+        IntStream.range(0, 100)
+            .mapToObj(i -> TopicPartition.of("walk-" + i, 0))
+            .collect(Collectors.toUnmodifiableList());
+    final var origin =
+        ClusterLogAllocation.of(
+            ClusterInfo.of(generateRandomReplicaList(Set.copyOf(topicPartitions), (short) 3)));
+    var allocation = origin;
+    for (var step = 0; step < 300; step++) {
+      var tp = topicPartitions.get(ThreadLocalRandom.current().nextInt(topicPartitions.size()));
+      var next =
+          allocation.becomeLeader(allocation.replicas(tp).get(step % 3).topicPartitionReplica());
+      var candidates = next.changedPartitions(allocation);
+      // the candidates don't grow with the walk
+      Assertions.assertTrue(candidates.size() <= 33, "candidates: " + candidates.size());
+      for (var p : topicPartitions)
+        if (!candidates.contains(p))
+          Assertions.assertEquals(allocation.replicas(p), next.replicas(p), "missed " + p);
+      allocation = next;
+    }
+    Assertions.assertEquals(
+        allocation.changedPartitions(), allocation.changedPartitions(origin), "fallback");
+  }
+
+  @Test
+  void testStructuralSharing() {
+    final var topicPartitions =
+        IntStream.range(0, 100)
+            .mapToObj(i -> TopicPartition.of("sharing-" + i, 0))
+            .collect(Collectors.toUnmodifiableList());
+    final var origin =
+        ClusterLogAllocation.of(
+            ClusterInfo.of(generateRandomReplicaList(Set.copyOf(topicPartitions), (short) 3)));
+    var allocation = origin;
+    var broker = 1000;
+    // change more partitions than the recent layer holds
+    for (var tp : topicPartitions.subList(0, 50)) {
+      var source = allocation.replicas(tp).get(0).topicPartitionReplica();
+      allocation = allocation.migrateReplica(source, broker++, "/dir");
+      allocation = allocation.becomeLeader(allocation.replicas(tp).get(1).topicPartitionReplica());
+    }
+    Assertions.assertEquals(
+        Set.copyOf(topicPartitions.subList(0, 50)), allocation.changedPartitions());
+
+    final var rebuilt = ClusterInfo.of(allocation.nodes(), allocation.replicas());
+    Assertions.assertEquals(Set.copyOf(rebuilt.replicas()), Set.copyOf(allocation.replicas()));
+    for (var id : List.of(0, 1, 2, 1000, 1025)) {
+      Assertions.assertEquals(
+          rebuilt.replicaStream(id).collect(Collectors.toSet()),
+          allocation.replicaStream(id).collect(Collectors.toSet()));
+    }
+    for (var topic : rebuilt.topics()) {
+      Assertions.assertEquals(
+          rebuilt.replicaStream(topic).collect(Collectors.toSet()),
+          allocation.replicaStream(topic).collect(Collectors.toSet()));
+    }
+    Assertions.assertEquals(origin.topicPartitions(), allocation.topicPartitions());
+
+    // the unchanged partitions are shared with the origin
+    for (var tp : allocation.topicPartitions()) {
+      if (!allocation.changedPartitions().contains(tp))
+        Assertions.assertSame(origin.replicas(tp), allocation.replicas(tp));
+    }
+  }
+
+  @Test
+  void testReplay() {
+    var nodes = IntStream.range(0, 4).mapToObj(id -> NodeInfo.of(id, "", -1));
+    var current =
+        ClusterLogAllocation.of(
+            ClusterInfo.of(
+                nodes.collect(Collectors.toUnmodifiableSet()),
+                List.of("a", "b", "c", "d").stream()
+                    .flatMap(topic -> generateFakeReplica(TopicPartition.of(topic, 0), 3).stream())
+                    .collect(Collectors.toUnmodifiableList())));
+    var a = sorted(current.replicas(TopicPartition.of("a", 0)));
+    var b = sorted(current.replicas(TopicPartition.of("b", 0)));
+    var c = sorted(current.replicas(TopicPartition.of("c", 0)));
+    var d = sorted(current.replicas(TopicPartition.of("d", 0)));
+    var previous =
+        ClusterInfo.of(
+            List.of(
+                // broker 0 is replaced by broker 3
+                update(a.get(0), Map.of("broker", 3, "dir", "/tmp/dir1")),
+                update(a.get(1), Map.of("dir", "/tmp/dir0")),
+                update(a.get(2), Map.of("dir", "/tmp/dir0")),
+                // the preferred leader is changed
+                update(b.get(0), Map.of("preferred", false, "dir", "/tmp/dir0")),
+                update(b.get(1), Map.of("preferred", true, "dir", "/tmp/dir0")),
+                update(b.get(2), Map.of("preferred", false, "dir", "/tmp/dir0")),
+                // the replication factor is changed
+                update(c.get(0), Map.of("broker", 3)),
+                // the broker is gone
+                update(d.get(0), Map.of("broker", 9)),
+                update(d.get(1), Map.of()),
+                update(d.get(2), Map.of())));
+
+    var replayed = current.replay(previous);
+    Assertions.assertEquals(
+        Set.of(TopicPartition.of("a", 0), TopicPartition.of("b", 0)),
+        replayed.changedPartitions());
+    for (var tp : replayed.changedPartitions())
+      Assertions.assertEquals(
+          previous.replicas(tp).stream()
+              .map(r -> List.of(r.nodeInfo().id(), r.path(), r.isPreferredLeader()))
+              .collect(Collectors.toSet()),
+          replayed.replicas(tp).stream()
+              .map(r -> List.of(r.nodeInfo().id(), r.path(), r.isPreferredLeader()))
+              .collect(Collectors.toSet()));
+    Assertions.assertEquals(Set.of(), current.replay(current).changedPartitions());
+  }
+
+  private static List<Replica> sorted(List<Replica> replicas) {
+    return replicas.stream()
+        .sorted(Comparator.comparing(r -> r.nodeInfo().id()))
+        .collect(Collectors.toUnmodifiableList());
+  }
+
   @ParameterizedTest
   @DisplayName("Become leader")
   @ValueSource(shorts = {1, 2, 3, 4, 5, 30})
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.balancer.replay;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.astraea.common.Utils;
+import org.astraea.common.admin.Broker;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Config;
+import org.astraea.common.admin.NodeInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicPartition;
+import org.astraea.common.metrics.BeanObject;
+import org.astraea.common.metrics.HasBeanObject;
+import org.astraea.common.metrics.broker.LogMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ClusterRecordingTest {
+
+  private static LogMetrics.Log.Gauge gauge(int partition, long value, long timestamp) {
+    return new LogMetrics.Log.Gauge(
+        new BeanObject(
+            "kafka.log",
+            Map.of("type", "Log", "topic", "replay", "partition", String.valueOf(partition)),
+            Map.of("Value", value),
+            timestamp));
+  }
+
+  private static ClusterInfo<Replica> clusterInfo() {
+    var node = NodeInfo.of(1, "host1", 9092);
+    var tp = TopicPartition.of("replay", 0);
+    var broker =
+        Broker.of(
+            node,
+            true,
+            Config.of(Map.of("log.retention.ms", "1000")),
+            List.of(Broker.DataFolder.of("/tmp/data", Map.of(tp, 100L), Map.of())),
+            Set.of(tp),
+            Set.of(tp));
+    var replica =
+        Replica.builder()
+            .topic(tp.topic())
+            .partition(tp.partition())
+            .nodeInfo(node)
+            .lag(0)
+            .size(100)
+            .isLeader(true)
+            .inSync(true)
+            .isPreferredLeader(true)
+            .path("/tmp/data")
+            .build();
+    return ClusterInfo.of(Set.of(broker), List.of(replica));
+  }
+
+  @Test
+  void testRoundTrip() {
+    var file = Utils.packException(() -> Files.createTempFile("cluster", ".recording"));
+    var clusterInfo = clusterInfo();
+    try (var recorder = ClusterRecorder.of(file)) {
+      recorder.record(1000, clusterInfo);
+      recorder.record(1, List.of(gauge(0, 10, 2000), gauge(0, 20, 1000)));
+      recorder.record(2, List.of(gauge(1, 30, 1500)));
+    }
+
+    var recording = ClusterRecording.read(file);
+    Assertions.assertEquals(1, recording.clusterInfos().size());
+    Assertions.assertEquals(1000, recording.clusterInfos().get(0).getKey());
+    var restored = recording.clusterInfos().get(0).getValue();
+    Assertions.assertEquals(
+        clusterInfo.replicaStream().collect(Collectors.toList()),
+        restored.replicaStream().collect(Collectors.toList()));
+
+    var broker = (Broker) restored.nodes().iterator().next();
+    Assertions.assertTrue(broker.isController());
+    Assertions.assertEquals("1000", broker.config().raw().get("log.retention.ms"));
+    Assertions.assertEquals(Set.of(TopicPartition.of("replay", 0)), broker.topicPartitions());
+    Assertions.assertEquals(
+        100L, broker.dataFolders().get(0).partitionSizes().get(TopicPartition.of("replay", 0)));
+
+    Assertions.assertEquals(Set.of(1, 2), recording.metrics().keySet());
+    Assertions.assertEquals(
+        List.of(1000L, 2000L),
+        recording.metrics().get(1).stream()
+            .map(HasBeanObject::createdTimestamp)
+            .collect(Collectors.toList()),
+        "the metrics are ordered by their created time");
+    Assertions.assertInstanceOf(LogMetrics.Log.Gauge.class, recording.metrics().get(2).get(0));
+  }
+
+  @Test
+  void testReplayClock() {
+    var collector =
+        new ReplayMetricCollector(
+            Map.of(1, List.of(gauge(0, 10, 1000), gauge(0, 20, 2000), gauge(0, 30, 3000))));
+    Assertions.assertEquals(Set.of(), collector.listMetricTypes());
+    Assertions.assertEquals(0, collector.metrics(LogMetrics.Log.Gauge.class, 1, 0).size());
+
+    collector.advance(2001);
+    var version = collector.version();
+    Assertions.assertEquals(
+        List.of(10L, 20L),
+        collector.metrics(LogMetrics.Log.Gauge.class, 1, 0).stream()
+            .map(LogMetrics.Log.Gauge::value)
+            .collect(Collectors.toList()));
+    Assertions.assertEquals(1, collector.metrics(LogMetrics.Log.Gauge.class, 1, 1500).size());
+    Assertions.assertEquals(2, collector.clusterBean().all().get(1).size());
+
+    collector.advance(2001);
+    Assertions.assertFalse(collector.changedSince(version));
+    collector.advance(5000);
+    Assertions.assertTrue(collector.changedSince(version));
+    Assertions.assertEquals(3, collector.clusterBean().all().get(1).size());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> collector.advance(4000));
+  }
+}
@@ -19,15 +19,19 @@ package org.astraea.common.balancer.tweakers;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.astraea.common.Utils;
 import org.astraea.common.admin.ClusterInfo;
 import org.astraea.common.admin.NodeInfo;
 import org.astraea.common.admin.Replica;
 import org.astraea.common.admin.TopicPartition;
+import org.astraea.common.admin.TopicPartitionReplica;
 import org.astraea.common.balancer.FakeClusterInfo;
 import org.astraea.common.balancer.log.ClusterLogAllocation;
 import org.junit.jupiter.api.Assertions;
@@ -75,6 +79,26 @@ class ShuffleTweakerTest {
             });
   }
 
+  @Test
+  void testSeed() {
+    final var fakeCluster = FakeClusterInfo.of(10, 10, 10, 3);
+    final Function<Long, List<Map<TopicPartition, Set<Replica>>>> generate =
+        seed ->
+            new ShuffleTweaker(1, 10, new Random(seed))
+                .generate(ClusterLogAllocation.of(fakeCluster))
+                .limit(20)
+                .map(
+                    allocation ->
+                        allocation.topicPartitions().stream()
+                            .collect(
+                                Collectors.toUnmodifiableMap(
+                                    tp -> tp, tp -> Set.copyOf(allocation.replicas(tp)))))
+                .collect(Collectors.toUnmodifiableList());
+
+    Assertions.assertEquals(generate.apply(100L), generate.apply(100L));
+    Assertions.assertNotEquals(generate.apply(100L), generate.apply(200L));
+  }
+
   @Test
   void testNoNodes() {
     final var fakeCluster = FakeClusterInfo.of(0, 0, 0, 0);
@@ -250,4 +274,107 @@ class ShuffleTweakerTest {
                   "only normal-topic get altered. Actual: " + notFulfilled);
             });
   }
+
+  /** 60 partitions whose two replicas are placed on 6 brokers in turn. */
+  private static ClusterLogAllocation ringAllocation() {
+    var nodes =
+        FakeClusterInfo.of(6, 1, 1, 1).nodes().stream()
+            .collect(Collectors.toUnmodifiableMap(NodeInfo::id, node -> node));
+    var replicas =
+        IntStream.range(0, 60)
+            .boxed()
+            .flatMap(
+                p ->
+                    IntStream.range(0, 2)
+                        .mapToObj(
+                            r ->
+                                Replica.builder()
+                                    .topic("topic")
+                                    .partition(p)
+                                    .nodeInfo(nodes.get((p + r) % 6))
+                                    .lag(0)
+                                    .size(0)
+                                    .isLeader(r == 0)
+                                    .inSync(true)
+                                    .isFuture(false)
+                                    .isOffline(false)
+                                    .isPreferredLeader(r == 0)
+                                    .path("/tmp/data-directory-0")
+                                    .build()))
+            .collect(Collectors.toUnmodifiableList());
+    return ClusterLogAllocation.of(ClusterInfo.of(Set.copyOf(nodes.values()), replicas));
+  }
+
+  @Test
+  void testWeightedSampling() {
+    var allocation = ringAllocation();
+    var random = new Random(0);
+    var shuffleTweaker = new ShuffleTweaker(() -> 1, () -> random, ignored -> Map.of(0, 1D));
+
+    shuffleTweaker
+        .generate(allocation)
+        .limit(100)
+        .forEach(
+            newAllocation -> {
+              Assertions.assertEquals(1, newAllocation.changedPartitions().size());
+              newAllocation
+                  .changedPartitions()
+                  .forEach(
+                      tp ->
+                          Assertions.assertTrue(
+                              allocation.replicas(tp).stream()
+                                  .anyMatch(replica -> replica.nodeInfo().id() == 0),
+                              "only the partitions on broker 0 are picked: " + tp));
+            });
+  }
+
+  @Test
+  void testWeightedSamplingSkipsMovedPartitions() {
+    var origin = ringAllocation();
+    var random = new Random(0);
+    var shuffleTweaker = new ShuffleTweaker(() -> 1, () -> random, ignored -> Map.of(0, 1D));
+    // index the origin
+    Assertions.assertEquals(1, shuffleTweaker.generate(origin).limit(1).count());
+
+    // move half of the partitions away from broker 0. The derived allocation shares the index
+    var allocation = origin;
+    for (var tp : origin.topicPartitions())
+      if (tp.partition() % 6 == 0)
+        allocation =
+            allocation.migrateReplica(
+                TopicPartitionReplica.of(tp.topic(), tp.partition(), 0),
+                2,
+                "/tmp/data-directory-0");
+    var moved = allocation;
+    Assertions.assertEquals(10, moved.replicaStream(0).count());
+
+    var hosted =
+        shuffleTweaker
+            .generate(moved)
+            .limit(1000)
+            .filter(
+                newAllocation ->
+                    newAllocation.changedPartitions().stream()
+                        .filter(tp -> tp.partition() % 6 != 0)
+                        .anyMatch(
+                            tp ->
+                                moved.replicas(tp).stream()
+                                    .anyMatch(replica -> replica.nodeInfo().id() == 0)))
+            .count();
+    // the stale picks are retried, so only a few picks fall back to the uniform sampling
+    Assertions.assertTrue(hosted > 900, "the partitions on broker 0 are picked: " + hosted);
+  }
+
+  @Test
+  void testAliasTable() {
+    var table = new ShuffleTweaker.AliasTable(new double[] {1, 3, 0, 6});
+    var random = new Random(0);
+    var counts = new int[4];
+    IntStream.range(0, 100000).forEach(i -> counts[table.sample(random)]++);
+
+    Assertions.assertEquals(0.1, counts[0] / 100000D, 0.01);
+    Assertions.assertEquals(0.3, counts[1] / 100000D, 0.01);
+    Assertions.assertEquals(0, counts[2]);
+    Assertions.assertEquals(0.6, counts[3] / 100000D, 0.01);
+  }
 }
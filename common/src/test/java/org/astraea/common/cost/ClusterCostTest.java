@@ -17,8 +17,11 @@
 package org.astraea.common.cost;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import org.astraea.common.admin.Admin;
+import org.astraea.common.admin.ClusterBean;
+import org.astraea.common.admin.ClusterInfo;
 import org.astraea.common.metrics.MBeanClient;
 import org.astraea.common.metrics.broker.LogMetrics;
 import org.astraea.common.metrics.broker.ServerMetrics;
@@ -38,6 +41,30 @@ class ClusterCostTest extends RequireSingleBrokerCluster {
     Assertions.assertEquals(2.8, Math.round(result * 100.0) / 100.0);
   }
 
+  @Test
+  void testMergeIncrementalCost() {
+    var clusterInfo = ReplicaSizeCostTest.originClusterInfo();
+    var newClusterInfo = ReplicaSizeCostTest.newClusterInfo();
+    var merged = HasClusterCost.of(Map.of(new ReplicaSizeCost(), 1D, new ReplicaLeaderCost(), 2D));
+    var updated =
+        merged
+            .incrementalCost(clusterInfo, ClusterBean.EMPTY)
+            .orElseThrow()
+            .update(
+                ClusterInfo.diff(clusterInfo, newClusterInfo),
+                ClusterInfo.diff(newClusterInfo, clusterInfo));
+    Assertions.assertEquals(
+        merged.clusterCost(newClusterInfo, ClusterBean.EMPTY).value(),
+        updated.clusterCost().value());
+
+    HasClusterCost full = (c, b) -> () -> 0.2;
+    Assertions.assertEquals(
+        Optional.empty(),
+        HasClusterCost.of(Map.of(new ReplicaSizeCost(), 1D, full, 1D))
+            .incrementalCost(clusterInfo, ClusterBean.EMPTY),
+        "fall back to full evaluation if any cost function is not incremental");
+  }
+
   @Test
   void testFetcher() {
     // create topic partition to get metrics
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.cost;
+
+import java.util.List;
+import java.util.Map;
+import org.astraea.common.admin.ClusterBean;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.NodeInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.admin.TopicPartitionReplica;
+import org.astraea.common.metrics.BeanObject;
+import org.astraea.common.metrics.HasBeanObject;
+import org.astraea.common.metrics.broker.LogMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DataFolderCostTest {
+
+  private static Replica replica(String topic, int broker, String path, long size) {
+    return Replica.builder()
+        .topic(topic)
+        .partition(0)
+        .nodeInfo(NodeInfo.of(broker, "", -1))
+        .lag(0)
+        .size(size)
+        .isLeader(true)
+        .inSync(true)
+        .isFuture(false)
+        .isOffline(false)
+        .isPreferredLeader(true)
+        .path(path)
+        .build();
+  }
+
+  private static HasBeanObject size(String topic, long value, long timestamp) {
+    return new LogMetrics.Log.Gauge(
+        new BeanObject(
+            "kafka.log",
+            Map.of("type", "Log", "topic", topic, "partition", "0", "name", "Size"),
+            Map.of("Value", value),
+            timestamp));
+  }
+
+  @Test
+  void testClusterCost() {
+    var cost = new DataFolderCost();
+    var balanced =
+        ClusterInfo.of(
+            List.of(
+                replica("a", 0, "/a", 100),
+                replica("b", 0, "/b", 100),
+                replica("c", 1, "/a", 50)));
+    Assertions.assertEquals(0, cost.clusterCost(balanced, ClusterBean.EMPTY).value());
+
+    // broker 0: the sizes are 150 and 50, so the coefficient of variation is 0.5
+    var skewed =
+        ClusterInfo.of(
+            List.of(
+                replica("a", 0, "/a", 100),
+                replica("b", 0, "/a", 50),
+                replica("c", 0, "/b", 50),
+                replica("d", 1, "/a", 50)));
+    Assertions.assertEquals(0.25, cost.clusterCost(skewed, ClusterBean.EMPTY).value(), 0.0001);
+  }
+
+  @Test
+  void testIncrementalCost() {
+    var cost = new DataFolderCost();
+    var before =
+        ClusterInfo.of(
+            List.of(
+                replica("a", 0, "/a", 100), replica("b", 0, "/a", 50), replica("c", 0, "/b", 50)));
+    var after =
+        ClusterInfo.of(
+            List.of(
+                replica("a", 0, "/a", 100), replica("b", 0, "/b", 50), replica("c", 0, "/b", 50)));
+    var incremental = cost.incrementalCost(before, ClusterBean.EMPTY).orElseThrow();
+    var updated =
+        incremental.update(ClusterInfo.diff(before, after), ClusterInfo.diff(after, before));
+    Assertions.assertEquals(
+        cost.clusterCost(after, ClusterBean.EMPTY).value(), updated.clusterCost().value());
+    Assertions.assertEquals(0, updated.clusterCost().value());
+    Assertions.assertEquals(
+        cost.clusterCost(before, ClusterBean.EMPTY).value(),
+        incremental.clusterCost().value(),
+        "the origin state is not changed");
+  }
+
+  @Test
+  void testRemoveUncountedReplica() {
+    var cost = new DataFolderCost();
+    var clusterInfo =
+        ClusterInfo.of(List.of(replica("a", 0, "/a", 100), replica("b", 0, "/b", 50)));
+    var incremental = cost.incrementalCost(clusterInfo, ClusterBean.EMPTY).orElseThrow();
+    // the replica is not in the origin, so its unknown folder must not get a load
+    var updated = incremental.update(List.of(replica("c", 0, "/c", 50)), List.of());
+    Assertions.assertEquals(incremental.clusterCost().value(), updated.clusterCost().value());
+  }
+
+  @Test
+  void testAddReplicaToNewBroker() {
+    var cost = new DataFolderCost();
+    var before =
+        ClusterInfo.of(List.of(replica("a", 0, "/a", 100), replica("b", 0, "/b", 100)));
+    // broker 1 is not in the origin
+    var after =
+        ClusterInfo.of(
+            List.of(
+                replica("a", 0, "/a", 100),
+                replica("b", 0, "/b", 100),
+                replica("c", 1, "/a", 100),
+                replica("d", 1, "/b", 50)));
+    var updated =
+        cost.incrementalCost(before, ClusterBean.EMPTY)
+            .orElseThrow()
+            .update(ClusterInfo.diff(before, after), ClusterInfo.diff(after, before));
+    Assertions.assertEquals(
+        cost.clusterCost(after, ClusterBean.EMPTY).value(), updated.clusterCost().value());
+    Assertions.assertNotEquals(0, updated.clusterCost().value());
+  }
+
+  @Test
+  void testWriteRates() {
+    var bean =
+        ClusterBean.of(
+            Map.of(
+                0,
+                List.of(size("a", 1000, 1000), size("a", 3000, 3000), size("b", 500, 1000))));
+    var rates = DataFolderCost.writeRates(bean);
+    Assertions.assertEquals(Map.of(TopicPartitionReplica.of("a", 0, 0), 1000D), rates);
+
+    // the sizes are the same, but the writes go to the folder /a only
+    var clusterInfo =
+        ClusterInfo.of(List.of(replica("a", 0, "/a", 100), replica("b", 0, "/b", 100)));
+    Assertions.assertEquals(1, new DataFolderCost().clusterCost(clusterInfo, bean).value());
+  }
+}
@@ -42,6 +42,27 @@ class ReplicaSizeCostTest {
     Assertions.assertEquals(777, result.value().entrySet().iterator().next().getValue());
   }
 
+  @Test
+  void testIncrementalCost() {
+    var cost = new ReplicaSizeCost();
+    var incremental = cost.incrementalCost(originClusterInfo(), ClusterBean.EMPTY).orElseThrow();
+    Assertions.assertEquals(
+        cost.clusterCost(originClusterInfo(), ClusterBean.EMPTY).value(),
+        incremental.clusterCost().value());
+
+    var updated =
+        incremental.update(
+            ClusterInfo.diff(originClusterInfo(), newClusterInfo()),
+            ClusterInfo.diff(newClusterInfo(), originClusterInfo()));
+    Assertions.assertEquals(
+        cost.clusterCost(newClusterInfo(), ClusterBean.EMPTY).value(),
+        updated.clusterCost().value());
+    Assertions.assertEquals(
+        cost.clusterCost(originClusterInfo(), ClusterBean.EMPTY).value(),
+        incremental.clusterCost().value(),
+        "the origin state is not changed");
+  }
+
   @Test
   void testMoveCost() {
     var cost = new ReplicaSizeCost();
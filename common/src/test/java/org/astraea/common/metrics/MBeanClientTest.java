@@ -26,6 +26,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -44,6 +45,7 @@ import javax.management.ObjectName;
 import javax.management.remote.JMXConnectorServer;
 import javax.management.remote.JMXConnectorServerFactory;
 import javax.management.remote.JMXServiceURL;
+import org.astraea.common.Utils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -451,6 +453,73 @@ class MBeanClientTest {
     }
   }
 
+  @Test
+  void testQueryBeansWithCachedAttributeNames() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      register(
+          ObjectName.getInstance("com.example:type=batch,id=" + i),
+          Utility.createReadOnlyDynamicMBean(Map.of("attribute", i)));
+    }
+    var query =
+        BeanQuery.builder()
+            .domainName("com.example")
+            .property("type", "batch")
+            .usePropertyListPattern()
+            .build();
+
+    try (var client = MBeanClient.of(jmxServer.getAddress(), 4)) {
+      // warm up the cache of attribute names
+      assertEquals(100, client.queryBeans(query).size());
+
+      var before = client.requestCount();
+      var beans = client.queryBeans(query);
+
+      // one for listing the MBeans, and one for the attributes of each MBean
+      assertEquals(101, client.requestCount() - before);
+      assertEquals(
+          IntStream.range(0, 100).boxed().collect(toSet()),
+          beans.stream().map(b -> b.attributes().get("attribute")).collect(toSet()));
+    }
+  }
+
+  @Test
+  void testQueryBeansWithStaleAttributeNames() throws Exception {
+    var name = ObjectName.getInstance("com.example:type=stale");
+    var query = BeanQuery.builder().domainName("com.example").property("type", "st*").build();
+    register(name, Utility.createReadOnlyDynamicMBean(Map.of("a", 1)));
+
+    try (var client = MBeanClient.of(jmxServer.getAddress(), 4)) {
+      assertEquals(Map.of("a", 1), client.queryBeans(query).iterator().next().attributes());
+
+      // the attributes of the MBean are changed
+      mBeanServer.unregisterMBean(name);
+      mBeanServer.registerMBean(Utility.createReadOnlyDynamicMBean(Map.of("b", 2)), name);
+
+      assertEquals(Map.of("b", 2), client.queryBeans(query).iterator().next().attributes());
+    }
+  }
+
+  @Test
+  void testQueryBeansWithAddedAttributes() throws Exception {
+    var name = ObjectName.getInstance("com.example:type=added");
+    var query = BeanQuery.builder().domainName("com.example").property("type", "ad*").build();
+    register(name, Utility.createReadOnlyDynamicMBean(Map.of("a", 1)));
+
+    try (var client = MBeanClient.of(jmxServer.getAddress(), 4, Duration.ofSeconds(1))) {
+      assertEquals(Map.of("a", 1), client.queryBeans(query).iterator().next().attributes());
+
+      // an attribute is added, and the cached attribute names are still resolvable
+      mBeanServer.unregisterMBean(name);
+      mBeanServer.registerMBean(Utility.createReadOnlyDynamicMBean(Map.of("a", 1, "b", 2)), name);
+      assertEquals(Map.of("a", 1), client.queryBeans(query).iterator().next().attributes());
+
+      // the cached attribute names are expired
+      Utils.sleep(Duration.ofSeconds(2));
+      assertEquals(
+          Map.of("a", 1, "b", 2), client.queryBeans(query).iterator().next().attributes());
+    }
+  }
+
   @Test
   void testLocal() {
     var client = MBeanClient.local();
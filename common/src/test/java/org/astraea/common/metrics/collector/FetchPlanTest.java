@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.metrics.collector;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import org.astraea.common.Utils;
+import org.astraea.common.metrics.BeanObject;
+import org.astraea.common.metrics.BeanQuery;
+import org.astraea.common.metrics.HasBeanObject;
+import org.astraea.common.metrics.MBeanClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+public class FetchPlanTest {
+
+  private static final BeanQuery BYTES_IN =
+      BeanQuery.builder()
+          .domainName("kafka.server")
+          .property("type", "BrokerTopicMetrics")
+          .property("name", "BytesInPerSec")
+          .build();
+
+  private static final BeanQuery BROKER_TOPIC =
+      BeanQuery.builder()
+          .domainName("kafka.server")
+          .property("type", "BrokerTopicMetrics")
+          .usePropertyListPattern()
+          .build();
+
+  private static final BeanObject BYTES_IN_BEAN =
+      new BeanObject(
+          "kafka.server",
+          Map.of("type", "BrokerTopicMetrics", "name", "BytesInPerSec"),
+          Map.of("Count", 1L));
+
+  private static final BeanObject BYTES_OUT_BEAN =
+      new BeanObject(
+          "kafka.server",
+          Map.of("type", "BrokerTopicMetrics", "name", "BytesOutPerSec"),
+          Map.of("Count", 2L));
+
+  private static HasBeanObject wrap(BeanObject beanObject) {
+    return () -> beanObject;
+  }
+
+  @Test
+  void testDuplicateQueries() {
+    var client = Mockito.mock(MBeanClient.class);
+    Mockito.when(client.queryBeans(BYTES_IN)).thenReturn(List.of(BYTES_IN_BEAN));
+
+    var fetcher0 = Fetcher.of(BYTES_IN, FetchPlanTest::wrap);
+    var fetcher1 = Fetcher.of(BYTES_IN, FetchPlanTest::wrap);
+    var plan = FetchPlan.of(List.of(fetcher0, fetcher1));
+    Assertions.assertEquals(Set.of(BYTES_IN), plan.queries());
+
+    var result = plan.fetch(client, (f, e) -> Assertions.fail());
+    Mockito.verify(client, Mockito.times(1)).queryBeans(ArgumentMatchers.any());
+    Assertions.assertEquals(2, result.size());
+    Assertions.assertEquals(BYTES_IN_BEAN, result.get(fetcher0).iterator().next().beanObject());
+    Assertions.assertEquals(BYTES_IN_BEAN, result.get(fetcher1).iterator().next().beanObject());
+  }
+
+  @Test
+  void testQueryCoveredByPattern() {
+    var client = Mockito.mock(MBeanClient.class);
+    Mockito.when(client.queryBeans(BROKER_TOPIC))
+        .thenReturn(List.of(BYTES_IN_BEAN, BYTES_OUT_BEAN));
+
+    var bytesIn = Fetcher.of(BYTES_IN, FetchPlanTest::wrap);
+    var brokerTopic = Fetcher.of(BROKER_TOPIC, FetchPlanTest::wrap);
+    var plan = FetchPlan.of(List.of(bytesIn, brokerTopic));
+    Assertions.assertEquals(Set.of(BROKER_TOPIC), plan.queries());
+
+    var result = plan.fetch(client, (f, e) -> Assertions.fail());
+    Mockito.verify(client, Mockito.times(1)).queryBeans(ArgumentMatchers.any());
+    Assertions.assertEquals(1, result.get(bytesIn).size());
+    Assertions.assertEquals(BYTES_IN_BEAN, result.get(bytesIn).iterator().next().beanObject());
+    Assertions.assertEquals(2, result.get(brokerTopic).size());
+  }
+
+  @Test
+  void testNestedPlan() {
+    var fetcher0 = Fetcher.of(BYTES_IN, FetchPlanTest::wrap);
+    var fetcher1 = Fetcher.of(BROKER_TOPIC, FetchPlanTest::wrap);
+    var nested = Fetcher.of(List.of(fetcher0)).get();
+    var plan = FetchPlan.of(List.of(nested, fetcher1));
+    Assertions.assertEquals(Set.of(BROKER_TOPIC), plan.queries());
+  }
+
+  @Test
+  void testNoSuchMetric() {
+    var client = Mockito.mock(MBeanClient.class);
+    Mockito.when(client.queryBeans(ArgumentMatchers.any())).thenReturn(List.of());
+
+    var missing = Fetcher.of(BYTES_IN, FetchPlanTest::wrap);
+    var mbean = Mockito.mock(HasBeanObject.class);
+    Fetcher opaque = c -> List.of(mbean);
+    var plan = FetchPlan.of(List.of(missing, opaque));
+
+    var failed = new AtomicReference<Fetcher>();
+    var result =
+        plan.fetch(
+            client,
+            (f, e) -> {
+              Assertions.assertInstanceOf(NoSuchElementException.class, e);
+              failed.set(f);
+            });
+    Assertions.assertEquals(missing, failed.get());
+    Assertions.assertFalse(result.containsKey(missing));
+    Assertions.assertEquals(List.of(mbean), result.get(opaque));
+    Assertions.assertThrows(NoSuchElementException.class, () -> plan.fetch(client));
+  }
+
+  @Test
+  void testTimeout() {
+    var client = Mockito.mock(MBeanClient.class);
+    var release = new CountDownLatch(1);
+    Fetcher slow =
+        c -> {
+          Utils.packException(() -> release.await());
+          return List.of();
+        };
+    var plan = FetchPlan.of(List.of(slow));
+    var executor = Executors.newSingleThreadExecutor();
+    try {
+      var start = System.currentTimeMillis();
+      Assertions.assertThrows(
+          IllegalStateException.class,
+          () -> plan.fetch(client, (f, e) -> Assertions.fail(), executor, Duration.ofMillis(300)));
+      Assertions.assertTrue(System.currentTimeMillis() - start < 3000);
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+}
@@ -17,21 +17,27 @@
 package org.astraea.common.metrics.collector;
 
 import java.net.InetSocketAddress;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import org.astraea.common.Utils;
 import org.astraea.common.admin.ClusterBean;
+import org.astraea.common.admin.TopicPartitionReplica;
 import org.astraea.common.metrics.BeanObject;
 import org.astraea.common.metrics.BeanQuery;
+import org.astraea.common.metrics.HasBeanObject;
 import org.astraea.common.metrics.MBeanClient;
+import org.astraea.common.metrics.broker.LogMetrics;
 import org.astraea.common.metrics.platform.HostMetrics;
 import org.astraea.common.metrics.platform.JvmMemory;
 import org.astraea.common.metrics.platform.OperatingSystemInfo;
@@ -125,6 +131,48 @@ class MetricCollectorTest extends RequireBrokerCluster {
     }
   }
 
+  @Test
+  void testSnapshot() {
+    var sample = Duration.ofMillis(100);
+    Fetcher logFetcher =
+        (client) ->
+            List.of(
+                new LogMetrics.Log.Gauge(
+                    new BeanObject(
+                        "kafka.log",
+                        Map.of("type", "Log", "topic", "snapshot", "partition", "3"),
+                        Map.of())));
+    try (var collector = MetricCollector.builder().interval(sample).build()) {
+      Assertions.assertEquals(0, collector.version());
+      collector.addFetcher(memoryFetcher);
+      collector.addFetcher(logFetcher);
+      collector.registerLocalJmx(0);
+
+      Utils.sleep(sample);
+      Utils.sleep(sample);
+
+      Assertions.assertTrue(collector.changedSince(0));
+      // the snapshot is reused until the metrics are changed
+      Utils.waitFor(
+          () -> {
+            var snapshot = collector.snapshot();
+            return snapshot.version() != -1 && collector.snapshot() == snapshot;
+          });
+
+      var snapshot = collector.snapshot();
+      Assertions.assertTrue(
+          snapshot.clusterBean().all().get(0).stream().anyMatch(x -> x instanceof JvmMemory));
+      var replicaBeans =
+          snapshot.clusterBean().mapByReplica().get(TopicPartitionReplica.of("snapshot", 3, 0));
+      Assertions.assertNotNull(replicaBeans);
+      Assertions.assertFalse(replicaBeans.isEmpty());
+
+      // new samples make a new version
+      Utils.waitFor(() -> collector.changedSince(snapshot.version()));
+      Assertions.assertNotSame(snapshot, collector.snapshot());
+    }
+  }
+
   @SuppressWarnings("ConstantConditions")
   @RepeatedTest(10)
   void metrics() {
@@ -267,6 +315,32 @@ class MetricCollectorTest extends RequireBrokerCluster {
     }
   }
 
+  @Test
+  void testReloadJournalByIdentity() {
+    var dir = Utils.packException(() -> Files.createTempDirectory("journal"));
+    var timestamp = System.currentTimeMillis() - 1000;
+    Function<String, HasBeanObject> size =
+        topic ->
+            new LogMetrics.Log.Gauge(
+                new BeanObject(
+                    "kafka.log",
+                    Map.of("type", "Log", "topic", topic, "partition", "0", "name", "Size"),
+                    Map.of("Value", 100L),
+                    timestamp));
+    try (var journal = MetricJournal.open(dir, Duration.ofMinutes(1))) {
+      journal.append(1, List.of(size.apply("a")));
+      journal.append(2, List.of(size.apply("b")));
+    }
+
+    try (var collector = MetricCollector.builder().journal(dir).build()) {
+      collector.registerLocalJmx(1);
+      Assertions.assertEquals(1, collector.metrics(LogMetrics.Log.Gauge.class, 1, 0).size());
+      // the metrics of the identities which are not registered are not loaded
+      Assertions.assertEquals(
+          List.of(), collector.metrics(LogMetrics.Log.Gauge.class, 2, 0), "not registered");
+    }
+  }
+
   @SuppressWarnings("unchecked")
   private static <T> Answer<T> sniff(String functionName, Collection<T> collector) {
     return (invocation) -> {
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.metrics.collector;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.astraea.common.Utils;
+import org.astraea.common.metrics.BeanObject;
+import org.astraea.common.metrics.HasBeanObject;
+import org.astraea.common.metrics.broker.LogMetrics;
+import org.astraea.common.metrics.platform.JvmMemory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MetricJournalTest {
+
+  private static LogMetrics.Log.Gauge gauge(int partition, long value, long timestamp) {
+    return new LogMetrics.Log.Gauge(
+        new BeanObject(
+            "kafka.log",
+            Map.of("type", "Log", "topic", "journal", "partition", String.valueOf(partition)),
+            Map.of("Value", value),
+            timestamp));
+  }
+
+  @Test
+  void testReplay() {
+    var dir = Utils.packException(() -> Files.createTempDirectory("journal"));
+    try (var journal = MetricJournal.open(dir, Duration.ofSeconds(10))) {
+      journal.append(1, List.of(gauge(0, 100, 1000), gauge(1, 200, 2000)));
+      journal.append(-1, List.of(gauge(0, 300, 3000)));
+      // can't be rebuilt from BeanObject
+      HasBeanObject anonymous = () -> new BeanObject("a", Map.of("b", "c"), Map.of());
+      journal.append(1, List.of(anonymous));
+    }
+
+    var journal = MetricJournal.open(dir, Duration.ofSeconds(10));
+    var identities = new ArrayList<Integer>();
+    var metrics = new ArrayList<HasBeanObject>();
+    journal.replay(
+        0,
+        (id, metric) -> {
+          identities.add(id);
+          metrics.add(metric);
+        });
+    Assertions.assertEquals(List.of(1, 1, -1), identities);
+    Assertions.assertEquals(3, metrics.size());
+    metrics.forEach(m -> Assertions.assertInstanceOf(LogMetrics.Log.Gauge.class, m));
+    Assertions.assertEquals(gauge(1, 200, 2000).beanObject(), metrics.get(1).beanObject());
+    Assertions.assertEquals(2000, metrics.get(1).createdTimestamp());
+
+    // skip the old metrics
+    metrics.clear();
+    journal.replay(2000, (id, metric) -> metrics.add(metric));
+    Assertions.assertEquals(2, metrics.size());
+  }
+
+  @Test
+  void testSkipUnsupportedAttributes() {
+    var dir = Utils.packException(() -> Files.createTempDirectory("journal"));
+    try (var journal = MetricJournal.open(dir, Duration.ofSeconds(10))) {
+      journal.append(
+          0,
+          List.of(
+              new JvmMemory(
+                  new BeanObject("java.lang", Map.of("type", "Memory"), Map.of("a", List.of())))));
+      var metrics = new ArrayList<HasBeanObject>();
+      journal.replay(0, (id, metric) -> metrics.add(metric));
+      Assertions.assertEquals(0, metrics.size());
+    }
+  }
+
+  @Test
+  void testRollAndExpire() {
+    var dir = Utils.packException(() -> Files.createTempDirectory("journal"));
+    try (var journal = MetricJournal.open(dir, Duration.ofMillis(100))) {
+      for (var i = 0; i < 10; i++) journal.append(0, List.of(gauge(i, i, i * 100L)));
+      Assertions.assertEquals(10, journal.segments().size(), "one segment per 100 ms");
+
+      journal.expire(500);
+      Assertions.assertEquals(5, journal.segments().size());
+      var metrics = new ArrayList<HasBeanObject>();
+      journal.replay(0, (id, metric) -> metrics.add(metric));
+      Assertions.assertEquals(5, metrics.size());
+      Assertions.assertEquals(500, metrics.get(0).createdTimestamp());
+    }
+  }
+
+  @Test
+  void testMetricLargerThanSegment() {
+    var dir = Utils.packException(() -> Files.createTempDirectory("journal"));
+    try (var journal = MetricJournal.open(dir, Duration.ofMinutes(1), 256)) {
+      var large =
+          new LogMetrics.Log.Gauge(
+              new BeanObject(
+                  "kafka.log",
+                  Map.of("type", "Log", "topic", "t".repeat(256), "partition", "0"),
+                  Map.of("Value", 1L),
+                  1000));
+      Assertions.assertThrows(
+          IllegalArgumentException.class,
+          () -> journal.append(0, List.of(gauge(0, 0, 1000), large)));
+      var metrics = new ArrayList<HasBeanObject>();
+      journal.replay(0, (id, metric) -> metrics.add(metric));
+      Assertions.assertEquals(1, metrics.size(), "the metrics before the large one are appended");
+    }
+  }
+
+  @Test
+  void testShareJournal() {
+    var dir = Utils.packException(() -> Files.createTempDirectory("journal"));
+    var journal = MetricJournal.open(dir, Duration.ofMillis(100));
+    try (var other = MetricJournal.open(dir, Duration.ofMillis(100))) {
+      Assertions.assertSame(journal, other);
+    }
+    // the journal is still opened by the first caller
+    journal.append(0, List.of(gauge(0, 0, 0)));
+    Assertions.assertEquals(1, journal.segments().size());
+
+    try (var other = MetricJournal.open(dir, Duration.ofMillis(200))) {
+      Assertions.assertNotSame(journal, other);
+      // the active segment of the journal is locked
+      other.expire(1000);
+      Assertions.assertEquals(1, journal.segments().size());
+
+      journal.append(0, List.of(gauge(0, 0, 100)));
+      Assertions.assertEquals(2, journal.segments().size());
+      other.expire(1000);
+      Assertions.assertEquals(1, journal.segments().size());
+    }
+    journal.close();
+  }
+
+  @Test
+  void testRollFullSegment() {
+    var dir = Utils.packException(() -> Files.createTempDirectory("journal"));
+    try (var journal = MetricJournal.open(dir, Duration.ofMinutes(1), 256)) {
+      for (var i = 0; i < 20; i++) journal.append(0, List.of(gauge(i, i, 1000)));
+      Assertions.assertTrue(journal.segments().size() > 1);
+      var metrics = new ArrayList<HasBeanObject>();
+      journal.replay(0, (id, metric) -> metrics.add(metric));
+      Assertions.assertEquals(20, metrics.size());
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.metrics.collector;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RingBufferTest {
+
+  @Test
+  void testRange() {
+    var buffer = new RingBuffer<String>(4, 1000);
+    buffer.add(10, "a");
+    buffer.add(20, "b");
+    buffer.add(30, "c");
+
+    Assertions.assertEquals(List.of("a", "b", "c"), buffer.range(0, Long.MAX_VALUE));
+    Assertions.assertEquals(List.of("b", "c"), buffer.range(20, Long.MAX_VALUE));
+    Assertions.assertEquals(List.of("a", "b"), buffer.range(0, 30), "the end is exclusive");
+    Assertions.assertEquals(List.of(), buffer.range(31, Long.MAX_VALUE));
+    Assertions.assertEquals(List.of(), buffer.range(30, 10));
+  }
+
+  @Test
+  void testOverwriteExpiredSample() {
+    var buffer = new RingBuffer<Integer>(3, 100);
+    IntStream.range(0, 10).forEach(i -> buffer.add(i * 100L, i));
+
+    Assertions.assertEquals(3, buffer.capacity(), "expired samples are overwritten");
+    Assertions.assertEquals(List.of(7, 8, 9), buffer.range(0, Long.MAX_VALUE));
+  }
+
+  @Test
+  void testGrowWithinRetention() {
+    var buffer = new RingBuffer<Integer>(2, 1000);
+    IntStream.range(0, 5).forEach(i -> buffer.add(i, i));
+
+    Assertions.assertEquals(5, buffer.size());
+    Assertions.assertEquals(8, buffer.capacity());
+    Assertions.assertEquals(List.of(0, 1, 2, 3, 4), buffer.range(0, Long.MAX_VALUE));
+  }
+
+  @Test
+  void testExpire() {
+    var buffer = new RingBuffer<Integer>(4, 1000);
+    IntStream.range(0, 4).forEach(i -> buffer.add(i * 10L, i));
+
+    buffer.expire(15);
+    Assertions.assertEquals(List.of(2, 3), buffer.range(0, Long.MAX_VALUE));
+
+    // the released slots are reused
+    buffer.add(40, 4);
+    buffer.add(50, 5);
+    Assertions.assertEquals(4, buffer.capacity());
+    Assertions.assertEquals(List.of(2, 3, 4, 5), buffer.range(0, Long.MAX_VALUE));
+
+    buffer.expire(Long.MAX_VALUE);
+    Assertions.assertEquals(0, buffer.size());
+  }
+
+  @Test
+  void testOutOfOrderSample() {
+    var buffer = new RingBuffer<Long>(3, 1000);
+    List.of(30L, 10L, 20L, 50L, 40L).forEach(i -> buffer.add(i, i));
+
+    Assertions.assertEquals(List.of(10L, 20L, 30L, 40L, 50L), buffer.range(0, Long.MAX_VALUE));
+    Assertions.assertEquals(List.of(20L, 30L), buffer.range(15, 35));
+  }
+}
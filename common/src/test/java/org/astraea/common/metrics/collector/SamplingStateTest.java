@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.metrics.collector;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SamplingStateTest {
+
+  @Test
+  void testFixedRate() {
+    var state = new SamplingState(Duration.ofMillis(100), 1000);
+    state.start(1010);
+    Assertions.assertEquals(10, state.queueLag());
+
+    // the fetch time doesn't delay the next sample
+    Assertions.assertEquals(1100, state.succeed(1010, 1050));
+    Assertions.assertEquals(40, state.fetchTime());
+    Assertions.assertEquals(1200, state.succeed(1100, 1190));
+    Assertions.assertEquals(0, state.skippedSamples());
+  }
+
+  @Test
+  void testSkipMissedDeadlines() {
+    var state = new SamplingState(Duration.ofMillis(100), 1000);
+    // the fetch passes the deadlines 1100, 1200 and 1300
+    Assertions.assertEquals(1400, state.succeed(1000, 1350));
+    Assertions.assertEquals(3, state.skippedSamples());
+  }
+
+  @Test
+  void testBackoff() {
+    var state = new SamplingState(Duration.ofMillis(100), 1000);
+    Assertions.assertEquals(1200, state.fail(1000, 1000));
+    Assertions.assertEquals(1, state.consecutiveErrors());
+    Assertions.assertEquals(1600, state.fail(1200, 1200));
+    Assertions.assertEquals(2400, state.fail(1600, 1600));
+    Assertions.assertTrue(state.errorRate() > 0);
+    Assertions.assertTrue(state.skippedSamples() > 0);
+
+    // the backoff is bounded
+    for (var i = 0; i < 10; i++) state.fail(state.deadline(), state.deadline());
+    var deadline = state.deadline();
+    Assertions.assertEquals(
+        deadline + (100L << SamplingState.MAX_BACKOFF_EXPONENT), state.fail(deadline, deadline));
+
+    // recover to the target rate
+    var errorRate = state.errorRate();
+    var now = state.deadline();
+    Assertions.assertEquals(now + 100, state.succeed(now, now + 10));
+    Assertions.assertEquals(0, state.consecutiveErrors());
+    Assertions.assertTrue(state.errorRate() < errorRate);
+  }
+}
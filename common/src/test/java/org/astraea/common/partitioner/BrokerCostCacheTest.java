@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.partitioner;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.astraea.common.admin.ClusterBean;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.NodeInfo;
+import org.astraea.common.admin.ReplicaInfo;
+import org.astraea.common.cost.HasBrokerCost;
+import org.astraea.common.metrics.collector.MetricCollector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class BrokerCostCacheTest {
+
+  @Test
+  void testCache() {
+    var snapshot = Mockito.mock(MetricCollector.Snapshot.class);
+    Mockito.when(snapshot.version()).thenReturn(1L);
+    Mockito.when(snapshot.clusterBean()).thenReturn(ClusterBean.EMPTY);
+    var collector = Mockito.mock(MetricCollector.class);
+    Mockito.when(collector.snapshot()).thenReturn(snapshot);
+    Mockito.when(collector.changedSince(1L)).thenReturn(false);
+
+    var count = new AtomicInteger();
+    HasBrokerCost costFunction =
+        (clusterInfo, clusterBean) -> {
+          count.incrementAndGet();
+          return () -> Map.of(1, 1D);
+        };
+    var cache = new BrokerCostCache(collector);
+    var clusterInfo =
+        ClusterInfo.of(
+            List.of(ReplicaInfo.of("topic", 0, NodeInfo.of(1, "host", 1111), true, true, false)));
+
+    Assertions.assertEquals(Map.of(1, 1D), cache.brokerCost(costFunction, clusterInfo).value());
+    cache.brokerCost(costFunction, clusterInfo);
+    Assertions.assertEquals(1, count.get(), "nothing is changed");
+
+    Mockito.when(collector.changedSince(1L)).thenReturn(true);
+    cache.brokerCost(costFunction, clusterInfo);
+    Assertions.assertEquals(2, count.get(), "the metrics are changed");
+
+    Mockito.when(collector.changedSince(1L)).thenReturn(false);
+    var newClusterInfo = ClusterInfo.<ReplicaInfo>empty();
+    cache.brokerCost(costFunction, newClusterInfo);
+    Assertions.assertEquals(3, count.get(), "the cluster is changed");
+    cache.brokerCost(costFunction, newClusterInfo);
+    Assertions.assertEquals(3, count.get());
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.astraea.common.scenario;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.astraea.common.DistributionType;
+import org.astraea.common.admin.ClusterInfo;
+import org.astraea.common.admin.Replica;
+import org.astraea.common.metrics.broker.LogMetrics;
+import org.astraea.common.metrics.broker.ServerMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SyntheticClusterTest {
+
+  @Test
+  void testClusterInfo() {
+    var cluster =
+        SyntheticCluster.builder()
+            .brokers(10)
+            .folders(3)
+            .topics(5)
+            .partitions(20)
+            .replicas(3)
+            .size(DistributionType.UNIFORM, 100)
+            .build()
+            .clusterInfo();
+
+    Assertions.assertEquals(10, cluster.nodes().size());
+    Assertions.assertEquals(5, cluster.topics().size());
+    Assertions.assertEquals(100, cluster.topicPartitions().size());
+    Assertions.assertEquals(300, cluster.replicaStream().count());
+    cluster
+        .topicPartitions()
+        .forEach(
+            tp -> {
+              var replicas = cluster.replicas(tp);
+              Assertions.assertEquals(
+                  3, replicas.stream().map(r -> r.nodeInfo().id()).distinct().count());
+              Assertions.assertEquals(1, replicas.stream().filter(Replica::isLeader).count());
+              Assertions.assertEquals(
+                  1, replicas.stream().map(Replica::size).distinct().count(), "same size");
+              replicas.forEach(r -> Assertions.assertTrue(r.size() >= 0 && r.size() < 100));
+            });
+    Assertions.assertEquals(
+        3, cluster.replicaStream().map(Replica::path).distinct().count(), "all folders are used");
+    cluster.brokerFolders().values().forEach(folders -> Assertions.assertEquals(3, folders.size()));
+
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> SyntheticCluster.builder().brokers(2).replicas(3).build());
+  }
+
+  @Test
+  void testSeed() {
+    var builder =
+        SyntheticCluster.builder()
+            .brokers(10)
+            .folders(2)
+            .topics(3)
+            .partitions(10)
+            .replicas(2)
+            .size(DistributionType.ZIPFIAN, 1000)
+            .seed(100);
+    var cluster0 = builder.build().clusterInfo();
+    var cluster1 = builder.build().clusterInfo();
+    Assertions.assertEquals(layout(cluster0), layout(cluster1));
+    Assertions.assertNotEquals(layout(cluster0), layout(builder.seed(101).build().clusterInfo()));
+  }
+
+  /** The brokers are rebuilt by each build, so the replicas are compared by their placement. */
+  private static Set<String> layout(ClusterInfo<Replica> clusterInfo) {
+    return clusterInfo
+        .replicaStream()
+        .map(r -> r.topicPartitionReplica() + "/" + r.path() + "/" + r.size() + "/" + r.isLeader())
+        .collect(Collectors.toSet());
+  }
+
+  @Test
+  void testLeaderSkew() {
+    var builder = SyntheticCluster.builder().brokers(10).topics(10).partitions(100);
+    var even = builder.leaderSkew(0).build().clusterInfo();
+    var skewed = builder.leaderSkew(2).build().clusterInfo();
+    Assertions.assertTrue(maxLeaders(even) < 200, "even: " + maxLeaders(even));
+    Assertions.assertTrue(maxLeaders(skewed) > 500, "skewed: " + maxLeaders(skewed));
+    Assertions.assertTrue(
+        skewed.replicaLeaders(0).size() > skewed.replicaLeaders(9).size(),
+        "the broker of smaller id hosts more leaders");
+  }
+
+  private static int maxLeaders(ClusterInfo<Replica> clusterInfo) {
+    return clusterInfo.nodes().stream()
+        .mapToInt(node -> clusterInfo.replicaLeaders(node.id()).size())
+        .max()
+        .orElseThrow();
+  }
+
+  @Test
+  void testClusterBean() {
+    var cluster =
+        SyntheticCluster.builder()
+            .brokers(3)
+            .partitions(10)
+            .replicas(2)
+            .size(DistributionType.FIXED, 10000)
+            .writeRate(DistributionType.FIXED, 10)
+            .metricWindow(Duration.ofSeconds(100))
+            .timestamp(100000)
+            .build();
+    var clusterInfo = cluster.clusterInfo();
+    var clusterBean = cluster.clusterBean();
+
+    Assertions.assertEquals(20, cluster.writeRates().size());
+    clusterInfo
+        .replicaStream()
+        .forEach(
+            replica -> {
+              var sizes =
+                  LogMetrics.Log.gauges(
+                          clusterBean.mapByReplica().get(replica.topicPartitionReplica()),
+                          LogMetrics.Log.SIZE)
+                      .stream()
+                      .sorted(Comparator.comparing(LogMetrics.Log.Gauge::createdTimestamp))
+                      .map(LogMetrics.Log.Gauge::value)
+                      .collect(Collectors.toList());
+              Assertions.assertEquals(List.of(9000L, 10000L), sizes);
+            });
+
+    var bytesIn =
+        clusterInfo.nodes().stream()
+            .mapToDouble(
+                node ->
+                    clusterBean.all().get(node.id()).stream()
+                        .filter(b -> b instanceof ServerMetrics.BrokerTopic.Meter)
+                        .map(b -> (ServerMetrics.BrokerTopic.Meter) b)
+                        .filter(m -> m.type() == ServerMetrics.BrokerTopic.BYTES_IN_PER_SEC)
+                        .mapToDouble(ServerMetrics.BrokerTopic.Meter::oneMinuteRate)
+                        .sum())
+            .sum();
+    Assertions.assertEquals(100, bytesIn);
+  }
+
+  @Test
+  void testPackedPlacement() {
+    var cluster =
+        SyntheticCluster.builder()
+            .brokers(5)
+            .folders(3)
+            .topics(2)
+            .partitions(10)
+            .replicas(3)
+            .placement(SyntheticCluster.Placement.PACKED)
+            .build()
+            .clusterInfo();
+    Assertions.assertEquals(20, cluster.replicaLeaders(0).size(), "broker 0 leads all");
+    Assertions.assertEquals(
+        20, cluster.replicaStream().filter(r -> r.nodeInfo().id() == 2).count());
+    Assertions.assertEquals(0, cluster.replicaStream().filter(r -> r.nodeInfo().id() > 2).count());
+    cluster
+        .replicaStream()
+        .forEach(
+            r -> Assertions.assertEquals("/tmp/data-directory-" + r.partition() % 3, r.path()));
+  }
+
+  @Test
+  void testRoundRobinPlacement() {
+    var cluster =
+        SyntheticCluster.builder()
+            .brokers(4)
+            .topics(3)
+            .partitions(8)
+            .replicas(2)
+            .placement(SyntheticCluster.Placement.ROUND_ROBIN)
+            .build()
+            .clusterInfo();
+    IntStream.range(0, 4)
+        .forEach(
+            id -> {
+              Assertions.assertEquals(6, cluster.replicaLeaders(id).size());
+              Assertions.assertEquals(
+                  12, cluster.replicaStream().filter(r -> r.nodeInfo().id() == id).count());
+            });
+  }
+
+  @Test
+  void testHotBrokers() {
+    var cluster =
+        SyntheticCluster.builder()
+            .brokers(10)
+            .hotBrokers(4)
+            .topics(5)
+            .partitions(20)
+            .replicas(2)
+            .build()
+            .clusterInfo();
+    Assertions.assertEquals(10, cluster.nodes().size());
+    Assertions.assertEquals(
+        0, cluster.replicaStream().filter(r -> r.nodeInfo().id() >= 4).count(), "cold brokers");
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> SyntheticCluster.builder().brokers(3).hotBrokers(4).build());
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> SyntheticCluster.builder().brokers(3).hotBrokers(1).replicas(2).build());
+  }
+
+  @Test
+  void testEmptyCluster() {
+    var cluster = SyntheticCluster.builder().brokers(3).topics(0).build().clusterInfo();
+    Assertions.assertEquals(3, cluster.nodes().size());
+    Assertions.assertEquals(0, cluster.replicaStream().count());
+    Assertions.assertEquals(
+        0, SyntheticCluster.builder().brokers(0).replicas(0).build().clusterInfo().nodes().size());
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> SyntheticCluster.builder().topics(-1));
+  }
+}